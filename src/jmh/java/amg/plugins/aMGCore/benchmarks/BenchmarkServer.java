@@ -0,0 +1,93 @@
+package amg.plugins.aMGCore.benchmarks;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Proxy;
+import java.util.logging.Logger;
+
+/**
+ * Minimal stand-in for the Bukkit server so code that looks up worlds can run
+ * outside a server. Only {@code getWorld} and the calls made by
+ * {@link Bukkit#setServer(Server)} answer anything useful.
+ */
+final class BenchmarkServer {
+    static final String WORLD_NAME = "world";
+
+    private static World world;
+
+    private BenchmarkServer() {
+    }
+
+    /**
+     * Installs the stub server once and returns its only world.
+     *
+     * @return the world every lookup resolves to
+     */
+    @NotNull
+    static synchronized World install() {
+        if (world == null) {
+            world = stub(World.class, "world");
+            Server server = stub(Server.class, "server");
+            Bukkit.setServer(server);
+        }
+        return world;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, String label) {
+        Logger logger = Logger.getLogger("AMGCoreBenchmarks");
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return label;
+                case "getLogger":
+                    return logger;
+                case "getWorld":
+                    return world;
+                case "getName":
+                    return type == World.class ? WORLD_NAME : label;
+                default:
+                    break;
+            }
+            return defaultValue(method.getReturnType());
+        });
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == String.class) {
+            return "";
+        }
+        if (!type.isPrimitive() || type == void.class) {
+            return null;
+        }
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == char.class) {
+            return '\0';
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == float.class) {
+            return 0F;
+        }
+        if (type == double.class) {
+            return 0D;
+        }
+        if (type == byte.class) {
+            return (byte) 0;
+        }
+        if (type == short.class) {
+            return (short) 0;
+        }
+        return 0;
+    }
+}
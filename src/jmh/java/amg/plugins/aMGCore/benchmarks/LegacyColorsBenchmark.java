@@ -0,0 +1,142 @@
+package amg.plugins.aMGCore.benchmarks;
+
+import amg.plugins.aMGCore.utils.LegacyColors;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link LegacyColors} with the old chain of {@code String.replace}
+ * calls ChatManager used to translate prefixes. The old chain doesn't know
+ * hex codes and leaves them in the text, but it still scans for all 42 codes.
+ * <p>
+ * Run with {@code mvn -P benchmarks test-compile exec:exec -Djmh.include=LegacyColorsBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class LegacyColorsBenchmark {
+    private static final MiniMessage MINI_MESSAGE = MiniMessage.miniMessage();
+
+    @Param({"plain", "classic", "hex"})
+    public String input;
+
+    private String text;
+
+    @Setup
+    public void setup() {
+        switch (input) {
+            case "plain":
+                text = "[Member] Steve";
+                break;
+            case "classic":
+                text = "&8[&6&lVIP&8] &7Steve";
+                break;
+            case "hex":
+                text = "&8[&#FFAA00&lVIP&8] &#A0A0A0Steve";
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown input: " + input);
+        }
+    }
+
+    @Benchmark
+    public String legacyToMiniMessage() {
+        return convertLegacyColors(text);
+    }
+
+    @Benchmark
+    public String toMiniMessage() {
+        return LegacyColors.toMiniMessage(text);
+    }
+
+    /**
+     * The old prefix path, the replace chain followed by a MiniMessage parse.
+     */
+    @Benchmark
+    public Component legacyToComponent() {
+        return MINI_MESSAGE.deserialize(convertLegacyColors(text));
+    }
+
+    /**
+     * The current path for text that may also hold MiniMessage tags.
+     */
+    @Benchmark
+    public Component toMiniMessageDeserialize() {
+        return MINI_MESSAGE.deserialize(LegacyColors.toMiniMessage(text));
+    }
+
+    @Benchmark
+    public Component toComponent() {
+        return LegacyColors.toComponent(text);
+    }
+
+    /**
+     * ChatManager.convertLegacyColors as it was before LegacyColors existed.
+     */
+    private static String convertLegacyColors(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+
+        // Replace legacy color codes with MiniMessage format
+        return text.replace("&0", "<black>")
+                  .replace("&1", "<dark_blue>")
+                  .replace("&2", "<dark_green>")
+                  .replace("&3", "<dark_aqua>")
+                  .replace("&4", "<dark_red>")
+                  .replace("&5", "<dark_purple>")
+                  .replace("&6", "<gold>")
+                  .replace("&7", "<gray>")
+                  .replace("&8", "<dark_gray>")
+                  .replace("&9", "<blue>")
+                  .replace("&a", "<green>")
+                  .replace("&b", "<aqua>")
+                  .replace("&c", "<red>")
+                  .replace("&d", "<light_purple>")
+                  .replace("&e", "<yellow>")
+                  .replace("&f", "<white>")
+                  .replace("&l", "<bold>")
+                  .replace("&m", "<strikethrough>")
+                  .replace("&n", "<underline>")
+                  .replace("&o", "<italic>")
+                  .replace("&r", "<reset>")
+                  // Also handle § color codes
+                  .replace("§0", "<black>")
+                  .replace("§1", "<dark_blue>")
+                  .replace("§2", "<dark_green>")
+                  .replace("§3", "<dark_aqua>")
+                  .replace("§4", "<dark_red>")
+                  .replace("§5", "<dark_purple>")
+                  .replace("§6", "<gold>")
+                  .replace("§7", "<gray>")
+                  .replace("§8", "<dark_gray>")
+                  .replace("§9", "<blue>")
+                  .replace("§a", "<green>")
+                  .replace("§b", "<aqua>")
+                  .replace("§c", "<red>")
+                  .replace("§d", "<light_purple>")
+                  .replace("§e", "<yellow>")
+                  .replace("§f", "<white>")
+                  .replace("§l", "<bold>")
+                  .replace("§m", "<strikethrough>")
+                  .replace("§n", "<underline>")
+                  .replace("§o", "<italic>")
+                  .replace("§r", "<reset>");
+    }
+}
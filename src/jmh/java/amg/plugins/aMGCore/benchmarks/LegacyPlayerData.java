@@ -0,0 +1,132 @@
+package amg.plugins.aMGCore.benchmarks;
+
+import amg.plugins.aMGCore.models.LocationData;
+import org.bukkit.Location;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The money and location parts of {@link amg.plugins.aMGCore.models.PlayerData}
+ * as they were before the balance moved to a VarHandle, kept as the baseline
+ * for {@link PlayerDataBenchmark}. Every access goes through one
+ * ReentrantLock. Instances made by the constructor used a non-fair lock while
+ * deserialized ones got a fair one, so the fairness is a parameter here.
+ */
+final class LegacyPlayerData {
+    static final int DIRTY_MONEY = 1;
+    static final int DIRTY_LOCATION = 1 << 2;
+
+    private final ReentrantLock lock;
+    private double money;
+    private LocationData lastLocation;
+    private volatile Runnable onDataChanged;
+    private volatile boolean requiresImmediateSave;
+    private int dirtyFields;
+    private long generation;
+
+    LegacyPlayerData(boolean fair) {
+        this.lock = new ReentrantLock(fair);
+    }
+
+    void setOnDataChanged(@Nullable Runnable callback) {
+        this.onDataChanged = callback;
+    }
+
+    private void notifyDataChanged() {
+        if (onDataChanged != null) {
+            onDataChanged.run();
+        }
+    }
+
+    private void markDirty(int fields) {
+        dirtyFields |= fields;
+        generation++;
+        notifyDataChanged();
+    }
+
+    double getMoney() {
+        lock.lock();
+        try {
+            return money;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void setMoney(double money) {
+        lock.lock();
+        try {
+            if (money < 0) {
+                throw new IllegalArgumentException("Money cannot be negative");
+            }
+            if (this.money != money) {
+                this.money = money;
+                this.requiresImmediateSave = true;
+                markDirty(DIRTY_MONEY);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void addMoney(double amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Cannot add negative amount");
+        }
+        setMoney(this.money + amount);
+    }
+
+    boolean removeMoney(double amount) {
+        lock.lock();
+        try {
+            if (amount < 0) {
+                throw new IllegalArgumentException("Cannot remove negative amount");
+            }
+            if (this.money < amount) {
+                return false;
+            }
+            this.money -= amount;
+            this.requiresImmediateSave = true;
+            markDirty(DIRTY_MONEY);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The old /pay path, a withdrawal followed by a deposit.
+     */
+    boolean transferMoney(@NotNull LegacyPlayerData target, double amount) {
+        if (!removeMoney(amount)) {
+            return false;
+        }
+        target.addMoney(amount);
+        return true;
+    }
+
+    void updateLocation(@NotNull Location loc) {
+        Objects.requireNonNull(loc, "Location cannot be null");
+
+        lock.lock();
+        try {
+            LocationData location = new LocationData(loc);
+            if (location.equals(lastLocation)) {
+                return;
+            }
+            this.lastLocation = location;
+            this.requiresImmediateSave = false;
+            markDirty(DIRTY_LOCATION);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Nullable
+    Location getLastLocation() {
+        return lastLocation != null ? lastLocation.toLocation() : null;
+    }
+}
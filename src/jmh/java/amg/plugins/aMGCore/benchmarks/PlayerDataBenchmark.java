@@ -0,0 +1,194 @@
+package amg.plugins.aMGCore.benchmarks;
+
+import amg.plugins.aMGCore.models.PlayerData;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the old lock-based {@link LegacyPlayerData} with the current
+ * {@link PlayerData} under contention. Each group runs readers against one
+ * writer (or two transfers in opposite directions) on the same accounts,
+ * which is what the main thread, async saves and economy commands do to a
+ * player's data on a busy server.
+ * <p>
+ * Run with {@code mvn -P benchmarks test-compile exec:exec -Djmh.include=PlayerDataBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PlayerDataBenchmark {
+    // Large enough that withdrawals never run dry during a run
+    private static final double START_BALANCE = 1_000_000_000D;
+    private static final double AMOUNT = 0.25D;
+
+    @State(Scope.Group)
+    public static class LegacyAccounts {
+        @Param({"false", "true"})
+        public boolean fairLock;
+
+        LegacyPlayerData from;
+        LegacyPlayerData to;
+        Location[] locations;
+
+        @Setup
+        public void setup() {
+            World world = BenchmarkServer.install();
+            from = new LegacyPlayerData(fairLock);
+            to = new LegacyPlayerData(fairLock);
+            from.setMoney(START_BALANCE);
+            to.setMoney(START_BALANCE);
+            // The change callback is always set by PlayerDataManager
+            from.setOnDataChanged(() -> { });
+            to.setOnDataChanged(() -> { });
+            locations = locations(world);
+            from.updateLocation(locations[0]);
+        }
+    }
+
+    @State(Scope.Group)
+    public static class Accounts {
+        PlayerData from;
+        PlayerData to;
+        Location[] locations;
+
+        @Setup
+        public void setup() {
+            World world = BenchmarkServer.install();
+            from = new PlayerData(UUID.randomUUID(), "from");
+            to = new PlayerData(UUID.randomUUID(), "to");
+            from.setMoney(START_BALANCE);
+            to.setMoney(START_BALANCE);
+            from.setOnDataChanged(() -> { });
+            to.setOnDataChanged(() -> { });
+            locations = locations(world);
+            from.updateLocation(locations[0]);
+        }
+    }
+
+    /**
+     * Alternates between locations so every update really changes the data.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        int index;
+
+        Location next(Location[] locations) {
+            return locations[index++ & 1];
+        }
+    }
+
+    private static Location[] locations(World world) {
+        return new Location[]{
+            new Location(world, 100.5, 64, -20.5, 90F, 0F),
+            new Location(world, 101.5, 64, -20.5, 90F, 0F)
+        };
+    }
+
+    // Balance reads against one withdrawing thread
+
+    @Benchmark
+    @Group("legacyMoney")
+    @GroupThreads(3)
+    public double legacyGetMoney(LegacyAccounts accounts) {
+        return accounts.from.getMoney();
+    }
+
+    @Benchmark
+    @Group("legacyMoney")
+    @GroupThreads(1)
+    public boolean legacyRemoveMoney(LegacyAccounts accounts) {
+        return accounts.from.removeMoney(AMOUNT);
+    }
+
+    @Benchmark
+    @Group("money")
+    @GroupThreads(3)
+    public double getMoney(Accounts accounts) {
+        return accounts.from.getMoney();
+    }
+
+    @Benchmark
+    @Group("money")
+    @GroupThreads(1)
+    public boolean removeMoney(Accounts accounts) {
+        return accounts.from.removeMoney(AMOUNT);
+    }
+
+    // Transfers in both directions between the same two accounts
+
+    @Benchmark
+    @Group("legacyTransfer")
+    @GroupThreads(2)
+    public boolean legacyTransferOut(LegacyAccounts accounts) {
+        return accounts.from.transferMoney(accounts.to, AMOUNT);
+    }
+
+    @Benchmark
+    @Group("legacyTransfer")
+    @GroupThreads(2)
+    public boolean legacyTransferBack(LegacyAccounts accounts) {
+        return accounts.to.transferMoney(accounts.from, AMOUNT);
+    }
+
+    @Benchmark
+    @Group("transfer")
+    @GroupThreads(2)
+    public boolean transferOut(Accounts accounts) {
+        return accounts.from.transferMoney(accounts.to, AMOUNT);
+    }
+
+    @Benchmark
+    @Group("transfer")
+    @GroupThreads(2)
+    public boolean transferBack(Accounts accounts) {
+        return accounts.to.transferMoney(accounts.from, AMOUNT);
+    }
+
+    // Location reads against one thread moving the player
+
+    @Benchmark
+    @Group("legacyLocation")
+    @GroupThreads(3)
+    public Location legacyGetLastLocation(LegacyAccounts accounts) {
+        return accounts.from.getLastLocation();
+    }
+
+    @Benchmark
+    @Group("legacyLocation")
+    @GroupThreads(1)
+    public void legacyUpdateLocation(LegacyAccounts accounts, Cursor cursor) {
+        accounts.from.updateLocation(cursor.next(accounts.locations));
+    }
+
+    @Benchmark
+    @Group("location")
+    @GroupThreads(3)
+    public Location getLastLocation(Accounts accounts) {
+        return accounts.from.getLastLocation();
+    }
+
+    @Benchmark
+    @Group("location")
+    @GroupThreads(1)
+    public void updateLocation(Accounts accounts, Cursor cursor) {
+        accounts.from.updateLocation(cursor.next(accounts.locations));
+    }
+}
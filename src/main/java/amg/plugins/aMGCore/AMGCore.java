@@ -23,6 +23,8 @@ import amg.plugins.aMGCore.events.InventoryEvents;
 import amg.plugins.aMGCore.events.LoggingEvents;
 import amg.plugins.aMGCore.events.PlayerDataEvents;
 import amg.plugins.aMGCore.managers.BanManager;
+import amg.plugins.aMGCore.managers.BlockHistoryManager;
+import amg.plugins.aMGCore.managers.ChatManager;
 import amg.plugins.aMGCore.managers.DatabaseManager;
 import amg.plugins.aMGCore.managers.JailManager;
 import amg.plugins.aMGCore.managers.LogManager;
@@ -32,6 +34,7 @@ import amg.plugins.aMGCore.managers.TeleportManager;
 import amg.plugins.aMGCore.managers.ServerInfoManager;
 import amg.plugins.aMGCore.managers.LocaleManager;
 import amg.plugins.aMGCore.modules.BanModule;
+import amg.plugins.aMGCore.modules.BlockHistoryModule;
 import amg.plugins.aMGCore.modules.ChatModule;
 import amg.plugins.aMGCore.modules.DatabaseModule;
 import amg.plugins.aMGCore.modules.JailModule;
@@ -45,6 +48,7 @@ import amg.plugins.aMGCore.modules.TeleportModule;
 import amg.plugins.aMGCore.tasks.AutoSaveTask;
 import amg.plugins.aMGCore.tasks.MemoryMonitorTask;
 import amg.plugins.aMGCore.utils.DebugLogger;
+import amg.plugins.aMGCore.utils.LogRetention;
 
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.TabCompleter;
@@ -81,8 +85,8 @@ public final class AMGCore extends JavaPlugin {
     
     // Memory management
     private MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
-    private AtomicLong lastGcTime = new AtomicLong(0);
-    private static final long GC_COOLDOWN = 60000; // 1 minute between forced GCs
+    private AtomicLong lastOptimizeTime = new AtomicLong(0);
+    private static final long OPTIMIZE_COOLDOWN = 60000; // 1 minute between optimizations
     private static final double MEMORY_THRESHOLD = 0.85; // 85% memory usage triggers optimization
 
     @Override
@@ -164,6 +168,7 @@ public final class AMGCore extends JavaPlugin {
         
         // Register feature modules
         moduleRegistry.registerModule(new BanModule(this));
+        moduleRegistry.registerModule(new BlockHistoryModule(this));
         moduleRegistry.registerModule(new ChatModule(this));
         moduleRegistry.registerModule(new JailModule(this));
         moduleRegistry.registerModule(new PlayerModule(this));
@@ -248,6 +253,7 @@ public final class AMGCore extends JavaPlugin {
         registerCommand("unmute", chatCommands, chatCommands);
         registerCommand("broadcast", chatCommands, chatCommands);
         registerCommand("bc", chatCommands, chatCommands);
+        registerCommand("chat", chatCommands, chatCommands);
         registerCommand("ad", new AdvertisementCommand(this), null);
         
         // Inventory commands
@@ -368,6 +374,7 @@ public final class AMGCore extends JavaPlugin {
             
             // Shutdown debug logger
             DebugLogger.shutdown();
+            LogRetention.shutdown();
             
             getLogger().info("AMGCore has been disabled successfully!");
         } catch (Exception e) {
@@ -463,16 +470,16 @@ public final class AMGCore extends JavaPlugin {
     }
     
     /**
-     * Optimize memory usage by clearing caches and suggesting garbage collection
+     * Optimize memory usage by trimming caches, the JVM reclaims the memory on its own
      * 
      * @return true if optimization was performed, false otherwise
      */
     public boolean optimizeMemory() {
         long now = System.currentTimeMillis();
-        long lastGc = lastGcTime.get();
+        long lastOptimize = lastOptimizeTime.get();
         
         // Don't optimize too frequently
-        if (now - lastGc < GC_COOLDOWN) {
+        if (now - lastOptimize < OPTIMIZE_COOLDOWN) {
             return false;
         }
         
@@ -484,9 +491,7 @@ public final class AMGCore extends JavaPlugin {
             getPlayerDataManager().optimizeMemory();
         }
         
-        // Suggest garbage collection
-        System.gc();
-        lastGcTime.set(now);
+        lastOptimizeTime.set(now);
         
         // Log memory usage after optimization
         MemoryUsage heapUsage = memoryBean.getHeapMemoryUsage();
@@ -548,6 +553,12 @@ public final class AMGCore extends JavaPlugin {
             }
         }
         
+        // Rebuild the chat filter and spam limits
+        Object chatManager = getManager("chat");
+        if (chatManager instanceof ChatManager) {
+            ((ChatManager) chatManager).reload();
+        }
+        
         // No need to reload individual managers as they will be reloaded when accessed
     }
 
@@ -621,6 +632,15 @@ public final class AMGCore extends JavaPlugin {
         return (LogManager) managers.get("logging");
     }
 
+    @NotNull
+    public BlockHistoryManager getBlockHistoryManager() {
+        // Enable the module if it's not already enabled
+        if (!isModuleEnabled("blockhistory")) {
+            moduleRegistry.enableModule("blockhistory");
+        }
+        return (BlockHistoryManager) managers.get("blockhistory");
+    }
+
     @NotNull
     public DatabaseManager getDatabaseManager() {
         // Enable the module if it's not already enabled
@@ -707,6 +727,10 @@ public final class AMGCore extends JavaPlugin {
         return CoreAPI.hasMoney(player, amount);
     }
 
+    public boolean transferMoney(@NotNull Player from, @NotNull Player to, double amount) {
+        return CoreAPI.transferMoney(from, to, amount);
+    }
+
     public String getJob(@NotNull Player player) {
         return CoreAPI.getJob(player);
     }
@@ -120,6 +120,20 @@ public final class CoreAPI {
         return getPlayerDataOrThrow(player).hasMoney(amount);
     }
 
+    /**
+     * Moves money from one player to another without a check-then-act race.
+     *
+     * @param from The player paying
+     * @param to The player receiving
+     * @param amount The amount to transfer
+     * @return true if the money was transferred, false if insufficient funds
+     * @throws NullPointerException if a player is null
+     * @throws IllegalArgumentException if amount is negative or both players are the same
+     */
+    public static boolean transferMoney(Player from, Player to, double amount) {
+        return getPlayerDataOrThrow(from).transferMoney(getPlayerDataOrThrow(to), amount);
+    }
+
     /**
      * Gets the player's data object.
      *
@@ -240,7 +240,8 @@ public class ModuleRegistry {
             
             if (m1DependsOnM2) return -1;
             if (m2DependsOnM1) return 1;
-            return 0;
+            // Lower priority first so shared services like the database shut down last
+            return Integer.compare(m1.getPriority(), m2.getPriority());
         });
 
         // Disable modules that can be disabled
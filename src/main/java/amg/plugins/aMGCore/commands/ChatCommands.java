@@ -1,10 +1,12 @@
 package amg.plugins.aMGCore.commands;
 
 import amg.plugins.aMGCore.AMGCore;
+import amg.plugins.aMGCore.managers.ChatArchive;
 import amg.plugins.aMGCore.managers.ChatManager;
 import amg.plugins.aMGCore.managers.LocaleManager;
 import amg.plugins.aMGCore.utils.DebugLogger;
 import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.minimessage.MiniMessage;
 import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
@@ -14,15 +16,23 @@ import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.sql.SQLException;
 import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
 
 public class ChatCommands implements CommandExecutor, TabCompleter {
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
+        .withZone(ZoneId.systemDefault());
+    private final AMGCore plugin;
     private final ChatManager chatManager;
     private final LocaleManager localeManager;
     private final Map<UUID, UUID> lastMessageSender;
     public ChatCommands(AMGCore plugin) {
+        this.plugin = plugin;
         this.localeManager = plugin.getLocaleManager();
         this.lastMessageSender = new HashMap<>();
 
@@ -42,6 +52,7 @@ public class ChatCommands implements CommandExecutor, TabCompleter {
                 case "mute" -> handleMute(sender, args);
                 case "unmute" -> handleUnmute(sender, args);
                 case "broadcast", "bc" -> handleBroadcast(sender, args);
+                case "chat" -> handleChat(sender, args);
                 default -> false;
             };
         } catch (Exception e) {
@@ -204,6 +215,80 @@ public class ChatCommands implements CommandExecutor, TabCompleter {
         return true;
     }
 
+    private boolean handleChat(CommandSender sender, String[] args) {
+        if (args.length < 2 || !args[0].equalsIgnoreCase("history")) {
+            sender.sendMessage(localeManager.getComponent("chat.history.usage"));
+            return true;
+        }
+
+        if (!sender.hasPermission("amgcore.command.chat.history")) {
+            sender.sendMessage(localeManager.getComponent("command.no_permission"));
+            return true;
+        }
+
+        ChatArchive archive = chatManager.getArchive();
+        if (archive == null) {
+            sender.sendMessage(localeManager.getComponent("chat.history.disabled"));
+            return true;
+        }
+
+        // A number is the page, anything else how far back to look
+        String query = args[1];
+        long since = 0L;
+        int page = 0;
+        try {
+            for (int i = 2; i < args.length; i++) {
+                if (args[i].chars().allMatch(Character::isDigit)) {
+                    page = Math.max(0, Integer.parseInt(args[i]) - 1);
+                } else {
+                    since = System.currentTimeMillis() - parseDuration(args[i]).toMillis();
+                }
+            }
+        } catch (NumberFormatException e) {
+            sender.sendMessage(localeManager.getComponent("chat.history.usage"));
+            return true;
+        } catch (IllegalArgumentException e) {
+            sender.sendMessage(Component.text(e.getMessage()));
+            return true;
+        }
+
+        long from = since;
+        int requestedPage = page;
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                ChatArchive.Page result = archive.search(query, from, requestedPage);
+                Bukkit.getScheduler().runTask(plugin, () -> sendHistory(sender, query, result, requestedPage));
+            } catch (SQLException e) {
+                DebugLogger.severe("ChatCommands", "Error searching the chat archive", e);
+                Bukkit.getScheduler().runTask(plugin, () ->
+                    sender.sendMessage(localeManager.getComponent("chat.history.failed")));
+            }
+        });
+        return true;
+    }
+
+    private void sendHistory(CommandSender sender, String query, ChatArchive.Page result, int page) {
+        MiniMessage miniMessage = MiniMessage.miniMessage();
+        if (result.getEntries().isEmpty()) {
+            sender.sendMessage(localeManager.getComponent("chat.history.empty", miniMessage.escapeTags(query)));
+            return;
+        }
+
+        sender.sendMessage(localeManager.getComponent("chat.history.header",
+            miniMessage.escapeTags(query), String.valueOf(page + 1)));
+        for (ChatArchive.Entry entry : result.getEntries()) {
+            sender.sendMessage(localeManager.getComponent("chat.history.entry",
+                TIME_FORMAT.format(Instant.ofEpochMilli(entry.getTime())),
+                entry.getChannel(),
+                entry.getPlayerName(),
+                Component.text(entry.getMessage())));
+        }
+        if (result.hasMore()) {
+            sender.sendMessage(localeManager.getComponent("chat.history.more",
+                miniMessage.escapeTags(query), String.valueOf(page + 2)));
+        }
+    }
+
     private Duration parseDuration(String input) {
         if (input == null || input.isEmpty()) {
             throw new IllegalArgumentException(localeManager.getMessage("chat.mute.invalid_duration"));
@@ -270,6 +355,18 @@ public class ChatCommands implements CommandExecutor, TabCompleter {
                             .collect(Collectors.toList()));
                 }
             }
+            case "chat" -> {
+                if (args.length == 1 && "history".startsWith(args[0].toLowerCase())) {
+                    completions.add("history");
+                } else if (args.length == 2 && args[0].equalsIgnoreCase("history")) {
+                    completions.addAll(Bukkit.getOnlinePlayers().stream()
+                            .map(Player::getName)
+                            .filter(name -> name.toLowerCase().startsWith(args[1].toLowerCase()))
+                            .collect(Collectors.toList()));
+                } else if (args.length == 3 && args[0].equalsIgnoreCase("history")) {
+                    completions.addAll(Arrays.asList("1h", "1d", "7d", "30d"));
+                }
+            }
             case "broadcast", "bc" -> {
                 if (args.length == 1) {
                     completions.addAll(Arrays.asList(
@@ -1,8 +1,16 @@
 package amg.plugins.aMGCore.commands;
 
 import amg.plugins.aMGCore.AMGCore;
+import amg.plugins.aMGCore.managers.BlockHistoryManager;
 import amg.plugins.aMGCore.managers.LocaleManager;
+import amg.plugins.aMGCore.managers.LogManager;
+import amg.plugins.aMGCore.managers.LogQuery;
+import amg.plugins.aMGCore.managers.LogSearch;
 import amg.plugins.aMGCore.utils.DebugLogger;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.block.Block;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -10,15 +18,29 @@ import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 public class CoreCommand implements CommandExecutor, TabCompleter {
     private final AMGCore plugin;
     private final LocaleManager localeManager;
-    private static final List<String> SUBCOMMANDS = Arrays.asList("reload", "data");
+    private static final List<String> SUBCOMMANDS = Arrays.asList("reload", "data", "logs", "blocks");
+    private static final List<String> SEARCH_FILTERS = Arrays.asList(
+        "player:", "stream:", "since:", "near:", "radius:", "world:", "text:", "page:");
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
+        .withZone(ZoneId.systemDefault());
+    private static final int PAGE_SIZE = 10;
+    private static final int DEFAULT_RADIUS = 16;
+    private static final int MAX_RADIUS = 256;
+    private static final int BLOCK_HISTORY_LIMIT = 10;
+    private static final int DEFAULT_AREA_RADIUS = 8;
 
     public CoreCommand(AMGCore plugin) {
         this.plugin = plugin;
@@ -56,6 +78,20 @@ public class CoreCommand implements CommandExecutor, TabCompleter {
                         sender.sendMessage(localeManager.getComponent("command.player_not_found", args[1]));
                     }
                 }
+                case "logs" -> {
+                    if (args.length < 2 || !args[1].equalsIgnoreCase("search")) {
+                        sender.sendMessage(localeManager.getComponent("command.core.logs.usage"));
+                        return true;
+                    }
+                    searchLogs(sender, Arrays.copyOfRange(args, 2, args.length));
+                }
+                case "blocks" -> {
+                    if (!(sender instanceof Player player)) {
+                        sender.sendMessage(localeManager.getComponent("general.player_only"));
+                        return true;
+                    }
+                    showBlockHistory(player, Arrays.copyOfRange(args, 1, args.length));
+                }
                 default -> {
                     sender.sendMessage(localeManager.getComponent("command.core.unknown_option"));
                     return false;
@@ -69,6 +105,232 @@ public class CoreCommand implements CommandExecutor, TabCompleter {
         return true;
     }
 
+    private void searchLogs(@NotNull CommandSender sender, @NotNull String[] filters) {
+        LogQuery.Builder query = LogQuery.builder();
+        int page = 0;
+        int radius = DEFAULT_RADIUS;
+        String world = sender instanceof Player player ? player.getWorld().getName() : null;
+        int[] near = null;
+
+        for (String filter : filters) {
+            int separator = filter.indexOf(':');
+            if (separator <= 0 || separator == filter.length() - 1) {
+                sender.sendMessage(localeManager.getComponent("command.core.logs.invalid_filter", filter));
+                return;
+            }
+            String value = filter.substring(separator + 1);
+            try {
+                switch (filter.substring(0, separator).toLowerCase(Locale.ROOT)) {
+                    case "player" -> query.player(value);
+                    case "stream" -> {
+                        LogManager.Stream stream = LogManager.Stream.fromName(value);
+                        if (stream == null) {
+                            sender.sendMessage(localeManager.getComponent("command.core.logs.invalid_filter", filter));
+                            return;
+                        }
+                        query.stream(stream);
+                    }
+                    case "since" -> {
+                        long duration = parseDuration(value);
+                        if (duration <= 0) {
+                            sender.sendMessage(localeManager.getComponent("command.core.logs.invalid_filter", filter));
+                            return;
+                        }
+                        query.since(System.currentTimeMillis() - duration);
+                    }
+                    case "near" -> {
+                        if (value.equalsIgnoreCase("here") && sender instanceof Player player) {
+                            Location location = player.getLocation();
+                            near = new int[] {location.getBlockX(), location.getBlockY(), location.getBlockZ()};
+                        } else {
+                            String[] coordinates = value.split(",");
+                            if (coordinates.length != 3) {
+                                sender.sendMessage(localeManager.getComponent("command.core.logs.invalid_filter", filter));
+                                return;
+                            }
+                            near = new int[] {Integer.parseInt(coordinates[0]), Integer.parseInt(coordinates[1]),
+                                Integer.parseInt(coordinates[2])};
+                        }
+                    }
+                    case "radius" -> radius = Math.min(MAX_RADIUS, Math.max(0, Integer.parseInt(value)));
+                    case "world" -> world = value;
+                    case "text" -> query.text(value.replace('_', ' '));
+                    case "page" -> page = Math.max(0, Integer.parseInt(value) - 1);
+                    default -> {
+                        sender.sendMessage(localeManager.getComponent("command.core.logs.invalid_filter", filter));
+                        return;
+                    }
+                }
+            } catch (NumberFormatException e) {
+                sender.sendMessage(localeManager.getComponent("command.core.logs.invalid_filter", filter));
+                return;
+            }
+        }
+
+        if (near != null) {
+            if (world == null) {
+                sender.sendMessage(localeManager.getComponent("command.core.logs.world_required"));
+                return;
+            }
+            query.near(world, near[0], near[1], near[2], radius);
+        }
+
+        sender.sendMessage(localeManager.getComponent("command.core.logs.searching"));
+        int requestedPage = page;
+        plugin.getLogManager().getSearch().search(query.build(), page, PAGE_SIZE).whenComplete((result, error) ->
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                if (error != null) {
+                    DebugLogger.severe("Command", "Error searching logs", error);
+                    sender.sendMessage(localeManager.getComponent("command.core.logs.failed", String.valueOf(error.getMessage())));
+                } else {
+                    sendSearchResults(sender, result, requestedPage);
+                }
+            }));
+    }
+
+    private void sendSearchResults(@NotNull CommandSender sender, @NotNull LogSearch.Page result, int page) {
+        if (result.getHits().isEmpty()) {
+            sender.sendMessage(localeManager.getComponent("command.core.logs.empty"));
+            return;
+        }
+
+        MiniMessage miniMessage = MiniMessage.miniMessage();
+        sender.sendMessage(localeManager.getComponent("command.core.logs.header", String.valueOf(page + 1)));
+        for (LogSearch.Hit hit : result.getHits()) {
+            StringBuilder details = new StringBuilder();
+            for (Map.Entry<String, String> field : hit.getFields().entrySet()) {
+                if (field.getKey().equals("ts") || field.getKey().equals("player")) {
+                    continue;
+                }
+                if (details.length() > 0) {
+                    details.append(" | ");
+                }
+                details.append(field.getKey()).append(": ").append(field.getValue());
+            }
+            sender.sendMessage(localeManager.getComponent("command.core.logs.entry",
+                TIME_FORMAT.format(Instant.ofEpochMilli(hit.getTime())),
+                hit.getStream().getFileName(),
+                miniMessage.escapeTags(String.valueOf(hit.getPlayer())),
+                miniMessage.escapeTags(details.toString())));
+        }
+        if (result.hasMore()) {
+            sender.sendMessage(localeManager.getComponent("command.core.logs.more", String.valueOf(page + 2)));
+        }
+    }
+
+    private void showBlockHistory(@NotNull Player player, @NotNull String[] args) {
+        if (args.length == 0 || (!args[0].equalsIgnoreCase("inspect") && !args[0].equalsIgnoreCase("area"))) {
+            player.sendMessage(localeManager.getComponent("command.core.blocks.usage"));
+            return;
+        }
+
+        BlockHistoryManager blockHistory = plugin.getBlockHistoryManager();
+        String world = player.getWorld().getName();
+        boolean inspect = args[0].equalsIgnoreCase("inspect");
+        int x;
+        int y;
+        int z;
+        int radius = DEFAULT_AREA_RADIUS;
+        long since = 0L;
+        if (inspect) {
+            Block target = player.getTargetBlockExact(5);
+            if (target == null) {
+                player.sendMessage(localeManager.getComponent("command.core.blocks.no_target"));
+                return;
+            }
+            x = target.getX();
+            y = target.getY();
+            z = target.getZ();
+        } else {
+            Location location = player.getLocation();
+            x = location.getBlockX();
+            y = location.getBlockY();
+            z = location.getBlockZ();
+            try {
+                if (args.length > 1) {
+                    radius = Integer.parseInt(args[1]);
+                }
+            } catch (NumberFormatException e) {
+                player.sendMessage(localeManager.getComponent("command.core.blocks.usage"));
+                return;
+            }
+            if (args.length > 2) {
+                long duration = parseDuration(args[2]);
+                if (duration <= 0) {
+                    player.sendMessage(localeManager.getComponent("command.core.blocks.usage"));
+                    return;
+                }
+                since = System.currentTimeMillis() - duration;
+            }
+        }
+
+        int areaRadius = radius;
+        long areaSince = since;
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                List<BlockHistoryManager.Entry> entries = inspect
+                    ? blockHistory.getBlockHistory(world, x, y, z, BLOCK_HISTORY_LIMIT)
+                    : blockHistory.getAreaHistory(world, x, y, z, areaRadius, areaSince, BLOCK_HISTORY_LIMIT);
+                Bukkit.getScheduler().runTask(plugin, () -> sendBlockHistory(player, entries, x, y, z));
+            } catch (Exception e) {
+                DebugLogger.severe("Command", "Error reading block history", e);
+                Bukkit.getScheduler().runTask(plugin, () ->
+                    player.sendMessage(localeManager.getComponent("command.core.blocks.failed", e.getMessage())));
+            }
+        });
+    }
+
+    private void sendBlockHistory(@NotNull Player player, @NotNull List<BlockHistoryManager.Entry> entries, int x, int y, int z) {
+        if (entries.isEmpty()) {
+            player.sendMessage(localeManager.getComponent("command.core.blocks.empty"));
+            return;
+        }
+
+        player.sendMessage(localeManager.getComponent("command.core.blocks.header",
+            String.valueOf(x), String.valueOf(y), String.valueOf(z)));
+        for (BlockHistoryManager.Entry entry : entries) {
+            player.sendMessage(localeManager.getComponent(
+                entry.getAction() == BlockHistoryManager.Action.PLACE ? "command.core.blocks.placed" : "command.core.blocks.broken",
+                TIME_FORMAT.format(Instant.ofEpochMilli(entry.getTime())),
+                entry.getPlayerName(),
+                entry.getMaterial().toLowerCase(Locale.ROOT),
+                String.valueOf(entry.getX()), String.valueOf(entry.getY()), String.valueOf(entry.getZ())));
+        }
+    }
+
+    private long parseDuration(@NotNull String duration) {
+        long totalMillis = 0;
+        StringBuilder current = new StringBuilder();
+
+        for (char c : duration.toLowerCase(Locale.ROOT).toCharArray()) {
+            if (Character.isDigit(c)) {
+                current.append(c);
+            } else {
+                if (current.length() == 0) {
+                    return -1;
+                }
+                long unit = switch (c) {
+                    case 'd' -> 24L * 60L * 60L * 1000L;
+                    case 'h' -> 60L * 60L * 1000L;
+                    case 'm' -> 60L * 1000L;
+                    default -> -1L;
+                };
+                if (unit < 0) {
+                    return -1;
+                }
+                try {
+                    totalMillis = Math.addExact(totalMillis, Math.multiplyExact(Long.parseLong(current.toString()), unit));
+                } catch (ArithmeticException | NumberFormatException e) {
+                    // Too large to be a useful duration
+                    return -1;
+                }
+                current.setLength(0);
+            }
+        }
+
+        return current.length() > 0 ? -1 : totalMillis;
+    }
+
     private void showPluginInfo(@NotNull CommandSender sender) {
         String version = plugin.getName() + " v" + plugin.getPluginMeta().getVersion();
         String dataDir = plugin.getConfig().getString("storage.data_directory", "data");
@@ -91,6 +353,8 @@ public class CoreCommand implements CommandExecutor, TabCompleter {
         sender.sendMessage(localeManager.getComponent("command.core.info.command_reload"));
         sender.sendMessage(localeManager.getComponent("command.core.info.command_data"));
         sender.sendMessage(localeManager.getComponent("command.core.info.command_debug"));
+        sender.sendMessage(localeManager.getComponent("command.core.info.command_logs"));
+        sender.sendMessage(localeManager.getComponent("command.core.info.command_blocks"));
     }
 
     @Override
@@ -106,6 +370,29 @@ public class CoreCommand implements CommandExecutor, TabCompleter {
                 .collect(Collectors.toList());
         }
 
+        if (args.length == 2 && args[0].equalsIgnoreCase("blocks")) {
+            String partial = args[1].toLowerCase();
+            return Arrays.asList("inspect", "area").stream()
+                .filter(option -> option.startsWith(partial))
+                .collect(Collectors.toList());
+        }
+
+        if (args[0].equalsIgnoreCase("logs")) {
+            if (args.length == 2) {
+                return "search".startsWith(args[1].toLowerCase()) ? List.of("search") : new ArrayList<>();
+            }
+            String partial = args[args.length - 1].toLowerCase();
+            if (partial.startsWith("stream:")) {
+                return Arrays.stream(LogManager.Stream.values())
+                    .map(stream -> "stream:" + stream.getFileName())
+                    .filter(option -> option.startsWith(partial))
+                    .collect(Collectors.toList());
+            }
+            return SEARCH_FILTERS.stream()
+                .filter(option -> option.startsWith(partial))
+                .collect(Collectors.toList());
+        }
+
         if (args.length == 2 && args[0].equalsIgnoreCase("data")) {
             String partialName = args[1].toLowerCase();
             return plugin.getServer().getOnlinePlayers().stream()
@@ -1,15 +1,26 @@
 package amg.plugins.aMGCore.commands;
 
 import amg.plugins.aMGCore.AMGCore;
+import amg.plugins.aMGCore.managers.DatabaseManager;
 import amg.plugins.aMGCore.managers.LocaleManager;
+import amg.plugins.aMGCore.managers.StatementStats;
+import amg.plugins.aMGCore.utils.LatencyHistogram;
+import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
 import org.jetbrains.annotations.NotNull;
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -19,7 +30,9 @@ import java.util.stream.Collectors;
 public class CoreDebugCommand implements CommandExecutor, TabCompleter {
     private final AMGCore plugin;
     private final LocaleManager localeManager;
-    private static final List<String> SUBCOMMANDS = Arrays.asList("on", "off", "list");
+    private static final List<String> SUBCOMMANDS = Arrays.asList("on", "off", "list", "db");
+    private static final List<String> DB_ACTIONS = Arrays.asList("reset", "export");
+    private static final int DB_STATEMENT_LIMIT = 10;
 
     /**
      * Creates a new CoreDebugCommand.
@@ -64,6 +77,7 @@ public class CoreDebugCommand implements CommandExecutor, TabCompleter {
                     sender.sendMessage(localeManager.getComponent("debug.status.log_dir", plugin.getDataFolder().getPath() + "/logs"));
                 }
             }
+            case "db" -> handleDatabaseMetrics(sender, args.length > 1 ? args[1].toLowerCase() : "");
             default -> {
                 sender.sendMessage(localeManager.getComponent("debug.unknown_option"));
                 return false;
@@ -73,6 +87,80 @@ public class CoreDebugCommand implements CommandExecutor, TabCompleter {
         return true;
     }
 
+    private void handleDatabaseMetrics(CommandSender sender, String action) {
+        DatabaseManager databaseManager = plugin.getDatabaseManager();
+
+        switch (action) {
+            case "reset" -> {
+                databaseManager.resetPerformanceMetrics();
+                sender.sendMessage(localeManager.getComponent("debug.db.reset"));
+            }
+            case "export" -> {
+                String timestamp = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss").format(new Date());
+                File file = new File(plugin.getDataFolder(), "logs/db-statements-" + timestamp + ".csv");
+                Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+                    try {
+                        databaseManager.exportStatementStats(file);
+                        Bukkit.getScheduler().runTask(plugin, () ->
+                            sender.sendMessage(localeManager.getComponent("debug.db.exported", file.getPath())));
+                    } catch (IOException e) {
+                        Bukkit.getScheduler().runTask(plugin, () ->
+                            sender.sendMessage(localeManager.getComponent("debug.db.export_failed", e.getMessage())));
+                    }
+                });
+            }
+            default -> {
+                sender.sendMessage(localeManager.getComponent("debug.db.header"));
+                sendPoolWait(sender, "debug.db.pool_wait", databaseManager.getPoolWait(false));
+                LatencyHistogram.Snapshot readWait = databaseManager.getPoolWait(true);
+                if (readWait.getCount() > 0) {
+                    sendPoolWait(sender, "debug.db.read_pool_wait", readWait);
+                }
+
+                // Snapshot each statement once, sorting on live histograms would compare moving values
+                List<Map.Entry<StatementStats, LatencyHistogram.Snapshot>> rows = new ArrayList<>();
+                for (StatementStats stats : databaseManager.getStatementStats()) {
+                    LatencyHistogram.Snapshot execution = stats.getExecutionTime();
+                    if (execution.getCount() > 0) {
+                        rows.add(new AbstractMap.SimpleEntry<>(stats, execution));
+                    }
+                }
+                if (rows.isEmpty()) {
+                    sender.sendMessage(localeManager.getComponent("debug.db.empty"));
+                    return;
+                }
+
+                rows.sort(Comparator.comparingLong(
+                    (Map.Entry<StatementStats, LatencyHistogram.Snapshot> row) -> row.getValue().getValueAt(0.99)).reversed());
+                for (Map.Entry<StatementStats, LatencyHistogram.Snapshot> row : rows.subList(0, Math.min(DB_STATEMENT_LIMIT, rows.size()))) {
+                    StatementStats stats = row.getKey();
+                    LatencyHistogram.Snapshot execution = row.getValue();
+                    sender.sendMessage(localeManager.getComponent("debug.db.entry",
+                        stats.getName(),
+                        String.valueOf(execution.getCount()),
+                        formatMillis(execution.getValueAt(0.50)),
+                        formatMillis(execution.getValueAt(0.95)),
+                        formatMillis(execution.getValueAt(0.99)),
+                        formatMillis(execution.getMax()),
+                        String.valueOf(stats.getRowsAffected()),
+                        String.valueOf(stats.getErrors())));
+                }
+            }
+        }
+    }
+
+    private void sendPoolWait(CommandSender sender, String key, LatencyHistogram.Snapshot wait) {
+        sender.sendMessage(localeManager.getComponent(key,
+            formatMillis(wait.getValueAt(0.50)),
+            formatMillis(wait.getValueAt(0.99)),
+            formatMillis(wait.getMax()),
+            String.valueOf(wait.getCount())));
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format("%.2f", nanos / 1_000_000.0);
+    }
+
     @Override
     public List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command, @NotNull String alias, String[] args) {
         if (!sender.hasPermission("amgcore.debug")) {
@@ -86,6 +174,13 @@ public class CoreDebugCommand implements CommandExecutor, TabCompleter {
                 .collect(Collectors.toList());
         }
 
+        if (args.length == 2 && args[0].equalsIgnoreCase("db")) {
+            String partialAction = args[1].toLowerCase();
+            return DB_ACTIONS.stream()
+                .filter(action -> action.startsWith(partialAction))
+                .collect(Collectors.toList());
+        }
+
         return new ArrayList<>();
     }
 } 
\ No newline at end of file
@@ -1,8 +1,10 @@
 package amg.plugins.aMGCore.commands;
 
 import amg.plugins.aMGCore.AMGCore;
+import amg.plugins.aMGCore.managers.DatabaseManager;
 import amg.plugins.aMGCore.managers.LocaleManager;
 import amg.plugins.aMGCore.models.PlayerData;
+import net.kyori.adventure.text.Component;
 import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
@@ -13,11 +15,10 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.text.DecimalFormat;
 import java.util.*;
+import java.util.function.LongFunction;
 import java.util.stream.Collectors;
 
 public class EconomyCommands implements CommandExecutor, TabCompleter {
@@ -91,16 +92,14 @@ public class EconomyCommands implements CommandExecutor, TabCompleter {
                 sender.sendMessage(localeManager.getComponent("money.checking_offline"));
                 
                 Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-                    try (Connection conn = plugin.getDatabaseManager().getConnection();
-                         PreparedStatement stmt = conn.prepareStatement("SELECT money FROM player_data WHERE name = ?")) {
+                    try {
+                        UUID targetUuid = plugin.getDatabaseManager().getEconomyStore().findPlayer(targetName);
+                        Long balance = targetUuid != null ? plugin.getPlayerDataManager().getMoney(targetUuid) : null;
                         
-                        stmt.setString(1, targetName);
-                        ResultSet rs = stmt.executeQuery();
-                        
-                        if (rs.next()) {
-                            double balance = rs.getDouble("money");
+                        if (balance != null) {
+                            double money = PlayerData.fromBalanceUnits(balance);
                             Bukkit.getScheduler().runTask(plugin, () -> 
-                                sender.sendMessage(localeManager.getComponent("money.balance_other", targetName, formatMoney(balance)))
+                                sender.sendMessage(localeManager.getComponent("money.balance_other", targetName, formatMoney(money)))
                             );
                         } else {
                             Bukkit.getScheduler().runTask(plugin, () -> 
@@ -132,11 +131,6 @@ public class EconomyCommands implements CommandExecutor, TabCompleter {
 
         String targetName = args[0];
         Player targetPlayer = Bukkit.getPlayer(targetName);
-        
-        if (targetPlayer == null) {
-            sender.sendMessage(localeManager.getComponent("money.error.player_not_found", targetName));
-            return true;
-        }
 
         double amount;
         try {
@@ -145,11 +139,21 @@ public class EconomyCommands implements CommandExecutor, TabCompleter {
                 sender.sendMessage(localeManager.getComponent("money.error.amount_positive"));
                 return true;
             }
-        } catch (NumberFormatException e) {
+            PlayerData.toBalanceUnits(amount);
+        } catch (IllegalArgumentException e) {
             sender.sendMessage(localeManager.getComponent("money.error.invalid_amount", args[1]));
             return true;
         }
 
+        if (targetPlayer == null) {
+            // Offline players are changed in SQL without loading their data
+            long units = PlayerData.toBalanceUnits(amount);
+            updateOfflineBalance(sender, targetName, uuid -> plugin.getPlayerDataManager().adjustMoney(uuid, units),
+                newBalance -> localeManager.getComponent("money.givemoney.success",
+                    formatMoney(amount), targetName, formatMoney(PlayerData.fromBalanceUnits(newBalance))));
+            return true;
+        }
+
         PlayerData data = plugin.getPlayerDataManager().getPlayerData(targetPlayer);
         if (data == null) {
             sender.sendMessage(localeManager.getComponent("money.error.data_load_other", targetName));
@@ -185,11 +189,6 @@ public class EconomyCommands implements CommandExecutor, TabCompleter {
 
         String targetName = args[0];
         Player targetPlayer = Bukkit.getPlayer(targetName);
-        
-        if (targetPlayer == null) {
-            sender.sendMessage(localeManager.getComponent("money.error.player_not_found", targetName));
-            return true;
-        }
 
         double amount;
         try {
@@ -198,11 +197,21 @@ public class EconomyCommands implements CommandExecutor, TabCompleter {
                 sender.sendMessage(localeManager.getComponent("money.error.amount_negative"));
                 return true;
             }
-        } catch (NumberFormatException e) {
+            PlayerData.toBalanceUnits(amount);
+        } catch (IllegalArgumentException e) {
             sender.sendMessage(localeManager.getComponent("money.error.invalid_amount", args[1]));
             return true;
         }
 
+        if (targetPlayer == null) {
+            // Offline players are changed in SQL without loading their data
+            long units = PlayerData.toBalanceUnits(amount);
+            updateOfflineBalance(sender, targetName,
+                uuid -> plugin.getPlayerDataManager().setMoney(uuid, units) ? units : null,
+                newBalance -> localeManager.getComponent("money.setmoney.success", targetName, formatMoney(amount)));
+            return true;
+        }
+
         PlayerData data = plugin.getPlayerDataManager().getPlayerData(targetPlayer);
         if (data == null) {
             sender.sendMessage(localeManager.getComponent("money.error.data_load_other", targetName));
@@ -255,7 +264,8 @@ public class EconomyCommands implements CommandExecutor, TabCompleter {
                 sender.sendMessage(localeManager.getComponent("money.error.amount_positive"));
                 return true;
             }
-        } catch (NumberFormatException e) {
+            PlayerData.toBalanceUnits(amount);
+        } catch (IllegalArgumentException e) {
             sender.sendMessage(localeManager.getComponent("money.error.invalid_amount", args[1]));
             return true;
         }
@@ -266,20 +276,17 @@ public class EconomyCommands implements CommandExecutor, TabCompleter {
             return true;
         }
 
-        if (!senderData.hasMoney(amount)) {
-            sender.sendMessage(localeManager.getComponent("money.pay.insufficient_funds", formatMoney(amount)));
-            return true;
-        }
-
         PlayerData targetData = plugin.getPlayerDataManager().getPlayerData(targetPlayer);
         if (targetData == null) {
             sender.sendMessage(localeManager.getComponent("money.error.data_load_other", targetName));
             return true;
         }
 
-        // Transfer the money
-        senderData.removeMoney(amount);
-        targetData.addMoney(amount);
+        // Transfer the money, the withdrawal fails atomically if the sender can't cover it
+        if (!senderData.transferMoney(targetData, amount)) {
+            sender.sendMessage(localeManager.getComponent("money.pay.insufficient_funds", formatMoney(amount)));
+            return true;
+        }
         
         // Save changes
         plugin.getPlayerDataManager().savePlayer(player);
@@ -320,33 +327,29 @@ public class EconomyCommands implements CommandExecutor, TabCompleter {
         sender.sendMessage(localeManager.getComponent("money.baltop.loading"));
 
         Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-            try (Connection conn = plugin.getDatabaseManager().getConnection();
-                 PreparedStatement stmt = conn.prepareStatement("""
+            DatabaseManager databaseManager = plugin.getDatabaseManager();
+            try (Connection conn = databaseManager.getReadConnection()) {
+                List<Map.Entry<String, Double>> topPlayers = databaseManager.query(conn, "economy.baltop", """
                     SELECT name, money
                     FROM player_data
                     ORDER BY money DESC
                     LIMIT ? OFFSET ?
-                 """)) {
-                
-                stmt.setInt(1, pageSize);
-                stmt.setInt(2, offset);
-                
-                ResultSet rs = stmt.executeQuery();
-                
-                List<Map.Entry<String, Double>> topPlayers = new ArrayList<>();
-                while (rs.next()) {
-                    String name = rs.getString("name");
-                    double money = rs.getDouble("money");
-                    topPlayers.add(new AbstractMap.SimpleEntry<>(name, money));
-                }
+                """, stmt -> {
+                    stmt.setInt(1, pageSize);
+                    stmt.setInt(2, offset);
+                }, rs -> {
+                    List<Map.Entry<String, Double>> entries = new ArrayList<>();
+                    while (rs.next()) {
+                        String name = rs.getString("name");
+                        double money = PlayerData.fromBalanceUnits(rs.getLong("money"));
+                        entries.add(new AbstractMap.SimpleEntry<>(name, money));
+                    }
+                    return entries;
+                });
                 
                 // Get total count for pagination
-                int totalPlayers;
-                try (PreparedStatement countStmt = conn.prepareStatement("SELECT COUNT(*) FROM player_data")) {
-                    ResultSet countRs = countStmt.executeQuery();
-                    countRs.next();
-                    totalPlayers = countRs.getInt(1);
-                }
+                int totalPlayers = databaseManager.query(conn, "economy.player_count", "SELECT COUNT(*) FROM player_data", null,
+                    rs -> rs.next() ? rs.getInt(1) : 0);
                 
                 int totalPages = (int) Math.ceil((double) totalPlayers / pageSize);
                 
@@ -421,6 +424,37 @@ public class EconomyCommands implements CommandExecutor, TabCompleter {
             .collect(Collectors.toList());
     }
     
+    /**
+     * Applies a balance change for an offline player off the main thread and reports the result.
+     */
+    private void updateOfflineBalance(CommandSender sender, String targetName, BalanceUpdate update,
+                                      LongFunction<Component> success) {
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                UUID targetUuid = plugin.getDatabaseManager().getEconomyStore().findPlayer(targetName);
+                Long newBalance = targetUuid != null ? update.apply(targetUuid) : null;
+                
+                Bukkit.getScheduler().runTask(plugin, () -> {
+                    if (newBalance != null) {
+                        sender.sendMessage(success.apply(newBalance));
+                    } else {
+                        sender.sendMessage(localeManager.getComponent("money.error.player_not_found", targetName));
+                    }
+                });
+            } catch (SQLException e) {
+                Bukkit.getScheduler().runTask(plugin, () -> 
+                    sender.sendMessage(localeManager.getComponent("money.error.database_error", e.getMessage()))
+                );
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface BalanceUpdate {
+        @Nullable
+        Long apply(UUID uuid) throws SQLException;
+    }
+
     private String formatMoney(double amount) {
         return currencyFormat.format(amount);
     }
@@ -3,6 +3,7 @@ package amg.plugins.aMGCore.commands;
 import amg.plugins.aMGCore.AMGCore;
 import amg.plugins.aMGCore.api.CoreAPI;
 import amg.plugins.aMGCore.managers.LocaleManager;
+import amg.plugins.aMGCore.models.PlayerData;
 import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
@@ -111,7 +112,8 @@ public class MoneyCommands implements CommandExecutor, TabCompleter {
                 sender.sendMessage(localeManager.getComponent("money.error.amount_positive"));
                 return;
             }
-        } catch (NumberFormatException e) {
+            PlayerData.toBalanceUnits(amount);
+        } catch (IllegalArgumentException e) {
             sender.sendMessage(localeManager.getComponent("money.error.invalid_amount", args[1]));
             return;
         }
@@ -152,7 +154,8 @@ public class MoneyCommands implements CommandExecutor, TabCompleter {
                 sender.sendMessage(localeManager.getComponent("money.error.amount_negative"));
                 return;
             }
-        } catch (NumberFormatException e) {
+            PlayerData.toBalanceUnits(amount);
+        } catch (IllegalArgumentException e) {
             sender.sendMessage(localeManager.getComponent("money.error.invalid_amount", args[1]));
             return;
         }
@@ -197,19 +200,17 @@ public class MoneyCommands implements CommandExecutor, TabCompleter {
                 sender.sendMessage(localeManager.getComponent("money.error.amount_positive"));
                 return;
             }
-        } catch (NumberFormatException e) {
+            PlayerData.toBalanceUnits(amount);
+        } catch (IllegalArgumentException e) {
             sender.sendMessage(localeManager.getComponent("money.error.invalid_amount", args[1]));
             return;
         }
 
-        if (!CoreAPI.hasMoney(player, amount)) {
+        if (!CoreAPI.transferMoney(player, target, amount)) {
             sender.sendMessage(localeManager.getComponent("money.pay.insufficient_funds", moneyFormat.format(amount)));
             return;
         }
 
-        CoreAPI.removeMoney(player, amount);
-        CoreAPI.addMoney(target, amount);
-
         double senderBalance = CoreAPI.getMoney(player);
         double targetBalance = CoreAPI.getMoney(target);
 
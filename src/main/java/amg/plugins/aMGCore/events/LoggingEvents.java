@@ -1,6 +1,7 @@
 package amg.plugins.aMGCore.events;
 
 import amg.plugins.aMGCore.AMGCore;
+import amg.plugins.aMGCore.managers.BlockHistoryManager;
 import io.papermc.paper.event.player.AsyncChatEvent;
 import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import org.bukkit.Location;
@@ -15,7 +16,6 @@ import org.bukkit.event.inventory.*;
 import org.bukkit.event.player.PlayerCommandPreprocessEvent;
 import org.bukkit.inventory.BlockInventoryHolder;
 import org.bukkit.inventory.Inventory;
-import org.bukkit.inventory.InventoryHolder;
 import org.bukkit.inventory.ItemStack;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -35,8 +35,13 @@ public class LoggingEvents implements Listener {
     public void onBlockPlace(@NotNull BlockPlaceEvent event) {
         Player player = event.getPlayer();
         Block block = event.getBlock();
+
+        if (plugin.isModuleEnabled("blockhistory")) {
+            plugin.getBlockHistoryManager().record(player, block, block.getType(), BlockHistoryManager.Action.PLACE);
+            return;
+        }
+
         Location loc = block.getLocation();
-        
         String locationStr = formatLocation(loc);
 
         plugin.getLogManager().logModAction(
@@ -51,8 +56,13 @@ public class LoggingEvents implements Listener {
     public void onBlockBreak(@NotNull BlockBreakEvent event) {
         Player player = event.getPlayer();
         Block block = event.getBlock();
+
+        if (plugin.isModuleEnabled("blockhistory")) {
+            plugin.getBlockHistoryManager().record(player, block, block.getType(), BlockHistoryManager.Action.BREAK);
+            return;
+        }
+
         Location loc = block.getLocation();
-        
         String locationStr = formatLocation(loc);
 
         plugin.getLogManager().logModAction(
@@ -199,19 +209,17 @@ public class LoggingEvents implements Listener {
 
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onInventoryMove(@NotNull InventoryMoveItemEvent event) {
-        if (event.getItem() == null || event.getItem().getType().isAir()) {
+        ItemStack item = event.getItem();
+        if (item.getType().isAir()) {
             return;
         }
 
-        String sourceInfo = getContainerInfo(event.getSource());
-        String destInfo = getContainerInfo(event.getDestination());
-
-        plugin.getLogManager().logItemTransaction(
-            "SYSTEM",
-            "CONTAINER_TRANSFER",
-            event.getItem().getType().name(),
-            event.getItem().getAmount(),
-            String.format("From %s to %s", sourceInfo, destInfo)
+        // Hoppers fire this every few ticks, so transfers are only counted here
+        plugin.getLogManager().getContainerFlow().record(
+            event.getSource(),
+            event.getDestination(),
+            item.getType(),
+            item.getAmount()
         );
     }
 
@@ -221,11 +229,14 @@ public class LoggingEvents implements Listener {
             @NotNull ItemStack item,
             @Nullable Inventory inventory,
             int slot) {
-        if (inventory == null || !(inventory.getHolder() instanceof BlockInventoryHolder)) {
+        if (inventory == null || !(inventory.getHolder(false) instanceof BlockInventoryHolder blockHolder)) {
+            return;
+        }
+        if (!plugin.getLogManager().shouldSample(action.startsWith("DRAG") ? "container_drag" : "container_click")) {
             return;
         }
 
-        String containerInfo = getContainerInfo(inventory);
+        String containerInfo = formatLocation(blockHolder.getBlock().getLocation()) + " (" + blockHolder.getBlock().getType().name() + ")";
         String slotInfo = String.format("slot %d", slot);
 
         plugin.getLogManager().logItemTransaction(
@@ -237,16 +248,6 @@ public class LoggingEvents implements Listener {
         );
     }
 
-    @NotNull
-    private String getContainerInfo(@NotNull Inventory inventory) {
-        InventoryHolder holder = inventory.getHolder();
-        if (holder instanceof BlockInventoryHolder blockHolder) {
-            Location loc = blockHolder.getBlock().getLocation();
-            return formatLocation(loc) + " (" + blockHolder.getBlock().getType().name() + ")";
-        }
-        return "Unknown";
-    }
-
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onPlayerChat(@NotNull AsyncChatEvent event) {
         Player player = event.getPlayer();
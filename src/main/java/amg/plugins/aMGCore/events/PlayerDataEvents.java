@@ -18,6 +18,7 @@ import org.jetbrains.annotations.NotNull;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Queue;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
@@ -81,11 +82,34 @@ public class PlayerDataEvents implements Listener {
             }
         }
         
-        if (processed > 0 && plugin.isDebugEnabled()) {
-            DebugLogger.debug("PlayerDataEvents", "Processed " + processed + " location updates");
+        if (processed > 0) {
+            DebugLogger.debug("PlayerDataEvents", "Processed {} location updates", processed);
         }
     }
 
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onAsyncPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            return;
+        }
+        
+        try {
+            // Load everything the join needs while we're still off the main thread
+            if (!plugin.getPlayerDataManager().preloadSnapshot(event.getUniqueId(), event.getName())) {
+                DebugLogger.warning("PlayerDataEvents", "Could not preload data for " + event.getName() + ", falling back to loading on join");
+            }
+        } catch (Exception e) {
+            DebugLogger.severe("PlayerDataEvents", "Error preloading player data: " + event.getName(), e);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoinComplete(PlayerJoinEvent event) {
+        // Other MONITOR listeners may still read the snapshot, so drop it on the next tick
+        UUID uuid = event.getPlayer().getUniqueId();
+        plugin.getServer().getScheduler().runTask(plugin, () -> plugin.getPlayerDataManager().discardSnapshot(uuid));
+    }
+
     @EventHandler(priority = EventPriority.LOWEST)
     public void onPlayerJoin(PlayerJoinEvent event) {
         Player player = event.getPlayer();
@@ -175,6 +199,7 @@ public class PlayerDataEvents implements Listener {
                 data.setRequiresImmediateSave(true); // Mark as requiring immediate save
                 plugin.getPlayerDataManager().savePlayer(player);
             }
+            plugin.getPlayerDataManager().markOffline(player);
             
             // Clean up cached data
             lastKnownLocations.remove(uuid);
@@ -2,6 +2,7 @@ package amg.plugins.aMGCore.managers;
 
 import amg.plugins.aMGCore.AMGCore;
 import amg.plugins.aMGCore.utils.DebugLogger;
+import amg.plugins.aMGCore.utils.LegacyColors;
 import io.papermc.paper.event.player.AsyncChatEvent;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.minimessage.MiniMessage;
@@ -15,9 +16,6 @@ import org.bukkit.event.player.*;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.Duration;
 import java.time.Instant;
@@ -46,7 +44,6 @@ public class AFKManager implements Listener {
         this.lastActivity = new ConcurrentHashMap<>();
         this.localeManager = plugin.getLocaleManager();
 
-        initializeDatabase();
         loadAFKPlayers();
 
         Bukkit.getPluginManager().registerEvents(this, plugin);
@@ -55,32 +52,18 @@ public class AFKManager implements Listener {
         Bukkit.getScheduler().runTaskTimer(plugin, this::checkAFKPlayers, 600L, 600L);
     }
 
-    private void initializeDatabase() {
-        try (Connection conn = databaseManager.getConnection()) {
-            conn.createStatement().execute("""
-                CREATE TABLE IF NOT EXISTS afk_players (
-                    player_uuid VARCHAR(36) PRIMARY KEY,
-                    afk_since TIMESTAMP,
-                    reason VARCHAR(255)
-                )
-            """);
-        } catch (SQLException e) {
-            DebugLogger.severe("Failed to initialize AFK table", "AFKManager", e);
-        }
-    }
-
     private void loadAFKPlayers() {
-        try (Connection conn = databaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement("SELECT * FROM afk_players")) {
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                UUID playerUuid = UUID.fromString(rs.getString("player_uuid"));
-                Instant afkSince = rs.getTimestamp("afk_since").toInstant();
-                String reason = rs.getString("reason");
-
-                afkPlayers.put(playerUuid, new AFKData(playerUuid, afkSince, reason));
-            }
+        try {
+            databaseManager.query("afk_players.load_all", "SELECT * FROM afk_players", null, rs -> {
+                while (rs.next()) {
+                    UUID playerUuid = rs.getObject("player_uuid", UUID.class);
+                    Instant afkSince = rs.getTimestamp("afk_since").toInstant();
+                    String reason = rs.getString("reason");
+
+                    afkPlayers.put(playerUuid, new AFKData(playerUuid, afkSince, reason));
+                }
+                return null;
+            });
         } catch (SQLException e) {
             DebugLogger.severe("Failed to load AFK players", "AFKManager", e);
         }
@@ -138,26 +121,17 @@ public class AFKManager implements Listener {
             AFKData data = new AFKData(uuid, Instant.now(), reason);
             afkPlayers.put(uuid, data);
 
-            try (Connection conn = databaseManager.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(
-                     "MERGE INTO afk_players (player_uuid, afk_since, reason) VALUES (?, ?, ?)"
-                 )) {
-                stmt.setString(1, uuid.toString());
-                stmt.setTimestamp(2, java.sql.Timestamp.from(data.afkSince));
-                stmt.setString(3, reason);
-                stmt.executeUpdate();
-            } catch (SQLException e) {
-                DebugLogger.severe("Failed to save AFK state", "AFKManager", e);
-            }
+            databaseManager.queueWrite("afk_players:" + uuid,
+                "MERGE INTO afk_players (player_uuid, afk_since, reason) VALUES (?, ?, ?)",
+                stmt -> {
+                    stmt.setObject(1, uuid);
+                    stmt.setTimestamp(2, java.sql.Timestamp.from(data.afkSince));
+                    stmt.setString(3, reason);
+                });
 
             // Update tab list name
             String name = player.getName();
-            if (localeManager != null) {
-                String tabPrefix = localeManager.getMessage("afk.tab_prefix");
-                player.playerListName(miniMessage.deserialize(tabPrefix + name));
-            } else {
-                player.playerListName(miniMessage.deserialize("<gray>[AFK] " + name));
-            }
+            player.playerListName(getAfkTabName(player));
 
             // Broadcast AFK message
             if (localeManager != null) {
@@ -172,13 +146,9 @@ public class AFKManager implements Listener {
         } else if (!afk && wasAFK) {
             afkPlayers.remove(uuid);
 
-            try (Connection conn = databaseManager.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement("DELETE FROM afk_players WHERE player_uuid = ?")) {
-                stmt.setString(1, uuid.toString());
-                stmt.executeUpdate();
-            } catch (SQLException e) {
-                DebugLogger.severe("Failed to remove AFK state", "AFKManager", e);
-            }
+            databaseManager.queueWrite("afk_players:" + uuid,
+                "DELETE FROM afk_players WHERE player_uuid = ?",
+                stmt -> stmt.setObject(1, uuid));
 
             // Restore tab list name
             String name = player.getName();
@@ -240,12 +210,7 @@ public class AFKManager implements Listener {
 
         // If player was AFK when they disconnected, update their tab list name
         if (isAFK(player)) {
-            if (localeManager != null) {
-                String tabPrefix = localeManager.getMessage("afk.tab_prefix");
-                player.playerListName(miniMessage.deserialize(tabPrefix + player.getName()));
-            } else {
-                player.playerListName(miniMessage.deserialize("<gray>[AFK] " + player.getName()));
-            }
+            player.playerListName(getAfkTabName(player));
         }
     }
 
@@ -270,6 +235,15 @@ public class AFKManager implements Listener {
         lastActivity.put(player.getUniqueId(), Instant.now());
     }
 
+    /**
+     * Builds the tab list name of an AFK player. The prefix may use legacy
+     * color codes as well as MiniMessage tags.
+     */
+    private Component getAfkTabName(Player player) {
+        String tabPrefix = localeManager != null ? localeManager.getMessage("afk.tab_prefix") : "<gray>[AFK] ";
+        return miniMessage.deserialize(LegacyColors.toMiniMessage(tabPrefix) + player.getName());
+    }
+
     public static class AFKData {
         private final UUID uuid;
         private final Instant afkSince;
@@ -0,0 +1,387 @@
+package amg.plugins.aMGCore.managers;
+
+import amg.plugins.aMGCore.utils.DebugLogger;
+import amg.plugins.aMGCore.utils.LogRetention;
+import amg.plugins.aMGCore.utils.MpscRingBuffer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Append-only log engine writing one NDJSON line per entry.
+ * <p>
+ * Producers on any thread only put a small record into a lock-free ring
+ * buffer. A single writer thread drains the buffer in batches, serializes
+ * the records and appends them to the current segment of their stream,
+ * {@code <stream>/<stream>-<date>_<time>.ndjson}. Segments roll when they
+ * grow too large, get too old or the day changes, and are never rewritten.
+ * Old segments are compressed and finally deleted by each stream's
+ * {@link LogRetention} policy.
+ */
+final class AuditLog {
+    private static final DateTimeFormatter SEGMENT_NAME = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
+    private static final String SEGMENT_EXTENSION = ".ndjson";
+    private static final int BATCH_SIZE = 4096;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long DROP_WARNING_INTERVAL = 60_000L;
+
+    private final File directory;
+    private final List<String> streams;
+    private final long maxSegmentBytes;
+    private final long maxSegmentAgeMillis;
+    private final MpscRingBuffer<Record> buffer;
+    private final Segment[] segments;
+    private final StringBuilder[] pending;
+    private final boolean[] resumed;
+    private final LogRetention[] retention;
+    private final Thread writer;
+
+    private volatile boolean running = true;
+    private volatile boolean rollRequested = false;
+
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+    private volatile long lastDropWarning;
+
+    /**
+     * Creates the engine and starts its writer thread.
+     *
+     * @param directory The directory holding one sub-directory per stream
+     * @param streams The stream names, records refer to them by index
+     * @param maxSegmentBytes Size after which a segment rolls
+     * @param maxSegmentAgeMillis Age after which a segment rolls
+     * @param capacity Number of records that can wait for the writer
+     * @param compressAfterMillis Age after which closed segments are compressed
+     * @param maxAgeMillis Age after which segments are deleted, 0 keeps them forever
+     * @param maxStreamBytes Size of a stream's segments after which the oldest are deleted, 0 for no limit
+     */
+    AuditLog(@NotNull File directory, @NotNull List<String> streams, long maxSegmentBytes,
+             long maxSegmentAgeMillis, int capacity, long compressAfterMillis, long maxAgeMillis, long maxStreamBytes) {
+        this.directory = directory;
+        this.streams = List.copyOf(streams);
+        // Segments are memory-mapped and indexed with int offsets when searched
+        this.maxSegmentBytes = Math.min(1L << 30, Math.max(1024L, maxSegmentBytes));
+        this.maxSegmentAgeMillis = Math.max(60_000L, maxSegmentAgeMillis);
+        this.buffer = new MpscRingBuffer<>(capacity);
+        this.segments = new Segment[this.streams.size()];
+        this.pending = new StringBuilder[this.streams.size()];
+        this.resumed = new boolean[this.streams.size()];
+        this.retention = new LogRetention[this.streams.size()];
+        for (int i = 0; i < pending.length; i++) {
+            pending[i] = new StringBuilder(8192);
+            // Compressed segments are no longer searched, so their indexes go with them
+            retention[i] = new LogRetention(getStreamDirectory(i), this.streams.get(i) + "-", SEGMENT_EXTENSION,
+                compressAfterMillis, maxAgeMillis, maxStreamBytes, SegmentIndex.EXTENSION);
+        }
+
+        this.writer = new Thread(this::runWriter, "AMGCore-AuditLog");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queues an entry. Never blocks, callers are mostly on the main thread, so
+     * entries are dropped and counted right away if the writer can't keep up.
+     *
+     * @param stream The stream index
+     * @param fields Alternating field names and values
+     */
+    void append(int stream, Object... fields) {
+        Record record = new Record(stream, System.currentTimeMillis(), fields);
+        if (buffer.offer(record)) {
+            appended.incrementAndGet();
+            return;
+        }
+
+        // Wake the writer so the buffer drains, but don't wait for it
+        LockSupport.unpark(writer);
+        dropped.incrementAndGet();
+        long now = System.currentTimeMillis();
+        if (now - lastDropWarning > DROP_WARNING_INTERVAL) {
+            lastDropWarning = now;
+            DebugLogger.warning("AuditLog", "Audit log buffer is full, dropped " + dropped.get() + " entries so far");
+        }
+    }
+
+    /**
+     * Makes the writer roll every stream to a new segment.
+     */
+    void roll() {
+        rollRequested = true;
+        LockSupport.unpark(writer);
+    }
+
+    /**
+     * Stops the writer after it wrote everything still queued.
+     */
+    void close() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            DebugLogger.warning("AuditLog", "Audit log writer did not stop in time, " + buffer.size() + " entries were not written");
+        }
+    }
+
+    /**
+     * Gets the directory of a stream's segments.
+     */
+    @NotNull
+    File getStreamDirectory(int stream) {
+        return new File(directory, streams.get(stream));
+    }
+
+    long getAppended() {
+        return appended.get();
+    }
+
+    long getDropped() {
+        return dropped.get();
+    }
+
+    long getBytesWritten() {
+        return bytesWritten.get();
+    }
+
+    int getQueued() {
+        return buffer.size();
+    }
+
+    private void runWriter() {
+        while (true) {
+            boolean stopping = !running;
+            int drained = buffer.drain(this::encode, BATCH_SIZE);
+            writePending();
+
+            long now = System.currentTimeMillis();
+            boolean roll = rollRequested;
+            if (roll) {
+                rollRequested = false;
+            }
+            for (int i = 0; i < segments.length; i++) {
+                Segment segment = segments[i];
+                if (segment != null && (roll || segment.isExpired(now))) {
+                    closeSegment(i);
+                }
+            }
+
+            if (stopping && drained == 0) {
+                break;
+            }
+            if (drained < BATCH_SIZE) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+
+        for (int i = 0; i < segments.length; i++) {
+            closeSegment(i);
+        }
+    }
+
+    // Writer thread only
+    private void encode(Record record) {
+        StringBuilder line = pending[record.stream];
+        line.append("{\"ts\":").append(record.time);
+        Object[] fields = record.fields;
+        for (int i = 0; i + 1 < fields.length; i += 2) {
+            line.append(",\"").append(fields[i]).append("\":");
+            Object value = fields[i + 1];
+            if (value == null) {
+                line.append("null");
+            } else if (value instanceof Number || value instanceof Boolean) {
+                line.append(value);
+            } else {
+                appendString(line, value.toString());
+            }
+        }
+        line.append("}\n");
+    }
+
+    // Writer thread only
+    private void writePending() {
+        for (int i = 0; i < pending.length; i++) {
+            StringBuilder lines = pending[i];
+            if (lines.length() == 0) {
+                continue;
+            }
+            byte[] bytes = lines.toString().getBytes(StandardCharsets.UTF_8);
+            lines.setLength(0);
+            try {
+                Segment segment = openSegment(i, bytes.length);
+                ByteBuffer data = ByteBuffer.wrap(bytes);
+                while (data.hasRemaining()) {
+                    segment.channel.write(data);
+                }
+                segment.size += bytes.length;
+                bytesWritten.addAndGet(bytes.length);
+            } catch (IOException e) {
+                DebugLogger.severe("AuditLog", "Failed to write " + streams.get(i) + " log entries", e);
+                closeSegment(i);
+            }
+        }
+    }
+
+    // Writer thread only
+    private Segment openSegment(int stream, int incoming) throws IOException {
+        Segment segment = segments[stream];
+        if (segment != null && segment.size > 0 && segment.size + incoming > maxSegmentBytes) {
+            closeSegment(stream);
+            segment = null;
+        }
+        if (segment != null) {
+            return segment;
+        }
+
+        File streamDirectory = getStreamDirectory(stream);
+        if (!streamDirectory.isDirectory() && !streamDirectory.mkdirs()) {
+            throw new IOException("Failed to create log directory " + streamDirectory);
+        }
+
+        // Keep appending to today's newest segment after a restart
+        long now = System.currentTimeMillis();
+        File file = null;
+        long openedAt = now;
+        if (!resumed[stream]) {
+            resumed[stream] = true;
+            file = findReusableSegment(stream, streamDirectory, now);
+            if (file != null) {
+                openedAt = getSegmentStart(stream, file, now);
+            }
+        }
+        if (file == null) {
+            String name = streams.get(stream) + "-" + SEGMENT_NAME.format(Instant.ofEpochMilli(now).atZone(ZoneId.systemDefault()));
+            file = new File(streamDirectory, name + SEGMENT_EXTENSION);
+            int counter = 1;
+            while (file.exists()) {
+                file = new File(streamDirectory, name + "_" + counter++ + SEGMENT_EXTENSION);
+            }
+        }
+
+        FileChannel channel = FileChannel.open(file.toPath(),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segment = new Segment(file, channel, channel.size(), openedAt);
+        segments[stream] = segment;
+        retention[stream].schedule(file);
+        return segment;
+    }
+
+    @Nullable
+    private File findReusableSegment(int stream, File streamDirectory, long now) {
+        File[] files = streamDirectory.listFiles((dir, name) -> name.endsWith(SEGMENT_EXTENSION));
+        if (files == null || files.length == 0) {
+            return null;
+        }
+        // Names sort by creation time
+        Arrays.sort(files);
+        File newest = files[files.length - 1];
+        LocalDate today = Instant.ofEpochMilli(now).atZone(ZoneId.systemDefault()).toLocalDate();
+        LocalDate modified = Instant.ofEpochMilli(newest.lastModified()).atZone(ZoneId.systemDefault()).toLocalDate();
+        if (!modified.equals(today) || newest.length() >= maxSegmentBytes
+            || now - getSegmentStart(stream, newest, now) > maxSegmentAgeMillis) {
+            return null;
+        }
+        return newest;
+    }
+
+    private long getSegmentStart(int stream, File file, long fallback) {
+        int start = streams.get(stream).length() + 1;
+        String name = file.getName();
+        try {
+            return LocalDateTime.parse(name.substring(start, start + 19), SEGMENT_NAME)
+                .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (RuntimeException e) {
+            return fallback;
+        }
+    }
+
+    // Writer thread only
+    private void closeSegment(int stream) {
+        Segment segment = segments[stream];
+        if (segment == null) {
+            return;
+        }
+        segments[stream] = null;
+        try {
+            segment.channel.force(false);
+            segment.channel.close();
+        } catch (IOException e) {
+            DebugLogger.warning("AuditLog", "Failed to close log segment " + segment.file.getName() + ": " + e.getMessage());
+        }
+    }
+
+    private static void appendString(StringBuilder out, String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        out.append('"');
+    }
+
+    private static final class Record {
+        private final int stream;
+        private final long time;
+        private final Object[] fields;
+
+        private Record(int stream, long time, Object[] fields) {
+            this.stream = stream;
+            this.time = time;
+            this.fields = fields;
+        }
+    }
+
+    private final class Segment {
+        private final File file;
+        private final FileChannel channel;
+        private final LocalDate day;
+        private final long openedAt;
+        private long size;
+
+        private Segment(File file, FileChannel channel, long size, long openedAt) {
+            this.file = file;
+            this.channel = channel;
+            this.size = size;
+            this.openedAt = openedAt;
+            this.day = Instant.ofEpochMilli(openedAt).atZone(ZoneId.systemDefault()).toLocalDate();
+        }
+
+        private boolean isExpired(long now) {
+            return now - openedAt > maxSegmentAgeMillis
+                || !Instant.ofEpochMilli(now).atZone(ZoneId.systemDefault()).toLocalDate().equals(day);
+        }
+    }
+}
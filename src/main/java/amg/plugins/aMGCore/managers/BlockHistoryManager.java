@@ -0,0 +1,475 @@
+package amg.plugins.aMGCore.managers;
+
+import amg.plugins.aMGCore.AMGCore;
+import amg.plugins.aMGCore.utils.DebugLogger;
+import amg.plugins.aMGCore.utils.MpscRingBuffer;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records every block a player places or breaks.
+ * <p>
+ * The event handlers only put a fixed-size record into a lock-free ring
+ * buffer. A background task resolves worlds, materials and player sessions
+ * to small numeric ids and writes the records in batches to the
+ * {@code block_history} table, which is indexed by chunk and by packed
+ * block position for block and area lookups.
+ */
+public class BlockHistoryManager implements Listener {
+    private static final int MAX_BATCH = 4096;
+    private static final int MAX_AREA_RADIUS = 64;
+    private static final long DROP_WARNING_INTERVAL = 60_000L;
+
+    private final AMGCore plugin;
+    private final DatabaseManager databaseManager;
+    private final MpscRingBuffer<BlockChange> buffer;
+    private final Map<UUID, Session> sessions = new ConcurrentHashMap<>();
+    private final Map<String, Integer> worldIds = new ConcurrentHashMap<>();
+    private final Map<Material, Integer> materialIds = new ConcurrentHashMap<>();
+    private final BukkitTask flushTask;
+    private final Object flushLock = new Object();
+
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile long lastDropWarning;
+
+    /**
+     * What happened to a block.
+     */
+    public enum Action {
+        PLACE,
+        BREAK
+    }
+
+    public BlockHistoryManager(@NotNull AMGCore plugin, @NotNull DatabaseManager databaseManager) {
+        this.plugin = plugin;
+        this.databaseManager = databaseManager;
+
+        int capacity = plugin.getConfig().getInt("logging.block_history.buffer_capacity", 65536);
+        long interval = Math.max(1L, plugin.getConfig().getLong("logging.block_history.flush_interval_seconds", 2L)) * 20L;
+        this.buffer = new MpscRingBuffer<>(capacity);
+
+        loadIds();
+
+        Bukkit.getPluginManager().registerEvents(this, plugin);
+        this.flushTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::flush, interval, interval);
+    }
+
+    private void loadIds() {
+        try {
+            databaseManager.readQuery("block_history.worlds", "SELECT id, name FROM block_history_worlds", null, rs -> {
+                while (rs.next()) {
+                    worldIds.put(rs.getString("name"), rs.getInt("id"));
+                }
+                return null;
+            });
+            databaseManager.readQuery("block_history.materials", "SELECT id, name FROM block_history_materials", null, rs -> {
+                while (rs.next()) {
+                    Material material = Material.getMaterial(rs.getString("name"));
+                    if (material != null) {
+                        materialIds.put(material, rs.getInt("id"));
+                    }
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            DebugLogger.severe("BlockHistory", "Failed to load block history ids", e);
+        }
+    }
+
+    /**
+     * Records a block change. Cheap enough to call from every block event.
+     *
+     * @param player The player who changed the block
+     * @param block The block
+     * @param material The block's material, the placed one or the broken one
+     * @param action What happened to the block
+     */
+    public void record(@NotNull Player player, @NotNull Block block, @NotNull Material material, @NotNull Action action) {
+        Session session = sessions.computeIfAbsent(player.getUniqueId(), uuid -> new Session(uuid, player.getName()));
+        BlockChange change = new BlockChange(block.getWorld().getName(), block.getX(), block.getY(), block.getZ(),
+            material, action, session, System.currentTimeMillis());
+        if (buffer.offer(change)) {
+            return;
+        }
+
+        dropped.incrementAndGet();
+        long now = System.currentTimeMillis();
+        if (now - lastDropWarning > DROP_WARNING_INTERVAL) {
+            lastDropWarning = now;
+            DebugLogger.warning("BlockHistory", "Block history buffer is full, dropped " + dropped.get() + " changes so far");
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(@NotNull PlayerQuitEvent event) {
+        // The next join starts a new session
+        sessions.remove(event.getPlayer().getUniqueId());
+    }
+
+    /**
+     * Writes every queued change to the database. Runs on the flush task,
+     * but can be called from any thread.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            List<BlockChange> batch = new ArrayList<>(Math.min(MAX_BATCH, buffer.size()));
+            while (buffer.drain(batch::add, MAX_BATCH) > 0) {
+                try {
+                    writeBatch(batch);
+                } catch (SQLException e) {
+                    DebugLogger.severe("BlockHistory", "Failed to write " + batch.size() + " block changes", e);
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<BlockChange> batch) throws SQLException {
+        List<DatabaseManager.StatementBinder> binders = new ArrayList<>(batch.size());
+        for (BlockChange change : batch) {
+            int worldId = getWorldId(change.world);
+            int materialId = getMaterialId(change.material);
+            int sessionId = getSessionId(change.session);
+            long pos = packPosition(change.x, change.y, change.z);
+            long chunkKey = chunkKey(change.x >> 4, change.z >> 4);
+            binders.add(stmt -> {
+                stmt.setInt(1, worldId);
+                stmt.setLong(2, chunkKey);
+                stmt.setLong(3, pos);
+                stmt.setInt(4, materialId);
+                stmt.setInt(5, change.action.ordinal());
+                stmt.setInt(6, sessionId);
+                stmt.setLong(7, change.time);
+            });
+        }
+
+        try (Connection conn = databaseManager.getConnection()) {
+            databaseManager.batch(conn, "block_history.insert", """
+                INSERT INTO block_history (world_id, chunk_key, pos, material_id, action, session_id, ts)
+                VALUES (?, ?, ?, ?, ?, ?, ?)
+            """, binders);
+        }
+    }
+
+    // Flush thread only
+    private int getWorldId(String world) throws SQLException {
+        Integer id = worldIds.get(world);
+        if (id == null) {
+            id = resolveName("block_history_worlds", world);
+            worldIds.put(world, id);
+        }
+        return id;
+    }
+
+    // Flush thread only
+    private int getMaterialId(Material material) throws SQLException {
+        Integer id = materialIds.get(material);
+        if (id == null) {
+            id = resolveName("block_history_materials", material.name());
+            materialIds.put(material, id);
+        }
+        return id;
+    }
+
+    private int resolveName(String table, String name) throws SQLException {
+        try (Connection conn = databaseManager.getConnection()) {
+            databaseManager.update(conn, table + ".merge", "MERGE INTO " + table + " (name) KEY(name) VALUES (?)",
+                stmt -> stmt.setString(1, name));
+            Integer id = databaseManager.query(conn, table + ".find", "SELECT id FROM " + table + " WHERE name = ?",
+                stmt -> stmt.setString(1, name),
+                rs -> rs.next() ? rs.getInt("id") : null);
+            if (id == null) {
+                throw new SQLException("No id for " + name + " in " + table);
+            }
+            return id;
+        }
+    }
+
+    // Flush thread only
+    private int getSessionId(Session session) throws SQLException {
+        if (session.id == 0) {
+            Integer id = databaseManager.query("block_history.session_insert", """
+                    SELECT id FROM FINAL TABLE (
+                        INSERT INTO block_history_sessions (player_uuid, player_name, started_at) VALUES (?, ?, ?)
+                    )
+                """, stmt -> {
+                    stmt.setObject(1, session.uuid);
+                    stmt.setString(2, session.name);
+                    stmt.setLong(3, session.startedAt);
+                },
+                rs -> rs.next() ? rs.getInt("id") : null);
+            if (id == null) {
+                throw new SQLException("Failed to create block history session for " + session.name);
+            }
+            session.id = id;
+        }
+        return session.id;
+    }
+
+    /**
+     * Gets the changes of a single block, newest first. Blocking, call it off
+     * the main thread.
+     *
+     * @param world The world name
+     * @param x The block X
+     * @param y The block Y
+     * @param z The block Z
+     * @param limit The maximum number of changes
+     * @return The changes
+     * @throws SQLException if a database access error occurs
+     */
+    @NotNull
+    public List<Entry> getBlockHistory(@NotNull String world, int x, int y, int z, int limit) throws SQLException {
+        flush();
+        Integer worldId = worldIds.get(world);
+        if (worldId == null) {
+            return Collections.emptyList();
+        }
+        long pos = packPosition(x, y, z);
+        return databaseManager.readQuery("block_history.block", """
+                SELECT h.pos, h.action, h.ts, m.name AS material, s.player_uuid, s.player_name
+                FROM block_history h
+                JOIN block_history_materials m ON m.id = h.material_id
+                JOIN block_history_sessions s ON s.id = h.session_id
+                WHERE h.world_id = ? AND h.pos = ?
+                ORDER BY h.ts DESC
+                LIMIT ?
+            """, stmt -> {
+                stmt.setInt(1, worldId);
+                stmt.setLong(2, pos);
+                stmt.setInt(3, limit);
+            },
+            rs -> readEntries(rs, world, limit, null));
+    }
+
+    /**
+     * Gets the changes within a radius of a block, newest first. Blocking,
+     * call it off the main thread.
+     *
+     * @param world The world name
+     * @param x The center X
+     * @param y The center Y
+     * @param z The center Z
+     * @param radius The radius in blocks, capped at 64
+     * @param since The earliest change time in epoch milliseconds
+     * @param limit The maximum number of changes
+     * @return The changes
+     * @throws SQLException if a database access error occurs
+     */
+    @NotNull
+    public List<Entry> getAreaHistory(@NotNull String world, int x, int y, int z, int radius, long since,
+                                      int limit) throws SQLException {
+        flush();
+        Integer worldId = worldIds.get(world);
+        if (worldId == null) {
+            return Collections.emptyList();
+        }
+
+        int r = Math.max(0, Math.min(MAX_AREA_RADIUS, radius));
+        List<Long> chunks = new ArrayList<>();
+        for (int chunkX = (x - r) >> 4; chunkX <= (x + r) >> 4; chunkX++) {
+            for (int chunkZ = (z - r) >> 4; chunkZ <= (z + r) >> 4; chunkZ++) {
+                chunks.add(chunkKey(chunkX, chunkZ));
+            }
+        }
+
+        int[] bounds = {x - r, y - r, z - r, x + r, y + r, z + r};
+        return databaseManager.readQuery("block_history.area", """
+                SELECT h.pos, h.action, h.ts, m.name AS material, s.player_uuid, s.player_name
+                FROM block_history h
+                JOIN block_history_materials m ON m.id = h.material_id
+                JOIN block_history_sessions s ON s.id = h.session_id
+                WHERE h.world_id = ? AND h.chunk_key = ANY(?) AND h.ts >= ?
+                ORDER BY h.ts DESC
+            """, stmt -> {
+                stmt.setInt(1, worldId);
+                stmt.setObject(2, chunks.toArray(new Long[0]));
+                stmt.setLong(3, since);
+            },
+            rs -> readEntries(rs, world, limit, bounds));
+    }
+
+    private static List<Entry> readEntries(ResultSet rs, String world, int limit,
+                                           @Nullable int[] bounds) throws SQLException {
+        List<Entry> entries = new ArrayList<>();
+        while (entries.size() < limit && rs.next()) {
+            long pos = rs.getLong("pos");
+            int x = unpackX(pos);
+            int y = unpackY(pos);
+            int z = unpackZ(pos);
+            // Chunks cover more than the requested box
+            if (bounds != null && (x < bounds[0] || y < bounds[1] || z < bounds[2]
+                    || x > bounds[3] || y > bounds[4] || z > bounds[5])) {
+                continue;
+            }
+            int action = rs.getInt("action");
+            entries.add(new Entry(world, x, y, z, rs.getString("material"),
+                action >= 0 && action < Action.values().length ? Action.values()[action] : Action.PLACE,
+                rs.getObject("player_uuid", UUID.class), rs.getString("player_name"), rs.getLong("ts")));
+        }
+        return entries;
+    }
+
+    /**
+     * Stops the flush task and writes what is still queued.
+     */
+    public void close() {
+        flushTask.cancel();
+        flush();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public int getQueuedCount() {
+        return buffer.size();
+    }
+
+    // 26 bits X, 26 bits Z, 12 bits Y, like the vanilla block position
+    static long packPosition(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    static int unpackX(long pos) {
+        return (int) (pos >> 38);
+    }
+
+    static int unpackY(long pos) {
+        return (int) (pos << 52 >> 52);
+    }
+
+    static int unpackZ(long pos) {
+        return (int) (pos << 26 >> 38);
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * A player's time online, shared by all changes they make until they quit.
+     */
+    private static final class Session {
+        private final UUID uuid;
+        private final String name;
+        private final long startedAt = System.currentTimeMillis();
+        private volatile int id; // 0 until the flush task stored the session
+
+        private Session(UUID uuid, String name) {
+            this.uuid = uuid;
+            this.name = name;
+        }
+    }
+
+    private static final class BlockChange {
+        private final String world;
+        private final int x;
+        private final int y;
+        private final int z;
+        private final Material material;
+        private final Action action;
+        private final Session session;
+        private final long time;
+
+        private BlockChange(String world, int x, int y, int z, Material material, Action action, Session session, long time) {
+            this.world = world;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.material = material;
+            this.action = action;
+            this.session = session;
+            this.time = time;
+        }
+    }
+
+    /**
+     * One recorded block change.
+     */
+    public static final class Entry {
+        private final String world;
+        private final int x;
+        private final int y;
+        private final int z;
+        private final String material;
+        private final Action action;
+        private final UUID playerUuid;
+        private final String playerName;
+        private final long time;
+
+        private Entry(String world, int x, int y, int z, String material, Action action,
+                      UUID playerUuid, String playerName, long time) {
+            this.world = world;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.material = material;
+            this.action = action;
+            this.playerUuid = playerUuid;
+            this.playerName = playerName;
+            this.time = time;
+        }
+
+        @NotNull
+        public String getWorld() {
+            return world;
+        }
+
+        public int getX() {
+            return x;
+        }
+
+        public int getY() {
+            return y;
+        }
+
+        public int getZ() {
+            return z;
+        }
+
+        @NotNull
+        public String getMaterial() {
+            return material;
+        }
+
+        @NotNull
+        public Action getAction() {
+            return action;
+        }
+
+        @NotNull
+        public UUID getPlayerUuid() {
+            return playerUuid;
+        }
+
+        @NotNull
+        public String getPlayerName() {
+            return playerName;
+        }
+
+        public long getTime() {
+            return time;
+        }
+    }
+}
@@ -0,0 +1,396 @@
+package amg.plugins.aMGCore.managers;
+
+import amg.plugins.aMGCore.AMGCore;
+import amg.plugins.aMGCore.utils.DebugLogger;
+import amg.plugins.aMGCore.utils.MpscRingBuffer;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Searchable archive of public chat.
+ * <p>
+ * Chat threads only put messages into a lock-free ring buffer. A background
+ * task gives them ids and writes them in batches to {@code chat_archive},
+ * together with an inverted index of their words in
+ * {@code chat_archive_terms}, in one transaction. Messages can be found by
+ * player or by word, newest first. Both tables carry the UTC day of every
+ * row, so retention drops whole days through the day index instead of
+ * scanning for old rows.
+ */
+public class ChatArchive {
+    private static final int MAX_BATCH = 1024;
+    private static final int MAX_MESSAGE_LENGTH = 1024;
+    private static final int MIN_TERM_LENGTH = 2;
+    private static final int MAX_TERM_LENGTH = 32;
+    private static final int MAX_TERMS_PER_MESSAGE = 64;
+    private static final long DROP_WARNING_INTERVAL = 60_000L;
+    private static final long PRUNE_INTERVAL_TICKS = 20L * 60L * 60L;
+
+    private final DatabaseManager databaseManager;
+    private final MpscRingBuffer<ArchivedMessage> buffer;
+    private final int retentionDays;
+    private final int pageSize;
+    private final BukkitTask flushTask;
+    private final BukkitTask pruneTask;
+    private final Object flushLock = new Object();
+
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile long lastDropWarning;
+    private long nextId; // Flush thread only
+
+    public ChatArchive(@NotNull AMGCore plugin, @NotNull DatabaseManager databaseManager) {
+        this.databaseManager = databaseManager;
+
+        int capacity = plugin.getConfig().getInt("chat.archive.buffer_capacity", 16384);
+        long interval = Math.max(1L, plugin.getConfig().getLong("chat.archive.flush_interval_seconds", 2L)) * 20L;
+        this.retentionDays = plugin.getConfig().getInt("chat.archive.retention_days", 30);
+        this.pageSize = Math.max(1, plugin.getConfig().getInt("chat.archive.page_size", 10));
+        this.buffer = new MpscRingBuffer<>(capacity);
+
+        try {
+            Long maxId = databaseManager.query("chat_archive.max_id", "SELECT MAX(id) FROM chat_archive", null,
+                rs -> rs.next() ? rs.getLong(1) : 0L);
+            nextId = maxId != null ? maxId + 1 : 1L;
+        } catch (SQLException e) {
+            DebugLogger.severe("ChatArchive", "Failed to read the last chat archive id", e);
+            nextId = System.currentTimeMillis();
+        }
+
+        this.flushTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::flush, interval, interval);
+        this.pruneTask = retentionDays > 0
+            ? Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::prune, 20L * 60L, PRUNE_INTERVAL_TICKS)
+            : null;
+    }
+
+    /**
+     * Archives a chat message. Cheap enough to call from every chat event.
+     *
+     * @param playerUuid The sender's UUID
+     * @param playerName The sender's name
+     * @param channel The channel the message was sent to
+     * @param message The plain text message
+     */
+    public void record(@NotNull UUID playerUuid, @NotNull String playerName, @NotNull String channel, @NotNull String message) {
+        String text = message.length() > MAX_MESSAGE_LENGTH ? message.substring(0, MAX_MESSAGE_LENGTH) : message;
+        if (buffer.offer(new ArchivedMessage(playerUuid, playerName, channel, text, System.currentTimeMillis()))) {
+            return;
+        }
+
+        dropped.incrementAndGet();
+        long now = System.currentTimeMillis();
+        if (now - lastDropWarning > DROP_WARNING_INTERVAL) {
+            lastDropWarning = now;
+            DebugLogger.warning("ChatArchive", "Chat archive buffer is full, dropped " + dropped.get() + " messages so far");
+        }
+    }
+
+    /**
+     * Writes every queued message to the database. Runs on the flush task,
+     * but can be called from any thread.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            List<ArchivedMessage> batch = new ArrayList<>(Math.min(MAX_BATCH, buffer.size()));
+            while (buffer.drain(batch::add, MAX_BATCH) > 0) {
+                try {
+                    writeBatch(batch);
+                } catch (SQLException e) {
+                    DebugLogger.severe("ChatArchive", "Failed to archive " + batch.size() + " chat messages", e);
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<ArchivedMessage> batch) throws SQLException {
+        List<DatabaseManager.StatementBinder> messages = new ArrayList<>(batch.size());
+        List<DatabaseManager.StatementBinder> terms = new ArrayList<>(batch.size() * 8);
+        for (ArchivedMessage message : batch) {
+            long id = nextId++;
+            int day = dayOf(message.time);
+            messages.add(stmt -> {
+                stmt.setLong(1, id);
+                stmt.setInt(2, day);
+                stmt.setLong(3, message.time);
+                stmt.setObject(4, message.playerUuid);
+                stmt.setString(5, message.playerName);
+                stmt.setString(6, message.channel);
+                stmt.setString(7, message.message);
+            });
+            for (String term : tokenize(message.message)) {
+                terms.add(stmt -> {
+                    stmt.setString(1, term);
+                    stmt.setLong(2, id);
+                    stmt.setInt(3, day);
+                });
+            }
+        }
+
+        try (Connection conn = databaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                databaseManager.batch(conn, "chat_archive.insert", """
+                    INSERT INTO chat_archive (id, day, ts, player_uuid, player_name, channel, message)
+                    VALUES (?, ?, ?, ?, ?, ?, ?)
+                """, messages);
+                if (!terms.isEmpty()) {
+                    databaseManager.batch(conn, "chat_archive_terms.insert",
+                        "INSERT INTO chat_archive_terms (term, message_id, day) VALUES (?, ?, ?)", terms);
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                // The batch's ids are skipped rather than reused
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Deletes whole days that are past the retention period.
+     */
+    public void prune() {
+        int cutoff = dayOf(System.currentTimeMillis()) - retentionDays;
+        try {
+            Integer oldest = oldestDay();
+            int removed = 0;
+            while (oldest != null && oldest < cutoff) {
+                int day = oldest;
+                databaseManager.update("chat_archive_terms.prune", "DELETE FROM chat_archive_terms WHERE day = ?",
+                    stmt -> stmt.setInt(1, day));
+                removed += databaseManager.update("chat_archive.prune", "DELETE FROM chat_archive WHERE day = ?",
+                    stmt -> stmt.setInt(1, day));
+                oldest = oldestDay();
+            }
+            if (removed > 0) {
+                DebugLogger.info("ChatArchive", "Removed " + removed + " archived chat messages older than " + retentionDays + " days");
+            }
+        } catch (SQLException e) {
+            DebugLogger.severe("ChatArchive", "Failed to prune the chat archive", e);
+        }
+    }
+
+    private Integer oldestDay() throws SQLException {
+        return databaseManager.query("chat_archive.oldest_day", "SELECT MIN(day) FROM chat_archive", null, rs -> {
+            if (!rs.next()) {
+                return null;
+            }
+            int day = rs.getInt(1);
+            return rs.wasNull() ? null : day;
+        });
+    }
+
+    /**
+     * Finds archived messages, newest first. If a player with the query as
+     * name has chatted, their messages are returned, otherwise the messages
+     * containing the query as a word. Blocking, call it off the main thread.
+     *
+     * @param query A player name or a single word
+     * @param since The earliest message time in epoch milliseconds
+     * @param page The page, starting at 0
+     * @return The page
+     * @throws SQLException if a database access error occurs
+     */
+    @NotNull
+    public Page search(@NotNull String query, long since, int page) throws SQLException {
+        flush();
+        int offset = Math.max(0, page) * pageSize;
+
+        Boolean isPlayer = databaseManager.readQuery("chat_archive.has_player",
+            "SELECT 1 FROM chat_archive WHERE player_name = ? LIMIT 1",
+            stmt -> stmt.setString(1, query),
+            ResultSet::next);
+        if (Boolean.TRUE.equals(isPlayer)) {
+            List<Entry> entries = databaseManager.readQuery("chat_archive.by_player", """
+                    SELECT ts, player_name, channel, message
+                    FROM chat_archive
+                    WHERE player_name = ? AND ts >= ?
+                    ORDER BY id DESC
+                    LIMIT ? OFFSET ?
+                """, stmt -> {
+                    stmt.setString(1, query);
+                    stmt.setLong(2, since);
+                    stmt.setInt(3, pageSize + 1);
+                    stmt.setInt(4, offset);
+                },
+                ChatArchive::readEntries);
+            return new Page(entries, pageSize, true);
+        }
+
+        Set<String> terms = tokenize(query);
+        if (terms.size() != 1) {
+            return new Page(Collections.emptyList(), pageSize, false);
+        }
+        String term = terms.iterator().next();
+        List<Entry> entries = databaseManager.readQuery("chat_archive.by_term", """
+                SELECT a.ts, a.player_name, a.channel, a.message
+                FROM chat_archive_terms t
+                JOIN chat_archive a ON a.id = t.message_id
+                WHERE t.term = ? AND t.day >= ? AND a.ts >= ?
+                ORDER BY t.message_id DESC
+                LIMIT ? OFFSET ?
+            """, stmt -> {
+                stmt.setString(1, term);
+                stmt.setInt(2, dayOf(since));
+                stmt.setLong(3, since);
+                stmt.setInt(4, pageSize + 1);
+                stmt.setInt(5, offset);
+            },
+            ChatArchive::readEntries);
+        return new Page(entries, pageSize, false);
+    }
+
+    private static List<Entry> readEntries(ResultSet rs) throws SQLException {
+        List<Entry> entries = new ArrayList<>();
+        while (rs.next()) {
+            entries.add(new Entry(rs.getLong("ts"), rs.getString("player_name"),
+                rs.getString("channel"), rs.getString("message")));
+        }
+        return entries;
+    }
+
+    /**
+     * Splits a message into the distinct lower-case words that are indexed.
+     */
+    private static Set<String> tokenize(String message) {
+        Set<String> terms = new LinkedHashSet<>();
+        int length = message.length();
+        int i = 0;
+        while (i < length && terms.size() < MAX_TERMS_PER_MESSAGE) {
+            while (i < length && !Character.isLetterOrDigit(message.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && Character.isLetterOrDigit(message.charAt(i))) {
+                i++;
+            }
+            int wordLength = i - start;
+            if (wordLength >= MIN_TERM_LENGTH && wordLength <= MAX_TERM_LENGTH) {
+                terms.add(message.substring(start, i).toLowerCase(Locale.ROOT));
+            }
+        }
+        return terms;
+    }
+
+    private static int dayOf(long epochMillis) {
+        return (int) Math.floorDiv(epochMillis, TimeUnit.DAYS.toMillis(1));
+    }
+
+    /**
+     * Stops the background tasks and writes what is still queued.
+     */
+    public void close() {
+        flushTask.cancel();
+        if (pruneTask != null) {
+            pruneTask.cancel();
+        }
+        flush();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public int getQueuedCount() {
+        return buffer.size();
+    }
+
+    private static final class ArchivedMessage {
+        private final UUID playerUuid;
+        private final String playerName;
+        private final String channel;
+        private final String message;
+        private final long time;
+
+        private ArchivedMessage(UUID playerUuid, String playerName, String channel, String message, long time) {
+            this.playerUuid = playerUuid;
+            this.playerName = playerName;
+            this.channel = channel;
+            this.message = message;
+            this.time = time;
+        }
+    }
+
+    /**
+     * One page of search results.
+     */
+    public static final class Page {
+        private final List<Entry> entries;
+        private final boolean hasMore;
+        private final boolean playerMatch;
+
+        private Page(List<Entry> entries, int pageSize, boolean playerMatch) {
+            this.hasMore = entries.size() > pageSize;
+            this.entries = hasMore ? entries.subList(0, pageSize) : entries;
+            this.playerMatch = playerMatch;
+        }
+
+        @NotNull
+        public List<Entry> getEntries() {
+            return entries;
+        }
+
+        public boolean hasMore() {
+            return hasMore;
+        }
+
+        /**
+         * Checks whether the query was a player name rather than a word.
+         */
+        public boolean isPlayerMatch() {
+            return playerMatch;
+        }
+    }
+
+    /**
+     * One archived message.
+     */
+    public static final class Entry {
+        private final long time;
+        private final String playerName;
+        private final String channel;
+        private final String message;
+
+        private Entry(long time, String playerName, String channel, String message) {
+            this.time = time;
+            this.playerName = playerName;
+            this.channel = channel;
+            this.message = message;
+        }
+
+        public long getTime() {
+            return time;
+        }
+
+        @NotNull
+        public String getPlayerName() {
+            return playerName;
+        }
+
+        @NotNull
+        public String getChannel() {
+            return channel;
+        }
+
+        @NotNull
+        public String getMessage() {
+            return message;
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package amg.plugins.aMGCore.managers;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Blocked word lists compiled into one Aho-Corasick automaton.
+ * <p>
+ * Terms and messages are normalized the same way: lower case, accents
+ * stripped and common leetspeak undone, so "Ünıcödé" and "un1c0de" match the
+ * same term. Normalizing maps every char to exactly one char, so match
+ * positions are also positions in the original message. Goto and failure
+ * transitions are folded into one flat {@code int[]} table, so a message is
+ * matched with a single lookup per char. A filter is immutable once compiled,
+ * reloading builds a new one.
+ */
+final class ChatFilter {
+    private static final char[] NORMALIZED = new char[0x250];
+    private static final int NO_TERM = -1;
+
+    static {
+        for (char c = 0; c < NORMALIZED.length; c++) {
+            String decomposed = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+            NORMALIZED[c] = Character.toLowerCase(decomposed.charAt(0));
+        }
+        NORMALIZED['0'] = 'o';
+        NORMALIZED['1'] = 'i';
+        NORMALIZED['3'] = 'e';
+        NORMALIZED['4'] = 'a';
+        NORMALIZED['5'] = 's';
+        NORMALIZED['7'] = 't';
+        NORMALIZED['@'] = 'a';
+        NORMALIZED['$'] = 's';
+        NORMALIZED['!'] = 'i';
+        NORMALIZED['|'] = 'l';
+        NORMALIZED['ı'] = 'i';
+    }
+
+    /**
+     * What happens to a message containing a term.
+     */
+    enum Action {
+        CENSOR,
+        BLOCK,
+        ALERT;
+
+        private int bit() {
+            return 1 << ordinal();
+        }
+    }
+
+    /**
+     * The outcome of checking one message.
+     */
+    static final class Result {
+        private final int actions;
+        private final String censored;
+        private final String term;
+
+        private Result(int actions, @Nullable String censored, String term) {
+            this.actions = actions;
+            this.censored = censored;
+            this.term = term;
+        }
+
+        boolean isBlocked() {
+            return (actions & Action.BLOCK.bit()) != 0;
+        }
+
+        boolean isAlert() {
+            return (actions & Action.ALERT.bit()) != 0;
+        }
+
+        /**
+         * Gets the message with censored terms masked, or null if nothing was censored.
+         */
+        @Nullable
+        String getCensored() {
+            return censored;
+        }
+
+        /**
+         * Gets the first matched text as it was written in the message.
+         */
+        @NotNull
+        String getTerm() {
+            return term;
+        }
+    }
+
+    private final char censorChar;
+    private final int termCount;
+    // Alphabet index + 1 per normalized char, 0 for chars no term contains
+    private final char[] alphabet;
+    private final int alphabetSize;
+    // delta[state * alphabetSize + symbol] is the next state, with failures already followed
+    private final int[] delta;
+    // First term ending in a state, further ones are chained through termNext
+    private final int[] stateTerm;
+    // Nearest state on the failure chain that ends a term, -1 for none
+    private final int[] outputLink;
+    private final int[] termNext;
+    private final int[] termLength;
+    private final int[] termActions;
+    private final boolean[] termWordStart;
+    private final boolean[] termWordEnd;
+
+    private ChatFilter(char censorChar, int termCount, char[] alphabet, int alphabetSize, int[] delta,
+                       int[] stateTerm, int[] outputLink, int[] termNext, int[] termLength, int[] termActions,
+                       boolean[] termWordStart, boolean[] termWordEnd) {
+        this.censorChar = censorChar;
+        this.termCount = termCount;
+        this.alphabet = alphabet;
+        this.alphabetSize = alphabetSize;
+        this.delta = delta;
+        this.stateTerm = stateTerm;
+        this.outputLink = outputLink;
+        this.termNext = termNext;
+        this.termLength = termLength;
+        this.termActions = termActions;
+        this.termWordStart = termWordStart;
+        this.termWordEnd = termWordEnd;
+    }
+
+    /**
+     * Compiles the word lists. Terms match whole words only, unless they start
+     * or end with {@code *}, which lets them match inside a longer word on that
+     * side. A term may be in several lists.
+     *
+     * @param lists The terms of each action
+     * @param censorChar The char that replaces censored text
+     * @return The filter, or null if there are no terms
+     */
+    @Nullable
+    static ChatFilter compile(@NotNull Map<Action, List<String>> lists, char censorChar) {
+        // Same normalized term with the same wildcards means the same term, merge their actions
+        Map<String, Integer> terms = new LinkedHashMap<>();
+        for (Map.Entry<Action, List<String>> entry : lists.entrySet()) {
+            for (String raw : entry.getValue()) {
+                String term = raw.trim();
+                boolean wordStart = !term.startsWith("*");
+                boolean wordEnd = !term.endsWith("*") || term.length() == 1;
+                term = normalize(term.substring(wordStart ? 0 : 1, wordEnd ? term.length() : term.length() - 1));
+                if (term.isEmpty()) {
+                    continue;
+                }
+                String key = (wordStart ? "" : "*") + term + (wordEnd ? "" : "*");
+                terms.merge(key, entry.getKey().bit(), (a, b) -> a | b);
+            }
+        }
+        if (terms.isEmpty()) {
+            return null;
+        }
+
+        int termCount = terms.size();
+        int[] termLength = new int[termCount];
+        int[] termActions = new int[termCount];
+        boolean[] termWordStart = new boolean[termCount];
+        boolean[] termWordEnd = new boolean[termCount];
+        String[] termText = new String[termCount];
+        char[] alphabet = new char[Character.MAX_VALUE + 1];
+        int alphabetSize = 0;
+        int maxStates = 1;
+
+        int id = 0;
+        for (Map.Entry<String, Integer> entry : terms.entrySet()) {
+            String key = entry.getKey();
+            boolean wordStart = !key.startsWith("*");
+            boolean wordEnd = !key.endsWith("*");
+            String term = key.substring(wordStart ? 0 : 1, wordEnd ? key.length() : key.length() - 1);
+            termText[id] = term;
+            termLength[id] = term.length();
+            termActions[id] = entry.getValue();
+            termWordStart[id] = wordStart;
+            termWordEnd[id] = wordEnd;
+            maxStates += term.length();
+            for (int i = 0; i < term.length(); i++) {
+                char c = term.charAt(i);
+                if (alphabet[c] == 0) {
+                    alphabet[c] = (char) ++alphabetSize;
+                }
+            }
+            id++;
+        }
+
+        // Trie, with -1 for missing transitions
+        int[] delta = new int[maxStates * alphabetSize];
+        Arrays.fill(delta, -1);
+        int[] stateTerm = new int[maxStates];
+        Arrays.fill(stateTerm, NO_TERM);
+        int[] termNext = new int[termCount];
+        int states = 1;
+        for (int term = 0; term < termCount; term++) {
+            int state = 0;
+            String text = termText[term];
+            for (int i = 0; i < text.length(); i++) {
+                int slot = state * alphabetSize + alphabet[text.charAt(i)] - 1;
+                if (delta[slot] < 0) {
+                    delta[slot] = states++;
+                }
+                state = delta[slot];
+            }
+            termNext[term] = stateTerm[state];
+            stateTerm[state] = term;
+        }
+
+        // Breadth first, so the failure state's row is complete before it is copied from
+        int[] fail = new int[states];
+        int[] outputLink = new int[states];
+        Arrays.fill(outputLink, NO_TERM);
+        int[] queue = new int[states];
+        int head = 0;
+        int tail = 0;
+        for (int symbol = 0; symbol < alphabetSize; symbol++) {
+            int next = delta[symbol];
+            if (next < 0) {
+                delta[symbol] = 0;
+            } else {
+                queue[tail++] = next;
+            }
+        }
+        while (head < tail) {
+            int state = queue[head++];
+            int failRow = fail[state] * alphabetSize;
+            int row = state * alphabetSize;
+            for (int symbol = 0; symbol < alphabetSize; symbol++) {
+                int next = delta[row + symbol];
+                if (next < 0) {
+                    delta[row + symbol] = delta[failRow + symbol];
+                    continue;
+                }
+                int nextFail = delta[failRow + symbol];
+                fail[next] = nextFail;
+                outputLink[next] = stateTerm[nextFail] != NO_TERM ? nextFail : outputLink[nextFail];
+                queue[tail++] = next;
+            }
+        }
+
+        return new ChatFilter(censorChar, termCount, alphabet, alphabetSize,
+            Arrays.copyOf(delta, states * alphabetSize), Arrays.copyOf(stateTerm, states), outputLink,
+            termNext, termLength, termActions, termWordStart, termWordEnd);
+    }
+
+    /**
+     * Checks a message in one pass.
+     *
+     * @param message The plain text message
+     * @return The result, or null if no term matched
+     */
+    @Nullable
+    Result check(@NotNull String message) {
+        int length = message.length();
+        int state = 0;
+        int actions = 0;
+        char[] censored = null;
+        String firstTerm = null;
+
+        for (int i = 0; i < length; i++) {
+            int symbol = alphabet[normalize(message.charAt(i))];
+            state = symbol == 0 ? 0 : delta[state * alphabetSize + symbol - 1];
+
+            for (int output = stateTerm[state] != NO_TERM ? state : outputLink[state]; output > 0; output = outputLink[output]) {
+                for (int term = stateTerm[output]; term != NO_TERM; term = termNext[term]) {
+                    int start = i - termLength[term] + 1;
+                    if ((termWordStart[term] && start > 0 && isWordChar(message.charAt(start - 1)))
+                        || (termWordEnd[term] && i + 1 < length && isWordChar(message.charAt(i + 1)))) {
+                        continue;
+                    }
+
+                    actions |= termActions[term];
+                    if (firstTerm == null) {
+                        firstTerm = message.substring(start, i + 1);
+                    }
+                    if ((termActions[term] & Action.CENSOR.bit()) != 0) {
+                        if (censored == null) {
+                            censored = message.toCharArray();
+                        }
+                        Arrays.fill(censored, start, i + 1, censorChar);
+                    }
+                }
+            }
+        }
+
+        if (actions == 0) {
+            return null;
+        }
+        return new Result(actions, censored != null ? new String(censored) : null, firstTerm);
+    }
+
+    /**
+     * Gets the number of distinct terms.
+     */
+    int getTermCount() {
+        return termCount;
+    }
+
+    /**
+     * Gets the number of automaton states.
+     */
+    int getStateCount() {
+        return stateTerm.length;
+    }
+
+    /**
+     * Creates an empty list per action, in action order.
+     */
+    @NotNull
+    static Map<Action, List<String>> emptyLists() {
+        Map<Action, List<String>> lists = new LinkedHashMap<>();
+        for (Action action : Action.values()) {
+            lists.put(action, new ArrayList<>());
+        }
+        return lists;
+    }
+
+    private static String normalize(String text) {
+        char[] chars = new char[text.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = normalize(text.charAt(i));
+        }
+        return new String(chars);
+    }
+
+    private static char normalize(char c) {
+        return c < NORMALIZED.length ? NORMALIZED[c] : Character.toLowerCase(c);
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c);
+    }
+}
@@ -2,10 +2,18 @@ package amg.plugins.aMGCore.managers;
 
 import amg.plugins.aMGCore.AMGCore;
 import amg.plugins.aMGCore.utils.DebugLogger;
+import amg.plugins.aMGCore.utils.LegacyColors;
 import me.clip.placeholderapi.PlaceholderAPI;
+import net.kyori.adventure.audience.Audience;
+import net.kyori.adventure.key.Key;
+import net.kyori.adventure.sound.Sound;
 import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.minimessage.MiniMessage;
 import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import net.luckperms.api.LuckPerms;
+import net.luckperms.api.event.EventSubscription;
+import net.luckperms.api.event.user.UserDataRecalculateEvent;
 import net.luckperms.api.model.user.User;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
@@ -24,35 +32,60 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class ChatManager implements Listener {
     private final AMGCore plugin;
     private final DatabaseManager databaseManager;
     private final LocaleManager localeManager;
     private final Map<UUID, String> playerChannels;
+    private final Map<String, Set<Audience>> channelMembers;
     private final Map<UUID, MuteData> mutedPlayers;
     private final Map<UUID, UUID> lastMessageFrom;
     private final Map<UUID, String> lastMessage;
+    private final Map<UUID, CachedPrefix> prefixes;
+    private final long placeholderPrefixTtlMillis;
     private final Map<String, ChatChannel> channels;
     private static final String DEFAULT_CHANNEL = "global";
     private static final long MUTE_CHECK_INTERVAL = 60L; // Check mutes every minute
+    private static final long DEFAULT_PLACEHOLDER_PREFIX_TTL_SECONDS = 10L;
+    private static final String DEFAULT_MENTION_SOUND = "minecraft:entity.experience_orb.pickup";
     private LuckPerms luckPerms;
+    private EventSubscription<UserDataRecalculateEvent> recalculateSubscription;
     private boolean placeholderAPIEnabled;
+    private volatile ChatFilter chatFilter;
+    private final ChatSpamGuard spamGuard;
+    private final MentionIndex mentionIndex;
+    private volatile boolean mentionsEnabled;
+    private volatile boolean bareNameMentions;
+    private volatile Sound mentionSound;
+    private final ChatArchive archive;
 
     public ChatManager(AMGCore plugin, DatabaseManager databaseManager) {
         this.plugin = plugin;
         this.databaseManager = databaseManager;
         this.localeManager = plugin.getLocaleManager();
         this.playerChannels = new ConcurrentHashMap<>();
+        this.channelMembers = new ConcurrentHashMap<>();
         this.mutedPlayers = new ConcurrentHashMap<>();
         this.lastMessageFrom = new ConcurrentHashMap<>();
         this.lastMessage = new ConcurrentHashMap<>();
         this.channels = new ConcurrentHashMap<>();
+        this.prefixes = new ConcurrentHashMap<>();
+        this.spamGuard = new ChatSpamGuard(plugin.getConfig().getConfigurationSection("chat.spam"));
+        this.mentionIndex = new MentionIndex();
+        loadMentionSettings();
+        this.placeholderPrefixTtlMillis = TimeUnit.SECONDS.toMillis(Math.max(1L,
+            plugin.getConfig().getLong("chat.prefix_placeholder_ttl_seconds", DEFAULT_PLACEHOLDER_PREFIX_TTL_SECONDS)));
         
         // Initialize LuckPerms
         RegisteredServiceProvider<LuckPerms> provider = Bukkit.getServicesManager().getRegistration(LuckPerms.class);
         if (provider != null) {
             this.luckPerms = provider.getProvider();
+            // Cached prefixes go stale when a user's groups or meta change
+            this.recalculateSubscription = luckPerms.getEventBus().subscribe(plugin, UserDataRecalculateEvent.class,
+                event -> invalidatePrefix(event.getUser().getUniqueId()));
             plugin.getLogger().info("LuckPerms integration enabled");
         } else {
             plugin.getLogger().warning("LuckPerms not found, prefixes will not be available");
@@ -66,14 +99,27 @@ public class ChatManager implements Listener {
             plugin.getLogger().warning("PlaceholderAPI not found, placeholders will not be available");
         }
         
-        // Initialize database tables
-        initializeDatabase();
+        // Make sure the global channel exists
+        createDefaultChannel();
         
         // Load channels
         loadChannels();
         
         // Load muted players
         loadMutedPlayers();
+
+        // Compile the chat filter before the first message can arrive
+        chatFilter = compileFilter(readFilterLists(), getCensorChar());
+
+        // Start archiving before the first message can arrive
+        this.archive = plugin.getConfig().getBoolean("chat.archive.enabled", true)
+            ? new ChatArchive(plugin, databaseManager)
+            : null;
+
+        // Players already online when the module is enabled can be mentioned too
+        for (Player online : Bukkit.getOnlinePlayers()) {
+            mentionIndex.add(online);
+        }
         
         // Register events
         plugin.getServer().getPluginManager().registerEvents(this, plugin);
@@ -82,55 +128,27 @@ public class ChatManager implements Listener {
         startMuteCleanupTask();
     }
 
-    private void initializeDatabase() {
-        try (Connection conn = databaseManager.getConnection()) {
-            try (Statement stmt = conn.createStatement()) {
-                // Chat channels table
-                stmt.execute("""
-                    CREATE TABLE IF NOT EXISTS chat_channels (
-                        name VARCHAR(32) PRIMARY KEY,
-                        format VARCHAR(255) NOT NULL,
-                        permission VARCHAR(64),
-                        global BOOLEAN DEFAULT FALSE,
-                        created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-                    )
-                """);
-                
-                // Muted players table
-                stmt.execute("""
-                    CREATE TABLE IF NOT EXISTS muted_players (
-                        uuid VARCHAR(36) PRIMARY KEY,
-                        muted_by VARCHAR(36) NOT NULL,
-                        reason TEXT,
-                        expires_at TIMESTAMP,
-                        created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-                    )
-                """);
-                
-                                 // Insert default channel if not exists
-                String globalFormat = localeManager != null 
-                    ? localeManager.getMessage("chat.format.global") 
-                    : "<gray>[<color:#00ff00>Global</color>]</gray> {message}";
-                
-                try (PreparedStatement pstmt = conn.prepareStatement(
-                    "MERGE INTO chat_channels (name, format, global) VALUES (?, ?, ?)"
-                )) {
+    private void createDefaultChannel() {
+        String globalFormat = localeManager != null 
+            ? localeManager.getMessage("chat.format.global") 
+            : "<gray>[<color:#00ff00>Global</color>]</gray> {message}";
+        
+        try {
+            databaseManager.update("chat_channels.create_default",
+                "MERGE INTO chat_channels (name, format, global) VALUES (?, ?, ?)", pstmt -> {
                     pstmt.setString(1, "global");
                     pstmt.setString(2, globalFormat);
                     pstmt.setBoolean(3, true);
-                    pstmt.executeUpdate();
-                }
-            }
+                });
         } catch (SQLException e) {
-            DebugLogger.severe("ChatManager", "Failed to initialize database tables", e);
+            DebugLogger.severe("ChatManager", "Failed to create the default channel", e);
             throw new RuntimeException("Failed to initialize chat database tables", e);
         }
     }
 
     private void loadChannels() {
         try (Connection conn = databaseManager.getConnection()) {
-            try (Statement stmt = conn.createStatement()) {
-                ResultSet rs = stmt.executeQuery("SELECT * FROM chat_channels");
+            databaseManager.query(conn, "chat_channels.load_all", "SELECT * FROM chat_channels", null, rs -> {
                 while (rs.next()) {
                     String name = rs.getString("name");
                     String format = rs.getString("format");
@@ -139,33 +157,32 @@ public class ChatManager implements Listener {
                     
                     // Remove player name from format if present
                     if (format.contains("{player}")) {
-                        format = format.replace("{player}: ", "").replace("{player}:", "");
+                        String updatedFormat = format.replace("{player}: ", "").replace("{player}:", "");
+                        format = updatedFormat;
                         // Update in database
-                        try (PreparedStatement updateStmt = conn.prepareStatement(
-                            "UPDATE chat_channels SET format = ? WHERE name = ?"
-                        )) {
-                            updateStmt.setString(1, format);
-                            updateStmt.setString(2, name);
-                            updateStmt.executeUpdate();
-                            DebugLogger.debug("ChatManager", "Updated format for channel: " + name);
-                        }
+                        databaseManager.update(conn, "chat_channels.update_format",
+                            "UPDATE chat_channels SET format = ? WHERE name = ?", updateStmt -> {
+                                updateStmt.setString(1, updatedFormat);
+                                updateStmt.setString(2, name);
+                            });
+                        DebugLogger.debug("ChatManager", "Updated format for channel: " + name);
                     }
                     
                     channels.put(name, new ChatChannel(name, format, permission, global));
                 }
-            }
+                return null;
+            });
         } catch (SQLException e) {
             DebugLogger.severe("ChatManager", "Failed to load chat channels", e);
         }
     }
 
     private void loadMutedPlayers() {
-        try (Connection conn = databaseManager.getConnection()) {
-            try (Statement stmt = conn.createStatement()) {
-                ResultSet rs = stmt.executeQuery("SELECT * FROM muted_players");
+        try {
+            databaseManager.query("muted_players.load_all", "SELECT * FROM muted_players", null, rs -> {
                 while (rs.next()) {
-                    UUID playerUuid = UUID.fromString(rs.getString("uuid"));
-                    UUID mutedBy = UUID.fromString(rs.getString("muted_by"));
+                    UUID playerUuid = rs.getObject("uuid", UUID.class);
+                    UUID mutedBy = rs.getObject("muted_by", UUID.class);
                     String reason = rs.getString("reason");
                     Timestamp expiresAt = rs.getTimestamp("expires_at");
                     
@@ -192,7 +209,8 @@ public class ChatManager implements Listener {
                         ));
                     }
                 }
-            }
+                return null;
+            });
         } catch (SQLException e) {
             DebugLogger.severe("ChatManager", "Failed to load muted players", e);
         }
@@ -205,13 +223,9 @@ public class ChatManager implements Listener {
                 MuteData muteData = entry.getValue();
                 if (muteData.getExpiry() != null && now.isAfter(muteData.getExpiry())) {
                     // Remove from database
-                    try (Connection conn = databaseManager.getConnection()) {
-                        try (PreparedStatement stmt = conn.prepareStatement(
-                            "DELETE FROM muted_players WHERE uuid = ?"
-                        )) {
-                            stmt.setString(1, entry.getKey().toString());
-                            stmt.executeUpdate();
-                        }
+                    try {
+                        databaseManager.update("muted_players.delete_expired", "DELETE FROM muted_players WHERE uuid = ?",
+                            stmt -> stmt.setObject(1, entry.getKey()));
                     } catch (SQLException e) {
                         DebugLogger.severe("ChatManager", "Failed to remove expired mute", e);
                     }
@@ -233,8 +247,37 @@ public class ChatManager implements Listener {
         }, MUTE_CHECK_INTERVAL * 20L, MUTE_CHECK_INTERVAL * 20L);
     }
     
-    private String getPlayerPrefix(Player player) {
+    /**
+     * Gets a player's chat prefix, followed by a space if there is one.
+     * <p>
+     * Prefixes are resolved once and cached until LuckPerms recalculates the
+     * player's data. Prefixes that went through PlaceholderAPI can change at
+     * any time, so they expire after a short TTL. Either way the new prefix is
+     * resolved on the main thread while the old one is still served.
+     */
+    private Component getPlayerPrefix(Player player) {
+        CachedPrefix cached = prefixes.get(player.getUniqueId());
+        if (cached == null) {
+            cached = resolvePrefix(player);
+            if (player.isOnline()) {
+                prefixes.put(player.getUniqueId(), cached);
+            }
+            return cached.component;
+        }
+
+        if (cached.isExpired(System.currentTimeMillis()) && cached.refreshing.compareAndSet(false, true)) {
+            if (Bukkit.isPrimaryThread()) {
+                refreshPrefix(player);
+            } else if (plugin.isEnabled()) {
+                Bukkit.getScheduler().runTask(plugin, () -> refreshPrefix(player));
+            }
+        }
+        return cached.component;
+    }
+
+    private CachedPrefix resolvePrefix(Player player) {
         String prefix = "";
+        boolean placeholders = false;
         
         // Get prefix from LuckPerms if available
         if (luckPerms != null) {
@@ -242,73 +285,53 @@ public class ChatManager implements Listener {
             if (user != null) {
                 String lpPrefix = user.getCachedData().getMetaData().getPrefix();
                 if (lpPrefix != null) {
-                    // Convert legacy color codes to MiniMessage format
-                    prefix = convertLegacyColors(lpPrefix);
+                    prefix = lpPrefix;
                 }
             }
         }
         
         // Process PlaceholderAPI placeholders if available
         if (placeholderAPIEnabled) {
-            prefix = PlaceholderAPI.setPlaceholders(player, prefix);
+            if (prefix.indexOf('%') >= 0) {
+                prefix = PlaceholderAPI.setPlaceholders(player, prefix);
+                placeholders = true;
+            }
             // If no LuckPerms prefix, try getting it from PlaceholderAPI
             if (prefix.isEmpty()) {
-                prefix = convertLegacyColors(PlaceholderAPI.setPlaceholders(player, "%luckperms_prefix%"));
+                prefix = PlaceholderAPI.setPlaceholders(player, "%luckperms_prefix%");
+                placeholders = true;
             }
         }
-        
-        return prefix.isEmpty() ? "" : prefix + " ";
-    }
-
-    private String convertLegacyColors(String text) {
-        if (text == null || text.isEmpty()) {
-            return "";
-        }
-        
-        // Replace legacy color codes with MiniMessage format
-        return text.replace("&0", "<black>")
-                  .replace("&1", "<dark_blue>")
-                  .replace("&2", "<dark_green>")
-                  .replace("&3", "<dark_aqua>")
-                  .replace("&4", "<dark_red>")
-                  .replace("&5", "<dark_purple>")
-                  .replace("&6", "<gold>")
-                  .replace("&7", "<gray>")
-                  .replace("&8", "<dark_gray>")
-                  .replace("&9", "<blue>")
-                  .replace("&a", "<green>")
-                  .replace("&b", "<aqua>")
-                  .replace("&c", "<red>")
-                  .replace("&d", "<light_purple>")
-                  .replace("&e", "<yellow>")
-                  .replace("&f", "<white>")
-                  .replace("&l", "<bold>")
-                  .replace("&m", "<strikethrough>")
-                  .replace("&n", "<underline>")
-                  .replace("&o", "<italic>")
-                  .replace("&r", "<reset>")
-                  // Also handle § color codes
-                  .replace("§0", "<black>")
-                  .replace("§1", "<dark_blue>")
-                  .replace("§2", "<dark_green>")
-                  .replace("§3", "<dark_aqua>")
-                  .replace("§4", "<dark_red>")
-                  .replace("§5", "<dark_purple>")
-                  .replace("§6", "<gold>")
-                  .replace("§7", "<gray>")
-                  .replace("§8", "<dark_gray>")
-                  .replace("§9", "<blue>")
-                  .replace("§a", "<green>")
-                  .replace("§b", "<aqua>")
-                  .replace("§c", "<red>")
-                  .replace("§d", "<light_purple>")
-                  .replace("§e", "<yellow>")
-                  .replace("§f", "<white>")
-                  .replace("§l", "<bold>")
-                  .replace("§m", "<strikethrough>")
-                  .replace("§n", "<underline>")
-                  .replace("§o", "<italic>")
-                  .replace("§r", "<reset>");
+
+        // Convert legacy color codes to MiniMessage format
+        prefix = LegacyColors.toMiniMessage(prefix);
+        Component component = prefix.isEmpty()
+            ? Component.empty()
+            : MiniMessage.miniMessage().deserialize(prefix + " ");
+        long expiresAt = placeholders ? System.currentTimeMillis() + placeholderPrefixTtlMillis : 0L;
+        return new CachedPrefix(component, expiresAt);
+    }
+
+    private void refreshPrefix(Player player) {
+        if (!player.isOnline()) {
+            prefixes.remove(player.getUniqueId());
+            return;
+        }
+        prefixes.put(player.getUniqueId(), resolvePrefix(player));
+    }
+
+    private void invalidatePrefix(UUID playerUuid) {
+        // Keep serving the old prefix, chat threads must not resolve placeholders themselves
+        CachedPrefix cached = prefixes.get(playerUuid);
+        if (cached == null) {
+            return;
+        }
+        cached.stale = true;
+        Player player = Bukkit.getPlayer(playerUuid);
+        if (player != null && plugin.isEnabled()) {
+            cached.refreshing.set(true);
+            Bukkit.getScheduler().runTask(plugin, () -> refreshPrefix(player));
+        }
     }
 
     public boolean createChannel(@NotNull String name, @NotNull String format, @Nullable String permission) {
@@ -317,24 +340,23 @@ public class ChatManager implements Listener {
         }
         
         // Remove player name from format if present
-        if (format.contains("{player}")) {
-            format = format.replace("{player}: ", "").replace("{player}:", "");
-        }
+        String channelFormat = format.contains("{player}")
+            ? format.replace("{player}: ", "").replace("{player}:", "")
+            : format;
 
-        try (Connection conn = databaseManager.getConnection()) {
-            try (PreparedStatement stmt = conn.prepareStatement("""
+        try {
+            databaseManager.update("chat_channels.create", """
                 INSERT INTO chat_channels (name, format, permission, global)
                 VALUES (?, ?, ?, ?)
-            """)) {
+            """, stmt -> {
                 stmt.setString(1, name);
-                stmt.setString(2, format);
+                stmt.setString(2, channelFormat);
                 stmt.setString(3, permission);
                 stmt.setBoolean(4, true); // Default to global channel
-                stmt.executeUpdate();
-                
-                channels.put(name, new ChatChannel(name, format, permission, true));
-                return true;
-            }
+            });
+            
+            channels.put(name, new ChatChannel(name, channelFormat, permission, true));
+            return true;
         } catch (SQLException e) {
             DebugLogger.severe("ChatManager", "Failed to create chat channel: " + name, e);
             return false;
@@ -346,34 +368,33 @@ public class ChatManager implements Listener {
             return false;
         }
 
-        try (Connection conn = databaseManager.getConnection()) {
-            try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM chat_channels WHERE name = ?")) {
-                stmt.setString(1, name);
-                int affected = stmt.executeUpdate();
+        try {
+            int affected = databaseManager.update("chat_channels.delete", "DELETE FROM chat_channels WHERE name = ?",
+                stmt -> stmt.setString(1, name));
+            if (affected > 0) {
+                channels.remove(name);
                 
-                if (affected > 0) {
-                    channels.remove(name);
-                    
-                    // Move players in this channel to default channel
-                    playerChannels.entrySet().removeIf(entry -> {
-                        if (entry.getValue().equals(name)) {
-                            Player player = Bukkit.getPlayer(entry.getKey());
-                                                         if (player != null) {
-                                if (localeManager != null) {
-                                    player.sendMessage(localeManager.getComponent("chat.format.global", name, DEFAULT_CHANNEL));
-                                } else {
-                                    player.sendMessage(Component.text("Channel " + name + " has been deleted. You have been moved to " + DEFAULT_CHANNEL));
-                                }
-                            }
-                            return true;
+                // Move players in this channel to default channel
+                Set<Audience> members = channelMembers.remove(name);
+                if (members != null) {
+                    for (Audience member : members) {
+                        if (!(member instanceof Player)) {
+                            continue;
                         }
-                        return false;
-                    });
-                    
-                    return true;
+                        Player player = (Player) member;
+                        playerChannels.put(player.getUniqueId(), DEFAULT_CHANNEL);
+                        getMembers(DEFAULT_CHANNEL).add(player);
+                        if (localeManager != null) {
+                            player.sendMessage(localeManager.getComponent("chat.format.global", name, DEFAULT_CHANNEL));
+                        } else {
+                            player.sendMessage(Component.text("Channel " + name + " has been deleted. You have been moved to " + DEFAULT_CHANNEL));
+                        }
+                    }
                 }
-                return false;
+                
+                return true;
             }
+            return false;
         } catch (SQLException e) {
             DebugLogger.severe("ChatManager", "Failed to delete chat channel: " + name, e);
             return false;
@@ -396,6 +417,7 @@ public class ChatManager implements Listener {
         }
 
         String oldChannel = playerChannels.put(player.getUniqueId(), channelName);
+        moveMember(player, oldChannel, channelName);
         
         if (localeManager != null) {
             player.sendMessage(localeManager.getComponent("chat.format.global", channelName));
@@ -423,75 +445,58 @@ public class ChatManager implements Listener {
         }
         Instant expiresAt = duration != null ? Instant.now().plus(duration) : null;
         
-        try (Connection conn = databaseManager.getConnection()) {
-            try (PreparedStatement stmt = conn.prepareStatement("""
-                MERGE INTO muted_players (uuid, muted_by, reason, expires_at)
-                VALUES (?, ?, ?, ?)
-            """)) {
-                stmt.setString(1, playerUuid.toString());
-                stmt.setString(2, mutedBy.toString());
-                stmt.setString(3, reason);
-                stmt.setTimestamp(4, expiresAt != null ? Timestamp.from(expiresAt) : null);
-                stmt.executeUpdate();
-                
-                mutedPlayers.put(playerUuid, new MuteData(
-                    Instant.now(),
-                    expiresAt,
-                    reason,
-                    mutedBy
-                ));
-                
-                // Notify player if online
-                Player player = Bukkit.getPlayer(playerUuid);
-                if (player != null) {
-                    if (localeManager != null) {
-                        String timeText = duration != null ? formatDuration(duration) : localeManager.getMessage("chat.mute.permanent");
-                        player.sendMessage(localeManager.getComponent("chat.mute.muted", reason != null ? reason : "", timeText));
-                    } else {
-                        String reasonText = reason != null ? " for: " + reason : "";
-                        String timeText = duration != null ? formatDuration(duration) : "PERMANENT";
-                        player.sendMessage(Component.text("You have been muted" + reasonText + ". Time remaining: " + timeText));
-                    }
-                }
-                return true;
+        databaseManager.queueWrite("muted_players:" + playerUuid, """
+            MERGE INTO muted_players (uuid, muted_by, reason, expires_at)
+            VALUES (?, ?, ?, ?)
+        """, stmt -> {
+            stmt.setObject(1, playerUuid);
+            stmt.setObject(2, mutedBy);
+            stmt.setString(3, reason);
+            stmt.setTimestamp(4, expiresAt != null ? Timestamp.from(expiresAt) : null);
+        });
+        
+        mutedPlayers.put(playerUuid, new MuteData(
+            Instant.now(),
+            expiresAt,
+            reason,
+            mutedBy
+        ));
+        
+        // Notify player if online
+        Player player = Bukkit.getPlayer(playerUuid);
+        if (player != null) {
+            if (localeManager != null) {
+                String timeText = duration != null ? formatDuration(duration) : localeManager.getMessage("chat.mute.permanent");
+                player.sendMessage(localeManager.getComponent("chat.mute.muted", reason != null ? reason : "", timeText));
+            } else {
+                String reasonText = reason != null ? " for: " + reason : "";
+                String timeText = duration != null ? formatDuration(duration) : "PERMANENT";
+                player.sendMessage(Component.text("You have been muted" + reasonText + ". Time remaining: " + timeText));
             }
-        } catch (SQLException e) {
-            DebugLogger.severe("ChatManager", "Failed to mute player: " + playerUuid, e);
-            return false;
         }
+        return true;
     }
 
     public boolean unmutePlayer(@NotNull UUID playerUuid) {
-        if (!mutedPlayers.containsKey(playerUuid)) {
+        if (mutedPlayers.remove(playerUuid) == null) {
             return false;
         }
 
-        try (Connection conn = databaseManager.getConnection()) {
-            try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM muted_players WHERE uuid = ?")) {
-                stmt.setString(1, playerUuid.toString());
-                int affected = stmt.executeUpdate();
-                
-                if (affected > 0) {
-                    mutedPlayers.remove(playerUuid);
-                    
-                    // Notify player if online
-                    Player player = Bukkit.getPlayer(playerUuid);
-                    if (player != null) {
-                        if (localeManager != null) {
-                            player.sendMessage(localeManager.getComponent("chat.mute.unmuted"));
-                        } else {
-                            player.sendMessage(Component.text("You have been unmuted"));
-                        }
-                    }
-                    
-                    return true;
-                }
-                return false;
+        databaseManager.queueWrite("muted_players:" + playerUuid,
+            "DELETE FROM muted_players WHERE uuid = ?",
+            stmt -> stmt.setObject(1, playerUuid));
+        
+        // Notify player if online
+        Player player = Bukkit.getPlayer(playerUuid);
+        if (player != null) {
+            if (localeManager != null) {
+                player.sendMessage(localeManager.getComponent("chat.mute.unmuted"));
+            } else {
+                player.sendMessage(Component.text("You have been unmuted"));
             }
-        } catch (SQLException e) {
-            DebugLogger.severe("ChatManager", "Failed to unmute player: " + playerUuid, e);
-            return false;
         }
+        
+        return true;
     }
 
     public boolean isPlayerMuted(@NotNull UUID playerUuid) {
@@ -528,15 +533,40 @@ public class ChatManager implements Listener {
         return playerChannels.get(playerUuid);
     }
 
-    private void broadcastToChannel(@NotNull String channel, @NotNull Component message) {
-        for (Map.Entry<UUID, String> entry : playerChannels.entrySet()) {
-            if (entry.getValue().equals(channel)) {
-                Player player = Bukkit.getPlayer(entry.getKey());
-                if (player != null) {
-                    player.sendMessage(message);
-                }
+    /**
+     * Gets the online players in a channel.
+     *
+     * @param channel The channel name
+     * @return A live, unmodifiable view of the channel's members
+     */
+    @NotNull
+    public Set<Audience> getChannelMembers(@NotNull String channel) {
+        Set<Audience> members = channelMembers.get(channel);
+        return members != null ? Collections.unmodifiableSet(members) : Collections.emptySet();
+    }
+
+    private Set<Audience> getMembers(String channel) {
+        return channelMembers.computeIfAbsent(channel, name -> ConcurrentHashMap.newKeySet());
+    }
+
+    private void moveMember(Player player, @Nullable String oldChannel, String newChannel) {
+        if (oldChannel != null && !oldChannel.equals(newChannel)) {
+            Set<Audience> members = channelMembers.get(oldChannel);
+            if (members != null) {
+                members.remove(player);
             }
         }
+        getMembers(newChannel).add(player);
+    }
+
+    private void broadcastToChannel(@NotNull String channel, @NotNull Component message) {
+        Set<Audience> members = channelMembers.get(channel);
+        if (members == null) {
+            return;
+        }
+        for (Audience member : members) {
+            member.sendMessage(message);
+        }
     }
 
     @EventHandler(priority = EventPriority.NORMAL)
@@ -572,45 +602,234 @@ public class ChatManager implements Listener {
         
         // Get player's channel
         String channelName = playerChannels.getOrDefault(player.getUniqueId(), DEFAULT_CHANNEL);
-        ChatChannel channel = channels.get(channelName);
+        ChatChannel found = channels.get(channelName);
         
-        if (channel == null) {
+        if (found == null) {
             // Fallback to default channel
-            channel = channels.get(DEFAULT_CHANNEL);
+            found = channels.get(DEFAULT_CHANNEL);
             playerChannels.put(player.getUniqueId(), DEFAULT_CHANNEL);
+            moveMember(player, channelName, DEFAULT_CHANNEL);
+            channelName = DEFAULT_CHANNEL;
         }
+        ChatChannel channel = found;
 
-        // Get player's prefix
-        String prefix = getPlayerPrefix(player);
-        
-        // Get the message content
-        Component messageComponent = event.message();
-        
-        // Broadcast the message
-        Component formattedMessage = localeManager.getComponent("chat.format.global", 
-            prefix + player.getName(), 
-            PlainTextComponentSerializer.plainText().serialize(messageComponent));
-        Bukkit.broadcast(formattedMessage);
-        
-        // Cancel the original event since we're handling the broadcast ourselves
-        event.setCancelled(true);
+        // Drop floods and repeats before doing any more work on them
+        String plainMessage = PlainTextComponentSerializer.plainText().serialize(event.message());
+        if (!player.hasPermission("amgcore.chat.spam.bypass")) {
+            ChatSpamGuard.Verdict verdict = spamGuard.check(player.getUniqueId(), channelName, plainMessage);
+            if (verdict != ChatSpamGuard.Verdict.ALLOWED) {
+                event.setCancelled(true);
+                player.sendMessage(localeManager.getComponent(player, verdict == ChatSpamGuard.Verdict.TOO_FAST
+                    ? "chat.spam.too_fast" : "chat.spam.duplicate"));
+                return;
+            }
+        }
+
+        // Filter the message before anyone sees it
+        ChatFilter filter = chatFilter;
+        if (filter != null && !player.hasPermission("amgcore.chat.filter.bypass")) {
+            ChatFilter.Result result = filter.check(plainMessage);
+            if (result != null) {
+                if (result.isAlert()) {
+                    Bukkit.broadcast(localeManager.getComponent("chat.filter.alert", player.getName(),
+                        Component.text(plainMessage), Component.text(result.getTerm())), "amgcore.chat.filter.alert");
+                }
+                if (result.isBlocked()) {
+                    event.setCancelled(true);
+                    player.sendMessage(localeManager.getComponent(player, "chat.filter.blocked"));
+                    return;
+                }
+                if (result.getCensored() != null) {
+                    plainMessage = result.getCensored();
+                    event.message(Component.text(plainMessage));
+                }
+            }
+        }
+
+        // Only the channel's members and the console see the message, Paper does the sending
+        Set<Audience> viewers = event.viewers();
+        viewers.clear();
+        viewers.addAll(getMembers(channelName));
+        viewers.add(Bukkit.getConsoleSender());
+
+        // Render once per viewer locale, every viewer with the same locale gets the same component
+        Component sender = getPlayerPrefix(player).append(Component.text(player.getName()));
+        String text = plainMessage;
+        MentionIndex.Mentions mentions = mentionsEnabled ? mentionIndex.find(text, bareNameMentions) : null;
+        Map<String, Component> rendered = new ConcurrentHashMap<>();
+        event.renderer((source, sourceDisplayName, message, viewer) -> {
+            Player viewerPlayer = viewer instanceof Player ? (Player) viewer : null;
+            if (mentions != null && viewerPlayer != null && viewerPlayer != player
+                && mentions.contains(viewerPlayer.getUniqueId())) {
+                return formatChatMessage(channel, viewerPlayer, sender, highlightMentions(viewerPlayer, text, mentions));
+            }
+            String locale = viewerPlayer != null ? localeManager.getPlayerLocale(viewerPlayer) : "";
+            return rendered.computeIfAbsent(locale, key -> formatChatMessage(channel, viewerPlayer, sender, message));
+        });
         
         // Store last message for reply command
-        lastMessage.put(player.getUniqueId(), PlainTextComponentSerializer.plainText().serialize(messageComponent));
+        lastMessage.put(player.getUniqueId(), plainMessage);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onChatSent(AsyncChatEvent event) {
+        // Read the message here, after the filter and other plugins have had their say
+        Player player = event.getPlayer();
+        String plainMessage = PlainTextComponentSerializer.plainText().serialize(event.message());
+        if (archive != null) {
+            archive.record(player.getUniqueId(), player.getName(),
+                playerChannels.getOrDefault(player.getUniqueId(), DEFAULT_CHANNEL), plainMessage);
+        }
+        pingMentioned(player, plainMessage, event.viewers());
+    }
+
+    /**
+     * Plays the mention sound to the mentioned viewers of a message that is
+     * going to be sent. Sounds are played in one task on the main thread.
+     */
+    private void pingMentioned(Player sender, String plainMessage, Set<Audience> viewers) {
+        MentionIndex.Mentions mentions = mentionsEnabled ? mentionIndex.find(plainMessage, bareNameMentions) : null;
+        if (mentions == null) {
+            return;
+        }
+        List<Player> mentioned = new ArrayList<>(mentions.size());
+        for (Audience viewer : viewers) {
+            if (viewer instanceof Player && viewer != sender && mentions.contains(((Player) viewer).getUniqueId())) {
+                mentioned.add((Player) viewer);
+            }
+        }
+        if (mentioned.isEmpty()) {
+            return;
+        }
+        Sound sound = mentionSound;
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            for (Player player : mentioned) {
+                if (player.isOnline()) {
+                    player.playSound(sound);
+                }
+            }
+        });
+    }
+
+    /**
+     * Gets the chat archive.
+     *
+     * @return The archive, or null if archiving is disabled
+     */
+    @Nullable
+    public ChatArchive getArchive() {
+        return archive;
+    }
+
+    /**
+     * Reloads the chat filter and spam limits from the config. The filter is
+     * rebuilt off the main thread, messages keep using the old one until the
+     * new one is swapped in.
+     */
+    public void reload() {
+        spamGuard.reload(plugin.getConfig().getConfigurationSection("chat.spam"));
+        loadMentionSettings();
+
+        // The config is read here, only the compiling happens off-thread
+        Map<ChatFilter.Action, List<String>> lists = readFilterLists();
+        char censorChar = getCensorChar();
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            chatFilter = compileFilter(lists, censorChar);
+        });
+    }
+
+    private void loadMentionSettings() {
+        mentionsEnabled = plugin.getConfig().getBoolean("chat.mentions.enabled", true);
+        bareNameMentions = plugin.getConfig().getBoolean("chat.mentions.bare_names", true);
+        String soundName = plugin.getConfig().getString("chat.mentions.sound", DEFAULT_MENTION_SOUND);
+        Key soundKey;
+        try {
+            soundKey = Key.key(soundName != null ? soundName : DEFAULT_MENTION_SOUND);
+        } catch (RuntimeException e) {
+            DebugLogger.warning("ChatManager", "Invalid mention sound " + soundName + ", using " + DEFAULT_MENTION_SOUND);
+            soundKey = Key.key(DEFAULT_MENTION_SOUND);
+        }
+        mentionSound = Sound.sound(soundKey, Sound.Source.MASTER,
+            (float) plugin.getConfig().getDouble("chat.mentions.volume", 1.0),
+            (float) plugin.getConfig().getDouble("chat.mentions.pitch", 1.2));
+    }
+
+    private Map<ChatFilter.Action, List<String>> readFilterLists() {
+        Map<ChatFilter.Action, List<String>> lists = ChatFilter.emptyLists();
+        if (!plugin.getConfig().getBoolean("chat.filter.enabled", true)) {
+            return lists;
+        }
+        for (ChatFilter.Action action : ChatFilter.Action.values()) {
+            lists.get(action).addAll(plugin.getConfig().getStringList("chat.filter." + action.name().toLowerCase(Locale.ROOT)));
+        }
+        return lists;
+    }
+
+    private char getCensorChar() {
+        String censor = plugin.getConfig().getString("chat.filter.censor_character", "*");
+        return censor == null || censor.isEmpty() ? '*' : censor.charAt(0);
+    }
+
+    @Nullable
+    private ChatFilter compileFilter(Map<ChatFilter.Action, List<String>> lists, char censorChar) {
+        try {
+            long start = System.nanoTime();
+            ChatFilter filter = ChatFilter.compile(lists, censorChar);
+            if (filter != null) {
+                DebugLogger.info("ChatManager", "Compiled chat filter: " + filter.getTermCount() + " terms, "
+                    + filter.getStateCount() + " states in " + (System.nanoTime() - start) / 1_000_000L + "ms");
+            }
+            return filter;
+        } catch (RuntimeException e) {
+            // Keep filtering with the old lists rather than not at all
+            DebugLogger.severe("ChatManager", "Failed to compile chat filter", e);
+            return chatFilter;
+        }
+    }
+
+    /**
+     * Rebuilds a message with the viewer's own mentions highlighted.
+     */
+    private Component highlightMentions(Player viewer, String text, MentionIndex.Mentions mentions) {
+        TextComponent.Builder builder = Component.text();
+        int position = 0;
+        for (int i = 0; i < mentions.size(); i++) {
+            if (!mentions.getPlayer(i).equals(viewer.getUniqueId())) {
+                continue;
+            }
+            if (mentions.getStart(i) > position) {
+                builder.append(Component.text(text.substring(position, mentions.getStart(i))));
+            }
+            builder.append(localeManager.getComponent(viewer, "chat.mention.highlight",
+                Component.text(text.substring(mentions.getStart(i), mentions.getEnd(i)))));
+            position = mentions.getEnd(i);
+        }
+        if (position < text.length()) {
+            builder.append(Component.text(text.substring(position)));
+        }
+        return builder.build();
+    }
+
+    private Component formatChatMessage(@Nullable ChatChannel channel, @Nullable Player viewer, Component sender, Component message) {
+        // The message is passed as a component so players can't use tags in it
+        if (channel == null || channel.getName().equals(DEFAULT_CHANNEL)) {
+            return localeManager.getComponent(viewer, "chat.format.global", sender, message);
+        }
+        return localeManager.getComponent(viewer, "chat.format.channel", channel.getPrefix(), sender, message);
     }
 
     public void sendPrivateMessage(Player sender, Player recipient, String message) {
         // Get sender's prefix
-        String senderPrefix = getPlayerPrefix(sender);
+        Component senderPrefix = getPlayerPrefix(sender);
         
         // Get recipient's prefix
-        String recipientPrefix = getPlayerPrefix(recipient);
+        Component recipientPrefix = getPlayerPrefix(recipient);
         
         // Format and send messages
         Component outgoingMessage = localeManager.getComponent("chat.format.outgoing", 
-            senderPrefix + sender.getName(), message);
+            senderPrefix.append(Component.text(sender.getName())), message);
         Component incomingMessage = localeManager.getComponent("chat.format.incoming", 
-            recipientPrefix + recipient.getName(), message);
+            recipientPrefix.append(Component.text(recipient.getName())), message);
         
         sender.sendMessage(outgoingMessage);
         recipient.sendMessage(incomingMessage);
@@ -625,9 +844,12 @@ public class ChatManager implements Listener {
         Player player = event.getPlayer();
         
         // Set default channel
-        if (!playerChannels.containsKey(player.getUniqueId())) {
-            playerChannels.put(player.getUniqueId(), DEFAULT_CHANNEL);
-        }
+        String channel = playerChannels.computeIfAbsent(player.getUniqueId(), uuid -> DEFAULT_CHANNEL);
+        getMembers(channel).add(player);
+
+        // Resolve the prefix here rather than on the first chat message
+        prefixes.put(player.getUniqueId(), resolvePrefix(player));
+        mentionIndex.add(player);
         
         // Check if player is muted
         if (isPlayerMuted(player.getUniqueId())) {
@@ -659,6 +881,12 @@ public class ChatManager implements Listener {
         
         // Remove from channel
         String channel = playerChannels.remove(playerUuid);
+        if (channel != null) {
+            Set<Audience> members = channelMembers.get(channel);
+            if (members != null) {
+                members.remove(player);
+            }
+        }
         if (channel != null && localeManager != null) {
             try {
                 Component message = localeManager.getComponent("chat.format.global", player.getName());
@@ -672,6 +900,24 @@ public class ChatManager implements Listener {
         // Clean up last message data
         lastMessage.remove(playerUuid);
         lastMessageFrom.remove(playerUuid);
+        prefixes.remove(playerUuid);
+        spamGuard.remove(playerUuid);
+        mentionIndex.remove(playerUuid);
+    }
+
+    /**
+     * Stops listening for LuckPerms changes, drops the cached prefixes and
+     * writes the archive's queued messages.
+     */
+    public void close() {
+        if (recalculateSubscription != null) {
+            recalculateSubscription.close();
+            recalculateSubscription = null;
+        }
+        prefixes.clear();
+        if (archive != null) {
+            archive.close();
+        }
     }
 
     private String formatDuration(Duration duration) {
@@ -702,6 +948,7 @@ public class ChatManager implements Listener {
         private final String format;
         private final String permission;
         private final boolean global;
+        private Component prefix;
 
         public ChatChannel(String name, String format, String permission, boolean global) {
             this.name = name;
@@ -725,6 +972,36 @@ public class ChatManager implements Listener {
         public boolean isGlobal() {
             return global;
         }
+
+        /**
+         * Gets the channel's format without the message, parsed once.
+         */
+        public Component getPrefix() {
+            Component parsed = prefix;
+            if (parsed == null) {
+                parsed = MiniMessage.miniMessage().deserialize(
+                    LegacyColors.toMiniMessage(format.replace("{message}", "").trim()));
+                prefix = parsed;
+            }
+            return parsed;
+        }
+    }
+
+    private static final class CachedPrefix {
+        private final Component component;
+        private final long expiresAt;
+        private final AtomicBoolean refreshing = new AtomicBoolean(false);
+        // Set when LuckPerms reports a change, the refresh replaces the whole entry
+        private volatile boolean stale;
+
+        private CachedPrefix(Component component, long expiresAt) {
+            this.component = component;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return stale || (expiresAt != 0L && now >= expiresAt);
+        }
     }
 
     public static class MuteData {
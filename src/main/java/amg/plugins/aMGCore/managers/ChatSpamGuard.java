@@ -0,0 +1,289 @@
+package amg.plugins.aMGCore.managers;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-player flood and near-duplicate detection for chat.
+ * <p>
+ * Every player has a token bucket per limited channel and a small ring of
+ * 64-bit SimHash fingerprints of their recent messages, all in primitive
+ * arrays of a fixed size. A message is rejected when its bucket is empty,
+ * or when its fingerprint is within the configured Hamming distance of a
+ * recent one. Fingerprints are built from character trigrams, so swapping a
+ * word or a number in an otherwise repeated message still lands close to
+ * the original, and history is compared with one XOR and bit count per
+ * entry rather than string comparisons.
+ */
+final class ChatSpamGuard {
+    private static final int MAX_HISTORY = 64;
+    private static final double DEFAULT_MESSAGES_PER_SECOND = 1.0;
+    private static final double DEFAULT_BURST = 5.0;
+    private static final int DEFAULT_HISTORY = 8;
+    private static final int DEFAULT_DUPLICATE_DISTANCE = 4;
+    private static final long DEFAULT_DUPLICATE_WINDOW_SECONDS = 60L;
+    private static final int DEFAULT_DUPLICATE_MIN_LENGTH = 6;
+
+    /**
+     * Whether a message may be sent.
+     */
+    enum Verdict {
+        ALLOWED,
+        TOO_FAST,
+        DUPLICATE
+    }
+
+    private final Map<UUID, State> states = new ConcurrentHashMap<>();
+    private volatile Settings settings;
+
+    ChatSpamGuard(@Nullable ConfigurationSection section) {
+        reload(section);
+    }
+
+    /**
+     * Reads the limits. Players keep their history, their buckets are
+     * refilled under the new limits.
+     *
+     * @param section The {@code chat.spam} section, null to use the defaults
+     */
+    void reload(@Nullable ConfigurationSection section) {
+        settings = Settings.read(section);
+    }
+
+    /**
+     * Checks a message and, if it is allowed, records it.
+     *
+     * @param player The sender
+     * @param channel The channel the message goes to
+     * @param message The plain text message
+     * @return The verdict
+     */
+    @NotNull
+    Verdict check(@NotNull UUID player, @NotNull String channel, @NotNull String message) {
+        Settings current = settings;
+        if (!current.enabled) {
+            return Verdict.ALLOWED;
+        }
+
+        Integer channelIndex = current.channelIndexes.get(channel);
+        int limit = channelIndex != null ? channelIndex : 0;
+        State state = states.computeIfAbsent(player, uuid -> new State(current));
+        long now = System.nanoTime();
+
+        synchronized (state) {
+            if (state.settings != current) {
+                state.adopt(current, now);
+            }
+
+            // Token bucket of this channel
+            double tokens = Math.min(current.burst[limit],
+                state.tokens[limit] + (now - state.refilledAt[limit]) * current.tokensPerNano[limit]);
+            state.refilledAt[limit] = now;
+            if (tokens < 1.0) {
+                state.tokens[limit] = tokens;
+                return Verdict.TOO_FAST;
+            }
+            state.tokens[limit] = tokens - 1.0;
+
+            int distance = current.duplicateDistance[limit];
+            if (distance < 0 || countSignificant(message) < current.duplicateMinLength) {
+                return Verdict.ALLOWED;
+            }
+
+            long fingerprint = simHash(message);
+            for (int i = 0; i < state.size; i++) {
+                if (now - state.times[i] <= current.duplicateWindowNanos
+                    && Long.bitCount(fingerprint ^ state.fingerprints[i]) <= distance) {
+                    // Keep repeating spam blocked for as long as it keeps coming
+                    state.times[i] = now;
+                    return Verdict.DUPLICATE;
+                }
+            }
+
+            state.fingerprints[state.next] = fingerprint;
+            state.times[state.next] = now;
+            state.next = (state.next + 1) % state.fingerprints.length;
+            state.size = Math.min(state.size + 1, state.fingerprints.length);
+            return Verdict.ALLOWED;
+        }
+    }
+
+    /**
+     * Forgets a player's state.
+     *
+     * @param player The player
+     */
+    void remove(@NotNull UUID player) {
+        states.remove(player);
+    }
+
+    private static int countSignificant(String message) {
+        int count = 0;
+        for (int i = 0; i < message.length(); i++) {
+            if (Character.isLetterOrDigit(message.charAt(i))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Computes the SimHash of a message over trigrams of its lower-cased
+     * letters and digits, ignoring spacing and punctuation.
+     */
+    private static long simHash(@NotNull String message) {
+        int[] weights = new int[Long.SIZE];
+        long window = 0L;
+        int seen = 0;
+        for (int i = 0; i < message.length(); i++) {
+            char c = message.charAt(i);
+            if (!Character.isLetterOrDigit(c)) {
+                continue;
+            }
+            window = ((window << 16) | Character.toLowerCase(c)) & 0xFFFF_FFFF_FFFFL;
+            if (++seen >= 3) {
+                addShingle(weights, mix(window));
+            }
+        }
+        if (seen > 0 && seen < 3) {
+            addShingle(weights, mix(window));
+        }
+
+        long fingerprint = 0L;
+        for (int bit = 0; bit < Long.SIZE; bit++) {
+            if (weights[bit] > 0) {
+                fingerprint |= 1L << bit;
+            }
+        }
+        return fingerprint;
+    }
+
+    private static void addShingle(int[] weights, long hash) {
+        for (int bit = 0; bit < Long.SIZE; bit++) {
+            weights[bit] += ((hash >>> bit) & 1L) != 0 ? 1 : -1;
+        }
+    }
+
+    // MurmurHash3 finalizer, spreads the packed chars over all 64 bits
+    private static long mix(long value) {
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static final class State {
+        private Settings settings;
+        private double[] tokens;
+        private long[] refilledAt;
+        private long[] fingerprints;
+        private long[] times;
+        private int next;
+        private int size;
+
+        private State(Settings settings) {
+            this.fingerprints = new long[settings.history];
+            this.times = new long[settings.history];
+            adopt(settings, System.nanoTime());
+        }
+
+        private void adopt(Settings settings, long now) {
+            int limits = settings.burst.length;
+            if (tokens == null || tokens.length != limits) {
+                tokens = new double[limits];
+                refilledAt = new long[limits];
+            }
+            for (int i = 0; i < limits; i++) {
+                tokens[i] = settings.burst[i];
+                refilledAt[i] = now;
+            }
+            if (fingerprints.length != settings.history) {
+                fingerprints = new long[settings.history];
+                times = new long[settings.history];
+                next = 0;
+                size = 0;
+            }
+            this.settings = settings;
+        }
+    }
+
+    /**
+     * The limits, index 0 holds the defaults and every channel with its own
+     * limits gets the next index.
+     */
+    private static final class Settings {
+        private final boolean enabled;
+        private final int history;
+        private final long duplicateWindowNanos;
+        private final int duplicateMinLength;
+        private final Map<String, Integer> channelIndexes;
+        private final double[] tokensPerNano;
+        private final double[] burst;
+        private final int[] duplicateDistance;
+
+        private Settings(boolean enabled, int history, long duplicateWindowNanos, int duplicateMinLength,
+                         Map<String, Integer> channelIndexes, double[] tokensPerNano, double[] burst,
+                         int[] duplicateDistance) {
+            this.enabled = enabled;
+            this.history = history;
+            this.duplicateWindowNanos = duplicateWindowNanos;
+            this.duplicateMinLength = duplicateMinLength;
+            this.channelIndexes = channelIndexes;
+            this.tokensPerNano = tokensPerNano;
+            this.burst = burst;
+            this.duplicateDistance = duplicateDistance;
+        }
+
+        private static Settings read(@Nullable ConfigurationSection section) {
+            ConfigurationSection channels = section != null ? section.getConfigurationSection("channels") : null;
+            int count = 1 + (channels != null ? channels.getKeys(false).size() : 0);
+            Map<String, Integer> channelIndexes = new HashMap<>();
+            double[] tokensPerNano = new double[count];
+            double[] burst = new double[count];
+            int[] duplicateDistance = new int[count];
+
+            readLimits(section, 0, tokensPerNano, burst, duplicateDistance,
+                DEFAULT_MESSAGES_PER_SECOND, DEFAULT_BURST, DEFAULT_DUPLICATE_DISTANCE);
+            if (channels != null) {
+                int index = 1;
+                for (String channel : channels.getKeys(false)) {
+                    // Channels fall back to the default limits for anything they don't set
+                    readLimits(channels.getConfigurationSection(channel), index, tokensPerNano, burst, duplicateDistance,
+                        tokensPerNano[0] * TimeUnit.SECONDS.toNanos(1), burst[0], duplicateDistance[0]);
+                    channelIndexes.put(channel, index++);
+                }
+            }
+
+            if (section == null) {
+                return new Settings(true, DEFAULT_HISTORY, TimeUnit.SECONDS.toNanos(DEFAULT_DUPLICATE_WINDOW_SECONDS),
+                    DEFAULT_DUPLICATE_MIN_LENGTH, channelIndexes, tokensPerNano, burst, duplicateDistance);
+            }
+            int history = Math.max(1, Math.min(MAX_HISTORY, section.getInt("history", DEFAULT_HISTORY)));
+            long window = TimeUnit.SECONDS.toNanos(Math.max(1L,
+                section.getLong("duplicate_window_seconds", DEFAULT_DUPLICATE_WINDOW_SECONDS)));
+            return new Settings(section.getBoolean("enabled", true), history, window,
+                section.getInt("duplicate_min_length", DEFAULT_DUPLICATE_MIN_LENGTH),
+                channelIndexes, tokensPerNano, burst, duplicateDistance);
+        }
+
+        private static void readLimits(@Nullable ConfigurationSection section, int index, double[] tokensPerNano,
+                                       double[] burst, int[] duplicateDistance,
+                                       double defaultRate, double defaultBurst, int defaultDistance) {
+            double rate = section != null ? section.getDouble("messages_per_second", defaultRate) : defaultRate;
+            tokensPerNano[index] = Math.max(0.0, rate) / TimeUnit.SECONDS.toNanos(1);
+            burst[index] = Math.max(1.0, section != null ? section.getDouble("burst", defaultBurst) : defaultBurst);
+            duplicateDistance[index] = Math.min(Long.SIZE,
+                section != null ? section.getInt("duplicate_distance", defaultDistance) : defaultDistance);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package amg.plugins.aMGCore.managers;
+
+import amg.plugins.aMGCore.AMGCore;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Counts automated item movements (hoppers, droppers, ...) per container,
+ * material and direction instead of logging every transfer. Once per window
+ * every counter that moved is written as one summary entry to the item
+ * transaction log.
+ * <p>
+ * Transfers only happen on the main thread, so the counters are plain
+ * arrays of an open-addressing table and recording a transfer allocates
+ * nothing once a key has been seen.
+ */
+public class ContainerFlowAggregator {
+    private static final long EMPTY = -1L;
+    private static final int INITIAL_CAPACITY = 256;
+    private static final Material[] MATERIALS = Material.values();
+    private static final InventoryType[] INVENTORY_TYPES = InventoryType.values();
+
+    private final LogManager logManager;
+    private final double sampleRate;
+    private final BukkitTask flushTask;
+    private final List<String> worlds = new ArrayList<>();
+    private final Map<String, Integer> worldIndexes = new HashMap<>();
+
+    private long[] positions;
+    private long[] keys;
+    private long[] amounts;
+    private int[] transfers;
+    private int size;
+    private long windowStart = System.currentTimeMillis();
+
+    ContainerFlowAggregator(@NotNull AMGCore plugin, @NotNull LogManager logManager, long windowSeconds, double sampleRate) {
+        this.logManager = logManager;
+        this.sampleRate = sampleRate;
+        allocate(INITIAL_CAPACITY);
+
+        long interval = Math.max(1L, windowSeconds) * 20L;
+        this.flushTask = Bukkit.getScheduler().runTaskTimer(plugin, this::flush, interval, interval);
+    }
+
+    /**
+     * Counts one automated transfer. Must be called on the main thread.
+     *
+     * @param source The inventory the items left
+     * @param destination The inventory the items entered
+     * @param material The moved material
+     * @param amount The moved amount
+     */
+    public void record(@NotNull Inventory source, @NotNull Inventory destination, @NotNull Material material, int amount) {
+        if (sampleRate <= 0.0) {
+            return;
+        }
+        long weight = amount;
+        if (sampleRate < 1.0) {
+            if (ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+                return;
+            }
+            // Sampled counts stand in for the skipped transfers
+            weight = Math.round(amount / sampleRate);
+        }
+        add(source, material, false, weight);
+        add(destination, material, true, weight);
+    }
+
+    private void add(Inventory inventory, Material material, boolean incoming, long amount) {
+        Location location = inventory.getLocation();
+        if (location == null || location.getWorld() == null) {
+            return;
+        }
+
+        long position = BlockHistoryManager.packPosition(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+        long key = ((long) getWorldIndex(location.getWorld()) << 40)
+            | ((long) inventory.getType().ordinal() << 24)
+            | ((long) material.ordinal() << 1)
+            | (incoming ? 1L : 0L);
+
+        int mask = keys.length - 1;
+        int slot = (int) mix(position * 31 + key) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key && positions[slot] == position) {
+                amounts[slot] += amount;
+                transfers[slot]++;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        positions[slot] = position;
+        amounts[slot] = amount;
+        transfers[slot] = 1;
+        if (++size * 2 > keys.length) {
+            grow();
+        }
+    }
+
+    private int getWorldIndex(World world) {
+        String name = world.getName();
+        Integer index = worldIndexes.get(name);
+        if (index == null) {
+            index = worlds.size();
+            worlds.add(name);
+            worldIndexes.put(name, index);
+        }
+        return index;
+    }
+
+    /**
+     * Writes one summary entry per counter and starts a new window.
+     */
+    public void flush() {
+        long windowEnd = System.currentTimeMillis();
+        if (size > 0) {
+            for (int slot = 0; slot < keys.length; slot++) {
+                long key = keys[slot];
+                if (key == EMPTY) {
+                    continue;
+                }
+                long position = positions[slot];
+                String location = worlds.get((int) (key >>> 40)) + ","
+                    + BlockHistoryManager.unpackX(position) + ","
+                    + BlockHistoryManager.unpackY(position) + ","
+                    + BlockHistoryManager.unpackZ(position);
+                logManager.logContainerFlow(
+                    (key & 1L) != 0 ? "IN" : "OUT",
+                    MATERIALS[(int) ((key >>> 1) & 0x7FFFFF)].name(),
+                    amounts[slot],
+                    transfers[slot],
+                    location,
+                    INVENTORY_TYPES[(int) ((key >>> 24) & 0xFFFF)].name(),
+                    windowEnd - windowStart);
+            }
+            // Shrink back after a burst instead of keeping a huge table forever
+            allocate(keys.length > INITIAL_CAPACITY * 16 ? INITIAL_CAPACITY : keys.length);
+        }
+        windowStart = windowEnd;
+    }
+
+    /**
+     * Stops the window task and writes the current window.
+     */
+    void close() {
+        flushTask.cancel();
+        flush();
+    }
+
+    private void allocate(int capacity) {
+        positions = new long[capacity];
+        keys = new long[capacity];
+        amounts = new long[capacity];
+        transfers = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    private void grow() {
+        long[] oldPositions = positions;
+        long[] oldKeys = keys;
+        long[] oldAmounts = amounts;
+        int[] oldTransfers = transfers;
+        allocate(oldKeys.length * 2);
+
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == EMPTY) {
+                continue;
+            }
+            int slot = (int) mix(oldPositions[i] * 31 + oldKeys[i]) & mask;
+            while (keys[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            positions[slot] = oldPositions[i];
+            amounts[slot] = oldAmounts[i];
+            transfers[slot] = oldTransfers[i];
+            size++;
+        }
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        return value;
+    }
+}
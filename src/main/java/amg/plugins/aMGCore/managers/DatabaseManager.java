@@ -1,8 +1,11 @@
 package amg.plugins.aMGCore.managers;
 
 import amg.plugins.aMGCore.AMGCore;
+import amg.plugins.aMGCore.models.LocationData;
 import amg.plugins.aMGCore.models.PlayerData;
+import amg.plugins.aMGCore.models.PlayerSnapshot;
 import amg.plugins.aMGCore.utils.DebugLogger;
+import amg.plugins.aMGCore.utils.LatencyHistogram;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import org.bukkit.configuration.file.FileConfiguration;
@@ -10,11 +13,26 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -26,10 +44,12 @@ public class DatabaseManager {
     
     // Connection pooling
     private HikariDataSource connectionPool;
+    private HikariDataSource readPool; // Optional, null when the read/write split is disabled
     
     // Prepared statement cache
     private final Map<String, String> preparedStatements = new ConcurrentHashMap<>();
     private final Map<String, PreparedStatement> cachedStatements = new ConcurrentHashMap<>();
+    private final Map<Integer, String> deltaUpdateStatements = new ConcurrentHashMap<>();
     
     // Performance metrics
     private final AtomicLong queryCount = new AtomicLong(0);
@@ -37,6 +57,23 @@ public class DatabaseManager {
     private final AtomicLong slowQueryCount = new AtomicLong(0);
     private final AtomicInteger connectionErrorCount = new AtomicInteger(0);
     private static final long SLOW_QUERY_THRESHOLD = 100; // ms
+    
+    // Per-statement latency, keyed by statement name
+    private final Map<String, StatementStats> statementStats = new ConcurrentHashMap<>();
+    private final LatencyHistogram writePoolWait = new LatencyHistogram();
+    private final LatencyHistogram readPoolWait = new LatencyHistogram();
+    
+    // Group-commit write queue, keyed so repeated writes to the same row collapse into one
+    private final Object writeQueueLock = new Object();
+    private final Map<String, PendingWrite> pendingWrites = new LinkedHashMap<>();
+    private final AtomicLong writeSequence = new AtomicLong(0);
+    private final AtomicLong committedWrites = new AtomicLong(0);
+    private final AtomicLong coalescedWrites = new AtomicLong(0);
+    private final AtomicLong writeBatches = new AtomicLong(0);
+    private ScheduledExecutorService writeExecutor;
+    private volatile boolean writeQueueClosed = false;
+    
+    private final EconomyStore economyStore;
 
     public DatabaseManager(AMGCore plugin) {
         // Load the H2 database driver
@@ -86,6 +123,9 @@ public class DatabaseManager {
                 this.dbProperties.setProperty("password", dbPassword);
             }
             
+            // Balances are stored as minor units, the scale must be known before anything is loaded
+            PlayerData.setMoneyDecimalPlaces(plugin.getConfig().getInt("economy.decimal_places", 2));
+            
             // Initialize connection pool
             initializeConnectionPool(plugin);
             
@@ -94,6 +134,11 @@ public class DatabaseManager {
                 initializeDatabase();
                 initializePreparedStatements();
             }
+            
+            // Start the background writer
+            initializeWriteQueue(plugin);
+            
+            this.economyStore = new EconomyStore(this);
         } catch (SQLException e) {
             plugin.getLogger().severe("Database connection error: " + e.getMessage());
             e.printStackTrace();
@@ -130,6 +175,23 @@ public class DatabaseManager {
         
         // Create the connection pool
         connectionPool = new HikariDataSource(hikariConfig);
+        
+        // Optional read-only pool so long-running reads (baltop, offline lookups) don't queue behind saves
+        if (config.getBoolean("storage.database.read_pool.enabled", false)) {
+            HikariConfig readConfig = new HikariConfig();
+            readConfig.setJdbcUrl(dbUrl);
+            readConfig.setDataSourceProperties(dbProperties);
+            readConfig.setMaximumPoolSize(config.getInt("storage.database.read_pool.max_pool_size", 4));
+            readConfig.setMinimumIdle(config.getInt("storage.database.read_pool.min_idle", 1));
+            readConfig.setIdleTimeout(config.getLong("storage.database.idle_timeout", 60000));
+            readConfig.setConnectionTimeout(config.getLong("storage.database.connection_timeout", 30000));
+            readConfig.setMaxLifetime(config.getLong("storage.database.max_lifetime", 1800000));
+            readConfig.setReadOnly(true);
+            readConfig.setPoolName("AMGCore-DB-ReadPool");
+            
+            readPool = new HikariDataSource(readConfig);
+            DebugLogger.debug("Database", "Read pool enabled with {} connections", readConfig.getMaximumPoolSize());
+        }
     }
 
     private void initializeDatabase() {
@@ -140,74 +202,11 @@ public class DatabaseManager {
             }
             
             try {
-                // Create tables
-                try (Statement stmt = conn.createStatement()) {
-                    // Player data table
-                    stmt.execute("""
-                        CREATE TABLE IF NOT EXISTS player_data (
-                            uuid VARCHAR(36) PRIMARY KEY,
-                            name VARCHAR(16) NOT NULL,
-                            money DOUBLE NOT NULL DEFAULT 0,
-                            job VARCHAR(32) NOT NULL DEFAULT 'unemployed',
-                            last_location_world VARCHAR(64),
-                            last_location_x DOUBLE,
-                            last_location_y DOUBLE,
-                            last_location_z DOUBLE,
-                            last_location_yaw FLOAT,
-                            last_location_pitch FLOAT,
-                            created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                            updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-                        )
-                    """);
-                    
-                    // Known IPs table
-                    stmt.execute("""
-                        CREATE TABLE IF NOT EXISTS known_ips (
-                            uuid VARCHAR(36) NOT NULL,
-                            ip VARCHAR(45) NOT NULL,
-                            first_seen TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                            last_seen TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                            PRIMARY KEY (uuid, ip),
-                            FOREIGN KEY (uuid) REFERENCES player_data(uuid) ON DELETE CASCADE
-                        )
-                    """);
-                    
-                    // Create jails table
-                    stmt.execute("""
-                        CREATE TABLE IF NOT EXISTS jails (
-                            name VARCHAR(32) PRIMARY KEY,
-                            world VARCHAR(64) NOT NULL,
-                            x DOUBLE NOT NULL,
-                            y DOUBLE NOT NULL,
-                            z DOUBLE NOT NULL,
-                            yaw FLOAT NOT NULL,
-                            pitch FLOAT NOT NULL,
-                            created_by VARCHAR(36) NOT NULL,
-                            created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-                        )
-                    """);
-                    
-                    // Create jailed players table
-                    stmt.execute("""
-                        CREATE TABLE IF NOT EXISTS jailed_players (
-                            uuid VARCHAR(36) PRIMARY KEY,
-                            jail_name VARCHAR(32) NOT NULL,
-                            jailed_by VARCHAR(36) NOT NULL,
-                            reason VARCHAR(255),
-                            jail_time BIGINT NOT NULL,
-                            remaining_time BIGINT NOT NULL,
-                            jailed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                            FOREIGN KEY (jail_name) REFERENCES jails(name) ON DELETE CASCADE,
-                            FOREIGN KEY (uuid) REFERENCES player_data(uuid) ON DELETE CASCADE
-                        )
-                    """);
-                    
-                    // Create indexes for better performance
-                    stmt.execute("CREATE INDEX IF NOT EXISTS idx_player_data_name ON player_data(name)");
-                    stmt.execute("CREATE INDEX IF NOT EXISTS idx_known_ips_ip ON known_ips(ip)");
-                    
-                    DebugLogger.debug("Database", "Database tables initialized");
-                }
+                // Every table is created by the migration registry, a normal start only checks schema_version
+                SchemaMigrations.migrate(conn);
+                rescaleBalances(conn);
+                
+                DebugLogger.debug("Database", "Database tables initialized");
             } finally {
                 // Return connection to the pool
                 conn.close();
@@ -218,6 +217,56 @@ public class DatabaseManager {
         }
     }
     
+    /**
+     * Rescales stored balances when economy.decimal_places changed since the last start.
+     */
+    private void rescaleBalances(Connection conn) throws SQLException {
+        long scale = PlayerData.getMoneyScale();
+        Long storedScale = query(conn, "database_settings.money_scale",
+            "SELECT setting_value FROM database_settings WHERE name = 'money_scale'", null,
+            rs -> rs.next() ? Long.parseLong(rs.getString(1)) : null);
+        
+        if (storedScale != null && storedScale == scale) {
+            return;
+        }
+        
+        // Balances and the recorded scale change together or not at all
+        conn.setAutoCommit(false);
+        try {
+            if (storedScale != null) {
+                DebugLogger.info("Database", "Rescaling player balances from scale " + storedScale + " to " + scale);
+                if (scale > storedScale) {
+                    update(conn, "player_data.rescale", "UPDATE player_data SET money = money * " + (scale / storedScale), null);
+                } else {
+                    update(conn, "player_data.rescale", "UPDATE player_data SET money = CAST(ROUND(CAST(money AS DECIMAL(38, 0)) / "
+                        + (storedScale / scale) + ", 0) AS BIGINT)", null);
+                }
+            }
+            update(conn, "database_settings.save",
+                "MERGE INTO database_settings (name, setting_value) VALUES ('money_scale', '" + scale + "')", null);
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+    
+    /**
+     * Starts the writer thread that commits queued writes in batches
+     */
+    private void initializeWriteQueue(AMGCore plugin) {
+        long flushInterval = Math.max(1L, plugin.getConfig().getLong("storage.database.write_queue.flush_interval", 20L));
+        
+        writeExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "AMGCore-DB-Writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writeExecutor.scheduleWithFixedDelay(this::flushWrites, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+    
     /**
      * Initializes the prepared statement cache
      */
@@ -226,26 +275,11 @@ public class DatabaseManager {
         preparedStatements.put("loadPlayerData", "SELECT * FROM player_data WHERE uuid = ?");
         preparedStatements.put("updatePlayerName", "UPDATE player_data SET name = ? WHERE uuid = ?");
         preparedStatements.put("insertPlayerData", "INSERT INTO player_data (uuid, name, money, job) VALUES (?, ?, ?, ?)");
-        preparedStatements.put("updatePlayerData", """
-            UPDATE player_data SET
-                name = ?,
-                money = ?,
-                job = ?,
-                last_location_world = ?,
-                last_location_x = ?,
-                last_location_y = ?,
-                last_location_z = ?,
-                last_location_yaw = ?,
-                last_location_pitch = ?,
-                updated_at = CURRENT_TIMESTAMP
-            WHERE uuid = ?
-        """);
-        
         // Known IPs statements
         preparedStatements.put("loadKnownIps", "SELECT ip FROM known_ips WHERE uuid = ?");
         preparedStatements.put("updateKnownIp", "MERGE INTO known_ips (uuid, ip, last_seen) VALUES (?, ?, CURRENT_TIMESTAMP)");
         
-        DebugLogger.debug("Database", "Prepared statement cache initialized with " + preparedStatements.size() + " statements");
+        DebugLogger.debug("Database", "Prepared statement cache initialized with {} statements", preparedStatements.size());
     }
 
     /**
@@ -255,30 +289,67 @@ public class DatabaseManager {
      * @throws SQLException if a database access error occurs
      */
     public Connection getConnection() throws SQLException {
+        return borrow(false, null);
+    }
+
+    /**
+     * Gets the store for balance changes that go straight to SQL.
+     * 
+     * @return The economy store
+     */
+    @NotNull
+    public EconomyStore getEconomyStore() {
+        return economyStore;
+    }
+
+    /**
+     * Gets a read-only connection. Falls back to the main pool when the
+     * read pool is disabled.
+     * 
+     * @return A connection that must only be used for queries
+     * @throws SQLException if a database access error occurs
+     */
+    public Connection getReadConnection() throws SQLException {
+        return borrow(true, null);
+    }
+    
+    /**
+     * Takes a connection from a pool and records how long that took
+     * 
+     * @param read Whether to use the read pool, if there is one
+     * @param stats The statement to charge the wait to, or null
+     */
+    private Connection borrow(boolean read, @Nullable StatementStats stats) throws SQLException {
+        boolean fromReadPool = read && readPool != null;
+        long start = System.nanoTime();
         try {
-            return connectionPool.getConnection();
+            Connection conn = fromReadPool ? readPool.getConnection() : connectionPool.getConnection();
+            long waited = System.nanoTime() - start;
+            (fromReadPool ? readPoolWait : writePoolWait).record(waited);
+            if (stats != null) {
+                stats.recordPoolWait(waited);
+            }
+            return conn;
         } catch (SQLException e) {
             connectionErrorCount.incrementAndGet();
-            DebugLogger.severe("Database", "Failed to get connection from pool: " + e.getMessage(), e);
+            DebugLogger.severe("Database", "Failed to get connection from " + (fromReadPool ? "read pool" : "pool") + ": " + e.getMessage(), e);
             throw e;
         }
     }
 
     /**
-     * Gets a prepared statement from the cache or creates a new one
+     * Gets the SQL of a statement from the prepared statement cache
      * 
-     * @param conn The database connection
      * @param key The statement key in the cache
-     * @return The prepared statement
-     * @throws SQLException if a database access error occurs
+     * @return The SQL
      */
-    private PreparedStatement getPreparedStatement(Connection conn, String key) throws SQLException {
+    private String statementSql(String key) {
         String sql = preparedStatements.get(key);
         if (sql == null) {
             throw new IllegalArgumentException("No prepared statement found for key: " + key);
         }
         
-        return conn.prepareStatement(sql);
+        return sql;
     }
     
     /**
@@ -289,8 +360,8 @@ public class DatabaseManager {
      * @return The result of the operation
      * @throws SQLException if a database access error occurs
      */
-    private <T> T executeWithMetrics(DatabaseOperation<T> operation) throws SQLException {
-        long startTime = System.currentTimeMillis();
+    <T> T executeWithMetrics(DatabaseOperation<T> operation) throws SQLException {
+        long startTime = System.nanoTime();
         queryCount.incrementAndGet();
         
         try {
@@ -299,13 +370,306 @@ public class DatabaseManager {
             connectionErrorCount.incrementAndGet();
             throw e;
         } finally {
-            long executionTime = System.currentTimeMillis() - startTime;
+            long executionTime = System.nanoTime() - startTime;
             totalQueryTime.addAndGet(executionTime);
             
-            if (executionTime > SLOW_QUERY_THRESHOLD) {
+            if (executionTime > TimeUnit.MILLISECONDS.toNanos(SLOW_QUERY_THRESHOLD)) {
                 slowQueryCount.incrementAndGet();
-                DebugLogger.debug("Database", "Slow query detected: " + executionTime + "ms");
+                DebugLogger.debug("Database", "Slow query detected: {}ms", TimeUnit.NANOSECONDS.toMillis(executionTime));
+            }
+        }
+    }
+    
+    /**
+     * Runs a named query on its own connection from the main pool.
+     * 
+     * @param <T> The result type
+     * @param name The statement name latency is recorded under (e.g. "warps.load")
+     * @param sql The query
+     * @param binder Sets the statement parameters, or null if there are none
+     * @param mapper Reads the result set
+     * @return The mapped result
+     * @throws SQLException if a database access error occurs
+     */
+    public <T> T query(@NotNull String name, @NotNull String sql, @Nullable StatementBinder binder,
+                       @NotNull ResultMapper<T> mapper) throws SQLException {
+        StatementStats stats = getStats(name);
+        try (Connection conn = borrow(false, stats)) {
+            return run(conn, stats, sql, binder, stmt -> {
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return mapper.map(rs);
+                }
+            });
+        }
+    }
+    
+    /**
+     * Runs a named query on a connection from the read pool, or the main pool
+     * when the read pool is disabled.
+     * 
+     * @see #query(String, String, StatementBinder, ResultMapper)
+     */
+    public <T> T readQuery(@NotNull String name, @NotNull String sql, @Nullable StatementBinder binder,
+                           @NotNull ResultMapper<T> mapper) throws SQLException {
+        StatementStats stats = getStats(name);
+        try (Connection conn = borrow(true, stats)) {
+            return run(conn, stats, sql, binder, stmt -> {
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return mapper.map(rs);
+                }
+            });
+        }
+    }
+    
+    /**
+     * Runs a named query on a connection the caller already holds.
+     * 
+     * @see #query(String, String, StatementBinder, ResultMapper)
+     */
+    public <T> T query(@NotNull Connection conn, @NotNull String name, @NotNull String sql,
+                       @Nullable StatementBinder binder, @NotNull ResultMapper<T> mapper) throws SQLException {
+        return run(conn, getStats(name), sql, binder, stmt -> {
+            try (ResultSet rs = stmt.executeQuery()) {
+                return mapper.map(rs);
             }
+        });
+    }
+    
+    /**
+     * Runs a named INSERT/UPDATE/MERGE/DELETE on its own connection from the main pool.
+     * 
+     * @param name The statement name latency is recorded under
+     * @param sql The statement
+     * @param binder Sets the statement parameters, or null if there are none
+     * @return The number of affected rows
+     * @throws SQLException if a database access error occurs
+     */
+    public int update(@NotNull String name, @NotNull String sql, @Nullable StatementBinder binder) throws SQLException {
+        StatementStats stats = getStats(name);
+        try (Connection conn = borrow(false, stats)) {
+            return update(conn, stats, sql, binder);
+        }
+    }
+    
+    /**
+     * Runs a named INSERT/UPDATE/MERGE/DELETE on a connection the caller already holds.
+     * 
+     * @see #update(String, String, StatementBinder)
+     */
+    public int update(@NotNull Connection conn, @NotNull String name, @NotNull String sql,
+                      @Nullable StatementBinder binder) throws SQLException {
+        return update(conn, getStats(name), sql, binder);
+    }
+    
+    private int update(Connection conn, StatementStats stats, String sql, @Nullable StatementBinder binder) throws SQLException {
+        return run(conn, stats, sql, binder, stmt -> {
+            int rows = stmt.executeUpdate();
+            stats.recordRows(rows);
+            return rows;
+        });
+    }
+    
+    /**
+     * Runs a named statement once per binder as a single JDBC batch. The whole
+     * batch is recorded as one execution.
+     * 
+     * @param conn The connection to use
+     * @param name The statement name latency is recorded under
+     * @param sql The statement
+     * @param binders Set the parameters of each batch entry
+     * @return The update counts of the batch entries
+     * @throws SQLException if a database access error occurs
+     */
+    public int[] batch(@NotNull Connection conn, @NotNull String name, @NotNull String sql,
+                       @NotNull Collection<? extends StatementBinder> binders) throws SQLException {
+        StatementStats stats = getStats(name);
+        return run(conn, stats, sql, null, stmt -> {
+            for (StatementBinder binder : binders) {
+                binder.bind(stmt);
+                stmt.addBatch();
+            }
+            int[] counts = stmt.executeBatch();
+            for (int count : counts) {
+                stats.recordRows(count);
+            }
+            return counts;
+        });
+    }
+    
+    private <T> T run(Connection conn, StatementStats stats, String sql, @Nullable StatementBinder binder,
+                      StatementCall<T> call) throws SQLException {
+        long start = System.nanoTime();
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            if (binder != null) {
+                binder.bind(stmt);
+            }
+            return call.execute(stmt);
+        } catch (SQLException e) {
+            stats.recordError();
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            stats.recordExecution(elapsed);
+            if (elapsed > TimeUnit.MILLISECONDS.toNanos(SLOW_QUERY_THRESHOLD)) {
+                DebugLogger.debug("Database", "Slow statement {}: {}ms", stats.getName(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+            }
+        }
+    }
+    
+    private StatementStats getStats(String name) {
+        return statementStats.computeIfAbsent(name, StatementStats::new);
+    }
+    
+    /**
+     * Queues a write to be committed by the background writer. Writes sharing a key
+     * replace each other, so only the latest state of a row is written.
+     * 
+     * @param key Coalescing key, usually table and primary key (e.g. "afk_players:uuid"), or null to never coalesce
+     * @param sql The INSERT/UPDATE/MERGE/DELETE statement
+     * @param binder Sets the statement parameters
+     * @return A future completed once the write (or the write that replaced it) is committed
+     */
+    public CompletableFuture<Void> queueWrite(@Nullable String key, @NotNull String sql, @NotNull StatementBinder binder) {
+        // Queued writes are recorded under their table, the part of the key before the first ':'
+        int separator = key != null ? key.indexOf(':') : -1;
+        String name = "queued." + (key == null ? "unkeyed" : separator > 0 ? key.substring(0, separator) : key);
+        PendingWrite write = new PendingWrite(name, sql, binder);
+        String writeKey = key != null ? key : "#" + writeSequence.incrementAndGet();
+        
+        synchronized (writeQueueLock) {
+            // Re-insert so the write moves to the end of the queue: it holds the row's latest
+            // state, so it must also run after writes that were queued after the one it replaces
+            PendingWrite previous = pendingWrites.remove(writeKey);
+            if (previous != null) {
+                coalescedWrites.incrementAndGet();
+                write.future.whenComplete((result, error) -> {
+                    if (error != null) {
+                        previous.future.completeExceptionally(error);
+                    } else {
+                        previous.future.complete(null);
+                    }
+                });
+            }
+            pendingWrites.put(writeKey, write);
+        }
+        
+        if (writeQueueClosed) {
+            flushWrites();
+        }
+        
+        return write.future;
+    }
+    
+    /**
+     * Queues a write that is never coalesced with other writes.
+     * 
+     * @param sql The INSERT/UPDATE/MERGE/DELETE statement
+     * @param binder Sets the statement parameters
+     * @return A future completed once the write is committed
+     */
+    public CompletableFuture<Void> queueWrite(@NotNull String sql, @NotNull StatementBinder binder) {
+        return queueWrite(null, sql, binder);
+    }
+    
+    /**
+     * Commits all queued writes on the calling thread. Consecutive writes using the
+     * same statement are sent as one JDBC batch and everything is committed in a
+     * single transaction.
+     */
+    public void flushWrites() {
+        List<PendingWrite> batch;
+        synchronized (writeQueueLock) {
+            if (pendingWrites.isEmpty()) {
+                return;
+            }
+            batch = new ArrayList<>(pendingWrites.values());
+            pendingWrites.clear();
+        }
+        
+        try {
+            executeWithMetrics(() -> {
+                try (Connection conn = getConnection()) {
+                    conn.setAutoCommit(false);
+                    try {
+                        int i = 0;
+                        while (i < batch.size()) {
+                            PendingWrite first = batch.get(i);
+                            List<StatementBinder> binders = new ArrayList<>();
+                            while (i < batch.size() && batch.get(i).sql.equals(first.sql)) {
+                                binders.add(batch.get(i).binder);
+                                i++;
+                            }
+                            batch(conn, first.name, first.sql, binders);
+                        }
+                        conn.commit();
+                    } catch (SQLException e) {
+                        conn.rollback();
+                        throw e;
+                    } finally {
+                        conn.setAutoCommit(true);
+                    }
+                }
+                return null;
+            });
+            
+            writeBatches.incrementAndGet();
+            committedWrites.addAndGet(batch.size());
+            for (PendingWrite write : batch) {
+                write.future.complete(null);
+            }
+        } catch (SQLException e) {
+            DebugLogger.warning("Database", "Batched write of " + batch.size() + " statements failed, retrying individually: " + e.getMessage());
+            flushIndividually(batch);
+        }
+    }
+    
+    /**
+     * Fallback for a failed batch so one bad row doesn't drop every other write in it
+     */
+    private void flushIndividually(List<PendingWrite> batch) {
+        for (PendingWrite write : batch) {
+            try {
+                update(write.name, write.sql, write.binder);
+                committedWrites.incrementAndGet();
+                write.future.complete(null);
+            } catch (SQLException e) {
+                DebugLogger.severe("Database", "Queued write failed: " + write.sql.strip(), e);
+                write.future.completeExceptionally(e);
+            }
+        }
+    }
+    
+    /**
+     * Binds the parameters of a statement
+     */
+    @FunctionalInterface
+    public interface StatementBinder {
+        void bind(PreparedStatement stmt) throws SQLException;
+    }
+    
+    /**
+     * Reads the result of a named query
+     */
+    @FunctionalInterface
+    public interface ResultMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+    
+    @FunctionalInterface
+    private interface StatementCall<T> {
+        T execute(PreparedStatement stmt) throws SQLException;
+    }
+    
+    private static final class PendingWrite {
+        private final String name;
+        private final String sql;
+        private final StatementBinder binder;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        
+        private PendingWrite(String name, String sql, StatementBinder binder) {
+            this.name = name;
+            this.sql = sql;
+            this.binder = binder;
         }
     }
     
@@ -313,7 +677,7 @@ public class DatabaseManager {
      * Functional interface for database operations
      */
     @FunctionalInterface
-    private interface DatabaseOperation<T> {
+    interface DatabaseOperation<T> {
         T execute() throws SQLException;
     }
 
@@ -322,111 +686,267 @@ public class DatabaseManager {
         try {
             return executeWithMetrics(() -> {
                 try (Connection conn = getConnection()) {
-                    // Try to load existing player data
-                    try (PreparedStatement stmt = getPreparedStatement(conn, "loadPlayerData")) {
-                        stmt.setString(1, uuid.toString());
-                        ResultSet rs = stmt.executeQuery();
-                        
-                        if (rs.next()) {
-                            PlayerData data = createPlayerDataFromResultSet(rs);
-                            
-                            // Update the name if it changed
-                            if (!name.equals(data.getName())) {
-                                try (PreparedStatement updateStmt = getPreparedStatement(conn, "updatePlayerName")) {
-                                    updateStmt.setString(1, name);
-                                    updateStmt.setString(2, uuid.toString());
-                                    updateStmt.executeUpdate();
+                    return loadPlayerData(conn, uuid, name);
+                }
+            });
+        } catch (SQLException e) {
+            DebugLogger.severe("Database", "Failed to load player data for " + name, e);
+            return null;
+        }
+    }
+    
+    /**
+     * Loads or creates the player_data row on an existing connection
+     */
+    private PlayerData loadPlayerData(Connection conn, UUID uuid, String name) throws SQLException {
+        // Try to load existing player data
+        PlayerData existing = query(conn, "loadPlayerData", statementSql("loadPlayerData"),
+            stmt -> stmt.setObject(1, uuid),
+            rs -> rs.next() ? createPlayerDataFromResultSet(conn, rs) : null);
+        
+        if (existing != null) {
+            // Update the name if it changed
+            if (!name.equals(existing.getName())) {
+                update(conn, "updatePlayerName", statementSql("updatePlayerName"), stmt -> {
+                    stmt.setString(1, name);
+                    stmt.setObject(2, uuid);
+                });
+            }
+            
+            return existing;
+        }
+        
+        // Create new player data if not found
+        PlayerData data = new PlayerData(uuid, name);
+        
+        update(conn, "insertPlayerData", statementSql("insertPlayerData"), stmt -> {
+            stmt.setObject(1, uuid);
+            stmt.setString(2, name);
+            stmt.setLong(3, data.getBalanceUnits());
+            stmt.setString(4, data.getJob());
+        });
+        
+        return data;
+    }
+    
+    /**
+     * Loads everything needed for a joining player on a single connection.
+     * Meant to be called from AsyncPlayerPreLoginEvent, never the main thread.
+     * 
+     * @param uuid The player's UUID
+     * @param name The player's name
+     * @return The snapshot, or null if the player data couldn't be loaded
+     */
+    @Nullable
+    public PlayerSnapshot loadPlayerSnapshot(@NotNull UUID uuid, @NotNull String name) {
+        try {
+            return executeWithMetrics(() -> {
+                try (Connection conn = getConnection()) {
+                    PlayerData data = loadPlayerData(conn, uuid, name);
+                    Set<PlayerSnapshot.Section> loaded = EnumSet.noneOf(PlayerSnapshot.Section.class);
+                    
+                    Map<String, LocationData> homes = new HashMap<>();
+                    String[] lastUsedHome = new String[1];
+                    if (snapshotSection(() -> {
+                        query(conn, "snapshot.homes", "SELECT name, world, x, y, z, yaw, pitch FROM player_homes WHERE uuid = ?",
+                            stmt -> stmt.setObject(1, uuid), rs -> {
+                                while (rs.next()) {
+                                    homes.put(rs.getString("name"), new LocationData(
+                                        rs.getString("world"),
+                                        rs.getDouble("x"),
+                                        rs.getDouble("y"),
+                                        rs.getDouble("z"),
+                                        rs.getFloat("yaw"),
+                                        rs.getFloat("pitch")
+                                    ));
                                 }
-                            }
-                            
-                            return data;
-                        }
+                                return null;
+                            });
+                        lastUsedHome[0] = query(conn, "snapshot.last_used_home", "SELECT home_name FROM last_used_homes WHERE uuid = ?",
+                            stmt -> stmt.setObject(1, uuid), rs -> rs.next() ? rs.getString("home_name") : null);
+                        return null;
+                    })) {
+                        loaded.add(PlayerSnapshot.Section.HOMES);
                     }
                     
-                    // Create new player data if not found
-                    PlayerData data = new PlayerData(uuid.toString(), name);
+                    Long[] playtime = new Long[1];
+                    if (snapshotSection(() -> {
+                        playtime[0] = query(conn, "snapshot.playtime", "SELECT playtime_seconds FROM player_playtime WHERE uuid = ?",
+                            stmt -> stmt.setObject(1, uuid), rs -> rs.next() ? rs.getLong("playtime_seconds") : null);
+                        return null;
+                    })) {
+                        loaded.add(PlayerSnapshot.Section.PLAYTIME);
+                    }
                     
-                    try (PreparedStatement stmt = getPreparedStatement(conn, "insertPlayerData")) {
-                        stmt.setString(1, uuid.toString());
-                        stmt.setString(2, name);
-                        stmt.setDouble(3, data.getMoney());
-                        stmt.setString(4, data.getJob());
-                        stmt.executeUpdate();
+                    PlayerSnapshot.Stats[] stats = new PlayerSnapshot.Stats[1];
+                    if (snapshotSection(() -> {
+                        stats[0] = query(conn, "snapshot.stats", "SELECT * FROM player_stats WHERE player_uuid = ?",
+                            stmt -> stmt.setObject(1, uuid), rs -> rs.next() ? new PlayerSnapshot.Stats(
+                                rs.getTimestamp("first_join").toInstant(),
+                                rs.getTimestamp("last_seen").toInstant(),
+                                rs.getLong("playtime_seconds"),
+                                rs.getInt("deaths"),
+                                rs.getInt("kills"),
+                                rs.getInt("pvp_kills"),
+                                rs.getInt("mob_kills")
+                            ) : null);
+                        return null;
+                    })) {
+                        loaded.add(PlayerSnapshot.Section.STATS);
                     }
                     
-                    return data;
+                    PlayerSnapshot.States[] states = new PlayerSnapshot.States[1];
+                    if (snapshotSection(() -> {
+                        states[0] = query(conn, "snapshot.states",
+                            "SELECT vanished, god_mode, fly_enabled, walk_speed, fly_speed FROM player_states WHERE player_uuid = ?",
+                            stmt -> stmt.setObject(1, uuid), rs -> rs.next() ? new PlayerSnapshot.States(
+                                rs.getBoolean("vanished"),
+                                rs.getBoolean("god_mode"),
+                                rs.getBoolean("fly_enabled"),
+                                rs.getFloat("walk_speed"),
+                                rs.getFloat("fly_speed")
+                            ) : null);
+                        return null;
+                    })) {
+                        loaded.add(PlayerSnapshot.Section.STATES);
+                    }
+                    
+                    return new PlayerSnapshot(data, loaded, homes, lastUsedHome[0], playtime[0], stats[0], states[0]);
                 }
             });
         } catch (SQLException e) {
-            DebugLogger.severe("Database", "Failed to load player data for " + name, e);
+            DebugLogger.severe("Database", "Failed to load player snapshot for " + name, e);
             return null;
         }
     }
+    
+    /**
+     * Runs one optional snapshot query. Tables owned by disabled modules may not
+     * exist, which marks the section as not loaded instead of failing the whole snapshot.
+     * 
+     * @return true if the section was loaded
+     */
+    private boolean snapshotSection(DatabaseOperation<?> section) throws SQLException {
+        try {
+            section.execute();
+            return true;
+        } catch (SQLException e) {
+            if ("42S02".equals(e.getSQLState())) {
+                DebugLogger.debug("Database", "Skipping snapshot section: {}", e.getMessage());
+                return false;
+            }
+            throw e;
+        }
+    }
 
+    /**
+     * Saves the fields that changed since the last save. Does nothing when the
+     * data is unchanged.
+     * 
+     * @param data The player data to save
+     */
     public void savePlayerData(@NotNull PlayerData data) {
+        PlayerData.Changes changes = data.takeChanges();
+        if (changes.isEmpty()) {
+            return;
+        }
+        
         try {
             executeWithMetrics(() -> {
                 try (Connection conn = getConnection()) {
-                    try (PreparedStatement stmt = getPreparedStatement(conn, "updatePlayerData")) {
-                        stmt.setString(1, data.getName());
-                        stmt.setDouble(2, data.getMoney());
-                        stmt.setString(3, data.getJob());
-                        
-                        if (data.getLastLocation() != null) {
-                            stmt.setString(4, data.getLastLocation().getWorld().getName());
-                            stmt.setDouble(5, data.getLastLocation().getX());
-                            stmt.setDouble(6, data.getLastLocation().getY());
-                            stmt.setDouble(7, data.getLastLocation().getZ());
-                            stmt.setFloat(8, data.getLastLocation().getYaw());
-                            stmt.setFloat(9, data.getLastLocation().getPitch());
-                        } else {
-                            stmt.setNull(4, Types.VARCHAR);
-                            stmt.setNull(5, Types.DOUBLE);
-                            stmt.setNull(6, Types.DOUBLE);
-                            stmt.setNull(7, Types.DOUBLE);
-                            stmt.setNull(8, Types.FLOAT);
-                            stmt.setNull(9, Types.FLOAT);
-                        }
-                        
-                        stmt.setString(10, data.getUuid());
-                        stmt.executeUpdate();
+                    int columns = changes.getFields() & ~PlayerData.DIRTY_IPS;
+                    if (columns != 0) {
+                        update(conn, "player_data.save", getDeltaUpdateStatement(columns), stmt -> {
+                            int index = 1;
+                            if (changes.has(PlayerData.DIRTY_MONEY)) {
+                                stmt.setLong(index++, changes.getBalanceUnits());
+                            }
+                            if (changes.has(PlayerData.DIRTY_JOB)) {
+                                stmt.setString(index++, changes.getJob());
+                            }
+                            if (changes.has(PlayerData.DIRTY_LOCATION)) {
+                                LocationData location = changes.getLocation();
+                                if (location != null) {
+                                    stmt.setString(index++, location.getWorld());
+                                    stmt.setDouble(index++, location.getX());
+                                    stmt.setDouble(index++, location.getY());
+                                    stmt.setDouble(index++, location.getZ());
+                                    stmt.setFloat(index++, location.getYaw());
+                                    stmt.setFloat(index++, location.getPitch());
+                                } else {
+                                    stmt.setNull(index++, Types.VARCHAR);
+                                    stmt.setNull(index++, Types.DOUBLE);
+                                    stmt.setNull(index++, Types.DOUBLE);
+                                    stmt.setNull(index++, Types.DOUBLE);
+                                    stmt.setNull(index++, Types.FLOAT);
+                                    stmt.setNull(index++, Types.FLOAT);
+                                }
+                            }
+                            stmt.setObject(index, data.getUuid());
+                        });
                     }
                     
-                    // Update known IPs
-                    try (PreparedStatement stmt = getPreparedStatement(conn, "updateKnownIp")) {
-                        for (String ip : data.getKnownIps()) {
-                            stmt.setString(1, data.getUuid());
-                            stmt.setString(2, ip);
-                            stmt.executeUpdate();
+                    // Insert only addresses seen since the last save
+                    if (!changes.getNewIps().isEmpty()) {
+                        List<StatementBinder> binders = new ArrayList<>();
+                        for (String ip : changes.getNewIps()) {
+                            binders.add(stmt -> {
+                                stmt.setObject(1, data.getUuid());
+                                stmt.setString(2, ip);
+                            });
                         }
+                        batch(conn, "updateKnownIp", statementSql("updateKnownIp"), binders);
                     }
                     
                     return null;
                 }
             });
         } catch (SQLException e) {
+            // Keep the changes so the next save retries them
+            data.restoreChanges(changes);
             DebugLogger.severe("Database", "Failed to save player data for " + data.getName(), e);
         }
     }
+    
+    /**
+     * Builds (once per combination of changed fields) an UPDATE touching only those columns
+     */
+    private String getDeltaUpdateStatement(int columns) {
+        return deltaUpdateStatements.computeIfAbsent(columns, mask -> {
+            StringBuilder sql = new StringBuilder("UPDATE player_data SET ");
+            if ((mask & PlayerData.DIRTY_MONEY) != 0) {
+                sql.append("money = ?, ");
+            }
+            if ((mask & PlayerData.DIRTY_JOB) != 0) {
+                sql.append("job = ?, ");
+            }
+            if ((mask & PlayerData.DIRTY_LOCATION) != 0) {
+                sql.append("last_location_world = ?, last_location_x = ?, last_location_y = ?, ")
+                   .append("last_location_z = ?, last_location_yaw = ?, last_location_pitch = ?, ");
+            }
+            return sql.append("updated_at = CURRENT_TIMESTAMP WHERE uuid = ?").toString();
+        });
+    }
 
-    private PlayerData createPlayerDataFromResultSet(ResultSet rs) throws SQLException {
+    private PlayerData createPlayerDataFromResultSet(Connection conn, ResultSet rs) throws SQLException {
         PlayerData data = new PlayerData(
-            rs.getString("uuid"),
+            rs.getObject("uuid", UUID.class),
             rs.getString("name")
         );
         
-        data.setMoney(rs.getDouble("money"));
+        data.setBalanceUnits(rs.getLong("money"));
         data.setJob(rs.getString("job"));
         
         // Load known IPs
-        try (PreparedStatement stmt = getPreparedStatement(rs.getStatement().getConnection(), "loadKnownIps")) {
-            stmt.setString(1, data.getUuid());
-            ResultSet ipRs = stmt.executeQuery();
+        query(conn, "loadKnownIps", statementSql("loadKnownIps"), stmt -> stmt.setObject(1, data.getUuid()), ipRs -> {
             while (ipRs.next()) {
                 data.updateIp(ipRs.getString("ip"));
             }
-        }
+            return null;
+        });
         
+        // Freshly loaded values match the database
+        data.markClean();
         return data;
     }
     
@@ -440,7 +960,7 @@ public class DatabaseManager {
         long totalTime = totalQueryTime.get();
         long slowQueries = slowQueryCount.get();
         int errors = connectionErrorCount.get();
-        double avgTime = queries > 0 ? (double) totalTime / queries : 0;
+        double avgTime = queries > 0 ? (double) totalTime / queries / 1_000_000.0 : 0;
         double slowPercentage = queries > 0 ? (double) slowQueries / queries * 100 : 0;
         
         // Add connection pool metrics
@@ -448,11 +968,100 @@ public class DatabaseManager {
         int idleConnections = connectionPool.getHikariPoolMXBean().getIdleConnections();
         int totalConnections = connectionPool.getHikariPoolMXBean().getTotalConnections();
         
-        return String.format(
+        String metrics = String.format(
             "Database Metrics: %d queries, %.2fms avg, %d slow queries (%.2f%%), %d errors | Pool: %d active, %d idle, %d total",
             queries, avgTime, slowQueries, slowPercentage, errors, 
             activeConnections, idleConnections, totalConnections
         );
+        
+        LatencyHistogram.Snapshot poolWait = writePoolWait.snapshot();
+        metrics += String.format(
+            " | Pool wait: %.2fms p99, %.2fms max",
+            poolWait.getValueAt(0.99) / 1_000_000.0, poolWait.getMax() / 1_000_000.0
+        );
+        
+        metrics += String.format(
+            " | Write queue: %d committed, %d coalesced, %d batches",
+            committedWrites.get(), coalescedWrites.get(), writeBatches.get()
+        );
+        
+        if (readPool != null) {
+            metrics += String.format(
+                " | Read pool: %d active, %d idle, %d total",
+                readPool.getHikariPoolMXBean().getActiveConnections(),
+                readPool.getHikariPoolMXBean().getIdleConnections(),
+                readPool.getHikariPoolMXBean().getTotalConnections()
+            );
+        }
+        
+        return metrics;
+    }
+    
+    /**
+     * Gets the latency statistics of every named statement that ran since the last reset.
+     * 
+     * @return The statistics, in no particular order
+     */
+    @NotNull
+    public Collection<StatementStats> getStatementStats() {
+        return Collections.unmodifiableCollection(statementStats.values());
+    }
+    
+    /**
+     * Gets how long callers waited for pooled connections.
+     * 
+     * @param read Whether to get the read pool's wait time. Without a read pool it stays empty.
+     * @return The wait time snapshot in nanoseconds
+     */
+    @NotNull
+    public LatencyHistogram.Snapshot getPoolWait(boolean read) {
+        return (read ? readPoolWait : writePoolWait).snapshot();
+    }
+    
+    /**
+     * Writes the statement statistics as CSV, latencies in microseconds.
+     * 
+     * @param file The file to write, replaced if it exists
+     * @throws IOException if the file can't be written
+     */
+    public void exportStatementStats(@NotNull File file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("statement,count,errors,rows,mean_us,p50_us,p95_us,p99_us,max_us,"
+            + "wait_count,wait_p50_us,wait_p95_us,wait_p99_us,wait_max_us");
+        lines.add(csvRow("pool.write", 0, 0, new LatencyHistogram().snapshot(), writePoolWait.snapshot()));
+        if (readPool != null) {
+            lines.add(csvRow("pool.read", 0, 0, new LatencyHistogram().snapshot(), readPoolWait.snapshot()));
+        }
+        for (StatementStats stats : statementStats.values()) {
+            lines.add(csvRow(stats.getName(), stats.getErrors(), stats.getRowsAffected(),
+                stats.getExecutionTime(), stats.getPoolWait()));
+        }
+        
+        File parent = file.getParentFile();
+        if (parent != null) {
+            Files.createDirectories(parent.toPath());
+        }
+        Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+    }
+    
+    private static String csvRow(String name, long errors, long rows, LatencyHistogram.Snapshot execution,
+                                 LatencyHistogram.Snapshot wait) {
+        return String.join(",",
+            name,
+            Long.toString(execution.getCount()),
+            Long.toString(errors),
+            Long.toString(rows),
+            Long.toString(Math.round(execution.getMean() / 1_000.0)),
+            Long.toString(execution.getValueAt(0.50) / 1_000),
+            Long.toString(execution.getValueAt(0.95) / 1_000),
+            Long.toString(execution.getValueAt(0.99) / 1_000),
+            Long.toString(execution.getMax() / 1_000),
+            Long.toString(wait.getCount()),
+            Long.toString(wait.getValueAt(0.50) / 1_000),
+            Long.toString(wait.getValueAt(0.95) / 1_000),
+            Long.toString(wait.getValueAt(0.99) / 1_000),
+            Long.toString(wait.getMax() / 1_000)
+        );
     }
     
     /**
@@ -463,12 +1072,30 @@ public class DatabaseManager {
         totalQueryTime.set(0);
         slowQueryCount.set(0);
         connectionErrorCount.set(0);
+        committedWrites.set(0);
+        coalescedWrites.set(0);
+        writeBatches.set(0);
+        for (StatementStats stats : statementStats.values()) {
+            stats.reset();
+        }
+        writePoolWait.reset();
+        readPoolWait.reset();
     }
 
     public void close() {
         try {
+            // Stop the writer and commit whatever is still queued
+            writeQueueClosed = true;
+            if (writeExecutor != null) {
+                writeExecutor.shutdown();
+                if (!writeExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+                    writeExecutor.shutdownNow();
+                }
+            }
+            flushWrites();
+            
             // Log performance metrics before closing
-            DebugLogger.debug("Database", getPerformanceMetrics());
+            DebugLogger.debug("Database", this::getPerformanceMetrics);
             
             // Close cached statements
             for (PreparedStatement stmt : cachedStatements.values()) {
@@ -480,6 +1107,11 @@ public class DatabaseManager {
             }
             cachedStatements.clear();
             
+            // Close the read pool first, SHUTDOWN below invalidates its connections anyway
+            if (readPool != null && !readPool.isClosed()) {
+                readPool.close();
+            }
+            
             // Close connection pool
             if (connectionPool != null && !connectionPool.isClosed()) {
                 // Execute shutdown command before closing pool
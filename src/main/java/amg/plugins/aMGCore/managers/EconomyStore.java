@@ -0,0 +1,97 @@
+package amg.plugins.aMGCore.managers;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.SQLException;
+import java.util.UUID;
+
+/**
+ * Balance reads and changes applied directly in SQL, for players whose data
+ * is not cached. Changes are single statements, so they never race with each
+ * other and never need the full player row.
+ * <p>
+ * Online players must go through {@link PlayerDataManager#adjustMoney(UUID, long)}
+ * instead, which uses the cached data when there is any.
+ */
+public class EconomyStore {
+    private final DatabaseManager databaseManager;
+
+    EconomyStore(DatabaseManager databaseManager) {
+        this.databaseManager = databaseManager;
+    }
+
+    /**
+     * Gets a player's balance.
+     *
+     * @param uuid The player's UUID
+     * @return The balance in minor units, or null if the player is unknown
+     * @throws SQLException if a database access error occurs
+     */
+    @Nullable
+    public Long getBalance(@NotNull UUID uuid) throws SQLException {
+        return databaseManager.executeWithMetrics(() -> databaseManager.readQuery("economy.balance",
+            "SELECT money FROM player_data WHERE uuid = ?",
+            stmt -> stmt.setObject(1, uuid),
+            rs -> rs.next() ? rs.getLong("money") : null));
+    }
+
+    /**
+     * Looks up a player's UUID by their last known name.
+     *
+     * @param name The player's name
+     * @return The UUID, or null if no player has that name
+     * @throws SQLException if a database access error occurs
+     */
+    @Nullable
+    public UUID findPlayer(@NotNull String name) throws SQLException {
+        return databaseManager.executeWithMetrics(() -> databaseManager.readQuery("economy.find_player",
+            "SELECT uuid FROM player_data WHERE name = ?",
+            stmt -> stmt.setString(1, name),
+            rs -> rs.next() ? rs.getObject("uuid", UUID.class) : null));
+    }
+
+    /**
+     * Atomically adds a signed amount to a player's balance. A withdrawal only
+     * happens if the balance covers it.
+     *
+     * @param uuid The player's UUID
+     * @param delta The minor units to add, negative to withdraw
+     * @return The new balance, or null if the player is unknown or doesn't have enough
+     * @throws SQLException if a database access error occurs
+     */
+    @Nullable
+    public Long adjustBalance(@NotNull UUID uuid, long delta) throws SQLException {
+        return databaseManager.executeWithMetrics(() -> databaseManager.query("economy.adjust", """
+                SELECT money FROM FINAL TABLE (
+                    UPDATE player_data SET money = money + ?, updated_at = CURRENT_TIMESTAMP
+                    WHERE uuid = ? AND money + ? >= 0
+                )
+            """, stmt -> {
+                stmt.setLong(1, delta);
+                stmt.setObject(2, uuid);
+                stmt.setLong(3, delta);
+            },
+            rs -> rs.next() ? rs.getLong("money") : null));
+    }
+
+    /**
+     * Sets a player's balance.
+     *
+     * @param uuid The player's UUID
+     * @param units The new balance in minor units
+     * @return true if the balance was set, false if the player is unknown
+     * @throws SQLException if a database access error occurs
+     */
+    public boolean setBalance(@NotNull UUID uuid, long units) throws SQLException {
+        if (units < 0) {
+            throw new IllegalArgumentException("Money cannot be negative");
+        }
+        return databaseManager.executeWithMetrics(() -> databaseManager.update("economy.set",
+            "UPDATE player_data SET money = ?, updated_at = CURRENT_TIMESTAMP WHERE uuid = ?",
+            stmt -> {
+                stmt.setLong(1, units);
+                stmt.setObject(2, uuid);
+            }) > 0);
+    }
+}
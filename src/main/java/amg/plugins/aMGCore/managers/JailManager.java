@@ -61,9 +61,6 @@ public class JailManager implements Listener {
         // Register events
         Bukkit.getPluginManager().registerEvents(this, plugin);
         
-        // Initialize database tables
-        initializeDatabaseTables();
-        
         // Load jails from database
         loadJails();
         
@@ -74,72 +71,33 @@ public class JailManager implements Listener {
         startJailTimerTask();
     }
 
-    private void initializeDatabaseTables() {
-        try (Connection conn = databaseManager.getConnection();
-             Statement stmt = conn.createStatement()) {
-            
-            // Create jails table
-            stmt.execute("""
-                CREATE TABLE IF NOT EXISTS jails (
-                    name VARCHAR(32) PRIMARY KEY,
-                    world VARCHAR(64) NOT NULL,
-                    x DOUBLE NOT NULL,
-                    y DOUBLE NOT NULL,
-                    z DOUBLE NOT NULL,
-                    yaw FLOAT NOT NULL,
-                    pitch FLOAT NOT NULL,
-                    created_by VARCHAR(36) NOT NULL,
-                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-                )
-            """);
-            
-            // Create jailed_players table
-            stmt.execute("""
-                CREATE TABLE IF NOT EXISTS jailed_players (
-                    uuid VARCHAR(36) PRIMARY KEY,
-                    jail_name VARCHAR(32) NOT NULL,
-                    jailed_by VARCHAR(36) NOT NULL,
-                    reason TEXT,
-                    jail_time BIGINT NOT NULL,
-                    remaining_time BIGINT NOT NULL,
-                    jailed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                    FOREIGN KEY (jail_name) REFERENCES jails(name) ON DELETE CASCADE
-                )
-            """);
-            
-            plugin.getLogger().info(localeManager.getMessage("jail.info.initialized"));
-        } catch (SQLException e) {
-            DebugLogger.severe("JailManager", localeManager.getMessage("jail.error.initialize_tables"), e);
-        }
-    }
-    
     private void loadJails() {
-        try (Connection conn = databaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement("SELECT * FROM jails")) {
-            
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                String name = rs.getString("name");
-                String worldName = rs.getString("world");
-                double x = rs.getDouble("x");
-                double y = rs.getDouble("y");
-                double z = rs.getDouble("z");
-                float yaw = rs.getFloat("yaw");
-                float pitch = rs.getFloat("pitch");
-                String createdBy = rs.getString("created_by");
+        try {
+            databaseManager.query("jails.load_all", "SELECT * FROM jails", null, rs -> {
+                while (rs.next()) {
+                    String name = rs.getString("name");
+                    String worldName = rs.getString("world");
+                    double x = rs.getDouble("x");
+                    double y = rs.getDouble("y");
+                    double z = rs.getDouble("z");
+                    float yaw = rs.getFloat("yaw");
+                    float pitch = rs.getFloat("pitch");
+                    UUID createdBy = rs.getObject("created_by", UUID.class);
                 
-                World world = Bukkit.getWorld(worldName);
-                if (world != null) {
-                    JailLocation jail = new JailLocation(
-                        name,
-                        new Location(world, x, y, z, yaw, pitch),
-                        createdBy
-                    );
-                    jails.put(name.toLowerCase(), jail);
-                } else {
-                    plugin.getLogger().warning(localeManager.getMessage("jail.error.world_not_found", name, worldName));
+                    World world = Bukkit.getWorld(worldName);
+                    if (world != null) {
+                        JailLocation jail = new JailLocation(
+                            name,
+                            new Location(world, x, y, z, yaw, pitch),
+                            createdBy
+                        );
+                        jails.put(name.toLowerCase(), jail);
+                    } else {
+                        plugin.getLogger().warning(localeManager.getMessage("jail.error.world_not_found", name, worldName));
+                    }
                 }
-            }
+                return null;
+            });
             
             plugin.getLogger().info(localeManager.getMessage("jail.info.loaded_jails", String.valueOf(jails.size())));
         } catch (SQLException e) {
@@ -148,31 +106,31 @@ public class JailManager implements Listener {
     }
     
     private void loadJailedPlayers() {
-        try (Connection conn = databaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement("SELECT * FROM jailed_players")) {
-            
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                UUID playerUuid = UUID.fromString(rs.getString("uuid"));
-                String jailName = rs.getString("jail_name");
-                UUID jailedBy = UUID.fromString(rs.getString("jailed_by"));
-                String reason = rs.getString("reason");
-                long jailTime = rs.getLong("jail_time");
-                long remainingTime = rs.getLong("remaining_time");
-                Timestamp jailedAt = rs.getTimestamp("jailed_at");
+        try {
+            databaseManager.query("jailed_players.load_all", "SELECT * FROM jailed_players", null, rs -> {
+                while (rs.next()) {
+                    UUID playerUuid = rs.getObject("uuid", UUID.class);
+                    String jailName = rs.getString("jail_name");
+                    UUID jailedBy = rs.getObject("jailed_by", UUID.class);
+                    String reason = rs.getString("reason");
+                    long jailTime = rs.getLong("jail_time");
+                    long remainingTime = rs.getLong("remaining_time");
+                    Timestamp jailedAt = rs.getTimestamp("jailed_at");
                 
-                JailData jailData = new JailData(
-                    playerUuid,
-                    jailName,
-                    jailedBy,
-                    reason,
-                    jailTime,
-                    remainingTime,
-                    jailedAt.toInstant()
-                );
+                    JailData jailData = new JailData(
+                        playerUuid,
+                        jailName,
+                        jailedBy,
+                        reason,
+                        jailTime,
+                        remainingTime,
+                        jailedAt.toInstant()
+                    );
                 
-                jailedPlayers.put(playerUuid, jailData);
-            }
+                    jailedPlayers.put(playerUuid, jailData);
+                }
+                return null;
+            });
             
             plugin.getLogger().info(localeManager.getMessage("jail.info.loaded_players", String.valueOf(jailedPlayers.size())));
         } catch (SQLException e) {
@@ -234,25 +192,23 @@ public class JailManager implements Listener {
         }
         
         // Create jail object
-        JailLocation jail = new JailLocation(name, location, createdBy.toString());
+        JailLocation jail = new JailLocation(name, location, createdBy);
         
         // Save to database
-        try (Connection conn = databaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement("""
+        try {
+            databaseManager.update("jails.create", """
                 INSERT INTO jails (name, world, x, y, z, yaw, pitch, created_by)
                 VALUES (?, ?, ?, ?, ?, ?, ?, ?)
-             """)) {
-            
-            stmt.setString(1, name);
-            stmt.setString(2, location.getWorld().getName());
-            stmt.setDouble(3, location.getX());
-            stmt.setDouble(4, location.getY());
-            stmt.setDouble(5, location.getZ());
-            stmt.setFloat(6, location.getYaw());
-            stmt.setFloat(7, location.getPitch());
-            stmt.setString(8, createdBy.toString());
-            
-            stmt.executeUpdate();
+            """, stmt -> {
+                stmt.setString(1, name);
+                stmt.setString(2, location.getWorld().getName());
+                stmt.setDouble(3, location.getX());
+                stmt.setDouble(4, location.getY());
+                stmt.setDouble(5, location.getZ());
+                stmt.setFloat(6, location.getYaw());
+                stmt.setFloat(7, location.getPitch());
+                stmt.setObject(8, createdBy);
+            });
             
             // Add to cache
             jails.put(lowerName, jail);
@@ -279,11 +235,8 @@ public class JailManager implements Listener {
         }
         
         // Delete from database
-        try (Connection conn = databaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement("DELETE FROM jails WHERE name = ?")) {
-            
-            stmt.setString(1, name);
-            stmt.executeUpdate();
+        try {
+            databaseManager.update("jails.delete", "DELETE FROM jails WHERE name = ?", stmt -> stmt.setString(1, name));
             
             // Remove from cache
             jails.remove(lowerName);
@@ -331,50 +284,33 @@ public class JailManager implements Listener {
             java.time.Instant.now()
         );
         
-        // Save to database
-        try (Connection conn = databaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement("""
-                INSERT INTO jailed_players (uuid, jail_name, jailed_by, reason, jail_time, remaining_time)
-                VALUES (?, ?, ?, ?, ?, ?)
-             """)) {
-            
-            stmt.setString(1, playerUuid.toString());
-            stmt.setString(2, jailName);
-            stmt.setString(3, jailedBy.toString());
-            stmt.setString(4, jailData.reason);
-            stmt.setLong(5, time);
-            stmt.setLong(6, time);
+        // Save to database, under the row's queue key so it stays in order with later writes of the row
+        updateJailDataInDatabase(jailData);
+        
+        // Add to cache
+        jailedPlayers.put(playerUuid, jailData);
+        
+        // Save inventory and teleport player if online
+        Player player = Bukkit.getPlayer(playerUuid);
+        if (player != null && player.isOnline()) {
+            // Save inventory and location
+            savedInventories.put(playerUuid, player.getInventory().getContents());
+            lastLocations.put(playerUuid, player.getLocation());
             
-            stmt.executeUpdate();
+            // Clear inventory and teleport
+            player.getInventory().clear();
+            player.teleport(jail.location);
             
-            // Add to cache
-            jailedPlayers.put(playerUuid, jailData);
+            // Set jail permissions
+            setJailPermissions(player);
             
-            // Save inventory and teleport player if online
-            Player player = Bukkit.getPlayer(playerUuid);
-            if (player != null && player.isOnline()) {
-                // Save inventory and location
-                savedInventories.put(playerUuid, player.getInventory().getContents());
-                lastLocations.put(playerUuid, player.getLocation());
-                
-                // Clear inventory and teleport
-                player.getInventory().clear();
-                player.teleport(jail.location);
-                
-                // Set jail permissions
-                setJailPermissions(player);
-                
-                player.sendMessage(localeManager.getComponent("jail.player.jailed", formatTime(time)));
-                if (reason != null) {
-                    player.sendMessage(localeManager.getComponent("jail.player.jailed_reason", reason));
-                }
+            player.sendMessage(localeManager.getComponent("jail.player.jailed", formatTime(time)));
+            if (reason != null) {
+                player.sendMessage(localeManager.getComponent("jail.player.jailed_reason", reason));
             }
-            
-            return true;
-        } catch (SQLException e) {
-            DebugLogger.severe("JailManager", localeManager.getComponent("jail.error.jail_player", playerUuid.toString()).toString(), e);
-            return false;
         }
+        
+        return true;
     }
     
     /**
@@ -389,50 +325,42 @@ public class JailManager implements Listener {
             return false;
         }
         
-        // Delete from database
-        try (Connection conn = databaseManager.getConnection()) {
-            try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM jailed_players WHERE uuid = ?")) {
-                
-                stmt.setString(1, playerUuid.toString());
-                stmt.executeUpdate();
-                
-                // Remove from cache
-                jailedPlayers.remove(playerUuid);
-                
-                // Restore player state if online
-                Player player = Bukkit.getPlayer(playerUuid);
-                if (player != null && player.isOnline()) {
-                    // Restore inventory if saved
-                    ItemStack[] savedInventory = savedInventories.remove(playerUuid);
-                    if (savedInventory != null) {
-                        player.getInventory().setContents(savedInventory);
-                    }
-                    
-                    // Teleport to spawn
-                    World world = player.getWorld();
-                    Location spawnLocation = world.getSpawnLocation();
-                    player.teleport(spawnLocation);
-                    
-                    // Update player permissions and game mode
-                    player.setGameMode(Bukkit.getDefaultGameMode());
-                    
-                    // Reset player flags
-                    player.setCanPickupItems(true);
-                    player.setInvulnerable(false);
-                    
-                    // Remove jail permissions
-                    removeJailPermissions(player);
-                    
-                    // Send message to player
-                    player.sendMessage(localeManager.getComponent("jail.player.released"));
-                }
-                
-                return true;
+        // Delete from database, replacing any queued write of the row
+        databaseManager.queueWrite("jailed_players:" + playerUuid, "DELETE FROM jailed_players WHERE uuid = ?",
+            stmt -> stmt.setObject(1, playerUuid));
+        
+        // Remove from cache
+        jailedPlayers.remove(playerUuid);
+        
+        // Restore player state if online
+        Player player = Bukkit.getPlayer(playerUuid);
+        if (player != null && player.isOnline()) {
+            // Restore inventory if saved
+            ItemStack[] savedInventory = savedInventories.remove(playerUuid);
+            if (savedInventory != null) {
+                player.getInventory().setContents(savedInventory);
             }
-        } catch (SQLException e) {
-            DebugLogger.severe("JailManager", localeManager.getComponent("jail.error.unjail_player", playerUuid.toString()).toString(), e);
-            return false;
+            
+            // Teleport to spawn
+            World world = player.getWorld();
+            Location spawnLocation = world.getSpawnLocation();
+            player.teleport(spawnLocation);
+            
+            // Update player permissions and game mode
+            player.setGameMode(Bukkit.getDefaultGameMode());
+            
+            // Reset player flags
+            player.setCanPickupItems(true);
+            player.setInvulnerable(false);
+            
+            // Remove jail permissions
+            removeJailPermissions(player);
+            
+            // Send message to player
+            player.sendMessage(localeManager.getComponent("jail.player.released"));
         }
+        
+        return true;
     }
     
     /**
@@ -477,19 +405,25 @@ public class JailManager implements Listener {
         return jails.get(name.toLowerCase());
     }
     
+    /**
+     * Queues the whole row of a jailed player. Jailing, time updates and unjailing
+     * share one queue key, so a late update can never overwrite a newer sentence.
+     */
     private void updateJailDataInDatabase(JailData jailData) {
-        try (Connection conn = databaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement("""
-                UPDATE jailed_players SET remaining_time = ? WHERE uuid = ?
-             """)) {
-            
-            stmt.setLong(1, jailData.remainingTime);
-            stmt.setString(2, jailData.playerUuid.toString());
-            
-            stmt.executeUpdate();
-        } catch (SQLException e) {
-            DebugLogger.severe("JailManager", localeManager.getComponent("jail.error.update_data", jailData.playerUuid.toString()).toString(), e);
-        }
+        long remainingTime = jailData.remainingTime;
+        databaseManager.queueWrite("jailed_players:" + jailData.playerUuid, """
+            MERGE INTO jailed_players (uuid, jail_name, jailed_by, reason, jail_time, remaining_time, jailed_at)
+            KEY (uuid)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+        """, stmt -> {
+            stmt.setObject(1, jailData.playerUuid);
+            stmt.setString(2, jailData.jailName);
+            stmt.setObject(3, jailData.jailedBy);
+            stmt.setString(4, jailData.reason);
+            stmt.setLong(5, jailData.jailTime);
+            stmt.setLong(6, remainingTime);
+            stmt.setTimestamp(7, Timestamp.from(jailData.jailedAt));
+        });
     }
     
     private void setJailPermissions(Player player) {
@@ -725,9 +659,9 @@ public class JailManager implements Listener {
     public static class JailLocation {
         private final String name;
         private final Location location;
-        private final String createdBy;
+        private final UUID createdBy;
         
-        public JailLocation(String name, Location location, String createdBy) {
+        public JailLocation(String name, Location location, UUID createdBy) {
             this.name = name;
             this.location = location;
             this.createdBy = createdBy;
@@ -741,7 +675,7 @@ public class JailManager implements Listener {
             return location;
         }
         
-        public String getCreatedBy() {
+        public UUID getCreatedBy() {
             return createdBy;
         }
     }
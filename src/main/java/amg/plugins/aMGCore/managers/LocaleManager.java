@@ -7,20 +7,34 @@ import net.kyori.adventure.text.minimessage.MiniMessage;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerLocaleChangeEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import net.kyori.adventure.text.format.NamedTextColor;
 
 import java.io.File;
-import java.text.MessageFormat;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
-
-public class LocaleManager {
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Loads the locale files and renders their messages. Every file is compiled
+ * into a flat map of message path to {@link MessageTemplate} when it is
+ * loaded, so rendering a message never walks the YAML tree or parses the
+ * message again.
+ */
+public class LocaleManager implements Listener {
     private final AMGCore plugin;
     private final MiniMessage miniMessage;
-    private final Map<String, YamlConfiguration> localeConfigs;
+    private volatile Map<String, Map<String, MessageTemplate>> localeTemplates;
     private final Map<UUID, String> playerLocales;
+    private final Map<UUID, String> resolvedLocales;
     private String defaultLocale;
     private boolean useClientLocale;
     private String fallbackLocale;
@@ -29,11 +43,13 @@ public class LocaleManager {
     public LocaleManager(AMGCore plugin) {
         this.plugin = plugin;
         this.miniMessage = MiniMessage.miniMessage();
-        this.localeConfigs = new HashMap<>();
-        this.playerLocales = new HashMap<>();
+        this.localeTemplates = Collections.emptyMap();
+        this.playerLocales = new ConcurrentHashMap<>();
+        this.resolvedLocales = new ConcurrentHashMap<>();
         loadConfig();
         loadLocales();
         instance = this;
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
     }
 
     public static LocaleManager getInstance() {
@@ -77,45 +93,89 @@ public class LocaleManager {
             saveDefaultLocale(locale);
         }
 
-        // Load all locale files from the directory
+        // Load and compile all locale files from the directory, keeping
+        // locales that were loaded before but are gone from the directory
+        Map<String, Map<String, MessageTemplate>> loaded = new HashMap<>(localeTemplates);
         File[] localeFiles = localeDir.listFiles((dir, name) -> name.endsWith(".yml"));
         if (localeFiles != null) {
             for (File file : localeFiles) {
                 String localeName = file.getName().replace(".yml", "");
                 YamlConfiguration config = YamlConfiguration.loadConfiguration(file);
-                localeConfigs.put(localeName, config);
+                loaded.put(localeName, compileMessages(config));
                 DebugLogger.info("LocaleManager", "Loaded locale file: " + file.getName());
-
-                // Only validate messages in debug mode
-                if (plugin.isDebugEnabled()) {
-                    validateMessages("", config);
-                }
             }
         }
+        localeTemplates = loaded;
+        resolvedLocales.clear();
 
         // Ensure at least one locale is loaded
-        if (localeConfigs.isEmpty()) {
+        if (loaded.isEmpty()) {
             DebugLogger.severe("LocaleManager", "No locale files were loaded! Using fallback messages.");
         }
     }
 
+    private Map<String, MessageTemplate> compileMessages(ConfigurationSection config) {
+        Map<String, MessageTemplate> templates = new HashMap<>();
+        for (String path : config.getKeys(true)) {
+            if (!config.isString(path)) {
+                continue;
+            }
+            String message = config.getString(path);
+            try {
+                templates.put(path, MessageTemplate.compile(message, miniMessage));
+            } catch (Exception e) {
+                // Log messages that have format errors
+                DebugLogger.warning("LocaleManager", "✗ " + path + ": " + message + " (Format error: " + e.getMessage() + ")");
+            }
+        }
+        return templates;
+    }
+
     public void setPlayerLocale(Player player, String locale) {
-        if (localeConfigs.containsKey(locale)) {
+        if (localeTemplates.containsKey(locale)) {
             playerLocales.put(player.getUniqueId(), locale);
+            resolvedLocales.remove(player.getUniqueId());
         }
     }
 
     public String getPlayerLocale(Player player) {
+        String locale = resolvedLocales.get(player.getUniqueId());
+        if (locale == null) {
+            locale = resolveLocale(player, player.locale());
+            if (player.isOnline()) {
+                resolvedLocales.put(player.getUniqueId(), locale);
+            }
+        }
+        return locale;
+    }
+
+    private String resolveLocale(Player player, Locale clientLocale) {
         if (useClientLocale) {
-            Locale clientLocale = player.locale();
             String localeStr = clientLocale.toString().replace('-', '_');
-            if (localeConfigs.containsKey(localeStr)) {
+            if (localeTemplates.containsKey(localeStr)) {
                 return localeStr;
             }
         }
         return playerLocales.getOrDefault(player.getUniqueId(), defaultLocale);
     }
 
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        Player player = event.getPlayer();
+        resolvedLocales.put(player.getUniqueId(), resolveLocale(player, player.locale()));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerLocaleChange(PlayerLocaleChangeEvent event) {
+        Player player = event.getPlayer();
+        resolvedLocales.put(player.getUniqueId(), resolveLocale(player, event.locale()));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        resolvedLocales.remove(event.getPlayer().getUniqueId());
+    }
+
     public void reloadLocale() {
         loadConfig();
         loadLocales();
@@ -126,33 +186,16 @@ public class LocaleManager {
     }
 
     public Component getComponent(Player player, String path, Object... args) {
-        YamlConfiguration config = getConfigForPlayer(player);
-
-        // Split path into sections and traverse the config
-        String[] sections = path.split("\\.");
-        ConfigurationSection currentSection = config;
-        
-        for (int i = 0; i < sections.length - 1; i++) {
-            currentSection = currentSection.getConfigurationSection(sections[i]);
-            if (currentSection == null) {
-                DebugLogger.warning("LocaleManager", "Missing section: " + path);
-                String message = "<red>Missing message: " + path + "</red>";
-                return miniMessage.deserialize(message);
-            }
-        }
-        
-        String message = currentSection.getString(sections[sections.length - 1]);
+        MessageTemplate template = getTemplatesForPlayer(player).get(path);
         
         // If message not found, return a default message
-        if (message == null) {
+        if (template == null) {
             DebugLogger.warning("LocaleManager", "Missing message: " + path);
-            message = "<red>Missing message: " + path + "</red>";
-            return miniMessage.deserialize(message);
+            return miniMessage.deserialize("<red>Missing message: " + path + "</red>");
         }
 
         try {
-            String formatted = MessageFormat.format(message, args);
-            return miniMessage.deserialize(formatted);
+            return template.render(args);
         } catch (Exception e) {
             DebugLogger.warning("LocaleManager", "Error formatting message: " + path);
             return Component.text("Error formatting: " + path).color(NamedTextColor.RED);
@@ -164,78 +207,39 @@ public class LocaleManager {
     }
 
     public String getMessage(Player player, String path, Object... args) {
-        YamlConfiguration config = getConfigForPlayer(player);
-
-        // Split path into sections and traverse the config
-        String[] sections = path.split("\\.");
-        ConfigurationSection currentSection = config;
-        
-        for (int i = 0; i < sections.length - 1; i++) {
-            currentSection = currentSection.getConfigurationSection(sections[i]);
-            if (currentSection == null) {
-                DebugLogger.warning("LocaleManager", "Missing section: " + path);
-                return "Missing message: " + path;
-            }
-        }
-        
-        String message = currentSection.getString(sections[sections.length - 1]);
+        MessageTemplate template = getTemplatesForPlayer(player).get(path);
         
         // If message not found, return a default message
-        if (message == null) {
+        if (template == null) {
             DebugLogger.warning("LocaleManager", "Missing message: " + path);
             return "Missing message: " + path;
         }
 
         try {
-            return MessageFormat.format(message, args);
+            return template.format(args);
         } catch (Exception e) {
             DebugLogger.warning("LocaleManager", "Error formatting message: " + path);
             return "Error formatting: " + path;
         }
     }
 
-    private YamlConfiguration getConfigForPlayer(Player player) {
+    private Map<String, MessageTemplate> getTemplatesForPlayer(Player player) {
+        Map<String, Map<String, MessageTemplate>> templates = localeTemplates;
         if (player != null) {
-            String locale = getPlayerLocale(player);
-            YamlConfiguration config = localeConfigs.get(locale);
-            if (config != null) {
-                return config;
+            Map<String, MessageTemplate> locale = templates.get(getPlayerLocale(player));
+            if (locale != null) {
+                return locale;
             }
             
             // Try fallback locale
-            config = localeConfigs.get(fallbackLocale);
-            if (config != null) {
-                return config;
+            locale = templates.get(fallbackLocale);
+            if (locale != null) {
+                return locale;
             }
         }
         
         // Use default locale as last resort
-        return localeConfigs.getOrDefault(defaultLocale, localeConfigs.get("en_US"));
-    }
-
-    private void validateMessages(String prefix, ConfigurationSection section) {
-        for (String key : section.getKeys(false)) {
-            String path = prefix.isEmpty() ? key : prefix + "." + key;
-            if (section.isConfigurationSection(key)) {
-                // This is a section, recurse into it
-                validateMessages(path, section.getConfigurationSection(key));
-            } else {
-                // This is a message
-                String message = section.getString(key);
-                if (message != null) {
-                    try {
-                        // Try to format the message to check if it's valid
-                        String formatted = MessageFormat.format(message, (Object[]) null);
-                        miniMessage.deserialize(formatted);
-                        if (plugin.isDebugEnabled()) {
-                            DebugLogger.info("LocaleManager", "✓ " + path + ": " + message);
-                        }
-                    } catch (Exception e) {
-                        // Log messages that have format errors
-                        DebugLogger.warning("LocaleManager", "✗ " + path + ": " + message + " (Format error: " + e.getMessage() + ")");
-                    }
-                }
-            }
-        }
+        Map<String, MessageTemplate> locale = templates.getOrDefault(defaultLocale, templates.get("en_US"));
+        return locale != null ? locale : Collections.emptyMap();
     }
-} 
\ No newline at end of file
+}
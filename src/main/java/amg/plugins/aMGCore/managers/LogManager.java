@@ -1,92 +1,113 @@
 package amg.plugins.aMGCore.managers;
 
 import amg.plugins.aMGCore.AMGCore;
-import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
-import java.io.IOException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.locks.ReentrantLock;
-import java.util.logging.Level;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Writes the audit logs. Every stream is a series of append-only NDJSON
+ * segments in {@code logs/<stream>/}, one JSON object per line with the
+ * epoch millisecond timestamp in {@code ts} and the acting player in
+ * {@code player}. Logging never touches the disk on the calling thread.
+ */
 public class LogManager {
     private final AMGCore plugin;
     private final File logsDirectory;
-    private final SimpleDateFormat dateFormat;
-    private final ReentrantLock logLock;
-    
-    // Log files and configurations
-    private YamlConfiguration modLog;
-    private YamlConfiguration itemLog;
-    private YamlConfiguration banLog;
-    private YamlConfiguration chatLog;
-    private YamlConfiguration commandLog;
-    private File modLogFile;
-    private File itemLogFile;
-    private File banLogFile;
-    private File chatLogFile;
-    private File commandLogFile;
-
-    private static final int MAX_LOG_SIZE = 10 * 1024 * 1024; // 10MB
+    private final AuditLog auditLog;
+    private final LogSearch search;
+    private final ContainerFlowAggregator containerFlow;
+    private final Map<String, Double> sampleRates = new HashMap<>();
 
-    public LogManager(@NotNull AMGCore plugin) {
-        this.plugin = Objects.requireNonNull(plugin, "Plugin cannot be null");
-        this.logsDirectory = new File(plugin.getDataFolder(), "logs");
-        this.dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-        this.logLock = new ReentrantLock();
-        
-        initializeLogFiles();
-    }
-
-    private void initializeLogFiles() {
-        try {
-            logLock.lock();
-            
-            if (!logsDirectory.exists() && !logsDirectory.mkdirs()) {
-                plugin.getLogger().severe("Failed to create logs directory!");
-                return;
-            }
+    private static final int DEFAULT_SEGMENT_SIZE_MB = 10;
+    private static final int DEFAULT_SEGMENT_AGE_HOURS = 24;
+    private static final int DEFAULT_BUFFER_CAPACITY = 65536;
+    private static final int DEFAULT_FLOW_WINDOW_SECONDS = 60;
+    private static final int DEFAULT_COMPRESS_AFTER_DAYS = 7;
+    private static final int DEFAULT_MAX_AGE_DAYS = 90;
+    private static final int DEFAULT_MAX_STREAM_SIZE_MB = 1024;
 
-            // Initialize mod actions log
-            modLogFile = new File(logsDirectory, "mod_actions.yml");
-            modLog = loadOrCreateLog(modLogFile);
+    /**
+     * The audit log streams, each written to its own directory.
+     */
+    public enum Stream {
+        MOD_ACTIONS("mod_actions"),
+        ITEM_TRANSACTIONS("item_transactions"),
+        BANS_KICKS("bans_kicks"),
+        CHAT("chat"),
+        COMMANDS("commands");
 
-            // Initialize item transactions log
-            itemLogFile = new File(logsDirectory, "item_transactions.yml");
-            itemLog = loadOrCreateLog(itemLogFile);
+        private final String fileName;
 
-            // Initialize ban/kick log
-            banLogFile = new File(logsDirectory, "bans_kicks.yml");
-            banLog = loadOrCreateLog(banLogFile);
+        Stream(String fileName) {
+            this.fileName = fileName;
+        }
 
-            // Initialize chat log
-            chatLogFile = new File(logsDirectory, "chat.yml");
-            chatLog = loadOrCreateLog(chatLogFile);
+        @NotNull
+        public String getFileName() {
+            return fileName;
+        }
 
-            // Initialize command log
-            commandLogFile = new File(logsDirectory, "commands.yml");
-            commandLog = loadOrCreateLog(commandLogFile);
-        } finally {
-            logLock.unlock();
+        /**
+         * Gets a stream by its file name.
+         *
+         * @param name The file name, case-insensitive
+         * @return The stream, or null if there is none with that name
+         */
+        @Nullable
+        public static Stream fromName(@NotNull String name) {
+            for (Stream stream : values()) {
+                if (stream.fileName.equalsIgnoreCase(name)) {
+                    return stream;
+                }
+            }
+            return null;
         }
     }
 
-    private YamlConfiguration loadOrCreateLog(@NotNull File file) {
-        if (!file.exists()) {
-            try {
-                if (!file.createNewFile()) {
-                    plugin.getLogger().severe("Failed to create log file: " + file.getName());
-                    return new YamlConfiguration();
-                }
-            } catch (IOException e) {
-                plugin.getLogger().log(Level.SEVERE, "Error creating log file: " + file.getName(), e);
-                return new YamlConfiguration();
+    public LogManager(@NotNull AMGCore plugin) {
+        this.plugin = Objects.requireNonNull(plugin, "Plugin cannot be null");
+        this.logsDirectory = new File(plugin.getDataFolder(), "logs");
+
+        if (!logsDirectory.exists() && !logsDirectory.mkdirs()) {
+            plugin.getLogger().severe("Failed to create logs directory!");
+        }
+
+        FileConfiguration config = plugin.getConfig();
+        long segmentSize = config.getLong("logging.audit.max_segment_size_mb", DEFAULT_SEGMENT_SIZE_MB) * 1024L * 1024L;
+        long segmentAge = TimeUnit.HOURS.toMillis(config.getLong("logging.audit.max_segment_age_hours", DEFAULT_SEGMENT_AGE_HOURS));
+        int capacity = config.getInt("logging.audit.buffer_capacity", DEFAULT_BUFFER_CAPACITY);
+        long compressAfter = TimeUnit.DAYS.toMillis(config.getLong("logging.audit.compress_after_days", DEFAULT_COMPRESS_AFTER_DAYS));
+        long maxAge = TimeUnit.DAYS.toMillis(config.getLong("logging.audit.max_age_days", DEFAULT_MAX_AGE_DAYS));
+        long maxStreamSize = config.getLong("logging.audit.max_stream_size_mb", DEFAULT_MAX_STREAM_SIZE_MB) * 1024L * 1024L;
+
+        List<String> streams = new ArrayList<>();
+        for (Stream stream : Stream.values()) {
+            streams.add(stream.getFileName());
+        }
+        this.auditLog = new AuditLog(logsDirectory, streams, segmentSize, segmentAge, capacity,
+            compressAfter, maxAge, maxStreamSize);
+        this.search = new LogSearch(this);
+
+        ConfigurationSection sampling = config.getConfigurationSection("logging.sampling");
+        if (sampling != null) {
+            for (String eventType : sampling.getKeys(false)) {
+                sampleRates.put(eventType, Math.max(0.0, Math.min(1.0, sampling.getDouble(eventType, 1.0))));
             }
         }
-        return YamlConfiguration.loadConfiguration(file);
+        this.containerFlow = new ContainerFlowAggregator(plugin, this,
+            config.getLong("logging.container_flow_window_seconds", DEFAULT_FLOW_WINDOW_SECONDS),
+            getSampleRate("container_transfer"));
     }
 
     public void logModAction(@NotNull String staffMember, @NotNull String action, @NotNull String target, @NotNull String reason) {
@@ -95,18 +116,8 @@ public class LogManager {
         Objects.requireNonNull(target, "Target cannot be null");
         Objects.requireNonNull(reason, "Reason cannot be null");
 
-        try {
-            logLock.lock();
-            String timestamp = dateFormat.format(new Date());
-            String entry = String.format("%s by %s | Target: %s | Details: %s", 
-                action, staffMember, target, reason);
-            
-            modLog.set(timestamp, entry);
-            saveLog(modLog, modLogFile, "mod actions");
-            checkLogSize(modLogFile);
-        } finally {
-            logLock.unlock();
-        }
+        auditLog.append(Stream.MOD_ACTIONS.ordinal(),
+            "player", staffMember, "action", action, "target", target, "details", reason);
     }
 
     public void logItemTransaction(@NotNull String player, @NotNull String action, @NotNull String item, int amount, @NotNull String location) {
@@ -115,18 +126,26 @@ public class LogManager {
         Objects.requireNonNull(item, "Item cannot be null");
         Objects.requireNonNull(location, "Location cannot be null");
 
-        try {
-            logLock.lock();
-            String timestamp = dateFormat.format(new Date());
-            String entry = String.format("%s %dx %s at %s", 
-                action, amount, item, location);
-            
-            itemLog.set(timestamp + "." + player, entry);
-            saveLog(itemLog, itemLogFile, "item transactions");
-            checkLogSize(itemLogFile);
-        } finally {
-            logLock.unlock();
-        }
+        auditLog.append(Stream.ITEM_TRANSACTIONS.ordinal(),
+            "player", player, "action", action, "item", item, "amount", amount, "location", location);
+    }
+
+    /**
+     * Logs the summary of one container's automated transfers over a window.
+     *
+     * @param direction "IN" or "OUT"
+     * @param item The material name
+     * @param amount The number of items moved, estimated when transfers are sampled
+     * @param transfers The number of recorded transfers
+     * @param location The container location as "world,x,y,z"
+     * @param container The inventory type of the container
+     * @param windowMillis The length of the window
+     */
+    public void logContainerFlow(@NotNull String direction, @NotNull String item, long amount, int transfers,
+                                 @NotNull String location, @NotNull String container, long windowMillis) {
+        auditLog.append(Stream.ITEM_TRANSACTIONS.ordinal(),
+            "player", "SYSTEM", "action", "CONTAINER_FLOW_" + direction, "item", item, "amount", amount,
+            "transfers", transfers, "location", location, "container", container, "window_ms", windowMillis);
     }
 
     public void logBanKick(@NotNull String staffMember, @NotNull String action, @NotNull String target, String duration, @NotNull String reason) {
@@ -135,114 +154,113 @@ public class LogManager {
         Objects.requireNonNull(target, "Target cannot be null");
         Objects.requireNonNull(reason, "Reason cannot be null");
 
-        try {
-            logLock.lock();
-            String timestamp = dateFormat.format(new Date());
-            String entry = String.format("%s by %s | Duration: %s | Reason: %s", 
-                action, staffMember, duration != null ? duration : "PERMANENT", reason);
-            
-            banLog.set(timestamp + "." + target, entry);
-            saveLog(banLog, banLogFile, "bans and kicks");
-            checkLogSize(banLogFile);
-        } finally {
-            logLock.unlock();
-        }
+        auditLog.append(Stream.BANS_KICKS.ordinal(),
+            "player", staffMember, "action", action, "target", target,
+            "duration", duration != null ? duration : "PERMANENT", "reason", reason);
     }
 
     public void logChat(@NotNull String player, @NotNull String message, int recipients) {
         Objects.requireNonNull(player, "Player cannot be null");
         Objects.requireNonNull(message, "Message cannot be null");
 
-        try {
-            logLock.lock();
-            String timestamp = dateFormat.format(new Date());
-            String entry = String.format("To %d players: %s", 
-                recipients, message);
-            
-            chatLog.set(timestamp + "." + player, entry);
-            saveLog(chatLog, chatLogFile, "chat messages");
-            checkLogSize(chatLogFile);
-        } finally {
-            logLock.unlock();
-        }
+        auditLog.append(Stream.CHAT.ordinal(),
+            "player", player, "recipients", recipients, "message", message);
     }
 
     public void logCommand(@NotNull String player, @NotNull String command, boolean success) {
         Objects.requireNonNull(player, "Player cannot be null");
         Objects.requireNonNull(command, "Command cannot be null");
 
-        try {
-            logLock.lock();
-            String timestamp = dateFormat.format(new Date());
-            String entry = String.format("%s | Success: %s", 
-                command, success ? "Yes" : "No");
-            
-            commandLog.set(timestamp + "." + player, entry);
-            saveLog(commandLog, commandLogFile, "commands");
-            checkLogSize(commandLogFile);
-        } finally {
-            logLock.unlock();
-        }
+        auditLog.append(Stream.COMMANDS.ordinal(),
+            "player", player, "command", command, "success", success);
     }
 
-    private void saveLog(@NotNull YamlConfiguration log, @NotNull File file, @NotNull String logType) {
-        try {
-            log.save(file);
-        } catch (IOException e) {
-            plugin.getLogger().log(Level.SEVERE, "Could not save " + logType + " log", e);
-        }
+    /**
+     * Starts a new segment for every stream. Segments also roll on their own
+     * when they reach the configured size or age.
+     */
+    public void rotateLogs() {
+        auditLog.roll();
+        plugin.getLogger().info("Rotating audit logs");
     }
 
-    private void checkLogSize(@NotNull File logFile) {
-        if (logFile.length() > MAX_LOG_SIZE) {
-            rotateLog(logFile, logFile.getName().replace(".yml", ""));
-        }
+    /**
+     * Gets the directory holding the segments of a stream.
+     *
+     * @param stream The stream
+     * @return The directory, which may not exist yet
+     */
+    @NotNull
+    public File getStreamDirectory(@NotNull Stream stream) {
+        return auditLog.getStreamDirectory(stream.ordinal());
     }
 
-    public void rotateLogs() {
-        try {
-            logLock.lock();
-            rotateLog(modLogFile, "mod_actions");
-            rotateLog(itemLogFile, "item_transactions");
-            rotateLog(banLogFile, "bans_kicks");
-            rotateLog(chatLogFile, "chat");
-            rotateLog(commandLogFile, "commands");
-            
-            // Reinitialize log files
-            initializeLogFiles();
-        } finally {
-            logLock.unlock();
-        }
+    /**
+     * Checks whether an event of a sampled type should be logged. Types
+     * without a rate under {@code logging.sampling} are always logged.
+     *
+     * @param eventType The event type, e.g. "container_click"
+     * @return true if this event should be logged
+     */
+    public boolean shouldSample(@NotNull String eventType) {
+        double rate = getSampleRate(eventType);
+        return rate >= 1.0 || (rate > 0.0 && ThreadLocalRandom.current().nextDouble() < rate);
     }
 
-    private void rotateLog(@NotNull File logFile, @NotNull String baseName) {
-        if (!logFile.exists()) {
-            return;
-        }
+    private double getSampleRate(String eventType) {
+        return sampleRates.getOrDefault(eventType, 1.0);
+    }
 
-        String date = new SimpleDateFormat("yyyy-MM-dd").format(new Date());
-        File backupFile = new File(logsDirectory, baseName + "_" + date + ".yml");
-        
-        // If a backup from today already exists, append a number
-        int counter = 1;
-        while (backupFile.exists()) {
-            backupFile = new File(logsDirectory, baseName + "_" + date + "_" + counter + ".yml");
-            counter++;
-        }
-        
-        if (!logFile.renameTo(backupFile)) {
-            plugin.getLogger().warning("Failed to rotate " + baseName + " log");
-            return;
-        }
-        
-        plugin.getLogger().info("Rotated " + baseName + " log to " + backupFile.getName());
-        
-        try {
-            if (!logFile.createNewFile()) {
-                plugin.getLogger().severe("Failed to create new log file after rotation: " + logFile.getName());
-            }
-        } catch (IOException e) {
-            plugin.getLogger().log(Level.SEVERE, "Error creating new log file after rotation: " + logFile.getName(), e);
-        }
+    /**
+     * Gets the aggregator for hopper and dropper transfers.
+     */
+    @NotNull
+    public ContainerFlowAggregator getContainerFlow() {
+        return containerFlow;
+    }
+
+    /**
+     * Gets the search engine over the audit log segments.
+     */
+    @NotNull
+    public LogSearch getSearch() {
+        return search;
+    }
+
+    /**
+     * Gets the number of entries accepted since startup.
+     */
+    public long getAppendedCount() {
+        return auditLog.getAppended();
+    }
+
+    /**
+     * Gets the number of entries dropped because the writer fell behind.
+     */
+    public long getDroppedCount() {
+        return auditLog.getDropped();
+    }
+
+    /**
+     * Gets the number of bytes written since startup.
+     */
+    public long getBytesWritten() {
+        return auditLog.getBytesWritten();
+    }
+
+    /**
+     * Gets the number of entries waiting for the writer.
+     */
+    public int getQueuedCount() {
+        return auditLog.getQueued();
+    }
+
+    /**
+     * Writes out the queued entries and stops the writer thread.
+     */
+    public void close() {
+        containerFlow.close();
+        search.shutdown();
+        auditLog.close();
     }
-} 
\ No newline at end of file
+}
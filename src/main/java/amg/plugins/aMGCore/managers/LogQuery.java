@@ -0,0 +1,175 @@
+package amg.plugins.aMGCore.managers;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Filter for searching the audit logs. Every criterion that is set must
+ * match, unset criteria match everything.
+ */
+public final class LogQuery {
+    private final Set<LogManager.Stream> streams;
+    private final String player;
+    private final long since;
+    private final long until;
+    private final String world;
+    private final int x;
+    private final int y;
+    private final int z;
+    private final int radius;
+    private final String text;
+
+    private LogQuery(Builder builder) {
+        this.streams = Collections.unmodifiableSet(builder.streams.isEmpty()
+            ? EnumSet.allOf(LogManager.Stream.class)
+            : EnumSet.copyOf(builder.streams));
+        this.player = builder.player;
+        this.since = builder.since;
+        this.until = builder.until;
+        this.world = builder.world;
+        this.x = builder.x;
+        this.y = builder.y;
+        this.z = builder.z;
+        this.radius = builder.radius;
+        this.text = builder.text;
+    }
+
+    /**
+     * Creates a builder for a query that matches everything.
+     *
+     * @return A new builder
+     */
+    public static @NotNull Builder builder() {
+        return new Builder();
+    }
+
+    @NotNull
+    public Set<LogManager.Stream> getStreams() {
+        return streams;
+    }
+
+    /**
+     * Gets the lower-case name of the acting player, or null for any player.
+     */
+    @Nullable
+    public String getPlayer() {
+        return player;
+    }
+
+    public long getSince() {
+        return since;
+    }
+
+    public long getUntil() {
+        return until;
+    }
+
+    public boolean hasLocation() {
+        return world != null;
+    }
+
+    @Nullable
+    public String getWorld() {
+        return world;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int getZ() {
+        return z;
+    }
+
+    public int getRadius() {
+        return radius;
+    }
+
+    /**
+     * Gets the lower-case text entries must contain, or null for any text.
+     */
+    @Nullable
+    public String getText() {
+        return text;
+    }
+
+    boolean matchesTime(long time) {
+        return time >= since && time <= until;
+    }
+
+    boolean matchesLocation(@NotNull String world, int x, int y, int z) {
+        if (!world.equalsIgnoreCase(this.world)) {
+            return false;
+        }
+        long dx = x - this.x;
+        long dy = y - this.y;
+        long dz = z - this.z;
+        return dx * dx + dy * dy + dz * dz <= (long) radius * radius;
+    }
+
+    /**
+     * Builder for creating LogQuery instances.
+     */
+    public static final class Builder {
+        private final Set<LogManager.Stream> streams = EnumSet.noneOf(LogManager.Stream.class);
+        private String player;
+        private long since = 0L;
+        private long until = Long.MAX_VALUE;
+        private String world;
+        private int x;
+        private int y;
+        private int z;
+        private int radius;
+        private String text;
+
+        private Builder() {
+        }
+
+        public @NotNull Builder stream(@NotNull LogManager.Stream stream) {
+            streams.add(stream);
+            return this;
+        }
+
+        public @NotNull Builder player(@Nullable String player) {
+            this.player = player != null ? player.toLowerCase(Locale.ROOT) : null;
+            return this;
+        }
+
+        public @NotNull Builder since(long since) {
+            this.since = since;
+            return this;
+        }
+
+        public @NotNull Builder until(long until) {
+            this.until = until;
+            return this;
+        }
+
+        public @NotNull Builder near(@NotNull String world, int x, int y, int z, int radius) {
+            this.world = world;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.radius = Math.max(0, radius);
+            return this;
+        }
+
+        public @NotNull Builder text(@Nullable String text) {
+            this.text = text != null && !text.isEmpty() ? text.toLowerCase(Locale.ROOT) : null;
+            return this;
+        }
+
+        public @NotNull LogQuery build() {
+            return new LogQuery(this);
+        }
+    }
+}
@@ -0,0 +1,547 @@
+package amg.plugins.aMGCore.managers;
+
+import amg.plugins.aMGCore.utils.DebugLogger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Searches the audit log segments written by {@link LogManager}.
+ * <p>
+ * Segments are memory-mapped and only the lines a sidecar {@link SegmentIndex}
+ * points at are decoded. Segments that retention already compressed have no
+ * index, they are inflated into memory and every line is checked. Every stream is walked newest to oldest and the
+ * streams are merged by time, so a page only reads as far back as it needs.
+ * Searches run one at a time on a background thread.
+ */
+public final class LogSearch {
+    /** Matches the "world,x,y,z" locations the log callers write. */
+    static final Pattern LOCATION = Pattern.compile("([A-Za-z0-9_\\-./]+),(-?\\d{1,8}),(-?\\d{1,4}),(-?\\d{1,8})");
+
+    private static final int MAX_CACHED_INDEXES = 64;
+    private static final String SEGMENT_EXTENSION = ".ndjson";
+    private static final String COMPRESSED_EXTENSION = ".gz";
+
+    private final LogManager logManager;
+    private final ExecutorService executor;
+    private final Map<String, SegmentIndex> indexCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, SegmentIndex> eldest) {
+            return size() > MAX_CACHED_INDEXES;
+        }
+    };
+
+    LogSearch(@NotNull LogManager logManager) {
+        this.logManager = logManager;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AMGCore-LogSearch");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Finds the entries matching a query, newest first.
+     *
+     * @param query The query
+     * @param page The zero-based page
+     * @param pageSize The number of entries per page
+     * @return A future completed on the search thread
+     */
+    @NotNull
+    public CompletableFuture<Page> search(@NotNull LogQuery query, int page, int pageSize) {
+        return CompletableFuture.supplyAsync(() -> runSearch(query, Math.max(0, page), Math.max(1, pageSize)), executor);
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Page runSearch(LogQuery query, int page, int pageSize) {
+        long started = System.nanoTime();
+        PriorityQueue<StreamCursor> cursors = new PriorityQueue<>(
+            Comparator.comparingLong((StreamCursor cursor) -> cursor.current.getTime()).reversed());
+        List<StreamCursor> all = new ArrayList<>();
+        for (LogManager.Stream stream : query.getStreams()) {
+            StreamCursor cursor = new StreamCursor(stream, query, listSegments(logManager.getStreamDirectory(stream)));
+            all.add(cursor);
+            if (cursor.advance()) {
+                cursors.add(cursor);
+            }
+        }
+
+        int skip = page * pageSize;
+        List<Hit> hits = new ArrayList<>(pageSize);
+        int scanned = 0;
+        while (!cursors.isEmpty() && hits.size() < pageSize) {
+            StreamCursor cursor = cursors.poll();
+            if (skip > 0) {
+                skip--;
+            } else {
+                hits.add(cursor.current);
+            }
+            if (cursor.advance()) {
+                cursors.add(cursor);
+            }
+        }
+        for (StreamCursor cursor : all) {
+            scanned += cursor.scanned;
+        }
+
+        DebugLogger.debug("LogSearch", "Search for page {} returned {} entries after reading {} lines in {}ms",
+            page, hits.size(), scanned, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        return new Page(hits, page, !cursors.isEmpty());
+    }
+
+    // Segment names sort by creation time
+    private static List<File> listSegments(File directory) {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(SEGMENT_EXTENSION)
+            || name.endsWith(SEGMENT_EXTENSION + COMPRESSED_EXTENSION));
+        if (files == null) {
+            return Collections.emptyList();
+        }
+        Arrays.sort(files, Comparator.reverseOrder());
+        List<File> segments = new ArrayList<>(files.length);
+        for (File file : files) {
+            // While a segment is being compressed both copies exist, only read the original
+            if (isCompressed(file) && new File(file.getParentFile(), stripCompressedExtension(file.getName())).exists()) {
+                continue;
+            }
+            segments.add(file);
+        }
+        return segments;
+    }
+
+    private static boolean isCompressed(File segment) {
+        return segment.getName().endsWith(COMPRESSED_EXTENSION);
+    }
+
+    private static String stripCompressedExtension(String name) {
+        return name.substring(0, name.length() - COMPRESSED_EXTENSION.length());
+    }
+
+    /**
+     * Gets a segment's index, building and saving it if it is missing or
+     * stale. The newest segment may still be written to, its unindexed tail
+     * is scanned instead.
+     */
+    @Nullable
+    private SegmentIndex getIndex(File segment, ByteBuffer data, int length, boolean active) {
+        String key = segment.getPath();
+        SegmentIndex index = indexCache.get(key);
+        if (index == null) {
+            index = SegmentIndex.load(segment);
+        }
+        if (index != null && index.getIndexedLength() > length) {
+            index = null; // Segment was replaced
+        }
+        if (!active && (index == null || index.getIndexedLength() < length)) {
+            index = SegmentIndex.build(data, length);
+            try {
+                index.save(segment);
+            } catch (IOException e) {
+                DebugLogger.warning("LogSearch", "Failed to save index of " + segment.getName() + ": " + e.getMessage());
+            }
+        }
+        if (index != null) {
+            indexCache.put(key, index);
+        }
+        return index;
+    }
+
+    static int findLineEnd(@NotNull ByteBuffer data, int from, int limit) {
+        for (int i = from; i < limit; i++) {
+            if (data.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @NotNull
+    static String decode(@NotNull ByteBuffer data, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        data.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static long getTime(@NotNull Map<String, String> fields) {
+        try {
+            return Long.parseLong(fields.getOrDefault("ts", "0"));
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    /**
+     * Reads the fields of one log line. Only handles the flat objects the
+     * audit log writes, values are returned as their JSON text with strings
+     * unescaped.
+     *
+     * @param line The line
+     * @return The fields in line order, empty if the line is malformed
+     */
+    @NotNull
+    static Map<String, String> parseFields(@NotNull String line) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        int[] position = {line.indexOf('{') + 1};
+        if (position[0] == 0) {
+            return fields;
+        }
+        while (position[0] < line.length()) {
+            skipSeparators(line, position);
+            if (position[0] >= line.length() || line.charAt(position[0]) != '"') {
+                break;
+            }
+            String key = readString(line, position);
+            skipSeparators(line, position);
+            if (position[0] >= line.length()) {
+                break;
+            }
+            String value;
+            if (line.charAt(position[0]) == '"') {
+                value = readString(line, position);
+            } else {
+                int start = position[0];
+                while (position[0] < line.length() && line.charAt(position[0]) != ',' && line.charAt(position[0]) != '}') {
+                    position[0]++;
+                }
+                value = line.substring(start, position[0]).trim();
+            }
+            fields.put(key, value);
+        }
+        return fields;
+    }
+
+    private static void skipSeparators(String line, int[] position) {
+        while (position[0] < line.length()) {
+            char c = line.charAt(position[0]);
+            if (c != ',' && c != ':' && c != ' ') {
+                return;
+            }
+            position[0]++;
+        }
+    }
+
+    private static String readString(String line, int[] position) {
+        StringBuilder value = new StringBuilder();
+        int i = position[0] + 1;
+        while (i < line.length()) {
+            char c = line.charAt(i++);
+            if (c == '"') {
+                break;
+            }
+            if (c == '\\' && i < line.length()) {
+                char escaped = line.charAt(i++);
+                switch (escaped) {
+                    case 'n' -> value.append('\n');
+                    case 'r' -> value.append('\r');
+                    case 't' -> value.append('\t');
+                    case 'u' -> {
+                        if (i + 4 <= line.length()) {
+                            value.append((char) Integer.parseInt(line.substring(i, i + 4), 16));
+                            i += 4;
+                        }
+                    }
+                    default -> value.append(escaped);
+                }
+            } else {
+                value.append(c);
+            }
+        }
+        position[0] = i;
+        return value.toString();
+    }
+
+    /**
+     * Walks the matching entries of one stream from newest to oldest.
+     */
+    private final class StreamCursor {
+        private final LogManager.Stream stream;
+        private final LogQuery query;
+        private final List<File> segments;
+        private int segment = -1;
+        private ByteBuffer data;
+        private int[] candidates;
+        private int position;
+        private boolean exhausted;
+        private Hit current;
+        private int scanned;
+
+        private StreamCursor(LogManager.Stream stream, LogQuery query, List<File> segments) {
+            this.stream = stream;
+            this.query = query;
+            this.segments = segments;
+        }
+
+        /**
+         * Moves to the next older matching entry.
+         *
+         * @return false if there are no more entries
+         */
+        private boolean advance() {
+            current = null;
+            while (!exhausted) {
+                if (data == null && !openNextSegment()) {
+                    exhausted = true;
+                    break;
+                }
+                while (position >= 0) {
+                    int start = candidates[position--];
+                    int end = findLineEnd(data, start, data.limit());
+                    if (end < 0) {
+                        continue;
+                    }
+                    scanned++;
+                    String line = decode(data, start, end);
+                    Map<String, String> fields = parseFields(line);
+                    long time = getTime(fields);
+                    if (time < query.getSince()) {
+                        // Everything older is out of range too
+                        exhausted = true;
+                        break;
+                    }
+                    if (matches(line, fields, time)) {
+                        current = new Hit(stream, time, fields);
+                        return true;
+                    }
+                }
+                data = null;
+                candidates = null;
+            }
+            data = null;
+            return false;
+        }
+
+        private boolean openNextSegment() {
+            while (++segment < segments.size()) {
+                File file = segments.get(segment);
+                if (isCompressed(file)) {
+                    if (openCompressedSegment(file)) {
+                        return true;
+                    }
+                    continue;
+                }
+                try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                    long size = channel.size();
+                    if (size == 0) {
+                        continue;
+                    }
+                    MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, Integer.MAX_VALUE));
+                    int length = lastLineEnd(mapped);
+                    if (length == 0) {
+                        continue;
+                    }
+
+                    SegmentIndex index = getIndex(file, mapped, length, segment == 0);
+                    if (index != null && index.getIndexedLength() == length && !index.isEmpty()) {
+                        if (index.getMinTime() > query.getUntil()) {
+                            continue;
+                        }
+                        if (index.getMaxTime() < query.getSince()) {
+                            // Older segments can't match either
+                            return false;
+                        }
+                    }
+
+                    int[] indexed = index != null ? index.getCandidates(query) : new int[0];
+                    int[] tail = listLines(mapped, index != null ? index.getIndexedLength() : 0, length);
+                    candidates = concat(indexed, tail);
+                    if (candidates.length == 0) {
+                        continue;
+                    }
+                    data = mapped;
+                    data.limit(length);
+                    position = candidates.length - 1;
+                    return true;
+                } catch (IOException e) {
+                    DebugLogger.warning("LogSearch", "Failed to read log segment " + file.getName() + ": " + e.getMessage());
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Inflates a compressed segment into memory. It has no index, so every
+         * line is a candidate and the time check in {@link #advance()} stops
+         * the walk once entries get too old.
+         */
+        private boolean openCompressedSegment(File file) {
+            byte[] bytes;
+            try (InputStream in = new GZIPInputStream(new FileInputStream(file), 64 * 1024)) {
+                bytes = in.readAllBytes();
+            } catch (IOException e) {
+                DebugLogger.warning("LogSearch", "Failed to read log segment " + file.getName() + ": " + e.getMessage());
+                return false;
+            }
+            ByteBuffer inflated = ByteBuffer.wrap(bytes);
+            int length = lastLineEnd(inflated);
+            if (length == 0) {
+                return false;
+            }
+            candidates = listLines(inflated, 0, length);
+            if (candidates.length == 0) {
+                return false;
+            }
+            data = inflated;
+            data.limit(length);
+            position = candidates.length - 1;
+            return true;
+        }
+
+        private boolean matches(String line, Map<String, String> fields, long time) {
+            if (!query.matchesTime(time)) {
+                return false;
+            }
+            if (query.getPlayer() != null && !query.getPlayer().equalsIgnoreCase(fields.get("player"))) {
+                return false;
+            }
+            if (query.getText() != null && !line.toLowerCase(Locale.ROOT).contains(query.getText())) {
+                return false;
+            }
+            if (query.hasLocation()) {
+                Matcher matcher = LOCATION.matcher(line);
+                while (matcher.find()) {
+                    if (query.matchesLocation(matcher.group(1), Integer.parseInt(matcher.group(2)),
+                            Integer.parseInt(matcher.group(3)), Integer.parseInt(matcher.group(4)))) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            return true;
+        }
+    }
+
+    // Ignores a partially written last line
+    private static int lastLineEnd(ByteBuffer data) {
+        for (int i = data.limit() - 1; i >= 0; i--) {
+            if (data.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    private static int[] listLines(ByteBuffer data, int from, int to) {
+        int[] lines = new int[16];
+        int count = 0;
+        int start = from;
+        while (start < to) {
+            int end = findLineEnd(data, start, to);
+            if (end < 0) {
+                break;
+            }
+            if (count == lines.length) {
+                lines = Arrays.copyOf(lines, count * 2);
+            }
+            lines[count++] = start;
+            start = end + 1;
+        }
+        return Arrays.copyOf(lines, count);
+    }
+
+    private static int[] concat(int[] a, int[] b) {
+        if (b.length == 0) {
+            return a;
+        }
+        int[] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+
+    /**
+     * One matching log entry.
+     */
+    public static final class Hit {
+        private final LogManager.Stream stream;
+        private final long time;
+        private final Map<String, String> fields;
+
+        private Hit(LogManager.Stream stream, long time, Map<String, String> fields) {
+            this.stream = stream;
+            this.time = time;
+            this.fields = Collections.unmodifiableMap(fields);
+        }
+
+        @NotNull
+        public LogManager.Stream getStream() {
+            return stream;
+        }
+
+        public long getTime() {
+            return time;
+        }
+
+        @Nullable
+        public String getPlayer() {
+            return fields.get("player");
+        }
+
+        /**
+         * Gets every field of the entry, including {@code ts} and {@code player}.
+         */
+        @NotNull
+        public Map<String, String> getFields() {
+            return fields;
+        }
+    }
+
+    /**
+     * One page of search results.
+     */
+    public static final class Page {
+        private final List<Hit> hits;
+        private final int page;
+        private final boolean hasMore;
+
+        private Page(List<Hit> hits, int page, boolean hasMore) {
+            this.hits = Collections.unmodifiableList(hits);
+            this.page = page;
+            this.hasMore = hasMore;
+        }
+
+        @NotNull
+        public List<Hit> getHits() {
+            return hits;
+        }
+
+        public int getPage() {
+            return page;
+        }
+
+        public boolean hasMore() {
+            return hasMore;
+        }
+    }
+}
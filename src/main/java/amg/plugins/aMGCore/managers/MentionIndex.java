@@ -0,0 +1,250 @@
+package amg.plugins.aMGCore.managers;
+
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Trie of the names of online players, for finding mentions in chat.
+ * <p>
+ * Player names are indexed on join and removed on quit, together with the
+ * player's display name when another plugin gave them one that is also a
+ * valid player name. Names only hold {@code [a-z0-9_]}, so every node has a
+ * fixed 37-slot child table. A mention has to start and end on a word
+ * boundary, so a message is scanned once: each word is walked down the trie
+ * at most once, however many players are online.
+ * <p>
+ * Lookups run on chat threads without locking, changes are serialized.
+ */
+final class MentionIndex {
+    private static final int ALPHABET = 37;
+    private static final int MIN_NAME_LENGTH = 3;
+    private static final int MAX_NAME_LENGTH = 16;
+
+    private final Node root = new Node();
+    private final Map<UUID, String[]> indexed = new ConcurrentHashMap<>();
+
+    /**
+     * The mentions found in one message, in message order.
+     */
+    static final class Mentions {
+        private final int[] starts;
+        private final int[] ends;
+        private final UUID[] players;
+        private final int count;
+
+        private Mentions(int[] starts, int[] ends, UUID[] players, int count) {
+            this.starts = starts;
+            this.ends = ends;
+            this.players = players;
+            this.count = count;
+        }
+
+        /**
+         * Checks whether a player is mentioned.
+         */
+        boolean contains(@NotNull UUID player) {
+            for (int i = 0; i < count; i++) {
+                if (players[i].equals(player)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        int size() {
+            return count;
+        }
+
+        int getStart(int index) {
+            return starts[index];
+        }
+
+        int getEnd(int index) {
+            return ends[index];
+        }
+
+        @NotNull
+        UUID getPlayer(int index) {
+            return players[index];
+        }
+    }
+
+    /**
+     * Indexes a player's name, and their display name if it is a valid name.
+     *
+     * @param player The player
+     */
+    synchronized void add(@NotNull Player player) {
+        remove(player.getUniqueId());
+        String name = player.getName().toLowerCase(Locale.ROOT);
+        String displayName = PlainTextComponentSerializer.plainText().serialize(player.displayName()).toLowerCase(Locale.ROOT);
+        String[] names = isIndexable(displayName) && !displayName.equals(name)
+            ? new String[] {name, displayName}
+            : new String[] {name};
+
+        for (String key : names) {
+            if (!isIndexable(key)) {
+                continue;
+            }
+            Node node = root;
+            for (int i = 0; i < key.length(); i++) {
+                int slot = slot(key.charAt(i));
+                Node child = node.children.get(slot);
+                if (child == null) {
+                    child = new Node();
+                    node.children.set(slot, child);
+                }
+                node = child;
+            }
+            node.player = player.getUniqueId();
+        }
+        indexed.put(player.getUniqueId(), names);
+    }
+
+    /**
+     * Removes a player's names.
+     *
+     * @param player The player's UUID
+     */
+    synchronized void remove(@NotNull UUID player) {
+        String[] names = indexed.remove(player);
+        if (names == null) {
+            return;
+        }
+        for (String key : names) {
+            if (isIndexable(key)) {
+                remove(root, key, 0, player);
+            }
+        }
+    }
+
+    // Returns true if the node is now empty and can be unlinked from its parent
+    private boolean remove(Node node, String key, int depth, UUID player) {
+        if (depth == key.length()) {
+            if (player.equals(node.player)) {
+                node.player = null;
+            }
+        } else {
+            int slot = slot(key.charAt(depth));
+            Node child = node.children.get(slot);
+            if (child != null && remove(child, key, depth + 1, player)) {
+                node.children.set(slot, null);
+            }
+        }
+        return node != root && node.isEmpty();
+    }
+
+    /**
+     * Finds the mentioned players in a message in one pass. A mention is a
+     * whole word that is an indexed name, optionally prefixed with {@code @}.
+     *
+     * @param message The plain text message
+     * @param bareNames Whether names without {@code @} count as mentions
+     * @return The mentions, or null if there are none
+     */
+    @Nullable
+    Mentions find(@NotNull String message, boolean bareNames) {
+        int length = message.length();
+        int[] starts = null;
+        int[] ends = null;
+        UUID[] players = null;
+        int count = 0;
+
+        int i = 0;
+        while (i < length) {
+            char c = message.charAt(i);
+            boolean at = c == '@';
+            int wordStart = at ? i + 1 : i;
+            if ((!at && slot(c) < 0) || (i > 0 && slot(message.charAt(i - 1)) >= 0) || (!at && !bareNames)) {
+                i++;
+                continue;
+            }
+
+            // Walk the word down the trie, a name only counts if the word ends with it
+            Node node = root;
+            int end = wordStart;
+            while (end < length && node != null) {
+                int slot = slot(message.charAt(end));
+                if (slot < 0) {
+                    break;
+                }
+                node = node.children.get(slot);
+                end++;
+            }
+            UUID player = node != null && (end == length || slot(message.charAt(end)) < 0) ? node.player : null;
+
+            if (player != null) {
+                if (starts == null) {
+                    starts = new int[4];
+                    ends = new int[4];
+                    players = new UUID[4];
+                } else if (count == starts.length) {
+                    starts = Arrays.copyOf(starts, count * 2);
+                    ends = Arrays.copyOf(ends, count * 2);
+                    players = Arrays.copyOf(players, count * 2);
+                }
+                starts[count] = i;
+                ends[count] = end;
+                players[count] = player;
+                count++;
+            }
+            // Skip the rest of the word, no mention can start inside it
+            i = Math.max(end, wordStart + 1);
+            while (i < length && slot(message.charAt(i)) >= 0) {
+                i++;
+            }
+        }
+        return count == 0 ? null : new Mentions(starts, ends, players, count);
+    }
+
+    private static boolean isIndexable(String name) {
+        if (name.length() < MIN_NAME_LENGTH || name.length() > MAX_NAME_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (slot(name.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int slot(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a';
+        }
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A';
+        }
+        if (c >= '0' && c <= '9') {
+            return 26 + c - '0';
+        }
+        return c == '_' ? 36 : -1;
+    }
+
+    private static final class Node {
+        private final AtomicReferenceArray<Node> children = new AtomicReferenceArray<>(ALPHABET);
+        private volatile UUID player;
+
+        private boolean isEmpty() {
+            if (player != null) {
+                return false;
+            }
+            for (int i = 0; i < ALPHABET; i++) {
+                if (children.get(i) != null) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package amg.plugins.aMGCore.managers;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.ComponentLike;
+import net.kyori.adventure.text.TextReplacementConfig;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.text.DateFormat;
+import java.text.MessageFormat;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One locale message, parsed when the locale is loaded.
+ * <p>
+ * Messages without arguments are kept as a finished {@link Component}.
+ * Messages whose {@code {0}}-style placeholders only appear in text are
+ * parsed by MiniMessage once, with the placeholders left in the text, and
+ * the arguments are swapped into the tree on every call. Only messages that
+ * need the full {@link MessageFormat} syntax (e.g. {@code choice}) or that
+ * put a placeholder inside a tag are still formatted and parsed per call.
+ */
+final class MessageTemplate {
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{(\\d{1,3})}");
+    private static final Pattern FORMAT_ELEMENT = Pattern.compile("\\{\\s*\\d+\\s*,");
+    private static final ThreadLocal<NumberFormat> NUMBER_FORMAT = ThreadLocal.withInitial(NumberFormat::getInstance);
+    private static final ThreadLocal<DateFormat> DATE_FORMAT =
+        ThreadLocal.withInitial(() -> DateFormat.getDateTimeInstance(DateFormat.SHORT, DateFormat.SHORT));
+
+    private final MiniMessage miniMessage;
+    private final String[] literals;
+    private final int[] indexes;
+    @Nullable
+    private final MessageFormat format;
+    @Nullable
+    private final Component component;
+
+    private MessageTemplate(MiniMessage miniMessage, String[] literals, int[] indexes,
+                            @Nullable MessageFormat format, @Nullable Component component) {
+        this.miniMessage = miniMessage;
+        this.literals = literals;
+        this.indexes = indexes;
+        this.format = format;
+        this.component = component;
+    }
+
+    /**
+     * Parses a message.
+     *
+     * @param message The raw message from the locale file
+     * @param miniMessage The MiniMessage instance
+     * @return The template
+     * @throws IllegalArgumentException If the message has an invalid format element
+     */
+    @NotNull
+    static MessageTemplate compile(@NotNull String message, @NotNull MiniMessage miniMessage) {
+        if (FORMAT_ELEMENT.matcher(message).find()) {
+            return new MessageTemplate(miniMessage, new String[] {message}, new int[0], new MessageFormat(message), null);
+        }
+
+        List<String> literals = new ArrayList<>();
+        List<Integer> indexes = new ArrayList<>();
+        boolean inTag = false;
+        Matcher matcher = PLACEHOLDER.matcher(message);
+        int start = 0;
+        while (matcher.find()) {
+            literals.add(message.substring(start, matcher.start()));
+            indexes.add(Integer.parseInt(matcher.group(1)));
+            // Arguments can't be swapped into click or hover values after parsing
+            inTag |= message.lastIndexOf('<', matcher.start()) > message.lastIndexOf('>', matcher.start());
+            start = matcher.end();
+        }
+        literals.add(message.substring(start));
+
+        int[] indexArray = indexes.stream().mapToInt(Integer::intValue).toArray();
+        Component parsed = inTag ? null : miniMessage.deserialize(message);
+        return new MessageTemplate(miniMessage, literals.toArray(new String[0]), indexArray, null, parsed);
+    }
+
+    /**
+     * Renders the message as a component.
+     *
+     * @param args The arguments, strings may contain MiniMessage tags
+     * @return The message
+     */
+    @NotNull
+    Component render(@Nullable Object[] args) {
+        if (component != null) {
+            if (indexes.length == 0) {
+                return component;
+            }
+            Object[] values = args != null ? args : new Object[0];
+            return component.replaceText(TextReplacementConfig.builder()
+                .match(PLACEHOLDER)
+                .replacement((match, builder) -> {
+                    int index = Integer.parseInt(match.group(1));
+                    return index < values.length ? toComponent(values[index]) : Component.text(match.group());
+                })
+                .build());
+        }
+        return miniMessage.deserialize(format(args));
+    }
+
+    /**
+     * Renders the message as a string without parsing its tags.
+     *
+     * @param args The arguments
+     * @return The message
+     */
+    @NotNull
+    String format(@Nullable Object[] args) {
+        if (format != null) {
+            // MessageFormat keeps state while formatting
+            return ((MessageFormat) format.clone()).format(args);
+        }
+        if (indexes.length == 0) {
+            return literals[0];
+        }
+
+        StringBuilder builder = new StringBuilder(64);
+        for (int i = 0; i < indexes.length; i++) {
+            builder.append(literals[i]);
+            int index = indexes[i];
+            if (args != null && index < args.length) {
+                builder.append(formatArgument(args[index]));
+            } else {
+                builder.append('{').append(index).append('}');
+            }
+        }
+        return builder.append(literals[indexes.length]).toString();
+    }
+
+    private ComponentLike toComponent(Object arg) {
+        if (arg instanceof ComponentLike) {
+            return (ComponentLike) arg;
+        }
+        String text = formatArgument(arg);
+        // Only strings with tags or escaped tags need MiniMessage
+        return text.indexOf('<') < 0 ? Component.text(text) : miniMessage.deserialize(text);
+    }
+
+    // Same output as MessageFormat for its default argument types
+    private static String formatArgument(Object arg) {
+        if (arg instanceof String) {
+            return (String) arg;
+        }
+        if (arg instanceof Number) {
+            return NUMBER_FORMAT.get().format(arg);
+        }
+        if (arg instanceof Date) {
+            return DATE_FORMAT.get().format(arg);
+        }
+        return String.valueOf(arg);
+    }
+}
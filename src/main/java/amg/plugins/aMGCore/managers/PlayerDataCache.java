@@ -0,0 +1,389 @@
+package amg.plugins.aMGCore.managers;
+
+import amg.plugins.aMGCore.models.PlayerData;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded player data cache backed by a segmented LRU.
+ * <p>
+ * New entries enter the probation segment and are promoted to the protected
+ * segment on their second access, so a burst of one-off lookups cannot push
+ * out players that are used all the time. Every entry carries its own lock,
+ * timestamps and dirty flag, evictions walk the segment tails and never touch
+ * entries that are dirty, online or locked by another thread.
+ */
+final class PlayerDataCache {
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final int trimSize;
+    private final int protectedCapacity;
+
+    // Segment lists, head is the most recently used entry. Guarded by this.
+    private Entry probationHead;
+    private Entry probationTail;
+    private Entry protectedHead;
+    private Entry protectedTail;
+    private int size;
+    private int protectedSize;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong totalLoadTime = new AtomicLong();
+
+    PlayerDataCache(int maxSize, int trimSize) {
+        this.maxSize = Math.max(1, maxSize);
+        this.trimSize = Math.max(0, Math.min(trimSize, this.maxSize));
+        this.protectedCapacity = Math.max(1, this.maxSize * 4 / 5);
+    }
+
+    /**
+     * Gets the entry for a player, creating an empty one if there is none.
+     * The caller has to lock the entry and check {@link Entry#isRemoved()}.
+     */
+    @NotNull
+    Entry acquire(@NotNull UUID uuid) {
+        return entries.computeIfAbsent(uuid, Entry::new);
+    }
+
+    /**
+     * Gets the entry for a player without recording an access.
+     */
+    @Nullable
+    Entry peek(@NotNull UUID uuid) {
+        return entries.get(uuid);
+    }
+
+    /**
+     * Gets the cached data of a player and records the hit or miss.
+     */
+    @Nullable
+    PlayerData get(@NotNull UUID uuid) {
+        Entry entry = entries.get(uuid);
+        PlayerData data = entry != null ? entry.data : null;
+        if (data == null) {
+            return null;
+        }
+        recordHit(entry);
+        return data;
+    }
+
+    void recordHit(@NotNull Entry entry) {
+        hits.incrementAndGet();
+        entry.lastAccess = System.currentTimeMillis();
+        synchronized (this) {
+            if (entry.segment == PROBATION) {
+                unlink(entry);
+                linkProtected(entry);
+                demoteOverflow();
+            } else if (entry.segment == PROTECTED) {
+                unlink(entry);
+                linkProtected(entry);
+            }
+        }
+    }
+
+    void recordMiss() {
+        misses.incrementAndGet();
+    }
+
+    void recordLoad(long nanos) {
+        loads.incrementAndGet();
+        totalLoadTime.addAndGet(nanos);
+    }
+
+    /**
+     * Links a freshly loaded entry into the probation segment and trims the
+     * cache when it grew past its maximum size.
+     */
+    void admit(@NotNull Entry entry) {
+        entry.lastAccess = System.currentTimeMillis();
+        synchronized (this) {
+            if (entry.segment != 0 || entry.removed) {
+                return;
+            }
+            linkProbation(entry);
+            if (size > maxSize) {
+                evict(trimSize);
+            }
+        }
+    }
+
+    /**
+     * Removes an entry. The caller must hold the entry's lock.
+     */
+    void invalidate(@NotNull Entry entry) {
+        synchronized (this) {
+            if (entry.segment != 0) {
+                unlink(entry);
+            }
+            entry.removed = true;
+            entries.remove(entry.uuid, entry);
+        }
+    }
+
+    /**
+     * Trims the cache down to its trim size, skipping pinned entries.
+     *
+     * @return The number of evicted entries
+     */
+    int trim() {
+        synchronized (this) {
+            return size > trimSize ? evict(trimSize) : 0;
+        }
+    }
+
+    /**
+     * Removes unpinned entries that were not accessed within the given time.
+     *
+     * @return The number of expired entries
+     */
+    int expire(long expiryMillis) {
+        long cutoff = System.currentTimeMillis() - expiryMillis;
+        int expired = 0;
+        synchronized (this) {
+            expired += expireSegment(probationTail, cutoff);
+            expired += expireSegment(protectedTail, cutoff);
+        }
+        expirations.addAndGet(expired);
+        return expired;
+    }
+
+    private int expireSegment(Entry tail, long cutoff) {
+        int expired = 0;
+        Entry entry = tail;
+        // Segments are in access order, stop at the first entry that is still fresh
+        while (entry != null && entry.lastAccess < cutoff) {
+            Entry previous = entry.prev;
+            if (tryRemove(entry)) {
+                expired++;
+            }
+            entry = previous;
+        }
+        return expired;
+    }
+
+    // Guarded by this
+    private int evict(int targetSize) {
+        int evicted = 0;
+        int budget = size;
+        while (size > targetSize && budget-- > 0) {
+            Entry victim = probationTail != null ? probationTail : protectedTail;
+            if (victim == null) {
+                break;
+            }
+            if (tryRemove(victim)) {
+                evicted++;
+            } else {
+                // Pinned entries are in use, move them out of the way so the walk stays O(1) per step
+                unlink(victim);
+                linkProtected(victim);
+            }
+        }
+        demoteOverflow();
+        evictions.addAndGet(evicted);
+        return evicted;
+    }
+
+    // Guarded by this
+    private boolean tryRemove(Entry entry) {
+        if (entry.isPinned() || !entry.lock.tryLock()) {
+            return false;
+        }
+        try {
+            if (entry.isPinned()) {
+                return false;
+            }
+            unlink(entry);
+            entry.removed = true;
+            entries.remove(entry.uuid, entry);
+            return true;
+        } finally {
+            entry.lock.unlock();
+        }
+    }
+
+    // Guarded by this
+    private void demoteOverflow() {
+        while (protectedSize > protectedCapacity && protectedTail != null) {
+            Entry entry = protectedTail;
+            unlink(entry);
+            linkProbation(entry);
+        }
+    }
+
+    // Guarded by this
+    private void linkProbation(Entry entry) {
+        entry.segment = PROBATION;
+        entry.prev = null;
+        entry.next = probationHead;
+        if (probationHead != null) {
+            probationHead.prev = entry;
+        } else {
+            probationTail = entry;
+        }
+        probationHead = entry;
+        size++;
+    }
+
+    // Guarded by this
+    private void linkProtected(Entry entry) {
+        entry.segment = PROTECTED;
+        entry.prev = null;
+        entry.next = protectedHead;
+        if (protectedHead != null) {
+            protectedHead.prev = entry;
+        } else {
+            protectedTail = entry;
+        }
+        protectedHead = entry;
+        protectedSize++;
+        size++;
+    }
+
+    // Guarded by this
+    private void unlink(Entry entry) {
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else if (entry.segment == PROTECTED) {
+            protectedHead = entry.next;
+        } else {
+            probationHead = entry.next;
+        }
+
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        } else if (entry.segment == PROTECTED) {
+            protectedTail = entry.prev;
+        } else {
+            probationTail = entry.prev;
+        }
+
+        if (entry.segment == PROTECTED) {
+            protectedSize--;
+        }
+        size--;
+        entry.prev = null;
+        entry.next = null;
+        entry.segment = 0;
+    }
+
+    Collection<Entry> entries() {
+        return entries.values();
+    }
+
+    int size() {
+        synchronized (this) {
+            return size;
+        }
+    }
+
+    int getMaxSize() {
+        return maxSize;
+    }
+
+    int getDirtyCount() {
+        int dirty = 0;
+        for (Entry entry : entries.values()) {
+            if (entry.dirty) {
+                dirty++;
+            }
+        }
+        return dirty;
+    }
+
+    long getHits() {
+        return hits.get();
+    }
+
+    long getMisses() {
+        return misses.get();
+    }
+
+    long getEvictions() {
+        return evictions.get();
+    }
+
+    long getExpirations() {
+        return expirations.get();
+    }
+
+    long getLoads() {
+        return loads.get();
+    }
+
+    double getAverageLoadTimeMillis() {
+        long count = loads.get();
+        return count > 0 ? totalLoadTime.get() / (double) count / 1_000_000.0 : 0.0;
+    }
+
+    void clear() {
+        synchronized (this) {
+            for (Entry entry : entries.values()) {
+                entry.removed = true;
+            }
+            entries.clear();
+            probationHead = probationTail = null;
+            protectedHead = protectedTail = null;
+            size = 0;
+            protectedSize = 0;
+        }
+    }
+
+    /**
+     * A cached player, holding everything the manager tracks about them.
+     */
+    static final class Entry {
+        final UUID uuid;
+        final ReentrantLock lock = new ReentrantLock(true);
+        volatile PlayerData data;
+        volatile long lastAccess;
+        volatile long lastSave;
+        volatile boolean dirty;
+        volatile boolean online;
+        private volatile boolean removed;
+
+        // Guarded by the cache
+        private Entry prev;
+        private Entry next;
+        private int segment;
+
+        private Entry(UUID uuid) {
+            this.uuid = uuid;
+            this.lastAccess = System.currentTimeMillis();
+        }
+
+        boolean isRemoved() {
+            return removed;
+        }
+
+        boolean isPinned() {
+            return dirty || online;
+        }
+
+        /**
+         * Clears the dirty flag after a save unless the data changed again meanwhile.
+         */
+        void markSaved(long now) {
+            lastSave = now;
+            dirty = false;
+            PlayerData current = data;
+            if (current != null && current.hasChanges()) {
+                dirty = true;
+            }
+        }
+    }
+}
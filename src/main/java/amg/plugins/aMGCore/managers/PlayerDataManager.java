@@ -2,48 +2,36 @@ package amg.plugins.aMGCore.managers;
 
 import amg.plugins.aMGCore.AMGCore;
 import amg.plugins.aMGCore.models.PlayerData;
+import amg.plugins.aMGCore.models.PlayerSnapshot;
 import amg.plugins.aMGCore.utils.DebugLogger;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.sql.SQLException;
 import java.util.Map;
-import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.ReentrantLock;
 
 public class PlayerDataManager {
-    private final Map<String, PlayerData> playerDataCache;
-    private final Map<String, ReentrantLock> playerLocks;
-    private final Map<String, Long> lastSaveTime;
-    private final Map<String, Long> lastAccessTime;
-    private final Set<String> dirtyPlayers;
+    private final PlayerDataCache cache;
+    private final Map<UUID, PlayerSnapshot> pendingSnapshots;
     private final DatabaseManager databaseManager;
     private static final long SAVE_COOLDOWN = 50L; // 50ms cooldown between saves
-    private static final long CACHE_EXPIRY_TIME = 10 * 60 * 1000L; // 10 minutes
-    private static final Object CACHE_LOCK = new Object();
+    private static final long SNAPSHOT_EXPIRY_TIME = 60 * 1000L; // Prelogin snapshots unused after a minute are dropped
+    private final long cacheExpiryTime;
     private final ScheduledExecutorService cacheCleanupExecutor;
-    private final AtomicInteger cacheHits = new AtomicInteger(0);
-    private final AtomicInteger cacheMisses = new AtomicInteger(0);
-    
-    // Cache size limits
-    private static final int MAX_CACHE_SIZE = 1000;
-    private static final int CACHE_TRIM_SIZE = 800;
-    private static final int BATCH_SAVE_SIZE = 50;
 
     public PlayerDataManager(AMGCore plugin) {
-        this.playerDataCache = new ConcurrentHashMap<>();
-        this.playerLocks = new ConcurrentHashMap<>();
-        this.lastSaveTime = new ConcurrentHashMap<>();
-        this.lastAccessTime = new ConcurrentHashMap<>();
-        this.dirtyPlayers = ConcurrentHashMap.newKeySet();
-        this.databaseManager = new DatabaseManager(plugin);
+        int maxSize = plugin.getConfig().getInt("memory.cache.max_size", 1000);
+        int trimSize = plugin.getConfig().getInt("memory.cache.trim_size", 800);
+        this.cache = new PlayerDataCache(maxSize, trimSize);
+        this.cacheExpiryTime = Math.max(1L, plugin.getConfig().getLong("memory.cache.expiry_time", 10L)) * 60 * 1000L;
+        this.pendingSnapshots = new ConcurrentHashMap<>();
+        this.databaseManager = plugin.getDatabaseManager();
         
         // Initialize cache cleanup executor
         this.cacheCleanupExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
@@ -55,8 +43,8 @@ public class PlayerDataManager {
         // Schedule cache cleanup task - run more frequently
         this.cacheCleanupExecutor.scheduleAtFixedRate(
             this::cleanupCache,
-            CACHE_EXPIRY_TIME / 4,  // Run more frequently
-            CACHE_EXPIRY_TIME / 4,
+            cacheExpiryTime / 4,  // Run more frequently
+            cacheExpiryTime / 4,
             TimeUnit.MILLISECONDS
         );
         
@@ -77,227 +65,185 @@ public class PlayerDataManager {
         );
     }
 
-    private ReentrantLock getPlayerLock(String uuid) {
-        return playerLocks.computeIfAbsent(uuid, k -> new ReentrantLock(true));
-    }
-
-    @Nullable
-    public PlayerData loadPlayer(Player player) {
-        return loadPlayer(player, true);
-    }
-
-    @Nullable
-    private PlayerData loadPlayer(Player player, boolean useCache) {
-        String uuid = player.getUniqueId().toString();
-        ReentrantLock lock = getPlayerLock(uuid);
-        lock.lock();
+    /**
+     * Loads the join snapshot for a player. Called from AsyncPlayerPreLoginEvent
+     * so the database work happens before the player reaches the main thread.
+     * 
+     * @param uuid The player's UUID
+     * @param name The player's name
+     * @return true if the snapshot was loaded
+     */
+    public boolean preloadSnapshot(@NotNull UUID uuid, @NotNull String name) {
+        // Locked like offline balance changes, so a change either lands before the
+        // snapshot is read or is applied to the stored snapshot afterwards
+        PlayerDataCache.Entry entry = lockEntry(uuid, true);
         
         try {
-            // Check cache first if using cache
-            if (useCache) {
-                PlayerData cachedData = playerDataCache.get(uuid);
-                if (cachedData != null && uuid.equals(cachedData.getUuid())) {
-                    // Update last access time
-                    lastAccessTime.put(uuid, System.currentTimeMillis());
-                    cacheHits.incrementAndGet();
-                    return cachedData;
-                }
-                cacheMisses.incrementAndGet();
-            }
-
-            // Check cache size before loading new data
-            checkCacheSize();
-            
-            // Load from database
-            PlayerData data = databaseManager.loadPlayerData(player.getUniqueId(), player.getName());
-            if (data != null) {
-                setupDataChangeHandler(player, data);
-                
-                if (useCache) {
-                    // Update cache and timestamps
-                    playerDataCache.put(uuid, data);
-                    lastAccessTime.put(uuid, System.currentTimeMillis());
-                }
-                
-                // Update IP address
-                data.updateIp(player.getAddress().getAddress().getHostAddress());
-                
-                return data;
+            PlayerSnapshot snapshot = databaseManager.loadPlayerSnapshot(uuid, name);
+            if (snapshot == null) {
+                return false;
             }
-            
-            return null;
+            pendingSnapshots.put(uuid, snapshot);
+            return true;
         } finally {
-            lock.unlock();
+            if (entry.data == null) {
+                cache.invalidate(entry);
+            }
+            entry.lock.unlock();
         }
     }
 
     /**
-     * Check if the cache size exceeds the limit and trim if necessary
+     * Gets the prelogin snapshot of a joining player. Only available during the
+     * join event, managers fall back to their own queries when this is null.
+     * 
+     * @param uuid The player's UUID
+     * @return The snapshot, or null if none was preloaded
      */
-    private void checkCacheSize() {
-        if (playerDataCache.size() > MAX_CACHE_SIZE) {
-            DebugLogger.debug("PlayerDataManager", "Cache size exceeds limit, trimming cache");
-            trimCache();
-        }
+    @Nullable
+    public PlayerSnapshot getSnapshot(@NotNull UUID uuid) {
+        return pendingSnapshots.get(uuid);
     }
-    
+
     /**
-     * Optimize memory usage by trimming the cache and releasing unused resources
+     * Drops the snapshot once every manager had a chance to consume it.
+     * 
+     * @param uuid The player's UUID
      */
-    private void trimCache() {
-        synchronized (CACHE_LOCK) {
-            if (playerDataCache.size() <= CACHE_TRIM_SIZE) {
-                return; // Cache is already below trim threshold
+    public void discardSnapshot(@NotNull UUID uuid) {
+        pendingSnapshots.remove(uuid);
+    }
+
+    /**
+     * Locks the cache entry of a player, retrying if it was evicted while waiting.
+     * 
+     * @param uuid The player's UUID
+     * @param create Whether to create an empty entry if there is none
+     * @return The locked entry, or null if there is none and create is false
+     */
+    @Nullable
+    private PlayerDataCache.Entry lockEntry(UUID uuid, boolean create) {
+        while (true) {
+            PlayerDataCache.Entry entry = create ? cache.acquire(uuid) : cache.peek(uuid);
+            if (entry == null) {
+                return null;
             }
-            
-            DebugLogger.debug("PlayerDataManager", "Optimizing memory usage, current cache size: " + playerDataCache.size());
-            
-            // Sort players by last access time
-            List<Map.Entry<String, Long>> sortedEntries = new ArrayList<>(lastAccessTime.entrySet());
-            sortedEntries.sort(Map.Entry.comparingByValue());
-            
-            // Calculate how many entries to remove
-            int toRemove = playerDataCache.size() - CACHE_TRIM_SIZE;
-            int removed = 0;
-            
-            // Remove oldest entries that aren't dirty
-            for (Map.Entry<String, Long> entry : sortedEntries) {
-                String uuid = entry.getKey();
-                
-                // Skip dirty players
-                if (dirtyPlayers.contains(uuid)) {
-                    continue;
-                }
-                
-                // Get lock for player
-                ReentrantLock lock = getPlayerLock(uuid);
-                if (lock.tryLock()) {
-                    try {
-                        // Remove from cache
-                        playerDataCache.remove(uuid);
-                        lastAccessTime.remove(uuid);
-                        lastSaveTime.remove(uuid);
-                        
-                        removed++;
-                        if (removed >= toRemove) {
-                            break;
-                        }
-                    } finally {
-                        lock.unlock();
-                    }
-                }
+            entry.lock.lock();
+            if (!entry.isRemoved()) {
+                return entry;
             }
+            entry.lock.unlock();
+        }
+    }
+
+    @Nullable
+    public PlayerData loadPlayer(Player player) {
+        UUID uuid = player.getUniqueId();
+        PlayerDataCache.Entry entry = lockEntry(uuid, true);
+        
+        try {
+            // Joining players stay in the cache until they leave
+            entry.online = true;
             
-            // Clean up locks for players no longer in cache
-            List<String> locksToRemove = new ArrayList<>();
-            for (String uuid : playerLocks.keySet()) {
-                if (!playerDataCache.containsKey(uuid)) {
-                    locksToRemove.add(uuid);
-                }
+            if (entry.data != null) {
+                cache.recordHit(entry);
+                return entry.data;
             }
+            cache.recordMiss();
             
-            for (String uuid : locksToRemove) {
-                playerLocks.remove(uuid);
+            // Use the prelogin snapshot if there is one, otherwise load from database
+            PlayerSnapshot snapshot = pendingSnapshots.get(player.getUniqueId());
+            PlayerData data = snapshot != null ? snapshot.getPlayerData() : fetchPlayerData(player);
+            if (data == null) {
+                return null;
             }
             
-            // Save dirty players to reduce memory pressure
-            batchSaveDirtyPlayers();
+            setupDataChangeHandler(entry, data);
+            entry.data = data;
+            cache.admit(entry);
             
-            // Suggest garbage collection
-            System.gc();
+            // Update IP address
+            data.updateIp(player.getAddress().getAddress().getHostAddress());
             
-            DebugLogger.debug("PlayerDataManager", "Memory optimization complete, removed " + 
-                             removed + " entries, new cache size: " + playerDataCache.size() + 
-                             ", " + getCacheStatistics());
+            return data;
+        } finally {
+            if (entry.data == null) {
+                // Nothing was loaded, drop the empty entry again
+                cache.invalidate(entry);
+            }
+            entry.lock.unlock();
         }
     }
+
+    @Nullable
+    private PlayerData fetchPlayerData(Player player) {
+        long start = System.nanoTime();
+        PlayerData data = databaseManager.loadPlayerData(player.getUniqueId(), player.getName());
+        cache.recordLoad(System.nanoTime() - start);
+        return data;
+    }
     
     /**
-     * Public method to optimize memory usage
+     * Optimize memory usage by trimming the cache down to its trim size
      */
     public void optimizeMemory() {
         // Clean up cache
         cleanupCache();
         
-        // Perform internal optimization
-        trimCache();
+        int removed = cache.trim();
+        if (removed > 0) {
+            DebugLogger.debug("PlayerDataManager", () -> "Trimmed " + removed + " entries from the cache, " + getCacheStatistics());
+        }
     }
 
-    private void setupDataChangeHandler(Player player, PlayerData data) {
+    private void setupDataChangeHandler(PlayerDataCache.Entry entry, PlayerData data) {
         // Set up data change handler
         data.setOnDataChanged(() -> {
-            String uuid = player.getUniqueId().toString();
-            markDirty(uuid);
+            entry.dirty = true;
+            entry.lastAccess = System.currentTimeMillis();
         });
     }
 
-    private void markDirty(String uuid) {
-        dirtyPlayers.add(uuid);
-        lastAccessTime.put(uuid, System.currentTimeMillis());
-    }
-
     /**
      * Save all dirty players in batches for better performance
      */
     private void batchSaveDirtyPlayers() {
         try {
-            if (dirtyPlayers.isEmpty()) {
-                return;
-            }
-            
             int totalSaved = 0;
-            int batchCount = 0;
             long now = System.currentTimeMillis();
-            List<String> toSave = new ArrayList<>(dirtyPlayers);
-            List<String> saved = new ArrayList<>();
-            
-            DebugLogger.debug("PlayerDataManager", "Starting batch save for " + toSave.size() + " dirty players");
             
-            // Process in batches
-            for (int i = 0; i < toSave.size(); i++) {
-                String uuid = toSave.get(i);
-                
-                // Skip if saved recently
-                Long lastSave = lastSaveTime.get(uuid);
-                if (lastSave != null && (now - lastSave) < SAVE_COOLDOWN) {
+            for (PlayerDataCache.Entry entry : cache.entries()) {
+                if (!entry.dirty) {
                     continue;
                 }
                 
-                // Get player data
-                PlayerData data = playerDataCache.get(uuid);
-                if (data == null) {
-                    saved.add(uuid);
+                // Skip if saved recently
+                if (now - entry.lastSave < SAVE_COOLDOWN) {
                     continue;
                 }
                 
-                // Save player data
-                ReentrantLock lock = getPlayerLock(uuid);
-                if (lock.tryLock()) {
+                // Save player data, busy entries are picked up by the next run
+                if (entry.lock.tryLock()) {
                     try {
+                        PlayerData data = entry.data;
+                        if (entry.isRemoved() || data == null) {
+                            continue;
+                        }
                         databaseManager.savePlayerData(data);
-                        lastSaveTime.put(uuid, now);
-                        saved.add(uuid);
+                        // Stays dirty if the save failed or the data changed again meanwhile
+                        entry.markSaved(now);
                         totalSaved++;
-                        
-                        // Check if we need to commit the batch
-                        if (totalSaved % BATCH_SAVE_SIZE == 0) {
-                            batchCount++;
-                        }
                     } catch (Exception e) {
-                        DebugLogger.severe("PlayerDataManager", "Error saving player data for " + uuid, e);
+                        DebugLogger.severe("PlayerDataManager", "Error saving player data for " + entry.uuid, e);
                     } finally {
-                        lock.unlock();
+                        entry.lock.unlock();
                     }
                 }
             }
             
-            // Remove saved players from dirty list
-            dirtyPlayers.removeAll(saved);
-            
             if (totalSaved > 0) {
-                DebugLogger.debug("PlayerDataManager", "Batch save complete: saved " + totalSaved + 
-                                 " players in " + (batchCount + 1) + " batches, " + 
-                                 dirtyPlayers.size() + " players still dirty");
+                DebugLogger.debug("PlayerDataManager", "Batch save complete: saved {} players, {} players still dirty",
+                                 totalSaved, cache.getDirtyCount());
             }
         } catch (Exception e) {
             DebugLogger.severe("PlayerDataManager", "Error during batch save", e);
@@ -305,18 +251,23 @@ public class PlayerDataManager {
     }
 
     public void savePlayer(@NotNull Player player) {
-        String uuid = player.getUniqueId().toString();
-        ReentrantLock lock = getPlayerLock(uuid);
-        lock.lock();
+        UUID uuid = player.getUniqueId();
+        PlayerDataCache.Entry entry = lockEntry(uuid, false);
+        
+        if (entry == null) {
+            // Load player data if not in cache
+            PlayerData data = fetchPlayerData(player);
+            if (data != null) {
+                data.updateIp(player.getAddress().getAddress().getHostAddress());
+                databaseManager.savePlayerData(data);
+            }
+            return;
+        }
         
         try {
-            PlayerData data = playerDataCache.get(uuid);
+            PlayerData data = entry.data;
             if (data == null) {
-                // Load player data if not in cache
-                data = loadPlayer(player, false);
-                if (data == null) {
-                    return;
-                }
+                return;
             }
             
             // Update IP address
@@ -325,96 +276,196 @@ public class PlayerDataManager {
             // Save to database
             databaseManager.savePlayerData(data);
             
-            // Update timestamps
+            // Update timestamps and dirty state
             long now = System.currentTimeMillis();
-            lastSaveTime.put(uuid, now);
-            lastAccessTime.put(uuid, now);
-            
-            // Remove from dirty players
-            dirtyPlayers.remove(uuid);
+            entry.lastAccess = now;
+            entry.markSaved(now);
         } finally {
-            lock.unlock();
+            entry.lock.unlock();
         }
     }
 
     public void reloadPlayerData(@NotNull Player player) {
-        String uuid = player.getUniqueId().toString();
-        ReentrantLock lock = getPlayerLock(uuid);
-        lock.lock();
+        UUID uuid = player.getUniqueId();
+        PlayerDataCache.Entry entry = lockEntry(uuid, true);
         
         try {
-            // Remove from cache
-            playerDataCache.remove(uuid);
-            
             // Load fresh data
-            PlayerData data = loadPlayer(player, false);
+            PlayerData data = fetchPlayerData(player);
             if (data != null) {
-                // Update cache
-                playerDataCache.put(uuid, data);
-                
-                // Update timestamps
-                long now = System.currentTimeMillis();
-                lastAccessTime.put(uuid, now);
+                setupDataChangeHandler(entry, data);
+                boolean cached = entry.data != null;
+                entry.data = data;
+                entry.dirty = false;
+                if (!cached) {
+                    cache.admit(entry);
+                }
+                entry.lastAccess = System.currentTimeMillis();
                 
-                // Remove from dirty players
-                dirtyPlayers.remove(uuid);
+                // Update IP address
+                data.updateIp(player.getAddress().getAddress().getHostAddress());
+            }
+        } finally {
+            if (entry.data == null) {
+                cache.invalidate(entry);
+            }
+            entry.lock.unlock();
+        }
+    }
+
+    /**
+     * Gets a player's balance without loading their data. Cached data wins over
+     * the database, which may not have the latest unsaved changes yet.
+     * 
+     * @param uuid The player's UUID
+     * @return The balance in minor units, or null if the player is unknown
+     * @throws SQLException if a database access error occurs
+     */
+    @Nullable
+    public Long getMoney(@NotNull UUID uuid) throws SQLException {
+        PlayerDataCache.Entry entry = lockEntry(uuid, true);
+        
+        try {
+            PlayerData data = entry.data;
+            if (data != null) {
+                return data.getBalanceUnits();
             }
+            return databaseManager.getEconomyStore().getBalance(uuid);
         } finally {
-            lock.unlock();
+            if (entry.data == null) {
+                cache.invalidate(entry);
+            }
+            entry.lock.unlock();
+        }
+    }
+
+    /**
+     * Atomically adds a signed amount to a player's balance without loading their data.
+     * Cached data is changed in memory and saved as usual, otherwise the change is
+     * applied in SQL while the cache entry is locked, so a concurrent join loads the result,
+     * and a player already past prelogin gets it in their snapshot.
+     * 
+     * @param uuid The player's UUID
+     * @param delta The minor units to add, negative to withdraw
+     * @return The new balance in minor units, or null if the player is unknown or doesn't have enough
+     * @throws SQLException if a database access error occurs
+     */
+    @Nullable
+    public Long adjustMoney(@NotNull UUID uuid, long delta) throws SQLException {
+        PlayerDataCache.Entry entry = lockEntry(uuid, true);
+        
+        try {
+            PlayerData data = entry.data;
+            if (data != null) {
+                return data.adjustBalanceUnits(delta) ? data.getBalanceUnits() : null;
+            }
+            Long balance = databaseManager.getEconomyStore().adjustBalance(uuid, delta);
+            if (balance != null) {
+                updateSnapshotBalance(uuid, balance);
+            }
+            return balance;
+        } finally {
+            if (entry.data == null) {
+                cache.invalidate(entry);
+            }
+            entry.lock.unlock();
+        }
+    }
+
+    /**
+     * Sets a player's balance without loading their data, see {@link #adjustMoney(UUID, long)}.
+     * 
+     * @param uuid The player's UUID
+     * @param units The new balance in minor units
+     * @return true if the balance was set, false if the player is unknown
+     * @throws SQLException if a database access error occurs
+     */
+    public boolean setMoney(@NotNull UUID uuid, long units) throws SQLException {
+        PlayerDataCache.Entry entry = lockEntry(uuid, true);
+        
+        try {
+            PlayerData data = entry.data;
+            if (data != null) {
+                data.setBalanceUnits(units);
+                return true;
+            }
+            if (!databaseManager.getEconomyStore().setBalance(uuid, units)) {
+                return false;
+            }
+            updateSnapshotBalance(uuid, units);
+            return true;
+        } finally {
+            if (entry.data == null) {
+                cache.invalidate(entry);
+            }
+            entry.lock.unlock();
+        }
+    }
+
+    /**
+     * Keeps the prelogin snapshot of a joining player in step with a balance
+     * changed in SQL, otherwise the join would load and later save the old one.
+     * Must be called with the player's cache entry locked.
+     */
+    private void updateSnapshotBalance(UUID uuid, long units) {
+        PlayerSnapshot snapshot = pendingSnapshots.get(uuid);
+        if (snapshot != null) {
+            snapshot.getPlayerData().setBalanceUnits(units);
+        }
+    }
+
+    /**
+     * Marks a player's cached data as evictable once they left the server.
+     * 
+     * @param player The player that left
+     */
+    public void markOffline(@NotNull Player player) {
+        PlayerDataCache.Entry entry = cache.peek(player.getUniqueId());
+        if (entry != null) {
+            entry.online = false;
         }
     }
 
     public void unloadPlayer(@NotNull Player player) {
-        String uuid = player.getUniqueId().toString();
-        ReentrantLock lock = getPlayerLock(uuid);
-        lock.lock();
+        UUID uuid = player.getUniqueId();
+        PlayerDataCache.Entry entry = lockEntry(uuid, false);
+        if (entry == null) {
+            return;
+        }
         
         try {
-            // Save player data if dirty
-            if (dirtyPlayers.contains(uuid)) {
-                PlayerData data = playerDataCache.get(uuid);
-                if (data != null) {
-                    try {
-                        databaseManager.savePlayerData(data);
-                    } catch (Exception e) {
-                        DebugLogger.severe("PlayerDataManager", "Error saving player data during unload for " + player.getName(), e);
-                    }
+            // Save any unsaved changes, this is a no-op for clean data
+            PlayerData data = entry.data;
+            if (data != null) {
+                try {
+                    databaseManager.savePlayerData(data);
+                } catch (Exception e) {
+                    DebugLogger.severe("PlayerDataManager", "Error saving player data during unload for " + player.getName(), e);
                 }
             }
             
-            // Remove from all maps
-            playerDataCache.remove(uuid);
-            lastSaveTime.remove(uuid);
-            lastAccessTime.remove(uuid);
-            dirtyPlayers.remove(uuid);
-            
-            // Don't remove the lock yet, it might be in use by other threads
+            cache.invalidate(entry);
         } catch (Exception e) {
             DebugLogger.severe("PlayerDataManager", "Error unloading player data for " + player.getName(), e);
         } finally {
-            lock.unlock();
+            entry.lock.unlock();
         }
     }
 
     public boolean exists(@NotNull Player player) {
-        return playerDataCache.containsKey(player.getUniqueId().toString());
+        PlayerDataCache.Entry entry = cache.peek(player.getUniqueId());
+        return entry != null && entry.data != null;
     }
 
     @Nullable
     public PlayerData getPlayerData(@NotNull Player player) {
-        String uuid = player.getUniqueId().toString();
-        
         // Try to get from cache first
-        PlayerData data = playerDataCache.get(uuid);
+        PlayerData data = cache.get(player.getUniqueId());
         if (data != null) {
-            // Update last access time
-            lastAccessTime.put(uuid, System.currentTimeMillis());
-            cacheHits.incrementAndGet();
             return data;
         }
         
         // Load from database if not in cache
-        cacheMisses.incrementAndGet();
         return loadPlayer(player);
     }
 
@@ -425,31 +476,26 @@ public class PlayerDataManager {
      */
     public int saveAllPlayers() {
         int saved = 0;
-        List<String> playerIds = new ArrayList<>(playerDataCache.keySet());
         
-        for (String uuid : playerIds) {
-            ReentrantLock lock = getPlayerLock(uuid);
-            if (lock.tryLock()) {
+        for (PlayerDataCache.Entry entry : cache.entries()) {
+            if (entry.lock.tryLock()) {
                 try {
-                    PlayerData data = playerDataCache.get(uuid);
-                    if (data != null) {
+                    PlayerData data = entry.data;
+                    if (data != null && !entry.isRemoved()) {
                         try {
                             databaseManager.savePlayerData(data);
-                            lastSaveTime.put(uuid, System.currentTimeMillis());
+                            entry.markSaved(System.currentTimeMillis());
                             saved++;
                         } catch (Exception e) {
-                            DebugLogger.severe("PlayerDataManager", "Error saving player data for " + uuid, e);
+                            DebugLogger.severe("PlayerDataManager", "Error saving player data for " + entry.uuid, e);
                         }
                     }
                 } finally {
-                    lock.unlock();
+                    entry.lock.unlock();
                 }
             }
         }
         
-        // Clear dirty players
-        dirtyPlayers.clear();
-        
         return saved;
     }
 
@@ -458,41 +504,14 @@ public class PlayerDataManager {
      */
     private void cleanupCache() {
         try {
-            long now = System.currentTimeMillis();
-            List<String> toRemove = new ArrayList<>();
-            
-            for (Map.Entry<String, Long> entry : lastAccessTime.entrySet()) {
-                String uuid = entry.getKey();
-                long lastAccess = entry.getValue();
-                
-                // Skip if dirty
-                if (dirtyPlayers.contains(uuid)) {
-                    continue;
-                }
-                
-                // Check if expired
-                if (now - lastAccess > CACHE_EXPIRY_TIME) {
-                    toRemove.add(uuid);
-                }
-            }
-            
-            // Remove expired entries
-            for (String uuid : toRemove) {
-                ReentrantLock lock = getPlayerLock(uuid);
-                if (lock.tryLock()) {
-                    try {
-                        playerDataCache.remove(uuid);
-                        lastAccessTime.remove(uuid);
-                        lastSaveTime.remove(uuid);
-                    } finally {
-                        lock.unlock();
-                    }
-                }
+            int expired = cache.expire(cacheExpiryTime);
+            if (expired > 0) {
+                DebugLogger.debug("PlayerDataManager", "Cleaned up {} expired cache entries", expired);
             }
             
-            if (!toRemove.isEmpty()) {
-                DebugLogger.debug("PlayerDataManager", "Cleaned up " + toRemove.size() + " expired cache entries");
-            }
+            // Drop snapshots of logins that never completed
+            long now = System.currentTimeMillis();
+            pendingSnapshots.values().removeIf(snapshot -> now - snapshot.getCreatedAt() > SNAPSHOT_EXPIRY_TIME);
         } catch (Exception e) {
             DebugLogger.severe("PlayerDataManager", "Error during cache cleanup", e);
         }
@@ -504,7 +523,7 @@ public class PlayerDataManager {
      * @return The number of loaded players
      */
     public int getLoadedPlayerCount() {
-        return playerDataCache.size();
+        return cache.size();
     }
     
     /**
@@ -513,7 +532,7 @@ public class PlayerDataManager {
      * @return The number of dirty players
      */
     public int getDirtyPlayerCount() {
-        return dirtyPlayers.size();
+        return cache.getDirtyCount();
     }
 
     /**
@@ -522,9 +541,8 @@ public class PlayerDataManager {
      * @return The cache hit rate as a percentage
      */
     public double getCacheHitRate() {
-        int hits = cacheHits.get();
-        int misses = cacheMisses.get();
-        int total = hits + misses;
+        long hits = cache.getHits();
+        long total = hits + cache.getMisses();
         
         if (total == 0) {
             return 0.0;
@@ -539,14 +557,11 @@ public class PlayerDataManager {
      * @return A string containing cache statistics
      */
     public String getCacheStatistics() {
-        int hits = cacheHits.get();
-        int misses = cacheMisses.get();
-        int total = hits + misses;
-        double hitRate = total > 0 ? (double) hits / total * 100.0 : 0.0;
-        
         return String.format(
-            "Cache: %d items, %.2f%% hit rate (%d hits, %d misses), %d dirty",
-            playerDataCache.size(), hitRate, hits, misses, dirtyPlayers.size()
+            "Cache: %d/%d items, %.2f%% hit rate (%d hits, %d misses), %d evicted, %d expired, %d loads (avg %.2fms), %d dirty",
+            cache.size(), cache.getMaxSize(), getCacheHitRate(), cache.getHits(), cache.getMisses(),
+            cache.getEvictions(), cache.getExpirations(), cache.getLoads(), cache.getAverageLoadTimeMillis(),
+            cache.getDirtyCount()
         );
     }
     
@@ -557,7 +572,8 @@ public class PlayerDataManager {
      * @return True if the player's data is dirty, false otherwise
      */
     public boolean isDirty(@NotNull Player player) {
-        return dirtyPlayers.contains(player.getUniqueId().toString());
+        PlayerDataCache.Entry entry = cache.peek(player.getUniqueId());
+        return entry != null && entry.dirty;
     }
     
     public void close() {
@@ -570,16 +586,13 @@ public class PlayerDataManager {
             
             // Save all players
             int saved = saveAllPlayers();
-            DebugLogger.debug("PlayerDataManager", "Saved " + saved + " players during shutdown");
+            DebugLogger.debug("PlayerDataManager", "Saved {} players during shutdown", saved);
             
             // Clear caches
-            playerDataCache.clear();
-            lastSaveTime.clear();
-            lastAccessTime.clear();
-            dirtyPlayers.clear();
+            cache.clear();
+            pendingSnapshots.clear();
             
-            // Close database manager
-            databaseManager.close();
+            // The database manager is shared and closed by the database module
         } catch (Exception e) {
             DebugLogger.severe("PlayerDataManager", "Error closing player data manager", e);
         }
@@ -1,6 +1,7 @@
 package amg.plugins.aMGCore.managers;
 
 import amg.plugins.aMGCore.AMGCore;
+import amg.plugins.aMGCore.models.PlayerSnapshot;
 import amg.plugins.aMGCore.utils.DebugLogger;
 import net.kyori.adventure.text.Component;
 import org.bukkit.Bukkit;
@@ -16,9 +17,6 @@ import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.jetbrains.annotations.NotNull;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.HashSet;
 import java.util.Set;
@@ -38,49 +36,33 @@ public class PlayerManager implements Listener {
         this.godModePlayers = new HashSet<>();
         this.localeManager = LocaleManager.getInstance();
 
-        initializeDatabase();
         loadVanishedPlayers();
         loadGodModePlayers();
         
         plugin.getServer().getPluginManager().registerEvents(this, plugin);
     }
 
-    private void initializeDatabase() {
-        try (Connection conn = databaseManager.getConnection()) {
-            conn.createStatement().execute("""
-                CREATE TABLE IF NOT EXISTS player_states (
-                    player_uuid VARCHAR(36) PRIMARY KEY,
-                    vanished BOOLEAN DEFAULT FALSE,
-                    god_mode BOOLEAN DEFAULT FALSE,
-                    fly_enabled BOOLEAN DEFAULT FALSE,
-                    walk_speed FLOAT DEFAULT 0.2,
-                    fly_speed FLOAT DEFAULT 0.1
-                )
-            """);
-        } catch (SQLException e) {
-            DebugLogger.severe("Failed to initialize player states table", "PlayerManager", e);
-        }
-    }
-
     private void loadVanishedPlayers() {
-        try (Connection conn = databaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement("SELECT player_uuid FROM player_states WHERE vanished = TRUE")) {
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                vanishedPlayers.add(UUID.fromString(rs.getString("player_uuid")));
-            }
+        try {
+            databaseManager.query("player_states.load_vanished", "SELECT player_uuid FROM player_states WHERE vanished = TRUE", null, rs -> {
+                while (rs.next()) {
+                    vanishedPlayers.add(rs.getObject("player_uuid", UUID.class));
+                }
+                return null;
+            });
         } catch (SQLException e) {
             DebugLogger.severe("Failed to load vanished players", "PlayerManager", e);
         }
     }
 
     private void loadGodModePlayers() {
-        try (Connection conn = databaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement("SELECT player_uuid FROM player_states WHERE god_mode = TRUE")) {
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                godModePlayers.add(UUID.fromString(rs.getString("player_uuid")));
-            }
+        try {
+            databaseManager.query("player_states.load_god_mode", "SELECT player_uuid FROM player_states WHERE god_mode = TRUE", null, rs -> {
+                while (rs.next()) {
+                    godModePlayers.add(rs.getObject("player_uuid", UUID.class));
+                }
+                return null;
+            });
         } catch (SQLException e) {
             DebugLogger.severe("Failed to load god mode players", "PlayerManager", e);
         }
@@ -90,81 +72,68 @@ public class PlayerManager implements Listener {
         UUID uuid = player.getUniqueId();
         boolean vanished = !vanishedPlayers.contains(uuid);
 
-        try (Connection conn = databaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(
-                 "MERGE INTO player_states (player_uuid, vanished) VALUES (?, ?)"
-             )) {
-            stmt.setString(1, uuid.toString());
-            stmt.setBoolean(2, vanished);
-            stmt.executeUpdate();
-
-            if (vanished) {
-                vanishedPlayers.add(uuid);
-                for (Player onlinePlayer : Bukkit.getOnlinePlayers()) {
-                    if (!onlinePlayer.hasPermission("amgcore.command.vanish")) {
-                        onlinePlayer.hidePlayer(plugin, player);
-                    }
-                }
-                player.setGameMode(GameMode.SPECTATOR);
-                broadcastStaffMessage(localeManager.getComponent("player.vanish.enabled_other", player.getName()));
-            } else {
-                vanishedPlayers.remove(uuid);
-                for (Player onlinePlayer : Bukkit.getOnlinePlayers()) {
-                    onlinePlayer.showPlayer(plugin, player);
+        databaseManager.queueWrite("player_states:vanished:" + uuid,
+            "MERGE INTO player_states (player_uuid, vanished) VALUES (?, ?)",
+            stmt -> {
+                stmt.setObject(1, uuid);
+                stmt.setBoolean(2, vanished);
+            });
+
+        if (vanished) {
+            vanishedPlayers.add(uuid);
+            for (Player onlinePlayer : Bukkit.getOnlinePlayers()) {
+                if (!onlinePlayer.hasPermission("amgcore.command.vanish")) {
+                    onlinePlayer.hidePlayer(plugin, player);
                 }
-                player.setGameMode(GameMode.SURVIVAL);
-                broadcastStaffMessage(localeManager.getComponent("player.vanish.disabled_other", player.getName()));
             }
-
-            return vanished;
-        } catch (SQLException e) {
-            DebugLogger.severe("Failed to update vanish state", "PlayerManager", e);
-            return !vanished;
+            player.setGameMode(GameMode.SPECTATOR);
+            broadcastStaffMessage(localeManager.getComponent("player.vanish.enabled_other", player.getName()));
+        } else {
+            vanishedPlayers.remove(uuid);
+            for (Player onlinePlayer : Bukkit.getOnlinePlayers()) {
+                onlinePlayer.showPlayer(plugin, player);
+            }
+            player.setGameMode(GameMode.SURVIVAL);
+            broadcastStaffMessage(localeManager.getComponent("player.vanish.disabled_other", player.getName()));
         }
+
+        return vanished;
     }
 
     public boolean toggleGodMode(@NotNull Player player) {
         UUID uuid = player.getUniqueId();
         boolean godMode = !godModePlayers.contains(uuid);
 
-        try (Connection conn = databaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(
-                 "MERGE INTO player_states (player_uuid, god_mode) VALUES (?, ?)"
-             )) {
-            stmt.setString(1, uuid.toString());
-            stmt.setBoolean(2, godMode);
-            stmt.executeUpdate();
-
-            if (godMode) {
-                godModePlayers.add(uuid);
-                player.sendMessage(localeManager.getComponent("player.god.enabled"));
-            } else {
-                godModePlayers.remove(uuid);
-                player.sendMessage(localeManager.getComponent("player.god.disabled"));
-            }
+        databaseManager.queueWrite("player_states:god_mode:" + uuid,
+            "MERGE INTO player_states (player_uuid, god_mode) VALUES (?, ?)",
+            stmt -> {
+                stmt.setObject(1, uuid);
+                stmt.setBoolean(2, godMode);
+            });
 
-            return godMode;
-        } catch (SQLException e) {
-            DebugLogger.severe("Failed to update god mode state", "PlayerManager", e);
-            return !godMode;
+        if (godMode) {
+            godModePlayers.add(uuid);
+            player.sendMessage(localeManager.getComponent("player.god.enabled"));
+        } else {
+            godModePlayers.remove(uuid);
+            player.sendMessage(localeManager.getComponent("player.god.disabled"));
         }
+
+        return godMode;
     }
 
     public void setFly(@NotNull Player player, boolean enabled) {
-        try (Connection conn = databaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(
-                 "MERGE INTO player_states (player_uuid, fly_enabled) VALUES (?, ?)"
-             )) {
-            stmt.setString(1, player.getUniqueId().toString());
-            stmt.setBoolean(2, enabled);
-            stmt.executeUpdate();
-
-            player.setAllowFlight(enabled);
-            player.setFlying(enabled);
-            player.sendMessage(localeManager.getComponent(enabled ? "player.fly.enabled" : "player.fly.disabled"));
-        } catch (SQLException e) {
-            DebugLogger.severe("Failed to update fly state", "PlayerManager", e);
-        }
+        UUID uuid = player.getUniqueId();
+        databaseManager.queueWrite("player_states:fly_enabled:" + uuid,
+            "MERGE INTO player_states (player_uuid, fly_enabled) VALUES (?, ?)",
+            stmt -> {
+                stmt.setObject(1, uuid);
+                stmt.setBoolean(2, enabled);
+            });
+
+        player.setAllowFlight(enabled);
+        player.setFlying(enabled);
+        player.sendMessage(localeManager.getComponent(enabled ? "player.fly.enabled" : "player.fly.disabled"));
     }
 
     public void setSpeed(@NotNull Player player, float speed, boolean flying) {
@@ -178,16 +147,14 @@ public class PlayerManager implements Listener {
             player.setWalkSpeed(speed);
         }
 
-        try (Connection conn = databaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(
-                 "MERGE INTO player_states (player_uuid, " + (flying ? "fly_speed" : "walk_speed") + ") VALUES (?, ?)"
-             )) {
-            stmt.setString(1, player.getUniqueId().toString());
-            stmt.setFloat(2, speed);
-            stmt.executeUpdate();
-        } catch (SQLException e) {
-            DebugLogger.severe("Failed to update speed state", "PlayerManager", e);
-        }
+        String column = flying ? "fly_speed" : "walk_speed";
+        UUID uuid = player.getUniqueId();
+        databaseManager.queueWrite("player_states:" + column + ":" + uuid,
+            "MERGE INTO player_states (player_uuid, " + column + ") VALUES (?, ?)",
+            stmt -> {
+                stmt.setObject(1, uuid);
+                stmt.setFloat(2, speed);
+            });
 
         player.sendMessage(localeManager.getComponent("player.speed.self", flying ? "fly" : "walk", String.valueOf(speed)));
     }
@@ -225,33 +192,26 @@ public class PlayerManager implements Listener {
         Player player = event.getPlayer();
         UUID uuid = player.getUniqueId();
 
-        try (Connection conn = databaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(
-                 "SELECT vanished, god_mode, fly_enabled, walk_speed, fly_speed FROM player_states WHERE player_uuid = ?"
-             )) {
-            stmt.setString(1, uuid.toString());
-            ResultSet rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                if (rs.getBoolean("vanished")) {
-                    for (Player onlinePlayer : Bukkit.getOnlinePlayers()) {
-                        if (!onlinePlayer.hasPermission("amgcore.command.vanish")) {
-                            onlinePlayer.hidePlayer(plugin, player);
+        PlayerSnapshot snapshot = plugin.getPlayerDataManager().getSnapshot(uuid);
+        if (snapshot != null && snapshot.isLoaded(PlayerSnapshot.Section.STATES)) {
+            PlayerSnapshot.States states = snapshot.getStates();
+            if (states != null) {
+                applyStates(player, states.isVanished(), states.isFlyEnabled(), states.getWalkSpeed(), states.getFlySpeed());
+            }
+        } else {
+            try {
+                databaseManager.query("player_states.load",
+                    "SELECT vanished, god_mode, fly_enabled, walk_speed, fly_speed FROM player_states WHERE player_uuid = ?",
+                    stmt -> stmt.setObject(1, uuid), rs -> {
+                        if (rs.next()) {
+                            applyStates(player, rs.getBoolean("vanished"), rs.getBoolean("fly_enabled"),
+                                rs.getFloat("walk_speed"), rs.getFloat("fly_speed"));
                         }
-                    }
-                    player.setGameMode(GameMode.SPECTATOR);
-                }
-
-                if (rs.getBoolean("fly_enabled")) {
-                    player.setAllowFlight(true);
-                    player.setFlying(true);
-                }
-
-                player.setWalkSpeed(rs.getFloat("walk_speed"));
-                player.setFlySpeed(rs.getFloat("fly_speed"));
+                        return null;
+                    });
+            } catch (SQLException e) {
+                DebugLogger.severe("Failed to load player states", "PlayerManager", e);
             }
-        } catch (SQLException e) {
-            DebugLogger.severe("Failed to load player states", "PlayerManager", e);
         }
 
         // Hide vanished players from the joining player
@@ -265,22 +225,39 @@ public class PlayerManager implements Listener {
         }
     }
 
+    private void applyStates(Player player, boolean vanished, boolean flyEnabled, float walkSpeed, float flySpeed) {
+        if (vanished) {
+            for (Player onlinePlayer : Bukkit.getOnlinePlayers()) {
+                if (!onlinePlayer.hasPermission("amgcore.command.vanish")) {
+                    onlinePlayer.hidePlayer(plugin, player);
+                }
+            }
+            player.setGameMode(GameMode.SPECTATOR);
+        }
+
+        if (flyEnabled) {
+            player.setAllowFlight(true);
+            player.setFlying(true);
+        }
+
+        player.setWalkSpeed(walkSpeed);
+        player.setFlySpeed(flySpeed);
+    }
+
     @EventHandler(priority = EventPriority.HIGH)
     public void onPlayerQuit(PlayerQuitEvent event) {
         Player player = event.getPlayer();
         UUID uuid = player.getUniqueId();
 
-        try (Connection conn = databaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(
-                 "MERGE INTO player_states (player_uuid, walk_speed, fly_speed) VALUES (?, ?, ?)"
-             )) {
-            stmt.setString(1, uuid.toString());
-            stmt.setFloat(2, player.getWalkSpeed());
-            stmt.setFloat(3, player.getFlySpeed());
-            stmt.executeUpdate();
-        } catch (SQLException e) {
-            DebugLogger.severe("Failed to save player states", "PlayerManager", e);
-        }
+        float walkSpeed = player.getWalkSpeed();
+        float flySpeed = player.getFlySpeed();
+        databaseManager.queueWrite("player_states:speeds:" + uuid,
+            "MERGE INTO player_states (player_uuid, walk_speed, fly_speed) VALUES (?, ?, ?)",
+            stmt -> {
+                stmt.setObject(1, uuid);
+                stmt.setFloat(2, walkSpeed);
+                stmt.setFloat(3, flySpeed);
+            });
     }
 
     @EventHandler(priority = EventPriority.HIGH)
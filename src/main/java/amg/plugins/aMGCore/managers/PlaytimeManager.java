@@ -1,6 +1,7 @@
 package amg.plugins.aMGCore.managers;
 
 import amg.plugins.aMGCore.AMGCore;
+import amg.plugins.aMGCore.models.PlayerSnapshot;
 import amg.plugins.aMGCore.utils.DebugLogger;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
@@ -14,7 +15,9 @@ import org.jetbrains.annotations.NotNull;
 import java.sql.*;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
@@ -41,9 +44,6 @@ public class PlaytimeManager implements Listener {
         this.sessionStart = new ConcurrentHashMap<>();
         this.cachedPlaytime = new ConcurrentHashMap<>();
         
-        // Initialize database
-        initializeDatabase();
-        
         // Register events
         plugin.getServer().getPluginManager().registerEvents(this, plugin);
         
@@ -57,45 +57,21 @@ public class PlaytimeManager implements Listener {
         }
     }
     
-    private void initializeDatabase() {
-        try (Connection conn = databaseManager.getConnection()) {
-            try (Statement stmt = conn.createStatement()) {
-                // Create playtime table
-                stmt.execute("""
-                    CREATE TABLE IF NOT EXISTS player_playtime (
-                        uuid VARCHAR(36) PRIMARY KEY,
-                        playtime_seconds BIGINT NOT NULL DEFAULT 0,
-                        last_seen TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                        first_join TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-                    )
-                """);
-            }
-        } catch (SQLException e) {
-            DebugLogger.severe("PlaytimeManager", "Failed to initialize database tables", e);
-            throw new RuntimeException("Failed to initialize playtime database tables", e);
-        }
-    }
-    
     private void loadPlayerPlaytime(UUID playerUuid) {
         try (Connection conn = databaseManager.getConnection()) {
-            try (PreparedStatement stmt = conn.prepareStatement(
-                "SELECT playtime_seconds FROM player_playtime WHERE uuid = ?"
-            )) {
-                stmt.setString(1, playerUuid.toString());
-                ResultSet rs = stmt.executeQuery();
-                
-                if (rs.next()) {
-                    cachedPlaytime.put(playerUuid, rs.getLong("playtime_seconds"));
-                } else {
-                    // Create new entry for player
-                    try (PreparedStatement insertStmt = conn.prepareStatement(
-                        "INSERT INTO player_playtime (uuid, playtime_seconds) VALUES (?, 0)"
-                    )) {
-                        insertStmt.setString(1, playerUuid.toString());
-                        insertStmt.executeUpdate();
-                    }
-                    cachedPlaytime.put(playerUuid, 0L);
-                }
+            Long playtime = databaseManager.query(conn, "player_playtime.load",
+                "SELECT playtime_seconds FROM player_playtime WHERE uuid = ?",
+                stmt -> stmt.setObject(1, playerUuid),
+                rs -> rs.next() ? rs.getLong("playtime_seconds") : null);
+            
+            if (playtime != null) {
+                cachedPlaytime.put(playerUuid, playtime);
+            } else {
+                // Create new entry for player
+                databaseManager.update(conn, "player_playtime.create",
+                    "INSERT INTO player_playtime (uuid, playtime_seconds) VALUES (?, 0)",
+                    stmt -> stmt.setObject(1, playerUuid));
+                cachedPlaytime.put(playerUuid, 0L);
             }
         } catch (SQLException e) {
             DebugLogger.severe("PlaytimeManager", "Failed to load playtime for player: " + playerUuid, e);
@@ -128,17 +104,18 @@ public class PlaytimeManager implements Listener {
         
         // Save to database
         if (!updates.isEmpty()) {
+            List<DatabaseManager.StatementBinder> binders = new ArrayList<>();
+            for (Map.Entry<UUID, Long> entry : updates.entrySet()) {
+                binders.add(stmt -> {
+                    stmt.setObject(1, entry.getKey());
+                    stmt.setLong(2, entry.getValue());
+                });
+            }
+            
             try (Connection conn = databaseManager.getConnection()) {
-                try (PreparedStatement stmt = conn.prepareStatement(
-                    "MERGE INTO player_playtime (uuid, playtime_seconds, last_seen) VALUES (?, ?, CURRENT_TIMESTAMP)"
-                )) {
-                    for (Map.Entry<UUID, Long> entry : updates.entrySet()) {
-                        stmt.setString(1, entry.getKey().toString());
-                        stmt.setLong(2, entry.getValue());
-                        stmt.addBatch();
-                    }
-                    stmt.executeBatch();
-                }
+                databaseManager.batch(conn, "player_playtime.save_all",
+                    "MERGE INTO player_playtime (uuid, playtime_seconds, last_seen) VALUES (?, ?, CURRENT_TIMESTAMP)",
+                    binders);
             } catch (SQLException e) {
                 DebugLogger.severe("PlaytimeManager", "Failed to save playtimes", e);
             }
@@ -197,23 +174,31 @@ public class PlaytimeManager implements Listener {
     public void savePlayerPlaytime(@NotNull UUID playerUuid) {
         long playtime = getPlaytimeSeconds(playerUuid);
         
-        try (Connection conn = databaseManager.getConnection()) {
-            try (PreparedStatement stmt = conn.prepareStatement(
-                "MERGE INTO player_playtime (uuid, playtime_seconds, last_seen) VALUES (?, ?, CURRENT_TIMESTAMP)"
-            )) {
-                stmt.setString(1, playerUuid.toString());
+        databaseManager.queueWrite("player_playtime:" + playerUuid,
+            "MERGE INTO player_playtime (uuid, playtime_seconds, last_seen) VALUES (?, ?, CURRENT_TIMESTAMP)",
+            stmt -> {
+                stmt.setObject(1, playerUuid);
                 stmt.setLong(2, playtime);
-                stmt.executeUpdate();
-            }
-        } catch (SQLException e) {
-            DebugLogger.severe("PlaytimeManager", "Failed to save playtime for player: " + playerUuid, e);
-        }
+            });
     }
     
     @EventHandler(priority = EventPriority.MONITOR)
     public void onPlayerJoin(PlayerJoinEvent event) {
         UUID playerUuid = event.getPlayer().getUniqueId();
-        loadPlayerPlaytime(playerUuid);
+        PlayerSnapshot snapshot = plugin.getPlayerDataManager().getSnapshot(playerUuid);
+        if (snapshot != null && snapshot.isLoaded(PlayerSnapshot.Section.PLAYTIME)) {
+            Long playtime = snapshot.getPlaytimeSeconds();
+            if (playtime == null) {
+                // First join, create the row in the background
+                playtime = 0L;
+                databaseManager.queueWrite("player_playtime:" + playerUuid,
+                    "INSERT INTO player_playtime (uuid, playtime_seconds) VALUES (?, 0)",
+                    stmt -> stmt.setObject(1, playerUuid));
+            }
+            cachedPlaytime.put(playerUuid, playtime);
+        } else {
+            loadPlayerPlaytime(playerUuid);
+        }
         sessionStart.put(playerUuid, Instant.now());
     }
     
@@ -0,0 +1,468 @@
+package amg.plugins.aMGCore.managers;
+
+import amg.plugins.aMGCore.models.PlayerData;
+import amg.plugins.aMGCore.utils.DebugLogger;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Ordered registry of every schema change. Applied versions are recorded in
+ * schema_version together with a checksum, so a normal start only reads that
+ * table and skips all DDL.
+ * <p>
+ * Never edit a released migration, append a new one instead. Steps must be
+ * idempotent so a migration interrupted half way can simply run again.
+ */
+final class SchemaMigrations {
+    private static final List<Migration> MIGRATIONS = List.of(
+        new Migration(1, "Initial schema", null,
+            """
+            CREATE TABLE IF NOT EXISTS player_data (
+                uuid VARCHAR(36) PRIMARY KEY,
+                name VARCHAR(16) NOT NULL,
+                money BIGINT NOT NULL DEFAULT 0,
+                job VARCHAR(32) NOT NULL DEFAULT 'unemployed',
+                last_location_world VARCHAR(64),
+                last_location_x DOUBLE,
+                last_location_y DOUBLE,
+                last_location_z DOUBLE,
+                last_location_yaw FLOAT,
+                last_location_pitch FLOAT,
+                created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+            )
+            """,
+            """
+            CREATE TABLE IF NOT EXISTS known_ips (
+                uuid VARCHAR(36) NOT NULL,
+                ip VARCHAR(45) NOT NULL,
+                first_seen TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                last_seen TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                PRIMARY KEY (uuid, ip),
+                FOREIGN KEY (uuid) REFERENCES player_data(uuid) ON DELETE CASCADE
+            )
+            """,
+            "CREATE INDEX IF NOT EXISTS idx_player_data_name ON player_data(name)",
+            "CREATE INDEX IF NOT EXISTS idx_known_ips_ip ON known_ips(ip)",
+            """
+            CREATE TABLE IF NOT EXISTS database_settings (
+                name VARCHAR(64) PRIMARY KEY,
+                setting_value VARCHAR(255) NOT NULL
+            )
+            """,
+            """
+            CREATE TABLE IF NOT EXISTS jails (
+                name VARCHAR(32) PRIMARY KEY,
+                world VARCHAR(64) NOT NULL,
+                x DOUBLE NOT NULL,
+                y DOUBLE NOT NULL,
+                z DOUBLE NOT NULL,
+                yaw FLOAT NOT NULL,
+                pitch FLOAT NOT NULL,
+                created_by VARCHAR(36) NOT NULL,
+                created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+            )
+            """,
+            """
+            CREATE TABLE IF NOT EXISTS jailed_players (
+                uuid VARCHAR(36) PRIMARY KEY,
+                jail_name VARCHAR(32) NOT NULL,
+                jailed_by VARCHAR(36) NOT NULL,
+                reason VARCHAR(255),
+                jail_time BIGINT NOT NULL,
+                remaining_time BIGINT NOT NULL,
+                jailed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                FOREIGN KEY (jail_name) REFERENCES jails(name) ON DELETE CASCADE,
+                FOREIGN KEY (uuid) REFERENCES player_data(uuid) ON DELETE CASCADE
+            )
+            """,
+            """
+            CREATE TABLE IF NOT EXISTS player_homes (
+                uuid VARCHAR(36) NOT NULL,
+                name VARCHAR(50) NOT NULL,
+                world VARCHAR(50) NOT NULL,
+                x DOUBLE NOT NULL,
+                y DOUBLE NOT NULL,
+                z DOUBLE NOT NULL,
+                yaw FLOAT NOT NULL,
+                pitch FLOAT NOT NULL,
+                PRIMARY KEY (uuid, name)
+            )
+            """,
+            """
+            CREATE TABLE IF NOT EXISTS last_used_homes (
+                uuid VARCHAR(36) PRIMARY KEY,
+                home_name VARCHAR(50) NOT NULL
+            )
+            """,
+            """
+            CREATE TABLE IF NOT EXISTS warps (
+                name VARCHAR(50) PRIMARY KEY,
+                world VARCHAR(50) NOT NULL,
+                x DOUBLE NOT NULL,
+                y DOUBLE NOT NULL,
+                z DOUBLE NOT NULL,
+                yaw FLOAT NOT NULL,
+                pitch FLOAT NOT NULL
+            )
+            """,
+            """
+            CREATE TABLE IF NOT EXISTS chat_channels (
+                name VARCHAR(32) PRIMARY KEY,
+                format VARCHAR(255) NOT NULL,
+                permission VARCHAR(64),
+                global BOOLEAN DEFAULT FALSE,
+                created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+            )
+            """,
+            """
+            CREATE TABLE IF NOT EXISTS muted_players (
+                uuid VARCHAR(36) PRIMARY KEY,
+                muted_by VARCHAR(36) NOT NULL,
+                reason TEXT,
+                expires_at TIMESTAMP,
+                created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+            )
+            """,
+            """
+            CREATE TABLE IF NOT EXISTS afk_players (
+                player_uuid VARCHAR(36) PRIMARY KEY,
+                afk_since TIMESTAMP,
+                reason VARCHAR(255)
+            )
+            """,
+            """
+            CREATE TABLE IF NOT EXISTS player_states (
+                player_uuid VARCHAR(36) PRIMARY KEY,
+                vanished BOOLEAN DEFAULT FALSE,
+                god_mode BOOLEAN DEFAULT FALSE,
+                fly_enabled BOOLEAN DEFAULT FALSE,
+                walk_speed FLOAT DEFAULT 0.2,
+                fly_speed FLOAT DEFAULT 0.1
+            )
+            """,
+            """
+            CREATE TABLE IF NOT EXISTS player_stats (
+                player_uuid VARCHAR(36) PRIMARY KEY,
+                first_join TIMESTAMP,
+                last_seen TIMESTAMP,
+                playtime_seconds BIGINT,
+                deaths INT,
+                kills INT,
+                pvp_kills INT,
+                mob_kills INT
+            )
+            """,
+            """
+            CREATE TABLE IF NOT EXISTS player_playtime (
+                uuid VARCHAR(36) PRIMARY KEY,
+                playtime_seconds BIGINT NOT NULL DEFAULT 0,
+                last_seen TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                first_join TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+            )
+            """
+        ),
+        new Migration(2, "Store balances as minor units", SchemaMigrations::convertMoneyColumn),
+        new Migration(3, "Add spawn location table", null,
+            """
+            CREATE TABLE IF NOT EXISTS spawn_location (
+                id INT PRIMARY KEY,
+                world VARCHAR(64) NOT NULL,
+                x DOUBLE NOT NULL,
+                y DOUBLE NOT NULL,
+                z DOUBLE NOT NULL,
+                yaw FLOAT NOT NULL,
+                pitch FLOAT NOT NULL,
+                updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+            )
+            """
+        ),
+        new Migration(4, "Store UUIDs as native UUID columns", SchemaMigrations::convertUuidColumns),
+        new Migration(5, "Add block history tables", null,
+            """
+            CREATE TABLE IF NOT EXISTS block_history_worlds (
+                id SMALLINT AUTO_INCREMENT PRIMARY KEY,
+                name VARCHAR(64) NOT NULL UNIQUE
+            )
+            """,
+            """
+            CREATE TABLE IF NOT EXISTS block_history_materials (
+                id SMALLINT AUTO_INCREMENT PRIMARY KEY,
+                name VARCHAR(64) NOT NULL UNIQUE
+            )
+            """,
+            """
+            CREATE TABLE IF NOT EXISTS block_history_sessions (
+                id INT AUTO_INCREMENT PRIMARY KEY,
+                player_uuid UUID NOT NULL,
+                player_name VARCHAR(16) NOT NULL,
+                started_at BIGINT NOT NULL
+            )
+            """,
+            """
+            CREATE TABLE IF NOT EXISTS block_history (
+                world_id SMALLINT NOT NULL,
+                chunk_key BIGINT NOT NULL,
+                pos BIGINT NOT NULL,
+                material_id SMALLINT NOT NULL,
+                action TINYINT NOT NULL,
+                session_id INT NOT NULL,
+                ts BIGINT NOT NULL
+            )
+            """,
+            "CREATE INDEX IF NOT EXISTS idx_block_history_chunk ON block_history(world_id, chunk_key, ts)",
+            "CREATE INDEX IF NOT EXISTS idx_block_history_pos ON block_history(world_id, pos, ts)",
+            "CREATE INDEX IF NOT EXISTS idx_block_history_sessions_player ON block_history_sessions(player_uuid)"
+        ),
+        new Migration(6, "Add chat archive tables", null,
+            """
+            CREATE TABLE IF NOT EXISTS chat_archive (
+                id BIGINT PRIMARY KEY,
+                day INT NOT NULL,
+                ts BIGINT NOT NULL,
+                player_uuid UUID NOT NULL,
+                player_name VARCHAR_IGNORECASE(16) NOT NULL,
+                channel VARCHAR(32) NOT NULL,
+                message VARCHAR(1024) NOT NULL
+            )
+            """,
+            """
+            CREATE TABLE IF NOT EXISTS chat_archive_terms (
+                term VARCHAR(32) NOT NULL,
+                message_id BIGINT NOT NULL,
+                day INT NOT NULL,
+                PRIMARY KEY (term, message_id)
+            )
+            """,
+            "CREATE INDEX IF NOT EXISTS idx_chat_archive_day ON chat_archive(day)",
+            "CREATE INDEX IF NOT EXISTS idx_chat_archive_player ON chat_archive(player_name, id)",
+            "CREATE INDEX IF NOT EXISTS idx_chat_archive_terms_day ON chat_archive_terms(day)"
+        )
+    );
+
+    // Every column holding a player UUID, as table and column
+    private static final String[][] UUID_COLUMNS = {
+        {"player_data", "uuid"},
+        {"known_ips", "uuid"},
+        {"jails", "created_by"},
+        {"jailed_players", "uuid"},
+        {"jailed_players", "jailed_by"},
+        {"player_homes", "uuid"},
+        {"last_used_homes", "uuid"},
+        {"muted_players", "uuid"},
+        {"muted_players", "muted_by"},
+        {"afk_players", "player_uuid"},
+        {"player_states", "player_uuid"},
+        {"player_stats", "player_uuid"},
+        {"player_playtime", "uuid"}
+    };
+
+    private SchemaMigrations() {
+    }
+
+    /**
+     * Brings the schema up to date.
+     *
+     * @param conn The connection to migrate on
+     * @throws SQLException if a migration fails or an applied migration was changed
+     */
+    static void migrate(Connection conn) throws SQLException {
+        Map<Integer, Long> applied = loadAppliedVersions(conn);
+
+        for (Migration migration : MIGRATIONS) {
+            Long checksum = applied.get(migration.version);
+            if (checksum == null) {
+                continue;
+            }
+            if (checksum != migration.checksum) {
+                throw new SQLException("Checksum mismatch for schema migration " + migration.version
+                    + " (" + migration.description + "), the database was migrated by a different build");
+            }
+        }
+
+        Migration latest = MIGRATIONS.get(MIGRATIONS.size() - 1);
+        if (applied.containsKey(latest.version)) {
+            DebugLogger.debug("Database", "Schema is up to date at version {}", latest.version);
+            return;
+        }
+
+        for (Migration migration : MIGRATIONS) {
+            if (applied.containsKey(migration.version)) {
+                continue;
+            }
+
+            DebugLogger.info("Database", "Applying schema migration " + migration.version + ": " + migration.description);
+            try (Statement stmt = conn.createStatement()) {
+                for (String sql : migration.statements) {
+                    stmt.execute(sql);
+                }
+            }
+            if (migration.step != null) {
+                migration.step.apply(conn);
+            }
+
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO schema_version (version, description, checksum) VALUES (?, ?, ?)")) {
+                stmt.setInt(1, migration.version);
+                stmt.setString(2, migration.description);
+                stmt.setLong(3, migration.checksum);
+                stmt.executeUpdate();
+            }
+        }
+    }
+
+    private static Map<Integer, Long> loadAppliedVersions(Connection conn) throws SQLException {
+        Map<Integer, Long> applied = new HashMap<>();
+        try (Statement stmt = conn.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery("SELECT version, checksum FROM schema_version")) {
+                while (rs.next()) {
+                    applied.put(rs.getInt("version"), rs.getLong("checksum"));
+                }
+            } catch (SQLException e) {
+                if (!"42S02".equals(e.getSQLState())) {
+                    throw e;
+                }
+                // First start with the migration registry
+                stmt.execute("""
+                    CREATE TABLE IF NOT EXISTS schema_version (
+                        version INT PRIMARY KEY,
+                        description VARCHAR(255) NOT NULL,
+                        checksum BIGINT NOT NULL,
+                        applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                    )
+                """);
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Converts player_data.money from DOUBLE to BIGINT minor units. New databases
+     * already have a BIGINT column, so this only changes older ones.
+     */
+    private static void convertMoneyColumn(Connection conn) throws SQLException {
+        String columnType = getColumnType(conn, "player_data", "money");
+        if (columnType == null) {
+            columnType = "BIGINT";
+        }
+
+        long scale = PlayerData.getMoneyScale();
+        try (Statement stmt = conn.createStatement()) {
+            if (!"BIGINT".equalsIgnoreCase(columnType)) {
+                DebugLogger.info("Database", "Migrating player balances from " + columnType + " to minor units (scale " + scale + ")");
+                // Left over from an interrupted migration
+                stmt.execute("ALTER TABLE player_data DROP COLUMN IF EXISTS money_units");
+                stmt.execute("ALTER TABLE player_data ADD COLUMN money_units BIGINT NOT NULL DEFAULT 0");
+                stmt.execute("UPDATE player_data SET money_units = CAST(ROUND(money * " + scale + ") AS BIGINT)");
+                stmt.execute("ALTER TABLE player_data DROP COLUMN money");
+                stmt.execute("ALTER TABLE player_data ALTER COLUMN money_units RENAME TO money");
+            }
+
+            // Balances are now in the configured scale, recorded so later scale changes can rescale them
+            stmt.execute("MERGE INTO database_settings (name, setting_value) VALUES ('money_scale', '" + scale + "')");
+        }
+    }
+
+    /**
+     * Converts every player UUID column from VARCHAR(36) to H2's 16 byte UUID
+     * type. Foreign keys on player_data.uuid pin the column type on both sides,
+     * so they are dropped first and recreated once every column is converted.
+     */
+    private static void convertUuidColumns(Connection conn) throws SQLException {
+        List<String[]> foreignKeys = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement("""
+                SELECT tc.TABLE_NAME, tc.CONSTRAINT_NAME
+                FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS tc
+                JOIN INFORMATION_SCHEMA.KEY_COLUMN_USAGE kcu
+                    ON kcu.CONSTRAINT_SCHEMA = tc.CONSTRAINT_SCHEMA AND kcu.CONSTRAINT_NAME = tc.CONSTRAINT_NAME
+                WHERE tc.CONSTRAINT_TYPE = 'FOREIGN KEY' AND kcu.COLUMN_NAME = 'UUID'
+                    AND tc.TABLE_NAME IN ('KNOWN_IPS', 'JAILED_PLAYERS')
+            """)) {
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                foreignKeys.add(new String[] {rs.getString(1), rs.getString(2)});
+            }
+        }
+
+        try (Statement stmt = conn.createStatement()) {
+            for (String[] foreignKey : foreignKeys) {
+                stmt.execute("ALTER TABLE " + foreignKey[0] + " DROP CONSTRAINT IF EXISTS \"" + foreignKey[1] + "\"");
+            }
+
+            for (String[] column : UUID_COLUMNS) {
+                String columnType = getColumnType(conn, column[0], column[1]);
+                if (columnType != null && !"UUID".equalsIgnoreCase(columnType)) {
+                    DebugLogger.debug("Database", "Converting {}.{} from {} to UUID", column[0], column[1], columnType);
+                    stmt.execute("ALTER TABLE " + column[0] + " ALTER COLUMN " + column[1] + " SET DATA TYPE UUID");
+                }
+            }
+
+            stmt.execute("""
+                ALTER TABLE known_ips ADD CONSTRAINT IF NOT EXISTS fk_known_ips_player
+                FOREIGN KEY (uuid) REFERENCES player_data(uuid) ON DELETE CASCADE
+            """);
+            stmt.execute("""
+                ALTER TABLE jailed_players ADD CONSTRAINT IF NOT EXISTS fk_jailed_players_player
+                FOREIGN KEY (uuid) REFERENCES player_data(uuid) ON DELETE CASCADE
+            """);
+        }
+    }
+
+    /**
+     * Gets the SQL type of a column.
+     *
+     * @return The type name, or null if the table or column doesn't exist
+     */
+    @Nullable
+    private static String getColumnType(Connection conn, String table, String column) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("""
+                SELECT DATA_TYPE FROM INFORMATION_SCHEMA.COLUMNS
+                WHERE TABLE_NAME = ? AND COLUMN_NAME = ?
+            """)) {
+            stmt.setString(1, table.toUpperCase(Locale.ROOT));
+            stmt.setString(2, column.toUpperCase(Locale.ROOT));
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? rs.getString(1) : null;
+        }
+    }
+
+    @FunctionalInterface
+    private interface MigrationStep {
+        void apply(Connection conn) throws SQLException;
+    }
+
+    private static final class Migration {
+        private final int version;
+        private final String description;
+        private final MigrationStep step;
+        private final List<String> statements;
+        private final long checksum;
+
+        private Migration(int version, String description, @Nullable MigrationStep step, String... statements) {
+            this.version = version;
+            this.description = description;
+            this.step = step;
+            this.statements = List.of(statements);
+
+            // Code steps can't be hashed, their description stands in for them
+            CRC32 crc = new CRC32();
+            crc.update(description.getBytes(StandardCharsets.UTF_8));
+            for (String sql : this.statements) {
+                crc.update(sql.strip().getBytes(StandardCharsets.UTF_8));
+            }
+            this.checksum = crc.getValue();
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package amg.plugins.aMGCore.managers;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+
+/**
+ * Sidecar index of one audit log segment, stored next to it as
+ * {@code <segment>.idx}. Holds the start offset of every line, the time
+ * range and the offsets of the lines per player and per chunk, so searches
+ * only read the lines that can match.
+ */
+final class SegmentIndex {
+    private static final int MAGIC = 0x414D4749; // "AMGI"
+    private static final int VERSION = 1;
+    static final String EXTENSION = ".idx";
+
+    private final int indexedLength;
+    private final long minTime;
+    private final long maxTime;
+    private final int[] lines;
+    private final Map<String, int[]> players;
+    private final Map<String, Map<Long, int[]>> chunks;
+
+    private SegmentIndex(int indexedLength, long minTime, long maxTime, int[] lines,
+                         Map<String, int[]> players, Map<String, Map<Long, int[]>> chunks) {
+        this.indexedLength = indexedLength;
+        this.minTime = minTime;
+        this.maxTime = maxTime;
+        this.lines = lines;
+        this.players = players;
+        this.chunks = chunks;
+    }
+
+    /**
+     * Gets the number of bytes of the segment this index covers. Lines past
+     * it were appended after the index was built.
+     */
+    int getIndexedLength() {
+        return indexedLength;
+    }
+
+    long getMinTime() {
+        return minTime;
+    }
+
+    long getMaxTime() {
+        return maxTime;
+    }
+
+    boolean isEmpty() {
+        return lines.length == 0;
+    }
+
+    /**
+     * Gets the offsets of the lines that can match a query, in file order.
+     *
+     * @param query The query
+     * @return The line offsets
+     */
+    @NotNull
+    int[] getCandidates(@NotNull LogQuery query) {
+        int[] candidates = null;
+        if (query.getPlayer() != null) {
+            candidates = players.getOrDefault(query.getPlayer(), new int[0]);
+        }
+        if (query.hasLocation()) {
+            int[] nearby = getNearby(query);
+            candidates = candidates == null ? nearby : intersect(candidates, nearby);
+        }
+        return candidates != null ? candidates : lines;
+    }
+
+    private int[] getNearby(LogQuery query) {
+        Map<Long, int[]> worldChunks = null;
+        for (Map.Entry<String, Map<Long, int[]>> entry : chunks.entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(query.getWorld())) {
+                worldChunks = entry.getValue();
+                break;
+            }
+        }
+        if (worldChunks == null) {
+            return new int[0];
+        }
+
+        int minChunkX = (query.getX() - query.getRadius()) >> 4;
+        int maxChunkX = (query.getX() + query.getRadius()) >> 4;
+        int minChunkZ = (query.getZ() - query.getRadius()) >> 4;
+        int maxChunkZ = (query.getZ() + query.getRadius()) >> 4;
+        int[] result = new int[0];
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                int[] offsets = worldChunks.get(chunkKey(chunkX, chunkZ));
+                if (offsets != null) {
+                    result = union(result, offsets);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Builds the index of every complete line in a segment.
+     *
+     * @param data The segment contents
+     * @param length The number of bytes to index, must end after a newline
+     * @return The index
+     */
+    @NotNull
+    static SegmentIndex build(@NotNull ByteBuffer data, int length) {
+        OffsetList lines = new OffsetList();
+        Map<String, OffsetList> players = new HashMap<>();
+        Map<String, Map<Long, OffsetList>> chunks = new HashMap<>();
+        long minTime = Long.MAX_VALUE;
+        long maxTime = Long.MIN_VALUE;
+
+        int start = 0;
+        while (start < length) {
+            int end = LogSearch.findLineEnd(data, start, length);
+            if (end < 0) {
+                break;
+            }
+            String line = LogSearch.decode(data, start, end);
+            Map<String, String> fields = LogSearch.parseFields(line);
+            lines.add(start);
+
+            long time = LogSearch.getTime(fields);
+            minTime = Math.min(minTime, time);
+            maxTime = Math.max(maxTime, time);
+
+            String player = fields.get("player");
+            if (player != null) {
+                players.computeIfAbsent(player.toLowerCase(Locale.ROOT), key -> new OffsetList()).add(start);
+            }
+
+            Matcher matcher = LogSearch.LOCATION.matcher(line);
+            long lastKey = Long.MIN_VALUE;
+            String lastWorld = null;
+            while (matcher.find()) {
+                String world = matcher.group(1);
+                long key = chunkKey(Integer.parseInt(matcher.group(2)) >> 4, Integer.parseInt(matcher.group(4)) >> 4);
+                // "From" and "to" of a transfer are often the same chunk
+                if (key != lastKey || !world.equals(lastWorld)) {
+                    chunks.computeIfAbsent(world, w -> new HashMap<>()).computeIfAbsent(key, k -> new OffsetList()).addUnique(start);
+                    lastKey = key;
+                    lastWorld = world;
+                }
+            }
+            start = end + 1;
+        }
+
+        Map<String, int[]> playerOffsets = new HashMap<>();
+        players.forEach((player, offsets) -> playerOffsets.put(player, offsets.toArray()));
+        Map<String, Map<Long, int[]>> chunkOffsets = new HashMap<>();
+        chunks.forEach((world, worldChunks) -> {
+            Map<Long, int[]> offsets = new HashMap<>();
+            worldChunks.forEach((key, list) -> offsets.put(key, list.toArray()));
+            chunkOffsets.put(world, offsets);
+        });
+        return new SegmentIndex(start, minTime, maxTime, lines.toArray(), playerOffsets, chunkOffsets);
+    }
+
+    /**
+     * Loads the sidecar index of a segment.
+     *
+     * @param segment The segment file
+     * @return The index, or null if there is none or it can't be read
+     */
+    @Nullable
+    static SegmentIndex load(@NotNull File segment) {
+        File file = getFile(segment);
+        if (!file.isFile()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            int indexedLength = in.readInt();
+            long minTime = in.readLong();
+            long maxTime = in.readLong();
+            int[] lines = readOffsets(in);
+
+            int playerCount = in.readInt();
+            Map<String, int[]> players = new HashMap<>(playerCount * 2);
+            for (int i = 0; i < playerCount; i++) {
+                players.put(in.readUTF(), readOffsets(in));
+            }
+
+            int worldCount = in.readInt();
+            Map<String, Map<Long, int[]>> chunks = new HashMap<>(worldCount * 2);
+            for (int i = 0; i < worldCount; i++) {
+                String world = in.readUTF();
+                int chunkCount = in.readInt();
+                Map<Long, int[]> worldChunks = new HashMap<>(chunkCount * 2);
+                for (int j = 0; j < chunkCount; j++) {
+                    worldChunks.put(in.readLong(), readOffsets(in));
+                }
+                chunks.put(world, worldChunks);
+            }
+            return new SegmentIndex(indexedLength, minTime, maxTime, lines, players, chunks);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes the index next to its segment, replacing an older one.
+     *
+     * @param segment The segment file
+     * @throws IOException If the index can't be written
+     */
+    void save(@NotNull File segment) throws IOException {
+        File file = getFile(segment);
+        File temp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(indexedLength);
+            out.writeLong(minTime);
+            out.writeLong(maxTime);
+            writeOffsets(out, lines);
+
+            out.writeInt(players.size());
+            for (Map.Entry<String, int[]> entry : players.entrySet()) {
+                out.writeUTF(entry.getKey());
+                writeOffsets(out, entry.getValue());
+            }
+
+            out.writeInt(chunks.size());
+            for (Map.Entry<String, Map<Long, int[]>> world : chunks.entrySet()) {
+                out.writeUTF(world.getKey());
+                out.writeInt(world.getValue().size());
+                for (Map.Entry<Long, int[]> chunk : world.getValue().entrySet()) {
+                    out.writeLong(chunk.getKey());
+                    writeOffsets(out, chunk.getValue());
+                }
+            }
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @NotNull
+    static File getFile(@NotNull File segment) {
+        return new File(segment.getPath() + EXTENSION);
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    // Offsets are ascending, so they are stored as deltas
+    private static void writeOffsets(DataOutputStream out, int[] offsets) throws IOException {
+        out.writeInt(offsets.length);
+        int previous = 0;
+        for (int offset : offsets) {
+            out.writeInt(offset - previous);
+            previous = offset;
+        }
+    }
+
+    private static int[] readOffsets(DataInputStream in) throws IOException {
+        int[] offsets = new int[in.readInt()];
+        int previous = 0;
+        for (int i = 0; i < offsets.length; i++) {
+            previous += in.readInt();
+            offsets[i] = previous;
+        }
+        return offsets;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    private static int[] union(int[] a, int[] b) {
+        int[] result = new int[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length || j < b.length) {
+            int next;
+            if (j >= b.length || (i < a.length && a[i] < b[j])) {
+                next = a[i++];
+            } else if (i >= a.length || b[j] < a[i]) {
+                next = b[j++];
+            } else {
+                next = a[i++];
+                j++;
+            }
+            result[n++] = next;
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    private static final class OffsetList {
+        private int[] values = new int[8];
+        private int size;
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        private void addUnique(int value) {
+            if (size == 0 || values[size - 1] != value) {
+                add(value);
+            }
+        }
+
+        private int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package amg.plugins.aMGCore.managers;
+
+import amg.plugins.aMGCore.utils.LatencyHistogram;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and row counts of one named statement. Pool wait is kept apart from
+ * execution time, so a slow statement and a starved pool don't look the same.
+ */
+public final class StatementStats {
+    private final String name;
+    private final LatencyHistogram executionTime = new LatencyHistogram();
+    private final LatencyHistogram poolWait = new LatencyHistogram();
+    private final LongAdder rowsAffected = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    StatementStats(@NotNull String name) {
+        this.name = name;
+    }
+
+    void recordExecution(long nanos) {
+        executionTime.record(nanos);
+    }
+
+    void recordPoolWait(long nanos) {
+        poolWait.record(nanos);
+    }
+
+    void recordRows(long rows) {
+        if (rows > 0) {
+            rowsAffected.add(rows);
+        }
+    }
+
+    void recordError() {
+        errors.increment();
+    }
+
+    void reset() {
+        executionTime.reset();
+        poolWait.reset();
+        rowsAffected.reset();
+        errors.reset();
+    }
+
+    @NotNull
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the time spent executing the statement, from prepare to the last row read.
+     */
+    @NotNull
+    public LatencyHistogram.Snapshot getExecutionTime() {
+        return executionTime.snapshot();
+    }
+
+    /**
+     * Gets the time spent waiting for a pooled connection. Only recorded when
+     * the statement borrowed its own connection.
+     */
+    @NotNull
+    public LatencyHistogram.Snapshot getPoolWait() {
+        return poolWait.snapshot();
+    }
+
+    public long getRowsAffected() {
+        return rowsAffected.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+}
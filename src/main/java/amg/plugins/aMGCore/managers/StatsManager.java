@@ -1,6 +1,7 @@
 package amg.plugins.aMGCore.managers;
 
 import amg.plugins.aMGCore.AMGCore;
+import amg.plugins.aMGCore.models.PlayerSnapshot;
 import amg.plugins.aMGCore.utils.DebugLogger;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
@@ -13,27 +14,31 @@ import org.bukkit.event.player.PlayerQuitEvent;
 import org.jetbrains.annotations.NotNull;
 
 import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class StatsManager implements Listener {
+    private final AMGCore plugin;
     private final DatabaseManager databaseManager;
     private final Map<UUID, PlayerStats> playerStats;
     private final Map<UUID, Instant> sessionStart;
 
     public StatsManager(AMGCore plugin, DatabaseManager databaseManager) {
+        this.plugin = plugin;
         this.databaseManager = databaseManager;
         this.playerStats = new ConcurrentHashMap<>();
         this.sessionStart = new ConcurrentHashMap<>();
 
-        initializeDatabase();
-        loadPlayerStats();
+        // Stats of joining players come from the prelogin snapshot, only online players need loading here
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            loadPlayerStats(player.getUniqueId());
+        }
 
         Bukkit.getPluginManager().registerEvents(this, plugin);
 
@@ -41,33 +46,11 @@ public class StatsManager implements Listener {
         Bukkit.getScheduler().runTaskTimer(plugin, this::saveAllPlayerStats, 6000L, 6000L);
     }
 
-    private void initializeDatabase() {
-        try (Connection conn = databaseManager.getConnection()) {
-            conn.createStatement().execute("""
-                CREATE TABLE IF NOT EXISTS player_stats (
-                    player_uuid VARCHAR(36) PRIMARY KEY,
-                    first_join TIMESTAMP,
-                    last_seen TIMESTAMP,
-                    playtime_seconds BIGINT,
-                    deaths INT,
-                    kills INT,
-                    pvp_kills INT,
-                    mob_kills INT
-                )
-            """);
-        } catch (SQLException e) {
-            DebugLogger.severe("Failed to initialize player stats table", "StatsManager", e);
-        }
-    }
-
-    private void loadPlayerStats() {
-        try (Connection conn = databaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement("SELECT * FROM player_stats")) {
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                UUID playerUuid = UUID.fromString(rs.getString("player_uuid"));
-                PlayerStats stats = new PlayerStats(
+    private void loadPlayerStats(UUID playerUuid) {
+        try {
+            PlayerStats stats = databaseManager.query("player_stats.load", "SELECT * FROM player_stats WHERE player_uuid = ?",
+                stmt -> stmt.setObject(1, playerUuid),
+                rs -> rs.next() ? new PlayerStats(
                     rs.getTimestamp("first_join").toInstant(),
                     rs.getTimestamp("last_seen").toInstant(),
                     Duration.ofSeconds(rs.getLong("playtime_seconds")),
@@ -75,11 +58,12 @@ public class StatsManager implements Listener {
                     rs.getInt("kills"),
                     rs.getInt("pvp_kills"),
                     rs.getInt("mob_kills")
-                );
+                ) : null);
+            if (stats != null) {
                 playerStats.put(playerUuid, stats);
             }
         } catch (SQLException e) {
-            DebugLogger.severe("Failed to load player stats", "StatsManager", e);
+            DebugLogger.severe("StatsManager", "Failed to load player stats for " + playerUuid, e);
         }
     }
 
@@ -88,18 +72,17 @@ public class StatsManager implements Listener {
             updatePlaytime(player.getUniqueId());
         }
 
-        try (Connection conn = databaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement("""
-                 MERGE INTO player_stats (
-                     player_uuid, first_join, last_seen, playtime_seconds,
-                     deaths, kills, pvp_kills, mob_kills
-                 ) VALUES (?, ?, ?, ?, ?, ?, ?, ?)
-             """)) {
-            for (Map.Entry<UUID, PlayerStats> entry : playerStats.entrySet()) {
-                UUID uuid = entry.getKey();
-                PlayerStats stats = entry.getValue();
+        if (playerStats.isEmpty()) {
+            return;
+        }
 
-                stmt.setString(1, uuid.toString());
+        List<DatabaseManager.StatementBinder> binders = new ArrayList<>();
+        for (Map.Entry<UUID, PlayerStats> entry : playerStats.entrySet()) {
+            UUID uuid = entry.getKey();
+            PlayerStats stats = entry.getValue();
+
+            binders.add(stmt -> {
+                stmt.setObject(1, uuid);
                 stmt.setTimestamp(2, java.sql.Timestamp.from(stats.firstJoin));
                 stmt.setTimestamp(3, java.sql.Timestamp.from(stats.lastSeen));
                 stmt.setLong(4, stats.playtime.getSeconds());
@@ -107,8 +90,16 @@ public class StatsManager implements Listener {
                 stmt.setInt(6, stats.kills);
                 stmt.setInt(7, stats.pvpKills);
                 stmt.setInt(8, stats.mobKills);
-                stmt.executeUpdate();
-            }
+            });
+        }
+
+        try (Connection conn = databaseManager.getConnection()) {
+            databaseManager.batch(conn, "player_stats.save_all", """
+                MERGE INTO player_stats (
+                    player_uuid, first_join, last_seen, playtime_seconds,
+                    deaths, kills, pvp_kills, mob_kills
+                ) VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """, binders);
         } catch (SQLException e) {
             DebugLogger.severe("Failed to save player stats", "StatsManager", e);
         }
@@ -155,6 +146,26 @@ public class StatsManager implements Listener {
         UUID uuid = player.getUniqueId();
         Instant now = Instant.now();
 
+        if (!playerStats.containsKey(uuid)) {
+            PlayerSnapshot snapshot = plugin.getPlayerDataManager().getSnapshot(uuid);
+            if (snapshot != null && snapshot.isLoaded(PlayerSnapshot.Section.STATS)) {
+                PlayerSnapshot.Stats stored = snapshot.getStats();
+                if (stored != null) {
+                    playerStats.put(uuid, new PlayerStats(
+                        stored.getFirstJoin(),
+                        stored.getLastSeen(),
+                        Duration.ofSeconds(stored.getPlaytimeSeconds()),
+                        stored.getDeaths(),
+                        stored.getKills(),
+                        stored.getPvpKills(),
+                        stored.getMobKills()
+                    ));
+                }
+            } else {
+                loadPlayerStats(uuid);
+            }
+        }
+
         PlayerStats stats = playerStats.get(uuid);
         if (stats == null) {
             stats = new PlayerStats(now, now, Duration.ZERO, 0, 0, 0, 0);
@@ -1,6 +1,8 @@
 package amg.plugins.aMGCore.managers;
 
 import amg.plugins.aMGCore.AMGCore;
+import amg.plugins.aMGCore.models.LocationData;
+import amg.plugins.aMGCore.models.PlayerSnapshot;
 import amg.plugins.aMGCore.utils.DebugLogger;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
@@ -9,6 +11,7 @@ import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.event.entity.PlayerDeathEvent;
 import org.jetbrains.annotations.NotNull;
@@ -42,53 +45,6 @@ public class TeleportManager implements Listener {
         this.lastLocations = new ConcurrentHashMap<>();
         this.lastUsedHomes = new ConcurrentHashMap<>();
 
-        // Initialize database tables
-        try (Connection conn = databaseManager.getConnection()) {
-            // Create player_homes table
-            try (Statement stmt = conn.createStatement()) {
-                stmt.execute("""
-                    CREATE TABLE IF NOT EXISTS player_homes (
-                        uuid VARCHAR(36) NOT NULL,
-                        name VARCHAR(50) NOT NULL,
-                        world VARCHAR(50) NOT NULL,
-                        x DOUBLE NOT NULL,
-                        y DOUBLE NOT NULL,
-                        z DOUBLE NOT NULL,
-                        yaw FLOAT NOT NULL,
-                        pitch FLOAT NOT NULL,
-                        PRIMARY KEY (uuid, name)
-                    )
-                """);
-            }
-
-            // Create last_used_homes table
-            try (Statement stmt = conn.createStatement()) {
-                stmt.execute("""
-                    CREATE TABLE IF NOT EXISTS last_used_homes (
-                        uuid VARCHAR(36) PRIMARY KEY,
-                        home_name VARCHAR(50) NOT NULL
-                    )
-                """);
-            }
-
-            // Create warps table
-            try (Statement stmt = conn.createStatement()) {
-                stmt.execute("""
-                    CREATE TABLE IF NOT EXISTS warps (
-                        name VARCHAR(50) PRIMARY KEY,
-                        world VARCHAR(50) NOT NULL,
-                        x DOUBLE NOT NULL,
-                        y DOUBLE NOT NULL,
-                        z DOUBLE NOT NULL,
-                        yaw FLOAT NOT NULL,
-                        pitch FLOAT NOT NULL
-                    )
-                """);
-            }
-        } catch (SQLException e) {
-            DebugLogger.severe("TeleportManager", "Failed to initialize database tables", e);
-        }
-
         // Load warps and spawn location
         loadWarps();
         loadSpawnLocation();
@@ -101,9 +57,8 @@ public class TeleportManager implements Listener {
     }
 
     private void loadWarps() {
-        try (Connection conn = databaseManager.getConnection()) {
-            try (Statement stmt = conn.createStatement()) {
-                ResultSet rs = stmt.executeQuery("SELECT * FROM warps");
+        try {
+            databaseManager.query("warps.load_all", "SELECT * FROM warps", null, rs -> {
                 while (rs.next()) {
                     String name = rs.getString("name");
                     World world = Bukkit.getWorld(rs.getString("world"));
@@ -119,34 +74,38 @@ public class TeleportManager implements Listener {
                         warps.put(name, loc);
                     }
                 }
-            }
+                return null;
+            });
         } catch (SQLException e) {
             DebugLogger.severe("TeleportManager", localeManager.getMessage("teleport.error.load_warps"), e);
         }
     }
 
     private void loadSpawnLocation() {
-        try (Connection conn = databaseManager.getConnection()) {
-            try (Statement stmt = conn.createStatement()) {
-                ResultSet rs = stmt.executeQuery("SELECT * FROM spawn_location WHERE id = 1");
-                if (rs.next()) {
-                    World world = Bukkit.getWorld(rs.getString("world"));
-                    if (world != null) {
-                        spawnLocation = new Location(
-                            world,
-                            rs.getDouble("x"),
-                            rs.getDouble("y"),
-                            rs.getDouble("z"),
-                            rs.getFloat("yaw"),
-                            rs.getFloat("pitch")
-                        );
-                    }
-                } else {
-                    // Use default world spawn if no spawn is set
-                    World defaultWorld = Bukkit.getWorlds().get(0);
-                    spawnLocation = defaultWorld.getSpawnLocation();
-                    setSpawnLocation(spawnLocation);
+        try {
+            boolean found = databaseManager.query("spawn_location.load", "SELECT * FROM spawn_location WHERE id = 1", null, rs -> {
+                if (!rs.next()) {
+                    return false;
+                }
+                World world = Bukkit.getWorld(rs.getString("world"));
+                if (world != null) {
+                    spawnLocation = new Location(
+                        world,
+                        rs.getDouble("x"),
+                        rs.getDouble("y"),
+                        rs.getDouble("z"),
+                        rs.getFloat("yaw"),
+                        rs.getFloat("pitch")
+                    );
                 }
+                return true;
+            });
+            
+            if (!found) {
+                // Use default world spawn if no spawn is set
+                World defaultWorld = Bukkit.getWorlds().get(0);
+                spawnLocation = defaultWorld.getSpawnLocation();
+                setSpawnLocation(spawnLocation);
             }
         } catch (SQLException e) {
             DebugLogger.severe("TeleportManager", localeManager.getMessage("teleport.error.load_spawn"), e);
@@ -178,11 +137,9 @@ public class TeleportManager implements Listener {
     public void loadPlayerHomes(@NotNull UUID playerUuid) {
         try (Connection conn = databaseManager.getConnection()) {
             // Load homes
-            try (PreparedStatement stmt = conn.prepareStatement("SELECT * FROM player_homes WHERE uuid = ?")) {
-                stmt.setString(1, playerUuid.toString());
-                ResultSet rs = stmt.executeQuery();
-                
-                Map<String, Location> playerHomes = new HashMap<>();
+            Map<String, Location> playerHomes = new HashMap<>();
+            databaseManager.query(conn, "player_homes.load", "SELECT * FROM player_homes WHERE uuid = ?",
+                stmt -> stmt.setObject(1, playerUuid), rs -> {
                 while (rs.next()) {
                     String name = rs.getString("name");
                     World world = Bukkit.getWorld(rs.getString("world"));
@@ -198,22 +155,42 @@ public class TeleportManager implements Listener {
                         playerHomes.put(name, loc);
                     }
                 }
-                homes.put(playerUuid, playerHomes);
-            }
+                return null;
+            });
+            homes.put(playerUuid, playerHomes);
 
             // Load last used home
-            try (PreparedStatement stmt = conn.prepareStatement("SELECT home_name FROM last_used_homes WHERE uuid = ?")) {
-                stmt.setString(1, playerUuid.toString());
-                ResultSet rs = stmt.executeQuery();
-                if (rs.next()) {
-                    lastUsedHomes.put(playerUuid, rs.getString("home_name"));
-                }
+            String lastUsedHome = databaseManager.query(conn, "last_used_homes.load", "SELECT home_name FROM last_used_homes WHERE uuid = ?",
+                stmt -> stmt.setObject(1, playerUuid), rs -> rs.next() ? rs.getString("home_name") : null);
+            if (lastUsedHome != null) {
+                lastUsedHomes.put(playerUuid, lastUsedHome);
             }
         } catch (SQLException e) {
             DebugLogger.severe("TeleportManager", localeManager.getMessage("teleport.error.load_homes", playerUuid), e);
         }
     }
 
+    /**
+     * Fills the home cache from a prelogin snapshot instead of querying the database.
+     * 
+     * @param playerUuid The player's UUID
+     * @param snapshot The snapshot loaded during prelogin
+     */
+    public void loadPlayerHomes(@NotNull UUID playerUuid, @NotNull PlayerSnapshot snapshot) {
+        Map<String, Location> playerHomes = new HashMap<>();
+        for (Map.Entry<String, LocationData> entry : snapshot.getHomes().entrySet()) {
+            Location loc = entry.getValue().toLocation();
+            if (loc != null) {
+                playerHomes.put(entry.getKey(), loc);
+            }
+        }
+        homes.put(playerUuid, playerHomes);
+        
+        if (snapshot.getLastUsedHome() != null) {
+            lastUsedHomes.put(playerUuid, snapshot.getLastUsedHome());
+        }
+    }
+
     public void unloadPlayerHomes(@NotNull UUID playerUuid) {
         homes.remove(playerUuid);
         lastUsedHomes.remove(playerUuid);
@@ -227,28 +204,23 @@ public class TeleportManager implements Listener {
             return false;
         }
 
-        try (Connection conn = databaseManager.getConnection()) {
-            try (PreparedStatement stmt = conn.prepareStatement("""
-                MERGE INTO player_homes (uuid, name, world, x, y, z, yaw, pitch)
-                VALUES (?, ?, ?, ?, ?, ?, ?, ?)
-            """)) {
-                stmt.setString(1, playerUuid.toString());
-                stmt.setString(2, name);
-                stmt.setString(3, location.getWorld().getName());
-                stmt.setDouble(4, location.getX());
-                stmt.setDouble(5, location.getY());
-                stmt.setDouble(6, location.getZ());
-                stmt.setFloat(7, location.getYaw());
-                stmt.setFloat(8, location.getPitch());
-                stmt.executeUpdate();
-                
-                playerHomes.put(name, location.clone());
-                return true;
-            }
-        } catch (SQLException e) {
-            DebugLogger.severe("TeleportManager", localeManager.getMessage("teleport.error.set_home", player.getName()), e);
-            return false;
-        }
+        Location home = location.clone();
+        databaseManager.queueWrite("player_homes:" + playerUuid + ":" + name, """
+            MERGE INTO player_homes (uuid, name, world, x, y, z, yaw, pitch)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+        """, stmt -> {
+            stmt.setObject(1, playerUuid);
+            stmt.setString(2, name);
+            stmt.setString(3, home.getWorld().getName());
+            stmt.setDouble(4, home.getX());
+            stmt.setDouble(5, home.getY());
+            stmt.setDouble(6, home.getZ());
+            stmt.setFloat(7, home.getYaw());
+            stmt.setFloat(8, home.getPitch());
+        });
+        
+        playerHomes.put(name, home);
+        return true;
     }
 
     public boolean deleteHome(@NotNull Player player, @NotNull String name) {
@@ -258,24 +230,15 @@ public class TeleportManager implements Listener {
             return false;
         }
 
-        try (Connection conn = databaseManager.getConnection()) {
-            try (PreparedStatement stmt = conn.prepareStatement(
-                "DELETE FROM player_homes WHERE uuid = ? AND name = ?"
-            )) {
-                stmt.setString(1, playerUuid.toString());
+        databaseManager.queueWrite("player_homes:" + playerUuid + ":" + name,
+            "DELETE FROM player_homes WHERE uuid = ? AND name = ?",
+            stmt -> {
+                stmt.setObject(1, playerUuid);
                 stmt.setString(2, name);
-                int affected = stmt.executeUpdate();
-                
-                if (affected > 0) {
-                    playerHomes.remove(name);
-                    return true;
-                }
-                return false;
-            }
-        } catch (SQLException e) {
-            DebugLogger.severe("TeleportManager", localeManager.getMessage("teleport.error.delete_home", player.getName()), e);
-            return false;
-        }
+            });
+        
+        playerHomes.remove(name);
+        return true;
     }
 
     // Update getHome to save last used home to database
@@ -289,18 +252,14 @@ public class TeleportManager implements Listener {
         if (loc != null) {
             lastUsedHomes.put(player.getUniqueId(), name);
             // Save last used home to database
-            try (Connection conn = databaseManager.getConnection()) {
-                try (PreparedStatement stmt = conn.prepareStatement("""
-                    MERGE INTO last_used_homes (uuid, home_name)
-                    VALUES (?, ?)
-                """)) {
-                    stmt.setString(1, player.getUniqueId().toString());
-                    stmt.setString(2, name);
-                    stmt.executeUpdate();
-                }
-            } catch (SQLException e) {
-                DebugLogger.warning("TeleportManager", "Failed to save last used home", e);
-            }
+            UUID playerUuid = player.getUniqueId();
+            databaseManager.queueWrite("last_used_homes:" + playerUuid, """
+                MERGE INTO last_used_homes (uuid, home_name)
+                VALUES (?, ?)
+            """, stmt -> {
+                stmt.setObject(1, playerUuid);
+                stmt.setString(2, name);
+            });
             return loc.clone();
         }
         return null;
@@ -313,11 +272,11 @@ public class TeleportManager implements Listener {
     }
 
     public boolean setWarp(@NotNull String name, @NotNull Location location) {
-        try (Connection conn = databaseManager.getConnection()) {
-            try (PreparedStatement stmt = conn.prepareStatement("""
+        try {
+            databaseManager.update("warps.save", """
                 MERGE INTO warps (name, world, x, y, z, yaw, pitch)
                 VALUES (?, ?, ?, ?, ?, ?, ?)
-            """)) {
+            """, stmt -> {
                 stmt.setString(1, name);
                 stmt.setString(2, location.getWorld().getName());
                 stmt.setDouble(3, location.getX());
@@ -325,11 +284,10 @@ public class TeleportManager implements Listener {
                 stmt.setDouble(5, location.getZ());
                 stmt.setFloat(6, location.getYaw());
                 stmt.setFloat(7, location.getPitch());
-                stmt.executeUpdate();
-                
-                warps.put(name, location.clone());
-                return true;
-            }
+            });
+            
+            warps.put(name, location.clone());
+            return true;
         } catch (SQLException e) {
             DebugLogger.severe("TeleportManager", localeManager.getMessage("teleport.error.set_warp", name), e);
             return false;
@@ -341,17 +299,15 @@ public class TeleportManager implements Listener {
             return false;
         }
 
-        try (Connection conn = databaseManager.getConnection()) {
-            try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM warps WHERE name = ?")) {
-                stmt.setString(1, name);
-                int affected = stmt.executeUpdate();
-                
-                if (affected > 0) {
-                    warps.remove(name);
-                    return true;
-                }
-                return false;
+        try {
+            int affected = databaseManager.update("warps.delete", "DELETE FROM warps WHERE name = ?",
+                stmt -> stmt.setString(1, name));
+            
+            if (affected > 0) {
+                warps.remove(name);
+                return true;
             }
+            return false;
         } catch (SQLException e) {
             DebugLogger.severe("TeleportManager", localeManager.getMessage("teleport.error.delete_warp", name), e);
             return false;
@@ -393,21 +349,20 @@ public class TeleportManager implements Listener {
     }
 
     public void setSpawnLocation(@NotNull Location location) {
-        try (Connection conn = databaseManager.getConnection()) {
-            try (PreparedStatement stmt = conn.prepareStatement("""
+        try {
+            databaseManager.update("spawn_location.save", """
                 MERGE INTO spawn_location (id, world, x, y, z, yaw, pitch, updated_at)
                 VALUES (1, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP)
-            """)) {
+            """, stmt -> {
                 stmt.setString(1, location.getWorld().getName());
                 stmt.setDouble(2, location.getX());
                 stmt.setDouble(3, location.getY());
                 stmt.setDouble(4, location.getZ());
                 stmt.setFloat(5, location.getYaw());
                 stmt.setFloat(6, location.getPitch());
-                stmt.executeUpdate();
-                
-                spawnLocation = location.clone();
-            }
+            });
+            
+            spawnLocation = location.clone();
         } catch (SQLException e) {
             DebugLogger.severe("TeleportManager", localeManager.getMessage("teleport.error.set_spawn"), e);
         }
@@ -495,6 +450,17 @@ public class TeleportManager implements Listener {
         DebugLogger.debug("TeleportManager", "Recorded death location for player " + player.getName());
     }
 
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        UUID playerUuid = event.getPlayer().getUniqueId();
+        PlayerSnapshot snapshot = plugin.getPlayerDataManager().getSnapshot(playerUuid);
+        if (snapshot != null && snapshot.isLoaded(PlayerSnapshot.Section.HOMES)) {
+            loadPlayerHomes(playerUuid, snapshot);
+        } else {
+            Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> loadPlayerHomes(playerUuid));
+        }
+    }
+
     @EventHandler(priority = EventPriority.MONITOR)
     public void onPlayerQuit(PlayerQuitEvent event) {
         Player player = event.getPlayer();
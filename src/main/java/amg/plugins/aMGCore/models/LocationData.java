@@ -28,6 +28,15 @@ public final class LocationData {
         this.pitch = loc.getPitch();
     }
 
+    public LocationData(@NotNull String world, double x, double y, double z, float yaw, float pitch) {
+        this.world = Objects.requireNonNull(world, "World cannot be null");
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.yaw = yaw;
+        this.pitch = pitch;
+    }
+
     @NotNull
     public String getWorld() {
         return world;
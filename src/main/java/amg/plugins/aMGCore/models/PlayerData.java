@@ -7,52 +7,63 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.*;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
 import java.util.logging.Logger;
 
 /**
  * Represents persistent player data that can be saved and loaded.
  * This class is serializable to support saving to disk.
+ * <p>
+ * The balance is a fixed-point long in minor units, updated with CAS so reads
+ * never block. Job, location and IPs change rarely and are guarded by a
+ * StampedLock, getters use optimistic reads.
  */
 public final class PlayerData implements Serializable {
-    private static final long serialVersionUID = 1L;
+    private static final long serialVersionUID = 3L;
     private static final Logger LOGGER = Logger.getLogger(PlayerData.class.getName());
     private static final String DEFAULT_JOB = "unemployed";
-    private static final double DEFAULT_MONEY = 0.0;
     private static volatile boolean DEBUG_ENABLED = false;
-    private static final Object LOCK_INIT = new Object();
 
-    private final String uuid;
+    private static volatile long moneyScale = 100L;
+
+    private static final VarHandle BALANCE;
+    private static final VarHandle DIRTY_FIELDS;
+    private static final VarHandle GENERATION;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            BALANCE = lookup.findVarHandle(PlayerData.class, "balance", long.class);
+            DIRTY_FIELDS = lookup.findVarHandle(PlayerData.class, "dirtyFields", int.class);
+            GENERATION = lookup.findVarHandle(PlayerData.class, "generation", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    // Dirty field bits, see takeChanges()
+    public static final int DIRTY_MONEY = 1;
+    public static final int DIRTY_JOB = 1 << 1;
+    public static final int DIRTY_LOCATION = 1 << 2;
+    public static final int DIRTY_IPS = 1 << 3;
+
+    private final UUID uuid;
     private final String name;
-    private double money;
+    private volatile long balance;
     private String job;
     private LocationData lastLocation;
     private final Set<String> knownIps;
     
     // Transient fields that won't be serialized
     private transient volatile Runnable onDataChanged;
-    private transient volatile ReentrantLock lock;
+    private transient StampedLock lock;
     private transient volatile boolean requiresImmediateSave;
-
-    /**
-     * Gets the lock for thread-safe operations.
-     * This method ensures the lock is never null.
-     * 
-     * @return the lock
-     */
-    private ReentrantLock getLock() {
-        ReentrantLock result = lock;
-        if (result == null) {
-            synchronized (LOCK_INIT) {
-                result = lock;
-                if (result == null) {
-                    result = lock = new ReentrantLock(true); // Make it fair
-                }
-            }
-        }
-        return result;
-    }
+    private transient volatile int dirtyFields;
+    private transient volatile long generation;
+    private transient Set<String> newIps;
 
     /**
      * Special method called by the Java serialization system after deserialization.
@@ -61,12 +72,13 @@ public final class PlayerData implements Serializable {
      * @return this object with initialized transient fields
      */
     private Object readResolve() {
-        synchronized (LOCK_INIT) {
-            if (lock == null) {
-                lock = new ReentrantLock(true);
-            }
+        if (lock == null) {
+            lock = new StampedLock();
         }
         requiresImmediateSave = false;
+        if (newIps == null) {
+            newIps = new LinkedHashSet<>();
+        }
         return this;
     }
     
@@ -76,10 +88,9 @@ public final class PlayerData implements Serializable {
      */
     private void readObject(ObjectInputStream in) throws java.io.IOException, ClassNotFoundException {
         in.defaultReadObject();
-        synchronized (LOCK_INIT) {
-            lock = new ReentrantLock(true);
-        }
+        lock = new StampedLock();
         requiresImmediateSave = false;
+        newIps = new LinkedHashSet<>();
     }
 
     /**
@@ -110,16 +121,15 @@ public final class PlayerData implements Serializable {
      * @param name the player's name
      * @throws NullPointerException if uuid or name is null
      */
-    public PlayerData(@NotNull String uuid, @NotNull String name) {
+    public PlayerData(@NotNull UUID uuid, @NotNull String name) {
         this.uuid = Objects.requireNonNull(uuid, "UUID cannot be null");
         this.name = Objects.requireNonNull(name, "Name cannot be null");
-        this.money = DEFAULT_MONEY;
+        this.balance = 0L;
         this.job = DEFAULT_JOB;
         this.knownIps = Collections.synchronizedSet(new HashSet<>());
         this.requiresImmediateSave = false;
-        
-        // Initialize the lock immediately in the constructor
-        this.lock = new ReentrantLock();
+        this.newIps = new LinkedHashSet<>();
+        this.lock = new StampedLock();
         debug("Created new PlayerData for " + name + " (" + uuid + ")");
     }
 
@@ -141,6 +151,84 @@ public final class PlayerData implements Serializable {
         }
     }
 
+    /**
+     * Marks fields as changed and notifies the change handler.
+     * Called after the new value is visible, so a concurrent save never clears a change it did not see.
+     * 
+     * @param fields the DIRTY_* bits that changed
+     */
+    private void markDirty(int fields) {
+        DIRTY_FIELDS.getAndBitwiseOr(this, fields);
+        GENERATION.getAndAdd(this, 1L);
+        notifyDataChanged();
+    }
+
+    /**
+     * Checks if any persisted field changed since the last save.
+     * 
+     * @return true if there are unsaved changes
+     */
+    public boolean hasChanges() {
+        return dirtyFields != 0;
+    }
+
+    /**
+     * Gets the change generation, incremented on every modification.
+     * 
+     * @return the current generation
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Captures the unsaved changes and resets the dirty state.
+     * If the save fails, hand the result back to {@link #restoreChanges(Changes)}.
+     * 
+     * @return the changed values, empty if nothing changed
+     */
+    @NotNull
+    public Changes takeChanges() {
+        long stamp = lock.writeLock();
+        try {
+            // Clear the bits before reading the values, a later change marks them dirty again
+            int fields = (int) DIRTY_FIELDS.getAndSet(this, 0);
+            Changes changes = new Changes(fields, generation, balance, job, lastLocation, new ArrayList<>(newIps));
+            newIps.clear();
+            return changes;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Puts changes from a failed save back so the next save retries them.
+     * 
+     * @param changes the changes returned by {@link #takeChanges()}
+     */
+    public void restoreChanges(@NotNull Changes changes) {
+        long stamp = lock.writeLock();
+        try {
+            newIps.addAll(changes.getNewIps());
+            DIRTY_FIELDS.getAndBitwiseOr(this, changes.getFields());
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Discards the dirty state, used after the data was loaded from storage.
+     */
+    public void markClean() {
+        long stamp = lock.writeLock();
+        try {
+            dirtyFields = 0;
+            newIps.clear();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
     /**
      * Checks if this data requires immediate saving.
      * This is used for critical data that should not be delayed.
@@ -160,18 +248,69 @@ public final class PlayerData implements Serializable {
         this.requiresImmediateSave = requiresImmediateSave;
     }
 
+    /**
+     * Sets how many decimal places balances keep. Must be called before any data is loaded.
+     * 
+     * @param decimalPlaces the number of decimal places, between 0 and 6
+     * @throws IllegalArgumentException if decimalPlaces is out of range
+     */
+    public static void setMoneyDecimalPlaces(int decimalPlaces) {
+        if (decimalPlaces < 0 || decimalPlaces > 6) {
+            throw new IllegalArgumentException("Decimal places must be between 0 and 6");
+        }
+        moneyScale = (long) Math.pow(10, decimalPlaces);
+    }
+
+    /**
+     * Gets the number of balance units per currency unit.
+     * 
+     * @return the money scale, e.g. 100 for two decimal places
+     */
+    public static long getMoneyScale() {
+        return moneyScale;
+    }
+
+    /**
+     * Converts an amount of money to balance units.
+     * 
+     * @param amount the amount of money
+     * @return the amount in minor units
+     * @throws IllegalArgumentException if amount is not a finite number or out of range
+     */
+    public static long toBalanceUnits(double amount) {
+        long scale = moneyScale;
+        if (!Double.isFinite(amount) || Math.abs(amount) >= Long.MAX_VALUE / (double) scale) {
+            throw new IllegalArgumentException("Invalid amount: " + amount);
+        }
+        return Math.round(amount * scale);
+    }
+
+    /**
+     * Converts balance units to an amount of money.
+     * 
+     * @param units the amount in minor units
+     * @return the amount of money
+     */
+    public static double fromBalanceUnits(long units) {
+        return units / (double) moneyScale;
+    }
+
     /**
      * Gets the player's money.
      * 
      * @return the amount of money
      */
     public double getMoney() {
-        getLock().lock();
-        try {
-            return money;
-        } finally {
-            getLock().unlock();
-        }
+        return fromBalanceUnits(balance);
+    }
+
+    /**
+     * Gets the player's balance in minor units.
+     * 
+     * @return the balance in balance units
+     */
+    public long getBalanceUnits() {
+        return balance;
     }
 
     /**
@@ -181,19 +320,26 @@ public final class PlayerData implements Serializable {
      * @throws IllegalArgumentException if money is negative
      */
     public void setMoney(double money) {
-        getLock().lock();
-        try {
-            if (money < 0) {
-                throw new IllegalArgumentException("Money cannot be negative");
-            }
-            if (this.money != money) {
-                this.money = money;
-                // Money changes should be saved immediately to prevent duplication
-                this.requiresImmediateSave = true;
-                notifyDataChanged();
-            }
-        } finally {
-            getLock().unlock();
+        if (money < 0) {
+            throw new IllegalArgumentException("Money cannot be negative");
+        }
+        setBalanceUnits(toBalanceUnits(money));
+    }
+
+    /**
+     * Sets the player's balance in minor units.
+     * 
+     * @param units the new balance
+     * @throws IllegalArgumentException if units is negative
+     */
+    public void setBalanceUnits(long units) {
+        if (units < 0) {
+            throw new IllegalArgumentException("Money cannot be negative");
+        }
+        if ((long) BALANCE.getAndSet(this, units) != units) {
+            // Money changes should be saved immediately to prevent duplication
+            this.requiresImmediateSave = true;
+            markDirty(DIRTY_MONEY);
         }
     }
 
@@ -201,13 +347,13 @@ public final class PlayerData implements Serializable {
      * Adds money to the player.
      * 
      * @param amount the amount to add
-     * @throws IllegalArgumentException if amount is negative
+     * @throws IllegalArgumentException if amount is negative or the balance would overflow
      */
     public void addMoney(double amount) {
         if (amount < 0) {
             throw new IllegalArgumentException("Cannot add negative amount");
         }
-        setMoney(this.money + amount);
+        adjustBalanceUnits(toBalanceUnits(amount));
     }
 
     /**
@@ -218,39 +364,84 @@ public final class PlayerData implements Serializable {
      * @throws IllegalArgumentException if amount is negative
      */
     public boolean removeMoney(double amount) {
-        getLock().lock();
-        try {
-            if (amount < 0) {
-                throw new IllegalArgumentException("Cannot remove negative amount");
-            }
-            
-            if (this.money < amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Cannot remove negative amount");
+        }
+        return adjustBalanceUnits(-toBalanceUnits(amount));
+    }
+
+    /**
+     * Atomically adds a signed amount of minor units to the balance. A withdrawal
+     * only happens if the balance covers it.
+     * 
+     * @param delta the units to add, negative to withdraw
+     * @return true if the balance changed, false if the player doesn't have enough
+     * @throws IllegalArgumentException if the balance would overflow
+     */
+    public boolean adjustBalanceUnits(long delta) {
+        if (delta == 0) {
+            return true;
+        }
+        long current;
+        do {
+            current = balance;
+            if (delta < 0 && current < -delta) {
                 return false;
             }
-            
-            this.money -= amount;
-            // Money changes should be saved immediately to prevent duplication
-            this.requiresImmediateSave = true;
-            notifyDataChanged();
-            return true;
-        } finally {
-            getLock().unlock();
+            if (delta > 0 && current > Long.MAX_VALUE - delta) {
+                throw new IllegalArgumentException("Balance would overflow");
+            }
+        } while (!BALANCE.compareAndSet(this, current, current + delta));
+        
+        // Money changes should be saved immediately to prevent duplication
+        this.requiresImmediateSave = true;
+        markDirty(DIRTY_MONEY);
+        return true;
+    }
+
+    /**
+     * Moves money from this player to another one. The withdrawal only happens
+     * if this player has enough, so money is never created or lost.
+     * 
+     * @param target the player receiving the money
+     * @param amount the amount to transfer
+     * @return true if the money was transferred, false if this player doesn't have enough
+     * @throws IllegalArgumentException if amount is negative, the target is this player or its balance would overflow
+     */
+    public boolean transferMoney(@NotNull PlayerData target, double amount) {
+        Objects.requireNonNull(target, "Target cannot be null");
+        if (target == this) {
+            throw new IllegalArgumentException("Cannot transfer money to the same player");
+        }
+        if (amount < 0) {
+            throw new IllegalArgumentException("Cannot transfer negative amount");
         }
+        long units = toBalanceUnits(amount);
+        if (!adjustBalanceUnits(-units)) {
+            return false;
+        }
+        try {
+            target.adjustBalanceUnits(units);
+        } catch (IllegalArgumentException e) {
+            // Give the withdrawal back, the target cannot hold the amount
+            adjustBalanceUnits(units);
+            throw e;
+        }
+        return true;
     }
 
     /**
      * Checks if the player has at least the given amount of money.
      * 
      * @param amount the amount to check
-     * @return true if the player has at least the given amount, false otherwise
+     * @return true if the player has at least the given amount, false otherwise,
+     *         including for amounts that are not a finite number or out of range
      */
     public boolean hasMoney(double amount) {
-        getLock().lock();
-        try {
-            return this.money >= amount;
-        } finally {
-            getLock().unlock();
+        if (!Double.isFinite(amount) || Math.abs(amount) >= Long.MAX_VALUE / (double) moneyScale) {
+            return false;
         }
+        return balance >= toBalanceUnits(amount);
     }
 
     /**
@@ -259,15 +450,18 @@ public final class PlayerData implements Serializable {
      * @param ip the new IP address, or null to clear
      */
     public void updateIp(@Nullable String ip) {
-        getLock().lock();
+        if (ip == null || ip.isEmpty() || knownIps.contains(ip)) {
+            return;
+        }
+        long stamp = lock.writeLock();
         try {
-            if (ip != null && !ip.isEmpty()) {
-                knownIps.add(ip);
+            // Only new addresses need to be written
+            if (knownIps.add(ip)) {
+                newIps.add(ip);
+                markDirty(DIRTY_IPS);
             }
-            
-            notifyDataChanged();
         } finally {
-            getLock().unlock();
+            lock.unlockWrite(stamp);
         }
     }
 
@@ -280,14 +474,18 @@ public final class PlayerData implements Serializable {
     public void updateLocation(@NotNull Location loc) {
         Objects.requireNonNull(loc, "Location cannot be null");
         
-        getLock().lock();
+        LocationData location = new LocationData(loc);
+        long stamp = lock.writeLock();
         try {
-            this.lastLocation = new LocationData(loc);
+            if (location.equals(lastLocation)) {
+                return;
+            }
+            this.lastLocation = location;
             // Location updates are common and don't need immediate saving
             this.requiresImmediateSave = false;
-            notifyDataChanged();
+            markDirty(DIRTY_LOCATION);
         } finally {
-            getLock().unlock();
+            lock.unlockWrite(stamp);
         }
     }
 
@@ -298,7 +496,17 @@ public final class PlayerData implements Serializable {
      */
     @Nullable
     public Location getLastLocation() {
-        return lastLocation != null ? lastLocation.toLocation() : null;
+        long stamp = lock.tryOptimisticRead();
+        LocationData location = lastLocation;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                location = lastLocation;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return location != null ? location.toLocation() : null;
     }
 
     /**
@@ -317,7 +525,7 @@ public final class PlayerData implements Serializable {
      * @return the player's UUID
      */
     @NotNull
-    public String getUuid() {
+    public UUID getUuid() {
         return uuid;
     }
 
@@ -338,7 +546,17 @@ public final class PlayerData implements Serializable {
      */
     @NotNull
     public String getJob() {
-        return job;
+        long stamp = lock.tryOptimisticRead();
+        String current = job;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                current = job;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return current;
     }
 
     /**
@@ -348,14 +566,18 @@ public final class PlayerData implements Serializable {
      * @throws NullPointerException if job is null
      */
     public void setJob(@NotNull String job) {
-        getLock().lock();
+        Objects.requireNonNull(job, "Job cannot be null");
+        long stamp = lock.writeLock();
         try {
-            this.job = Objects.requireNonNull(job, "Job cannot be null");
+            if (job.equals(this.job)) {
+                return;
+            }
+            this.job = job;
             // Job changes should be saved soon but not immediately
             this.requiresImmediateSave = false;
-            notifyDataChanged();
+            markDirty(DIRTY_JOB);
         } finally {
-            getLock().unlock();
+            lock.unlockWrite(stamp);
         }
     }
 
@@ -366,18 +588,72 @@ public final class PlayerData implements Serializable {
      * @param inventory the player's inventory
      */
     public void loadFromInventory(@NotNull PlayerInventory inventory) {
-        getLock().lock();
-        try {
-            // Currently, this method only triggers a data change notification
-            // In the future, it could save specific inventory data if needed
-            
-            if (DEBUG_ENABLED) {
-                debug("Loaded inventory data for player " + name);
-            }
-            
-            notifyDataChanged();
-        } finally {
-            getLock().unlock();
+        // Inventory contents aren't persisted yet, so there is nothing to mark dirty.
+        // In the future, it could save specific inventory data if needed
+        
+        if (DEBUG_ENABLED) {
+            debug("Loaded inventory data for player " + name);
+        }
+    }
+
+    /**
+     * Snapshot of the fields that changed since the last save.
+     */
+    public static final class Changes {
+        private final int fields;
+        private final long generation;
+        private final long balance;
+        private final String job;
+        private final LocationData location;
+        private final List<String> newIps;
+
+        private Changes(int fields, long generation, long balance, String job,
+                        @Nullable LocationData location, List<String> newIps) {
+            this.fields = fields;
+            this.generation = generation;
+            this.balance = balance;
+            this.job = job;
+            this.location = location;
+            this.newIps = newIps;
+        }
+
+        public boolean isEmpty() {
+            return fields == 0;
+        }
+
+        public boolean has(int field) {
+            return (fields & field) != 0;
+        }
+
+        public int getFields() {
+            return fields;
+        }
+
+        public long getGeneration() {
+            return generation;
+        }
+
+        public double getMoney() {
+            return fromBalanceUnits(balance);
+        }
+
+        public long getBalanceUnits() {
+            return balance;
+        }
+
+        @NotNull
+        public String getJob() {
+            return job;
+        }
+
+        @Nullable
+        public LocationData getLocation() {
+            return location;
+        }
+
+        @NotNull
+        public List<String> getNewIps() {
+            return newIps;
         }
     }
 
@@ -397,9 +673,9 @@ public final class PlayerData implements Serializable {
     @Override
     public String toString() {
         return "PlayerData{" +
-                "uuid='" + uuid + '\'' +
+                "uuid=" + uuid +
                 ", name='" + name + '\'' +
-                ", money=" + money +
+                ", money=" + getMoney() +
                 ", job='" + job + '\'' +
                 '}';
     }
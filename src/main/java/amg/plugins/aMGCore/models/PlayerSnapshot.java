@@ -0,0 +1,190 @@
+package amg.plugins.aMGCore.models;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Everything the managers need when a player joins, loaded in one go during
+ * AsyncPlayerPreLoginEvent so the join itself doesn't touch the database.
+ */
+public final class PlayerSnapshot {
+    /**
+     * Optional parts of the snapshot. A section is missing when its module's
+     * table doesn't exist, in which case the owning manager loads it itself.
+     */
+    public enum Section {
+        HOMES,
+        PLAYTIME,
+        STATS,
+        STATES
+    }
+
+    private final PlayerData playerData;
+    private final Set<Section> loadedSections;
+    private final Map<String, LocationData> homes;
+    private final String lastUsedHome;
+    private final Long playtimeSeconds;
+    private final Stats stats;
+    private final States states;
+    private final long createdAt;
+
+    public PlayerSnapshot(@NotNull PlayerData playerData, @NotNull Set<Section> loadedSections,
+                          @NotNull Map<String, LocationData> homes, @Nullable String lastUsedHome,
+                          @Nullable Long playtimeSeconds, @Nullable Stats stats, @Nullable States states) {
+        this.playerData = playerData;
+        this.loadedSections = loadedSections.isEmpty()
+            ? Collections.unmodifiableSet(EnumSet.noneOf(Section.class))
+            : Collections.unmodifiableSet(EnumSet.copyOf(loadedSections));
+        this.homes = Collections.unmodifiableMap(homes);
+        this.lastUsedHome = lastUsedHome;
+        this.playtimeSeconds = playtimeSeconds;
+        this.stats = stats;
+        this.states = states;
+        this.createdAt = System.currentTimeMillis();
+    }
+
+    @NotNull
+    public PlayerData getPlayerData() {
+        return playerData;
+    }
+
+    /**
+     * Checks if a section was loaded. A loaded section with no data means the
+     * player has no row for it yet.
+     *
+     * @param section the section to check
+     * @return true if the section was loaded
+     */
+    public boolean isLoaded(@NotNull Section section) {
+        return loadedSections.contains(section);
+    }
+
+    @NotNull
+    public Map<String, LocationData> getHomes() {
+        return homes;
+    }
+
+    @Nullable
+    public String getLastUsedHome() {
+        return lastUsedHome;
+    }
+
+    /**
+     * @return the stored playtime, or null if the player has no playtime row
+     */
+    @Nullable
+    public Long getPlaytimeSeconds() {
+        return playtimeSeconds;
+    }
+
+    @Nullable
+    public Stats getStats() {
+        return stats;
+    }
+
+    @Nullable
+    public States getStates() {
+        return states;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Stored row from player_stats.
+     */
+    public static final class Stats {
+        private final Instant firstJoin;
+        private final Instant lastSeen;
+        private final long playtimeSeconds;
+        private final int deaths;
+        private final int kills;
+        private final int pvpKills;
+        private final int mobKills;
+
+        public Stats(Instant firstJoin, Instant lastSeen, long playtimeSeconds,
+                     int deaths, int kills, int pvpKills, int mobKills) {
+            this.firstJoin = firstJoin;
+            this.lastSeen = lastSeen;
+            this.playtimeSeconds = playtimeSeconds;
+            this.deaths = deaths;
+            this.kills = kills;
+            this.pvpKills = pvpKills;
+            this.mobKills = mobKills;
+        }
+
+        public Instant getFirstJoin() {
+            return firstJoin;
+        }
+
+        public Instant getLastSeen() {
+            return lastSeen;
+        }
+
+        public long getPlaytimeSeconds() {
+            return playtimeSeconds;
+        }
+
+        public int getDeaths() {
+            return deaths;
+        }
+
+        public int getKills() {
+            return kills;
+        }
+
+        public int getPvpKills() {
+            return pvpKills;
+        }
+
+        public int getMobKills() {
+            return mobKills;
+        }
+    }
+
+    /**
+     * Stored row from player_states.
+     */
+    public static final class States {
+        private final boolean vanished;
+        private final boolean godMode;
+        private final boolean flyEnabled;
+        private final float walkSpeed;
+        private final float flySpeed;
+
+        public States(boolean vanished, boolean godMode, boolean flyEnabled, float walkSpeed, float flySpeed) {
+            this.vanished = vanished;
+            this.godMode = godMode;
+            this.flyEnabled = flyEnabled;
+            this.walkSpeed = walkSpeed;
+            this.flySpeed = flySpeed;
+        }
+
+        public boolean isVanished() {
+            return vanished;
+        }
+
+        public boolean isGodMode() {
+            return godMode;
+        }
+
+        public boolean isFlyEnabled() {
+            return flyEnabled;
+        }
+
+        public float getWalkSpeed() {
+            return walkSpeed;
+        }
+
+        public float getFlySpeed() {
+            return flySpeed;
+        }
+    }
+}
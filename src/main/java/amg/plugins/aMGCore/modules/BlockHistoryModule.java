@@ -0,0 +1,47 @@
+package amg.plugins.aMGCore.modules;
+
+import amg.plugins.aMGCore.AMGCore;
+import amg.plugins.aMGCore.api.BaseModule;
+import amg.plugins.aMGCore.managers.BlockHistoryManager;
+import amg.plugins.aMGCore.utils.DebugLogger;
+
+/**
+ * Module for recording block changes.
+ */
+public class BlockHistoryModule extends BaseModule {
+    private BlockHistoryManager blockHistoryManager;
+
+    /**
+     * Creates a new BlockHistoryModule.
+     * 
+     * @param plugin The plugin instance
+     */
+    public BlockHistoryModule(AMGCore plugin) {
+        super("blockhistory", plugin, new String[]{"database"}, 80);
+    }
+
+    @Override
+    protected void onEnable() throws Exception {
+        DebugLogger.debug("BlockHistoryModule", "Initializing block history manager");
+        blockHistoryManager = new BlockHistoryManager(plugin, plugin.getDatabaseManager());
+        plugin.registerManager("blockhistory", blockHistoryManager);
+    }
+
+    @Override
+    protected void onDisable() throws Exception {
+        DebugLogger.debug("BlockHistoryModule", "Shutting down block history manager");
+        if (blockHistoryManager != null) {
+            blockHistoryManager.close();
+        }
+        blockHistoryManager = null;
+    }
+    
+    /**
+     * Gets the block history manager instance.
+     * 
+     * @return The block history manager
+     */
+    public BlockHistoryManager getBlockHistoryManager() {
+        return blockHistoryManager;
+    }
+}
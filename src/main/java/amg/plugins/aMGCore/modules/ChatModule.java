@@ -5,18 +5,11 @@ import amg.plugins.aMGCore.api.BaseModule;
 import amg.plugins.aMGCore.managers.ChatManager;
 import amg.plugins.aMGCore.managers.LocaleManager;
 import amg.plugins.aMGCore.utils.DebugLogger;
-import io.papermc.paper.event.player.AsyncChatEvent;
-import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.minimessage.MiniMessage;
-import org.bukkit.entity.Player;
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.EventPriority;
-import org.bukkit.event.Listener;
 
 /**
  * Module for managing chat functionality.
  */
-public class ChatModule extends BaseModule implements Listener {
+public class ChatModule extends BaseModule {
     private ChatManager chatManager;
 
     /**
@@ -36,14 +29,14 @@ public class ChatModule extends BaseModule implements Listener {
         
         // Create default channels
         createDefaultChannels();
-        
-        // Register chat prefix handler
-        plugin.getServer().getPluginManager().registerEvents(this, plugin);
     }
 
     @Override
     protected void onDisable() throws Exception {
         DebugLogger.debug("ChatModule", "Shutting down chat manager");
+        if (chatManager != null) {
+            chatManager.close();
+        }
         chatManager = null;
     }
     
@@ -87,41 +80,6 @@ public class ChatModule extends BaseModule implements Listener {
         }
     }
     
-    /**
-     * Add channel prefixes to chat messages.
-     */
-    @EventHandler(priority = EventPriority.LOWEST)
-    public void onPlayerChat(AsyncChatEvent event) {
-        if (event.isCancelled()) return;
-        
-        Player player = event.getPlayer();
-        
-        // Get the player's channel
-        String channelName = chatManager.getPlayerChannel(player.getUniqueId());
-        if (channelName == null) {
-            channelName = "global";
-        }
-        
-        // Get the channel format from ChatManager
-        ChatManager.ChatChannel channel = chatManager.getChannels().get(channelName);
-        if (channel == null) {
-            channel = chatManager.getChannels().get("global");
-        }
-        
-        // Get the format from the channel
-        String format = channel.getFormat();
-        
-        // Create a MiniMessage instance to parse the format
-        MiniMessage miniMessage = MiniMessage.miniMessage();
-        
-        // Parse the format into a component
-        Component prefix = miniMessage.deserialize(format.replace("{message}", ""));
-        
-        // Modify the message by adding the prefix
-        event.renderer((source, sourceDisplayName, message, viewer) -> 
-            prefix.append(message));
-    }
-    
     /**
      * Gets the chat manager instance.
      * 
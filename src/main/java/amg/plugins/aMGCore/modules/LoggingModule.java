@@ -30,7 +30,9 @@ public class LoggingModule extends BaseModule {
     @Override
     protected void onDisable() throws Exception {
         DebugLogger.debug("LoggingModule", "Shutting down log manager");
-        // LogManager doesn't need explicit cleanup
+        if (logManager != null) {
+            logManager.close();
+        }
         logManager = null;
     }
     
@@ -124,9 +124,9 @@ public class AutoSaveTask extends BukkitRunnable {
                 
                 totalPlayersSaved.addAndGet(savedCount);
                 
-                if (plugin.isDebugEnabled() && savedCount > 0) {
-                    DebugLogger.debug("AutoSaveTask", "Staggered save completed: Saved " + savedCount + 
-                            " players (batch " + saveCounter.incrementAndGet() + ")");
+                if (savedCount > 0 && DebugLogger.isDebugEnabled("AutoSaveTask")) {
+                    DebugLogger.debug("AutoSaveTask", "Staggered save completed: Saved {} players (batch {})",
+                            savedCount, saveCounter.incrementAndGet());
                 }
             }
             
@@ -135,9 +135,7 @@ public class AutoSaveTask extends BukkitRunnable {
             totalSaveTime.addAndGet(saveTime);
             totalSaveCount.incrementAndGet();
             
-            if (plugin.isDebugEnabled()) {
-                DebugLogger.debug("AutoSaveTask", "Auto-save completed in " + saveTime + "ms");
-            }
+            DebugLogger.debug("AutoSaveTask", "Auto-save completed in {}ms", saveTime);
         } catch (Exception e) {
             DebugLogger.severe("AutoSaveTask", "Error during auto-save", e);
             plugin.getLogger().severe("Error during auto-save: " + e.getMessage());
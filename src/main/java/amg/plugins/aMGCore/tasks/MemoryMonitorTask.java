@@ -37,7 +37,7 @@ public class MemoryMonitorTask extends BukkitRunnable {
             // Check if we should log memory usage (every 5 minutes)
             long now = System.currentTimeMillis();
             if (now - lastReportTime > REPORT_INTERVAL) {
-                DebugLogger.debug("Memory", String.format(
+                DebugLogger.debug("Memory", () -> String.format(
                     "Memory usage: %.1f%% (%.1f MB / %.1f MB)",
                     usagePercent * 100,
                     used / 1024.0 / 1024.0,
@@ -1,31 +1,47 @@
 package amg.plugins.aMGCore.utils;
 
+import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.NotNull;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
-import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * A centralized utility for handling debug logging throughout the plugin.
  * This class is thread-safe and provides consistent logging format.
+ * <p>
+ * Debug messages that are expensive to build should use the
+ * {@link Supplier} or {@code {}} parameterized overloads, or be guarded with
+ * {@link #isDebugEnabled(String)}, so nothing is allocated while debug
+ * logging is off.
+ * <p>
+ * Entries wait for the writer thread in a bounded ring buffer. What happens
+ * when it is full is decided by the {@link OverflowPolicy}.
  */
 public final class DebugLogger {
     private static final AtomicBoolean enabled = new AtomicBoolean(false);
@@ -55,18 +71,55 @@ public final class DebugLogger {
         }
     }
     
+    /**
+     * What to do with a new entry while the buffer is full.
+     */
+    public enum OverflowPolicy {
+        /** Discard the oldest queued entry to make room. */
+        DROP_OLDEST,
+        /** Drop new debug and info entries, warnings and errors discard the oldest queued entry. */
+        DROP_DEBUG,
+        /** Severe errors wait briefly for the writer, everything else is dropped. */
+        BLOCK;
+        
+        /**
+         * Get a policy by its config name.
+         * 
+         * @param name the name, e.g. "drop_oldest"
+         * @return the policy, or DROP_OLDEST if the name is unknown
+         */
+        public static OverflowPolicy fromName(String name) {
+            if (name != null) {
+                try {
+                    return valueOf(name.trim().toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException ignored) {
+                    // Fall back to the default
+                }
+            }
+            return DROP_OLDEST;
+        }
+    }
+    
     private static volatile LogLevel minLogLevel = LogLevel.DEBUG;
     
     // Buffered logging
-    private static final Queue<LogEntry> logBuffer = new ConcurrentLinkedQueue<>();
+    private static final int DEFAULT_BUFFER_CAPACITY = 8192;
+    private static final int MIN_BUFFER_CAPACITY = 64;
+    private static final int MAX_BUFFER_CAPACITY = 1 << 20;
+    private static volatile MpscRingBuffer<LogEntry> logBuffer = new MpscRingBuffer<>(DEFAULT_BUFFER_CAPACITY);
+    private static volatile OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+    private static final Object DRAIN_LOCK = new Object(); // Whoever holds it is the buffer's consumer
+    private static final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private static final int EVICT_ATTEMPTS = 8;
+    private static final long SEVERE_BLOCK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
     private static final int ADAPTIVE_FLUSH_THRESHOLD = 100; // Flush when buffer reaches this size
     private static final long FLUSH_INTERVAL_MS = 2000; // 2 seconds (increased from 1 second)
     private static ScheduledExecutorService logExecutor;
-    private static volatile File logFile;
+    private static volatile RollingFileAppender appender; // Written while holding LOCK
     private static final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
     
     // Message deduplication
-    private static final Map<String, DuplicateEntry> recentMessages = new ConcurrentHashMap<>();
+    private static final Map<DedupKey, DuplicateEntry> recentMessages = new ConcurrentHashMap<>();
     private static final long DUPLICATE_WINDOW_MS = 5000; // 5 seconds
     private static final int MAX_DUPLICATES_TO_TRACK = 1000;
     
@@ -80,11 +133,22 @@ public final class DebugLogger {
     private static final AtomicLong flushCount = new AtomicLong(0);
     private static final AtomicLong totalFlushTime = new AtomicLong(0);
     private static final AtomicInteger maxBufferSize = new AtomicInteger(0);
+    private static final AtomicLong droppedEntries = new AtomicLong(0);
+    private static final AtomicLong evictedEntries = new AtomicLong(0);
+    private static final AtomicLong blockedEntries = new AtomicLong(0);
     
-    // File writer
-    private static volatile PrintWriter cachedWriter;
-    private static final AtomicLong lastWriteTime = new AtomicLong(0);
-    private static final long WRITER_KEEP_ALIVE_MS = 30000; // 30 seconds
+    // File writer, only used while holding LOCK
+    private static final int DRAIN_BATCH_SIZE = 256;
+    private static final LogEntry[] drainBatch = new LogEntry[DRAIN_BATCH_SIZE];
+    private static final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(64 * 1024);
+    private static final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private static final StringBuilder lineBuilder = new StringBuilder(256);
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final long DEFAULT_MAX_FILE_SIZE_MB = 20;
+    private static final long DEFAULT_MAX_AGE_DAYS = 14;
+    private static final long DEFAULT_MAX_TOTAL_SIZE_MB = 256;
 
     // Private constructor to prevent instantiation
     private DebugLogger() {
@@ -114,7 +178,21 @@ public final class DebugLogger {
                 logger.warning("Failed to create logs directory");
             }
             
-            logFile = new File(logsDir, "debug-" + new SimpleDateFormat("yyyy-MM-dd").format(new Date()) + ".log");
+            // Roll daily and by size, compress rolled files and keep the directory bounded
+            FileConfiguration config = plugin.getConfig();
+            LogRetention retention = new LogRetention(logsDir, "debug-", ".log", 0L,
+                TimeUnit.DAYS.toMillis(config.getLong("logging.debug.max_age_days", DEFAULT_MAX_AGE_DAYS)),
+                config.getLong("logging.debug.max_total_size_mb", DEFAULT_MAX_TOTAL_SIZE_MB) * 1024L * 1024L);
+            if (appender != null) {
+                closeAppender();
+            }
+            appender = new RollingFileAppender(logsDir, "debug", ".log",
+                config.getLong("logging.debug.max_file_size_mb", DEFAULT_MAX_FILE_SIZE_MB) * 1024L * 1024L, retention);
+            
+            // Set up the buffer
+            int capacity = config.getInt("logging.debug.buffer_capacity", DEFAULT_BUFFER_CAPACITY);
+            resizeBuffer(Math.max(MIN_BUFFER_CAPACITY, Math.min(MAX_BUFFER_CAPACITY, capacity)));
+            overflowPolicy = OverflowPolicy.fromName(config.getString("logging.debug.overflow_policy", "drop_oldest"));
             
             // Initialize log executor if needed
             if (logExecutor == null || logExecutor.isShutdown()) {
@@ -139,18 +217,42 @@ public final class DebugLogger {
                     DUPLICATE_WINDOW_MS,
                     TimeUnit.MILLISECONDS
                 );
-                
-                // Schedule writer cleanup
-                logExecutor.scheduleWithFixedDelay(
-                    DebugLogger::cleanupWriter,
-                    WRITER_KEEP_ALIVE_MS,
-                    WRITER_KEEP_ALIVE_MS,
-                    TimeUnit.MILLISECONDS
-                );
             }
         }
     }
 
+    /**
+     * Replace the buffer if the capacity changed, keeping the queued entries
+     * that fit.
+     * 
+     * @param capacity the new capacity
+     */
+    private static void resizeBuffer(int capacity) {
+        synchronized (DRAIN_LOCK) {
+            MpscRingBuffer<LogEntry> oldBuffer = logBuffer;
+            MpscRingBuffer<LogEntry> newBuffer = new MpscRingBuffer<>(capacity);
+            if (newBuffer.capacity() == oldBuffer.capacity()) {
+                return;
+            }
+            logBuffer = newBuffer;
+            LogEntry entry;
+            while ((entry = oldBuffer.poll()) != null) {
+                if (!newBuffer.offer(entry)) {
+                    droppedEntries.incrementAndGet();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Set how new entries are handled while the buffer is full.
+     * 
+     * @param policy the overflow policy
+     */
+    public static void setOverflowPolicy(@NotNull OverflowPolicy policy) {
+        overflowPolicy = policy;
+    }
+
     /**
      * Set whether debug logging is enabled.
      * 
@@ -215,35 +317,40 @@ public final class DebugLogger {
     
     /**
      * Check if a log entry should be logged based on its level and source.
+     * This is cheap enough to call on every hot path before building a message.
      * 
      * @param source the source of the log entry
      * @param level the log level
-     * @return true if the entry should be logged, false otherwise
+     * @return true if the entry would be logged, false otherwise
      */
-    private static boolean shouldLog(String source, LogLevel level) {
+    public static boolean isLoggable(@NotNull String source, @NotNull LogLevel level) {
         if (!enabled.get()) {
             return false;
         }
         
-        LogLevel sourceLevel = getSourceLogLevel(source);
+        // Skip the map lookup when no source has its own level
+        LogLevel sourceLevel = sourceLogLevels.isEmpty() ? minLogLevel : getSourceLogLevel(source);
         return level.isAtLeast(sourceLevel);
     }
     
+    /**
+     * Check if debug messages from a source would be logged. Use this to guard
+     * debug output that needs more work than a supplier can express.
+     * 
+     * @param source the source of the debug messages
+     * @return true if debug messages from the source would be logged
+     */
+    public static boolean isDebugEnabled(@NotNull String source) {
+        return isLoggable(source, LogLevel.DEBUG);
+    }
+    
     /**
      * Check if a message is a duplicate of a recently logged message.
      * 
-     * @param source the source of the log entry
-     * @param message the message to check
-     * @param level the log level
+     * @param key the source and message of the log entry
      * @return true if the message is a duplicate, false otherwise
      */
-    private static boolean isDuplicate(String source, String message, LogLevel level) {
-        if (level.isAtLeast(LogLevel.WARNING)) {
-            // Don't deduplicate warnings and errors
-            return false;
-        }
-        
-        String key = source + ":" + message;
+    private static boolean isDuplicate(DedupKey key) {
         long now = System.currentTimeMillis();
         
         DuplicateEntry entry = recentMessages.get(key);
@@ -271,20 +378,6 @@ public final class DebugLogger {
         recentMessages.entrySet().removeIf(entry -> entry.getValue().timestamp < cutoff);
     }
     
-    /**
-     * Clean up the writer if it hasn't been used recently.
-     */
-    private static void cleanupWriter() {
-        long now = System.currentTimeMillis();
-        if (cachedWriter != null && now - lastWriteTime.get() > WRITER_KEEP_ALIVE_MS) {
-            synchronized (LOCK) {
-                if (cachedWriter != null) {
-                    cachedWriter.close();
-                    cachedWriter = null;
-                }
-            }
-        }
-    }
 
     /**
      * Log a debug message if debug mode is enabled.
@@ -307,6 +400,71 @@ public final class DebugLogger {
         log(source, message, throwable, LogLevel.DEBUG);
     }
 
+    /**
+     * Log a debug message that is only built if debug logging is enabled for the source.
+     * 
+     * @param source the class or component generating the debug message
+     * @param message supplies the debug message to log
+     */
+    public static void debug(@NotNull String source, @NotNull Supplier<String> message) {
+        if (!isLoggable(source, LogLevel.DEBUG)) {
+            skip();
+            return;
+        }
+        log(source, message.get(), null, LogLevel.DEBUG);
+    }
+
+    /**
+     * Log a debug message, replacing the {@code {}} in the pattern with the
+     * argument only if debug logging is enabled for the source.
+     * 
+     * @param source the class or component generating the debug message
+     * @param pattern the message pattern
+     * @param arg the argument
+     */
+    public static void debug(@NotNull String source, @NotNull String pattern, Object arg) {
+        if (!isLoggable(source, LogLevel.DEBUG)) {
+            skip();
+            return;
+        }
+        logFormatted(source, pattern, new Object[] {arg}, LogLevel.DEBUG);
+    }
+
+    /**
+     * Log a debug message, replacing the {@code {}} in the pattern with the
+     * arguments only if debug logging is enabled for the source.
+     * 
+     * @param source the class or component generating the debug message
+     * @param pattern the message pattern
+     * @param first the first argument
+     * @param second the second argument
+     */
+    public static void debug(@NotNull String source, @NotNull String pattern, Object first, Object second) {
+        if (!isLoggable(source, LogLevel.DEBUG)) {
+            skip();
+            return;
+        }
+        logFormatted(source, pattern, new Object[] {first, second}, LogLevel.DEBUG);
+    }
+
+    /**
+     * Log a debug message, replacing each {@code {}} in the pattern with the
+     * next argument only if debug logging is enabled for the source. A
+     * trailing {@link Throwable} without a placeholder is logged as the
+     * exception.
+     * 
+     * @param source the class or component generating the debug message
+     * @param pattern the message pattern
+     * @param args the arguments
+     */
+    public static void debug(@NotNull String source, @NotNull String pattern, Object... args) {
+        if (!isLoggable(source, LogLevel.DEBUG)) {
+            skip();
+            return;
+        }
+        logFormatted(source, pattern, args, LogLevel.DEBUG);
+    }
+
     /**
      * Log an info message regardless of debug mode.
      * 
@@ -371,6 +529,44 @@ public final class DebugLogger {
         log(source, message, null, LogLevel.SEVERE);
     }
     
+    /**
+     * Count an entry that was dropped by a call site before its message was built.
+     */
+    private static void skip() {
+        totalLogEntries.incrementAndGet();
+        skippedLogEntries.incrementAndGet();
+    }
+    
+    /**
+     * Substitute the arguments into a {@code {}} pattern and log the result.
+     * 
+     * @param source the source of the log entry
+     * @param pattern the message pattern
+     * @param args the arguments
+     * @param level the log level
+     */
+    private static void logFormatted(String source, String pattern, Object[] args, LogLevel level) {
+        if (args == null) {
+            args = new Object[0];
+        }
+        
+        StringBuilder builder = new StringBuilder(pattern.length() + 16 * args.length);
+        int used = 0;
+        int start = 0;
+        int index;
+        while (used < args.length && (index = pattern.indexOf("{}", start)) >= 0) {
+            builder.append(pattern, start, index).append(args[used++]);
+            start = index + 2;
+        }
+        builder.append(pattern, start, pattern.length());
+        
+        Throwable throwable = null;
+        if (used < args.length && args[args.length - 1] instanceof Throwable) {
+            throwable = (Throwable) args[args.length - 1];
+        }
+        log(source, builder.toString(), throwable, level);
+    }
+    
     /**
      * Log a message with the specified log level.
      * 
@@ -382,14 +578,18 @@ public final class DebugLogger {
     private static void log(String source, String message, Throwable throwable, LogLevel level) {
         totalLogEntries.incrementAndGet();
         
-        if (!shouldLog(source, level)) {
+        if (!isLoggable(source, level)) {
             skippedLogEntries.incrementAndGet();
             return;
         }
         
-        // Check for duplicates
-        if (isDuplicate(source, message, level)) {
-            return;
+        // Check for duplicates, warnings and errors are never deduplicated
+        DedupKey key = null;
+        if (!level.isAtLeast(LogLevel.WARNING)) {
+            key = new DedupKey(source, message);
+            if (isDuplicate(key)) {
+                return;
+            }
         }
         
         // Create log entry
@@ -398,17 +598,20 @@ public final class DebugLogger {
             source,
             message,
             throwable,
-            level
+            level,
+            key
         );
         
         // Add to buffer
-        logBuffer.offer(entry);
+        MpscRingBuffer<LogEntry> buffer = logBuffer;
+        if (!enqueue(buffer, entry)) {
+            droppedEntries.incrementAndGet();
+        }
         
-        // Update max buffer size statistic
-        int currentSize = logBuffer.size();
-        int currentMax = maxBufferSize.get();
-        if (currentSize > currentMax) {
-            maxBufferSize.compareAndSet(currentMax, currentSize);
+        // Update max buffer size statistic, size() is O(1) on the ring buffer
+        int currentSize = buffer.size();
+        if (currentSize > maxBufferSize.get()) {
+            maxBufferSize.accumulateAndGet(currentSize, Math::max);
         }
         
         // Adaptive flush based on buffer size and log level
@@ -426,13 +629,7 @@ public final class DebugLogger {
         }
         
         if (shouldFlushNow) {
-            // Schedule immediate flush
-            if (logExecutor != null && !logExecutor.isShutdown()) {
-                logExecutor.execute(DebugLogger::flushLogBuffer);
-            } else {
-                // Fallback if executor is not available
-                flushLogBuffer();
-            }
+            requestFlush();
         }
         
         // Also log to console for warnings and severe errors
@@ -457,127 +654,227 @@ public final class DebugLogger {
     }
     
     /**
-     * Get a PrintWriter for the log file, creating it if necessary.
+     * Add an entry to the buffer, applying the overflow policy if it is full.
      * 
-     * @return a PrintWriter for the log file, or null if it couldn't be created
+     * @param buffer the buffer
+     * @param entry the entry
+     * @return false if the entry was dropped
      */
-    private static PrintWriter getWriter() {
-        if (cachedWriter != null) {
-            return cachedWriter;
+    private static boolean enqueue(MpscRingBuffer<LogEntry> buffer, LogEntry entry) {
+        if (buffer.offer(entry)) {
+            return true;
         }
         
-        synchronized (LOCK) {
-            if (cachedWriter != null) {
-                return cachedWriter;
+        switch (overflowPolicy) {
+            case DROP_DEBUG:
+                if (!entry.level.isAtLeast(LogLevel.WARNING)) {
+                    return false;
+                }
+                return evictAndOffer(buffer, entry);
+            case BLOCK:
+                if (entry.level != LogLevel.SEVERE) {
+                    return false;
+                }
+                blockedEntries.incrementAndGet();
+                requestFlush();
+                long deadline = System.nanoTime() + SEVERE_BLOCK_NANOS;
+                while (System.nanoTime() < deadline) {
+                    LockSupport.parkNanos(100_000L);
+                    if (buffer.offer(entry)) {
+                        return true;
+                    }
+                }
+                return false;
+            case DROP_OLDEST:
+            default:
+                return evictAndOffer(buffer, entry);
+        }
+    }
+    
+    /**
+     * Discard the oldest queued entries until the new one fits.
+     * 
+     * @param buffer the buffer
+     * @param entry the entry
+     * @return false if other producers kept taking the freed slots
+     */
+    private static boolean evictAndOffer(MpscRingBuffer<LogEntry> buffer, LogEntry entry) {
+        for (int attempt = 0; attempt < EVICT_ATTEMPTS; attempt++) {
+            synchronized (DRAIN_LOCK) {
+                if (buffer.poll() != null) {
+                    evictedEntries.incrementAndGet();
+                }
             }
-            
-            if (logFile == null) {
-                return null;
+            if (buffer.offer(entry)) {
+                return true;
             }
-            
+        }
+        return false;
+    }
+    
+    /**
+     * Ask the writer thread to flush, coalescing requests that arrive before it runs.
+     */
+    private static void requestFlush() {
+        ScheduledExecutorService executor = logExecutor;
+        if (executor == null || executor.isShutdown()) {
+            // Fallback if executor is not available
+            flushLogBuffer();
+            return;
+        }
+        
+        if (flushScheduled.compareAndSet(false, true)) {
             try {
-                // Use BufferedWriter for better performance
-                cachedWriter = new PrintWriter(new BufferedWriter(new FileWriter(logFile, true), 8192));
-                lastWriteTime.set(System.currentTimeMillis());
-                return cachedWriter;
-            } catch (IOException e) {
-                System.err.println("Failed to create log writer: " + e.getMessage());
-                return null;
+                executor.execute(DebugLogger::flushLogBuffer);
+            } catch (RejectedExecutionException e) {
+                flushScheduled.set(false);
             }
         }
     }
     
+    /**
+     * Close the log file, writing out anything still in the write buffer. Must hold LOCK.
+     */
+    private static void closeAppender() {
+        try {
+            writeOut();
+        } catch (IOException e) {
+            System.err.println("Failed to write to log file: " + e.getMessage());
+        }
+        appender.close();
+    }
+    
+    /**
+     * Encode text into the write buffer, writing it out whenever it fills up. Must hold LOCK.
+     * 
+     * @param text the text to write
+     * @throws IOException if writing fails
+     */
+    private static void write(CharSequence text) throws IOException {
+        CharBuffer chars = CharBuffer.wrap(text);
+        encoder.reset();
+        while (encoder.encode(chars, writeBuffer, true).isOverflow()) {
+            writeOut();
+        }
+        while (encoder.flush(writeBuffer).isOverflow()) {
+            writeOut();
+        }
+    }
+    
+    /**
+     * Write the contents of the write buffer to the log file. Must hold LOCK.
+     * 
+     * @throws IOException if writing fails
+     */
+    private static void writeOut() throws IOException {
+        writeBuffer.flip();
+        try {
+            appender.write(writeBuffer);
+        } finally {
+            writeBuffer.clear();
+        }
+    }
+    
     /**
      * Flush the log buffer to the log file.
      */
     private static void flushLogBuffer() {
-        if (logBuffer.isEmpty() || logFile == null) {
+        flushScheduled.set(false);
+        MpscRingBuffer<LogEntry> buffer = logBuffer;
+        if (buffer.isEmpty() || appender == null) {
             return;
         }
         
         long startTime = System.currentTimeMillis();
         int flushedCount = 0;
         
-        PrintWriter writer = getWriter();
-        if (writer == null) {
-            return;
-        }
-        
-        try {
-            LogEntry entry;
-            
-            // Process duplicate counts
-            Map<String, Integer> duplicateCounts = new ConcurrentHashMap<>();
-            
-            while ((entry = logBuffer.poll()) != null) {
-                flushedCount++;
+        synchronized (LOCK) {
+            try {
+                // Process duplicate counts
+                Map<DedupKey, Integer> duplicateCounts = new HashMap<>();
                 
-                // Format: [TIMESTAMP] [LEVEL] [SOURCE] MESSAGE
-                writer.print("[");
-                writer.print(dateFormat.format(new Date(entry.timestamp)));
-                writer.print("] [");
-                writer.print(entry.level);
-                writer.print("] [");
-                writer.print(entry.source);
-                writer.print("] ");
-                writer.println(entry.message);
+                // Drain in batches so producers that evict never wait for the disk,
+                // and stop after one buffer's worth so a steady stream can't starve the rest
+                int drained;
+                do {
+                    drained = 0;
+                    synchronized (DRAIN_LOCK) {
+                        LogEntry polled;
+                        while (drained < DRAIN_BATCH_SIZE && (polled = buffer.poll()) != null) {
+                            drainBatch[drained++] = polled;
+                        }
+                    }
+                    
+                    for (int i = 0; i < drained; i++) {
+                        LogEntry entry = drainBatch[i];
+                        drainBatch[i] = null;
+                        
+                        // Format: [TIMESTAMP] [LEVEL] [SOURCE] MESSAGE
+                        lineBuilder.setLength(0);
+                        lineBuilder.append('[').append(dateFormat.format(new Date(entry.timestamp)))
+                            .append("] [").append(entry.level)
+                            .append("] [").append(entry.source)
+                            .append("] ").append(entry.message)
+                            .append(LINE_SEPARATOR);
+                        write(lineBuilder);
+                        
+                        // Print stack trace if available
+                        if (entry.throwable != null) {
+                            StringWriter trace = new StringWriter();
+                            entry.throwable.printStackTrace(new PrintWriter(trace));
+                            trace.append(LINE_SEPARATOR);
+                            write(trace.getBuffer());
+                        }
+                        
+                        // Check for duplicates to report
+                        if (entry.dedupKey != null) {
+                            DuplicateEntry dupEntry = recentMessages.get(entry.dedupKey);
+                            if (dupEntry != null && dupEntry.count > 1) {
+                                duplicateCounts.put(entry.dedupKey, dupEntry.count);
+                            }
+                        }
+                    }
+                    flushedCount += drained;
+                } while (drained == DRAIN_BATCH_SIZE && flushedCount < buffer.capacity());
                 
-                // Print stack trace if available
-                if (entry.throwable != null) {
-                    entry.throwable.printStackTrace(writer);
-                    writer.println();
+                // Log duplicate counts
+                for (Map.Entry<DedupKey, Integer> dupe : duplicateCounts.entrySet()) {
+                    write("[" + dateFormat.format(new Date()) + "] [INFO] [" + dupe.getKey().source + 
+                            "] Last message repeated " + dupe.getValue() + " times" + LINE_SEPARATOR);
                 }
                 
-                // Check for duplicates to report
-                String key = entry.source + ":" + entry.message;
-                DuplicateEntry dupEntry = recentMessages.get(key);
-                if (dupEntry != null && dupEntry.count > 1) {
-                    duplicateCounts.put(key, dupEntry.count);
-                }
-            }
-            
-            // Log duplicate counts
-            for (Map.Entry<String, Integer> dupe : duplicateCounts.entrySet()) {
-                String[] parts = dupe.getKey().split(":", 2);
-                if (parts.length == 2) {
-                    writer.println("[" + dateFormat.format(new Date()) + "] [INFO] [" + parts[0] + 
-                            "] Last message repeated " + dupe.getValue() + " times");
-                }
-            }
-            
-            // Ensure data is written
-            writer.flush();
-            lastWriteTime.set(System.currentTimeMillis());
-            
-            // Update statistics
-            flushCount.incrementAndGet();
-            long flushTime = System.currentTimeMillis() - startTime;
-            totalFlushTime.addAndGet(flushTime);
-            
-            if (flushedCount > 0 && logger != null && isEnabled()) {
-                // Only log this in debug mode to avoid spam
-                DebugLogger.debug("Logger", "Flushed " + flushedCount + " log entries in " + flushTime + "ms");
-            }
-        } catch (Exception e) {
-            System.err.println("Failed to write to log file: " + e.getMessage());
-            
-            // Attempt to log to console instead
-            if (logger != null) {
-                logger.severe("Failed to write to log file: " + e.getMessage());
-            }
-            
-            // Close and reset the writer on error
-            synchronized (LOCK) {
-                if (cachedWriter != null) {
-                    try {
-                        cachedWriter.close();
-                    } catch (Exception ignored) {
-                        // Ignore
-                    }
-                    cachedWriter = null;
+                // Ensure data is written
+                writeOut();
+            } catch (Exception e) {
+                System.err.println("Failed to write to log file: " + e.getMessage());
+                
+                // Attempt to log to console instead
+                if (logger != null) {
+                    logger.severe("Failed to write to log file: " + e.getMessage());
                 }
+                
+                // Close the file on error, the next flush reopens it
+                writeBuffer.clear();
+                appender.close();
+                return;
             }
         }
+        
+        // Update statistics
+        flushCount.incrementAndGet();
+        long flushTime = System.currentTimeMillis() - startTime;
+        totalFlushTime.addAndGet(flushTime);
+        
+        if (flushedCount > 0 && logger != null) {
+            // Only log this in debug mode to avoid spam
+            DebugLogger.debug("Logger", "Flushed {} log entries in {}ms", flushedCount, flushTime);
+        }
+        
+        // More arrived than one pass takes, keep going on the writer thread
+        ScheduledExecutorService executor = logExecutor;
+        if (buffer.size() >= ADAPTIVE_FLUSH_THRESHOLD && executor != null && !executor.isShutdown()) {
+            requestFlush();
+        }
     }
     
     /**
@@ -589,20 +886,27 @@ public final class DebugLogger {
         long total = totalLogEntries.get();
         long skipped = skippedLogEntries.get();
         long duplicates = duplicateEntries.get();
-        int bufferSize = logBuffer.size();
+        MpscRingBuffer<LogEntry> buffer = logBuffer;
+        int bufferSize = buffer.size();
         int maxBuffer = maxBufferSize.get();
         long flushes = flushCount.get();
         long flushTimeTotal = totalFlushTime.get();
         double avgFlushTime = flushes > 0 ? (double) flushTimeTotal / flushes : 0;
         
         return String.format(
-            "Log Statistics: %d total, %d skipped (%.1f%%), %d duplicates, %d in buffer (max: %d), %d flushes (%.2fms avg)",
+            "Log Statistics: %d total, %d skipped (%.1f%%), %d duplicates, %d in buffer (max: %d of %d), "
+                + "%d dropped, %d evicted, %d blocked (%s), %d flushes (%.2fms avg)",
             total,
             skipped,
             total > 0 ? (double) skipped / total * 100 : 0,
             duplicates,
             bufferSize,
             maxBuffer,
+            buffer.capacity(),
+            droppedEntries.get(),
+            evictedEntries.get(),
+            blockedEntries.get(),
+            overflowPolicy.name().toLowerCase(Locale.ROOT),
             flushes,
             avgFlushTime
         );
@@ -617,6 +921,9 @@ public final class DebugLogger {
         duplicateEntries.set(0);
         flushCount.set(0);
         totalFlushTime.set(0);
+        droppedEntries.set(0);
+        evictedEntries.set(0);
+        blockedEntries.set(0);
         maxBufferSize.set(logBuffer.size());
     }
     
@@ -627,9 +934,8 @@ public final class DebugLogger {
         flushLogBuffer();
         
         synchronized (LOCK) {
-            if (cachedWriter != null) {
-                cachedWriter.close();
-                cachedWriter = null;
+            if (appender != null) {
+                closeAppender();
             }
         }
         
@@ -655,13 +961,47 @@ public final class DebugLogger {
         final String message;
         final Throwable throwable;
         final LogLevel level;
+        final DedupKey dedupKey;
         
-        LogEntry(long timestamp, String source, String message, Throwable throwable, LogLevel level) {
+        LogEntry(long timestamp, String source, String message, Throwable throwable, LogLevel level, DedupKey dedupKey) {
             this.timestamp = timestamp;
             this.source = source;
             this.message = message;
             this.throwable = throwable;
             this.level = level;
+            this.dedupKey = dedupKey;
+        }
+    }
+    
+    /**
+     * Key for deduplicating messages, only created for entries that pass the level check.
+     */
+    private static final class DedupKey {
+        final String source;
+        final String message;
+        private final int hash;
+        
+        DedupKey(String source, String message) {
+            this.source = source;
+            this.message = message;
+            this.hash = 31 * source.hashCode() + message.hashCode();
+        }
+        
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof DedupKey)) {
+                return false;
+            }
+            DedupKey key = (DedupKey) other;
+            return hash == key.hash && source.equals(key.source) && message.equals(key.message);
+        }
+        
+        @Override
+        public int hashCode() {
+            return hash;
         }
     }
     
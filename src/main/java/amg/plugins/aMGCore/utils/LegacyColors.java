@@ -0,0 +1,264 @@
+package amg.plugins.aMGCore.utils;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.Style;
+import net.kyori.adventure.text.format.TextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Translates legacy {@code &}/{@code §} color codes in one pass.
+ * <p>
+ * Besides the 22 classic codes this understands {@code &#RRGGBB} and the
+ * Bungee {@code §x§R§R§G§G§B§B} hex form. Text can either become MiniMessage
+ * tags, for text that may also hold tags of its own, or a {@link Component}
+ * straight away. Codes are looked up in a table indexed by the code char,
+ * so a string is scanned exactly once however many codes it has.
+ */
+public final class LegacyColors {
+    private static final int TABLE_SIZE = 256;
+    private static final String[] TAGS = new String[TABLE_SIZE];
+    private static final TextColor[] COLORS = new TextColor[TABLE_SIZE];
+    private static final TextDecoration[] DECORATIONS = new TextDecoration[TABLE_SIZE];
+    private static final int HEX_LENGTH = 6;
+    private static final int MAX_REUSED_CAPACITY = 1024;
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(128));
+
+    static {
+        color('0', "black", NamedTextColor.BLACK);
+        color('1', "dark_blue", NamedTextColor.DARK_BLUE);
+        color('2', "dark_green", NamedTextColor.DARK_GREEN);
+        color('3', "dark_aqua", NamedTextColor.DARK_AQUA);
+        color('4', "dark_red", NamedTextColor.DARK_RED);
+        color('5', "dark_purple", NamedTextColor.DARK_PURPLE);
+        color('6', "gold", NamedTextColor.GOLD);
+        color('7', "gray", NamedTextColor.GRAY);
+        color('8', "dark_gray", NamedTextColor.DARK_GRAY);
+        color('9', "blue", NamedTextColor.BLUE);
+        color('a', "green", NamedTextColor.GREEN);
+        color('b', "aqua", NamedTextColor.AQUA);
+        color('c', "red", NamedTextColor.RED);
+        color('d', "light_purple", NamedTextColor.LIGHT_PURPLE);
+        color('e', "yellow", NamedTextColor.YELLOW);
+        color('f', "white", NamedTextColor.WHITE);
+        decoration('k', "obfuscated", TextDecoration.OBFUSCATED);
+        decoration('l', "bold", TextDecoration.BOLD);
+        decoration('m', "strikethrough", TextDecoration.STRIKETHROUGH);
+        decoration('n', "underlined", TextDecoration.UNDERLINED);
+        decoration('o', "italic", TextDecoration.ITALIC);
+        TAGS['r'] = TAGS['R'] = "<reset>";
+    }
+
+    private LegacyColors() {
+    }
+
+    private static void color(char code, String tag, TextColor color) {
+        TAGS[code] = TAGS[Character.toUpperCase(code)] = "<" + tag + ">";
+        COLORS[code] = COLORS[Character.toUpperCase(code)] = color;
+    }
+
+    private static void decoration(char code, String tag, TextDecoration decoration) {
+        TAGS[code] = TAGS[Character.toUpperCase(code)] = "<" + tag + ">";
+        DECORATIONS[code] = DECORATIONS[Character.toUpperCase(code)] = decoration;
+    }
+
+    /**
+     * Replaces legacy codes with MiniMessage tags, leaving everything else,
+     * including existing tags, as it is.
+     *
+     * @param text The text, may be null
+     * @return The text with MiniMessage tags, empty if the text was null
+     */
+    @NotNull
+    public static String toMiniMessage(@Nullable String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        int first = firstMarker(text);
+        if (first < 0) {
+            return text;
+        }
+
+        StringBuilder out = borrowBuilder();
+        int length = text.length();
+        out.append(text, 0, first);
+        int i = first;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (!isMarker(c) || i + 1 >= length) {
+                out.append(c);
+                i++;
+                continue;
+            }
+
+            char code = text.charAt(i + 1);
+            int hexEnd = hexEnd(text, i);
+            if (hexEnd > 0) {
+                out.append("<#");
+                appendHexDigits(out, text, i, hexEnd);
+                out.append('>');
+                i = hexEnd;
+            } else if (code < TABLE_SIZE && TAGS[code] != null) {
+                out.append(TAGS[code]);
+                i += 2;
+            } else {
+                out.append(c);
+                i++;
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Turns legacy text into a component without going through MiniMessage.
+     * Like in the legacy format, a color code clears the decorations before
+     * it. Anything that looks like a MiniMessage tag stays plain text.
+     *
+     * @param text The text, may be null
+     * @return The component
+     */
+    @NotNull
+    public static Component toComponent(@Nullable String text) {
+        if (text == null || text.isEmpty()) {
+            return Component.empty();
+        }
+        if (firstMarker(text) < 0) {
+            return Component.text(text);
+        }
+
+        TextComponent.Builder root = Component.text();
+        StringBuilder segment = borrowBuilder();
+        TextColor color = null;
+        int decorations = 0;
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (!isMarker(c) || i + 1 >= length) {
+                segment.append(c);
+                i++;
+                continue;
+            }
+
+            char code = text.charAt(i + 1);
+            int hexEnd = hexEnd(text, i);
+            if (hexEnd > 0) {
+                flush(root, segment, color, decorations);
+                color = TextColor.color(parseHex(text, i, hexEnd));
+                decorations = 0;
+                i = hexEnd;
+            } else if (code < TABLE_SIZE && COLORS[code] != null) {
+                flush(root, segment, color, decorations);
+                color = COLORS[code];
+                decorations = 0;
+                i += 2;
+            } else if (code < TABLE_SIZE && DECORATIONS[code] != null) {
+                flush(root, segment, color, decorations);
+                decorations |= 1 << DECORATIONS[code].ordinal();
+                i += 2;
+            } else if (code == 'r' || code == 'R') {
+                flush(root, segment, color, decorations);
+                color = null;
+                decorations = 0;
+                i += 2;
+            } else {
+                segment.append(c);
+                i++;
+            }
+        }
+        flush(root, segment, color, decorations);
+        return root.build();
+    }
+
+    private static void flush(TextComponent.Builder root, StringBuilder segment, @Nullable TextColor color, int decorations) {
+        if (segment.length() == 0) {
+            return;
+        }
+        Style.Builder style = Style.style().color(color);
+        for (TextDecoration decoration : TextDecoration.values()) {
+            if ((decorations & (1 << decoration.ordinal())) != 0) {
+                style.decoration(decoration, true);
+            }
+        }
+        root.append(Component.text(segment.toString(), style.build()));
+        segment.setLength(0);
+    }
+
+    private static StringBuilder borrowBuilder() {
+        StringBuilder builder = BUILDER.get();
+        if (builder.capacity() > MAX_REUSED_CAPACITY) {
+            // Don't keep a huge buffer alive because of one long message
+            builder = new StringBuilder(128);
+            BUILDER.set(builder);
+        }
+        builder.setLength(0);
+        return builder;
+    }
+
+    private static int firstMarker(String text) {
+        int ampersand = text.indexOf('&');
+        int section = text.indexOf('§');
+        if (ampersand < 0) {
+            return section;
+        }
+        return section < 0 ? ampersand : Math.min(ampersand, section);
+    }
+
+    private static boolean isMarker(char c) {
+        return c == '&' || c == '§';
+    }
+
+    /**
+     * Gets the end of a hex color starting at a marker, either
+     * {@code &#RRGGBB} or {@code &x&R&R&G&G&B&B}.
+     *
+     * @return The index after the code, or -1 if there is no hex color here
+     */
+    private static int hexEnd(String text, int marker) {
+        char kind = text.charAt(marker + 1);
+        if (kind == '#') {
+            int end = marker + 2 + HEX_LENGTH;
+            if (end > text.length()) {
+                return -1;
+            }
+            for (int i = marker + 2; i < end; i++) {
+                if (Character.digit(text.charAt(i), 16) < 0) {
+                    return -1;
+                }
+            }
+            return end;
+        }
+        if (kind == 'x' || kind == 'X') {
+            int end = marker + 2 + HEX_LENGTH * 2;
+            if (end > text.length()) {
+                return -1;
+            }
+            for (int i = marker + 2; i < end; i += 2) {
+                if (!isMarker(text.charAt(i)) || Character.digit(text.charAt(i + 1), 16) < 0) {
+                    return -1;
+                }
+            }
+            return end;
+        }
+        return -1;
+    }
+
+    private static void appendHexDigits(StringBuilder out, String text, int marker, int end) {
+        boolean bungee = text.charAt(marker + 1) != '#';
+        for (int i = marker + (bungee ? 3 : 2); i < end; i += bungee ? 2 : 1) {
+            out.append(Character.toLowerCase(text.charAt(i)));
+        }
+    }
+
+    private static int parseHex(String text, int marker, int end) {
+        boolean bungee = text.charAt(marker + 1) != '#';
+        int value = 0;
+        for (int i = marker + (bungee ? 3 : 2); i < end; i += bungee ? 2 : 1) {
+            value = (value << 4) | Character.digit(text.charAt(i), 16);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,237 @@
+package amg.plugins.aMGCore.utils;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses and deletes the rolled files of one log in the background.
+ * <p>
+ * A log is every file in a directory named {@code <prefix>...<extension>},
+ * plus its compressed {@code .gz} copies. Rolled files are gzip-compressed
+ * once they are old enough, then the oldest files are deleted until the log
+ * is within its age and size limits. The file still being written and the
+ * newest file are never touched. All logs share one low-priority thread, so compression never runs
+ * on a writer or the main thread.
+ */
+public final class LogRetention {
+    private static final String COMPRESSED_EXTENSION = ".gz";
+    private static final Object EXECUTOR_LOCK = new Object();
+    private static ExecutorService executor;
+
+    private final File directory;
+    private final String prefix;
+    private final String extension;
+    private final long compressAfterMillis;
+    private final long maxAgeMillis;
+    private final long maxTotalBytes;
+    private final String[] sidecarExtensions;
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    private volatile File active;
+
+    /**
+     * Creates the retention policy of one log.
+     *
+     * @param directory The directory holding the log files
+     * @param prefix The file name prefix, e.g. "debug-"
+     * @param extension The extension of uncompressed files, e.g. ".log"
+     * @param compressAfterMillis Age after which rolled files are compressed, 0 compresses them right away
+     * @param maxAgeMillis Age after which files are deleted, 0 keeps them forever
+     * @param maxTotalBytes Size of all files after which the oldest are deleted, 0 for no limit
+     * @param sidecarExtensions Extensions of files that belong to a log file, deleted with it
+     */
+    public LogRetention(@NotNull File directory, @NotNull String prefix, @NotNull String extension,
+                        long compressAfterMillis, long maxAgeMillis, long maxTotalBytes,
+                        @NotNull String... sidecarExtensions) {
+        this.directory = directory;
+        this.prefix = prefix;
+        this.extension = extension;
+        this.compressAfterMillis = Math.max(0L, compressAfterMillis);
+        this.maxAgeMillis = Math.max(0L, maxAgeMillis);
+        this.maxTotalBytes = Math.max(0L, maxTotalBytes);
+        this.sidecarExtensions = sidecarExtensions.clone();
+    }
+
+    /**
+     * Applies the policy on the retention thread. Requests made while one
+     * is already waiting are merged into it.
+     *
+     * @param active The file now being written, or null if there is none
+     */
+    public void schedule(@Nullable File active) {
+        this.active = active;
+        if (!scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            getExecutor().execute(() -> {
+                scheduled.set(false);
+                apply(this.active);
+            });
+        } catch (RejectedExecutionException e) {
+            scheduled.set(false);
+        }
+    }
+
+    /**
+     * Applies the policy on the calling thread.
+     *
+     * @param active The file still being written, or null if there is none
+     */
+    public void apply(@Nullable File active) {
+        File[] found = directory.listFiles((dir, name) -> name.startsWith(prefix)
+            && (name.endsWith(extension) || name.endsWith(extension + COMPRESSED_EXTENSION)));
+        if (found == null || found.length == 0) {
+            return;
+        }
+
+        // The newest file may have been opened after the active one was passed in
+        File newest = found[0];
+        for (File file : found) {
+            if (file.lastModified() > newest.lastModified()) {
+                newest = file;
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        List<File> files = new ArrayList<>(Arrays.asList(found));
+        File protectedNewest = newest;
+        files.removeIf(file -> file.equals(active) || file.equals(protectedNewest));
+
+        // Compress first so the size limit counts compressed sizes
+        for (int i = 0; i < files.size(); i++) {
+            File file = files.get(i);
+            if (file.getName().endsWith(extension) && now - file.lastModified() >= compressAfterMillis) {
+                File compressed = compress(file);
+                if (compressed != null) {
+                    files.set(i, compressed);
+                }
+            }
+        }
+
+        // Oldest first
+        files.sort(Comparator.comparingLong(File::lastModified));
+        long total = protectedNewest.length() + (active != null && !active.equals(protectedNewest) ? active.length() : 0L);
+        for (File file : files) {
+            total += file.length();
+        }
+
+        for (File file : files) {
+            boolean expired = maxAgeMillis > 0 && now - file.lastModified() > maxAgeMillis;
+            boolean overSize = maxTotalBytes > 0 && total > maxTotalBytes;
+            if (!expired && !overSize) {
+                break;
+            }
+            long length = file.length();
+            if (delete(file)) {
+                total -= length;
+            }
+        }
+    }
+
+    @Nullable
+    private File compress(File file) {
+        File compressed = new File(file.getPath() + COMPRESSED_EXTENSION);
+        File temp = new File(compressed.getPath() + ".tmp");
+        try (InputStream in = new FileInputStream(file);
+             OutputStream out = new GZIPOutputStream(new FileOutputStream(temp), 64 * 1024)) {
+            in.transferTo(out);
+        } catch (IOException e) {
+            DebugLogger.warning("LogRetention", "Failed to compress " + file.getName() + ": " + e.getMessage());
+            temp.delete();
+            return null;
+        }
+
+        try {
+            // Keep the original time so age limits still apply to it
+            temp.setLastModified(file.lastModified());
+            Files.move(temp.toPath(), compressed.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            DebugLogger.warning("LogRetention", "Failed to compress " + file.getName() + ": " + e.getMessage());
+            temp.delete();
+            return null;
+        }
+        if (!file.delete() && file.exists()) {
+            DebugLogger.warning("LogRetention", "Failed to delete compressed log file " + file.getName());
+        }
+        deleteSidecars(file);
+        return compressed;
+    }
+
+    private boolean delete(File file) {
+        String name = file.getName();
+        File original = name.endsWith(COMPRESSED_EXTENSION)
+            ? new File(file.getParentFile(), name.substring(0, name.length() - COMPRESSED_EXTENSION.length()))
+            : file;
+        if (!file.delete() && file.exists()) {
+            DebugLogger.warning("LogRetention", "Failed to delete old log file " + name);
+            return false;
+        }
+        deleteSidecars(original);
+        return true;
+    }
+
+    private void deleteSidecars(File file) {
+        for (String sidecar : sidecarExtensions) {
+            File sidecarFile = new File(file.getPath() + sidecar);
+            if (sidecarFile.exists() && !sidecarFile.delete()) {
+                DebugLogger.warning("LogRetention", "Failed to delete " + sidecarFile.getName());
+            }
+        }
+    }
+
+    private static ExecutorService getExecutor() {
+        synchronized (EXECUTOR_LOCK) {
+            if (executor == null || executor.isShutdown()) {
+                executor = Executors.newSingleThreadExecutor(r -> {
+                    Thread t = new Thread(r, "AMGCore-LogRetention");
+                    t.setDaemon(true);
+                    t.setPriority(Thread.MIN_PRIORITY);
+                    return t;
+                });
+            }
+            return executor;
+        }
+    }
+
+    /**
+     * Stops the retention thread, letting the current file finish compressing.
+     */
+    public static void shutdown() {
+        ExecutorService current;
+        synchronized (EXECUTOR_LOCK) {
+            current = executor;
+            executor = null;
+        }
+        if (current == null) {
+            return;
+        }
+        current.shutdown();
+        try {
+            if (!current.awaitTermination(10, TimeUnit.SECONDS)) {
+                current.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            current.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package amg.plugins.aMGCore.utils;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Appends to {@code <prefix>-<date>.<extension>} through one long-lived
+ * channel, rolling to a new file when the day changes or the file reaches
+ * its size limit. Files rolled on the same day are numbered
+ * {@code <prefix>-<date>.1<extension>}, {@code .2} and so on. Opening a
+ * file hands the finished ones to the {@link LogRetention} policy.
+ * <p>
+ * Not thread-safe, callers serialize their writes.
+ */
+public final class RollingFileAppender {
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ISO_LOCAL_DATE;
+
+    private final File directory;
+    private final String prefix;
+    private final String extension;
+    private final long maxFileBytes;
+    private final LogRetention retention;
+
+    private FileChannel channel;
+    private File file;
+    private LocalDate day;
+    private long size;
+    private boolean resumed;
+
+    /**
+     * Creates an appender. No file is opened before the first write.
+     *
+     * @param directory The directory to write to
+     * @param prefix The file name prefix, e.g. "debug"
+     * @param extension The file extension, e.g. ".log"
+     * @param maxFileBytes Size after which the file rolls
+     * @param retention The policy applied to rolled files
+     */
+    public RollingFileAppender(@NotNull File directory, @NotNull String prefix, @NotNull String extension,
+                               long maxFileBytes, @NotNull LogRetention retention) {
+        this.directory = directory;
+        this.prefix = prefix;
+        this.extension = extension;
+        this.maxFileBytes = Math.max(1024L, maxFileBytes);
+        this.retention = retention;
+    }
+
+    /**
+     * Writes the remaining bytes of a buffer, rolling first if needed.
+     *
+     * @param data The bytes to write
+     * @throws IOException If the file can't be opened or written
+     */
+    public void write(@NotNull ByteBuffer data) throws IOException {
+        int incoming = data.remaining();
+        if (incoming == 0) {
+            return;
+        }
+
+        LocalDate today = LocalDate.now();
+        if (channel != null && (!today.equals(day) || (size > 0 && size + incoming > maxFileBytes))) {
+            roll();
+        }
+        if (channel == null) {
+            open(today);
+        }
+
+        while (data.hasRemaining()) {
+            size += channel.write(data);
+        }
+    }
+
+    /**
+     * Closes the current file. The next write opens a new one and hands the
+     * rolled files to the retention policy.
+     */
+    public void roll() {
+        closeChannel();
+    }
+
+    /**
+     * Gets the file being written, or null if none is open.
+     */
+    @Nullable
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Closes the current file without rolling. Writing again reopens it.
+     */
+    public void close() {
+        closeChannel();
+    }
+
+    private void open(LocalDate today) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Failed to create log directory " + directory);
+        }
+
+        String base = prefix + "-" + DATE.format(today);
+        File candidate = new File(directory, base + extension);
+        File newest = null;
+        int counter = 1;
+        while (candidate.exists() || new File(candidate.getPath() + ".gz").exists()) {
+            newest = candidate;
+            candidate = new File(directory, base + "." + counter++ + extension);
+        }
+
+        // Continue the newest file of today after a restart if it still has room
+        File target = candidate;
+        if (!resumed && newest != null && newest.isFile() && newest.length() < maxFileBytes) {
+            target = newest;
+        }
+        resumed = true;
+
+        channel = FileChannel.open(target.toPath(),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        file = target;
+        day = today;
+        size = channel.size();
+
+        // Compress the rolled file, and whatever piled up while the server was down
+        retention.schedule(file);
+    }
+
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.force(false);
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close log file " + file.getName() + ": " + e.getMessage());
+            }
+        }
+        channel = null;
+        file = null;
+    }
+}